@@ -0,0 +1,41 @@
+package com.johnny.datastructure;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @author johnnyhao
+ *
+ * 基准测试启动类
+ *
+ * 接受与JMH命令行相同的参数，未指定结果格式时默认以JSON格式输出到jmh-result.json，便于不同提交之间对比结果
+ *
+ * java -jar benchmark/target/benchmarks.jar SortBenchmark -p size=1000,100000 -rff sort.json
+ */
+public class BenchmarkRunner {
+
+    /**
+     * 默认结果文件
+     */
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws Exception {
+        // 解析JMH命令行参数
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        ChainedOptionsBuilder optionsBuilder = new OptionsBuilder().parent(commandLineOptions);
+
+        // 未指定结果格式则输出JSON
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            optionsBuilder.resultFormat(ResultFormatType.JSON);
+        }
+        // 未指定结果文件则输出到默认文件
+        if (!commandLineOptions.getResult().hasValue()) {
+            optionsBuilder.result(DEFAULT_RESULT_FILE);
+        }
+
+        new Runner(optionsBuilder.build()).run();
+    }
+}
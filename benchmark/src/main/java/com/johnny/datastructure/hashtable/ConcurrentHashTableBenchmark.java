@@ -0,0 +1,125 @@
+package com.johnny.datastructure.hashtable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author johnnyhao
+ *
+ * 并发哈希表基准测试
+ *
+ * - 90%读、10%写的混合负载，键在预填充范围内均匀随机，写入既有替换也有新增
+ * - 对比全局锁的HashMap(当前写线程共用一把锁的做法)和JDK的ConcurrentHashMap
+ * - 线程数默认取CPU核数，观察扩展性时用 -t 1、-t 2 ... -t 32 分别运行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(Threads.MAX)
+public class ConcurrentHashTableBenchmark {
+
+    /**
+     * 预填充元素个数
+     */
+    @Param({"100000", "1000000"})
+    public int size;
+
+    /**
+     * 写操作比例，百分比
+     */
+    @Param({"10"})
+    public int writePercent;
+
+    /**
+     * 并发哈希表
+     */
+    private ConcurrentHashTable<Integer> hashTable;
+
+    /**
+     * 全局锁的HashMap
+     */
+    private Map<Integer, Integer> synchronizedMap;
+
+    /**
+     * JDK并发哈希表
+     */
+    private ConcurrentHashMap<Integer, Integer> concurrentHashMap;
+
+    /**
+     * 预填充，键的范围是元素个数的两倍，写操作一半是新增
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        hashTable = new ConcurrentHashTable<>();
+        synchronizedMap = Collections.synchronizedMap(new HashMap<>());
+        concurrentHashMap = new ConcurrentHashMap<>();
+        for (int i = 0; i < size * 2; i += 2) {
+            hashTable.put(i, i);
+            synchronizedMap.put(i, i);
+            concurrentHashMap.put(i, i);
+        }
+    }
+
+    /**
+     * 并发哈希表
+     * @return 读到的值
+     */
+    @Benchmark
+    public Integer concurrentHashTable() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int key = random.nextInt(size * 2);
+        if (random.nextInt(100) < writePercent) {
+            return hashTable.put(key, key);
+        }
+        return hashTable.get(key);
+    }
+
+    /**
+     * 全局锁的HashMap
+     * @return 读到的值
+     */
+    @Benchmark
+    public Integer synchronizedHashMap() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int key = random.nextInt(size * 2);
+        if (random.nextInt(100) < writePercent) {
+            return synchronizedMap.put(key, key);
+        }
+        return synchronizedMap.get(key);
+    }
+
+    /**
+     * JDK并发哈希表
+     * @return 读到的值
+     */
+    @Benchmark
+    public Integer concurrentHashMap() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int key = random.nextInt(size * 2);
+        if (random.nextInt(100) < writePercent) {
+            return concurrentHashMap.put(key, key);
+        }
+        return concurrentHashMap.get(key);
+    }
+}
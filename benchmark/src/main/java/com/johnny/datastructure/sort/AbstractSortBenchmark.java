@@ -0,0 +1,92 @@
+package com.johnny.datastructure.sort;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author johnnyhao
+ *
+ * 排序基准测试基类
+ *
+ * - 每轮试验按固定种子生成一次原始数据，保证不同提交之间输入一致
+ * - 基准方法开头调用reset将原始数据拷贝到工作数组，排序始终作用在未排序的数据上
+ *   不用@Setup(Level.Invocation)，小规模时每次调用的计时开销会超过排序本身
+ * - copy只拷贝不排序，作为基线，排序耗时需减去同规模下copy的耗时
+ * - 基准方法返回排序后的数组，防止JIT消除死代码
+ *
+ * 默认规模覆盖1e3到1e7，平方级排序的子类将规模限制在1e5以内，需要时可通过 -p size=... 覆盖
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public abstract class AbstractSortBenchmark {
+
+    /**
+     * 随机数种子
+     */
+    private static final long SEED = 20200101L;
+
+    /**
+     * 数据分布
+     */
+    @Param({"RANDOM", "SORTED", "REVERSED", "FEW_UNIQUE", "ORGAN_PIPE"})
+    public Distribution distribution;
+
+    /**
+     * 原始数据
+     */
+    protected int[] source;
+
+    /**
+     * 工作数组
+     */
+    protected int[] array;
+
+    /**
+     * 数组长度，由子类声明@Param
+     * @return 数组长度
+     */
+    protected abstract int size();
+
+    /**
+     * 生成原始数据
+     */
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        source = distribution.generate(size(), new Random(SEED));
+        array = new int[source.length];
+    }
+
+    /**
+     * 只拷贝原始数据，作为排序耗时的基线
+     * @return 工作数组
+     */
+    @Benchmark
+    public int[] copy() {
+        reset();
+        return array;
+    }
+
+    /**
+     * 拷贝原始数据到工作数组，每个基准方法开头调用
+     */
+    protected void reset() {
+        System.arraycopy(source, 0, array, 0, source.length);
+    }
+}
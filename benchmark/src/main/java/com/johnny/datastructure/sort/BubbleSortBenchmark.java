@@ -0,0 +1,45 @@
+package com.johnny.datastructure.sort;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * @author johnnyhao
+ *
+ * 冒泡排序基准测试
+ */
+public class BubbleSortBenchmark extends AbstractSortBenchmark {
+
+    /**
+     * 数组长度
+     */
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Override
+    protected int size() {
+        return size;
+    }
+
+    /**
+     * 冒泡排序
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] sort() {
+        reset();
+        BubbleSort.sort(array);
+        return array;
+    }
+
+    /**
+     * 冒泡排序优化
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] sortImprove() {
+        reset();
+        BubbleSort.sortImprove(array);
+        return array;
+    }
+}
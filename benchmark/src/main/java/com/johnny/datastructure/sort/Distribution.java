@@ -0,0 +1,94 @@
+package com.johnny.datastructure.sort;
+
+import java.util.Random;
+
+/**
+ * @author johnnyhao
+ *
+ * 基准测试输入数据分布
+ */
+public enum Distribution {
+    /**
+     * 随机
+     * 只生成非负数，保证不支持负数的基数排序也能参与对比
+     */
+    RANDOM {
+        @Override
+        public int[] generate(int size, Random random) {
+            int[] array = new int[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = random.nextInt(Integer.MAX_VALUE);
+            }
+            return array;
+        }
+    },
+
+    /**
+     * 升序
+     */
+    SORTED {
+        @Override
+        public int[] generate(int size, Random random) {
+            int[] array = new int[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = i;
+            }
+            return array;
+        }
+    },
+
+    /**
+     * 降序
+     */
+    REVERSED {
+        @Override
+        public int[] generate(int size, Random random) {
+            int[] array = new int[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = size - i;
+            }
+            return array;
+        }
+    },
+
+    /**
+     * 少量不同值，大量重复
+     */
+    FEW_UNIQUE {
+        @Override
+        public int[] generate(int size, Random random) {
+            int[] array = new int[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = random.nextInt(FEW_UNIQUE_VALUES);
+            }
+            return array;
+        }
+    },
+
+    /**
+     * 管风琴形，前半升序后半降序
+     */
+    ORGAN_PIPE {
+        @Override
+        public int[] generate(int size, Random random) {
+            int[] array = new int[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = Math.min(i, size - 1 - i);
+            }
+            return array;
+        }
+    };
+
+    /**
+     * 少量不同值分布中不同值的个数
+     */
+    private static final int FEW_UNIQUE_VALUES = 16;
+
+    /**
+     * 生成数据
+     * @param size 数组长度
+     * @param random 随机数生成器
+     * @return 数组
+     */
+    public abstract int[] generate(int size, Random random);
+}
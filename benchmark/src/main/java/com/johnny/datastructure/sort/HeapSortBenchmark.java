@@ -0,0 +1,71 @@
+package com.johnny.datastructure.sort;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * @author johnnyhao
+ *
+ * 堆排序基准测试
+ *
+ * 规模扩展到1e8，对比二叉堆与多叉堆在超出缓存的数组上的表现，1e8个int的原始数据和工作数组共需800MB堆内存
+ */
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+public class HeapSortBenchmark extends AbstractSortBenchmark {
+
+    /**
+     * 数组长度
+     */
+    @Param({"1000", "10000", "100000", "1000000", "10000000", "100000000"})
+    public int size;
+
+    @Override
+    protected int size() {
+        return size;
+    }
+
+    /**
+     * 堆排序
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] sort() {
+        reset();
+        HeapSort.sort(array);
+        return array;
+    }
+
+    /**
+     * 自底向上二叉堆排序
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] sortBottomUp() {
+        reset();
+        HeapSort.sortBottomUp(array);
+        return array;
+    }
+
+    /**
+     * 自底向上4叉堆排序
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] sortQuaternary() {
+        reset();
+        HeapSort.sortBottomUp(array, 4);
+        return array;
+    }
+
+    /**
+     * 自底向上8叉堆排序
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] sortOctonary() {
+        reset();
+        HeapSort.sortBottomUp(array, 8);
+        return array;
+    }
+}
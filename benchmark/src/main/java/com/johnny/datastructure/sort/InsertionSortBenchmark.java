@@ -0,0 +1,34 @@
+package com.johnny.datastructure.sort;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * @author johnnyhao
+ *
+ * 插入排序基准测试
+ */
+public class InsertionSortBenchmark extends AbstractSortBenchmark {
+
+    /**
+     * 数组长度
+     */
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Override
+    protected int size() {
+        return size;
+    }
+
+    /**
+     * 插入排序
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] sort() {
+        reset();
+        InsertionSort.sort(array);
+        return array;
+    }
+}
@@ -0,0 +1,74 @@
+package com.johnny.datastructure.sort;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author johnnyhao
+ *
+ * 归并排序基准测试
+ */
+public class MergeSortBenchmark extends AbstractSortBenchmark {
+
+    /**
+     * 数组长度
+     */
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    /**
+     * 临时数组
+     */
+    private int[] temp;
+
+    @Override
+    protected int size() {
+        return size;
+    }
+
+    /**
+     * 初始化临时数组
+     */
+    @Setup(Level.Trial)
+    public void setupTemp() {
+        temp = new int[size];
+    }
+
+    /**
+     * 归并排序
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] sort() {
+        reset();
+        MergeSort.sort(array, temp, 0, array.length - 1);
+        return array;
+    }
+
+    /**
+     * 并行归并排序
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] parallelSort() {
+        reset();
+        MergeSort.parallelSort(array, ForkJoinPool.commonPool());
+        return array;
+    }
+
+    /**
+     * JDK并行排序，作为并行归并排序的对照
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] arraysParallelSort() {
+        reset();
+        Arrays.parallelSort(array);
+        return array;
+    }
+}
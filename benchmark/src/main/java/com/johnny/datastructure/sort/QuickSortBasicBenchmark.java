@@ -0,0 +1,38 @@
+package com.johnny.datastructure.sort;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * @author johnnyhao
+ *
+ * 未优化快速排序基准测试
+ *
+ * 以最左侧元素为基准数，有序、逆序输入每次只划分出一个元素，递归深度为n
+ * 默认线程栈在逆序3e4、有序1e5时就会栈溢出，因此规模限制在1e4以内，所有数据分布都能完成
+ * 更大规模的对比使用QuickSortBenchmark中的优化版本
+ */
+public class QuickSortBasicBenchmark extends AbstractSortBenchmark {
+
+    /**
+     * 数组长度
+     */
+    @Param({"1000", "10000"})
+    public int size;
+
+    @Override
+    protected int size() {
+        return size;
+    }
+
+    /**
+     * 快速排序
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] sort() {
+        reset();
+        QuickSort.sort(array, 0, array.length - 1);
+        return array;
+    }
+}
@@ -0,0 +1,36 @@
+package com.johnny.datastructure.sort;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * @author johnnyhao
+ *
+ * 快速排序基准测试
+ *
+ * 未优化的QuickSort.sort在有序、逆序输入上递归深度为n，1e5以上会栈溢出，单独放在QuickSortBasicBenchmark中以较小规模测试
+ */
+public class QuickSortBenchmark extends AbstractSortBenchmark {
+
+    /**
+     * 数组长度
+     */
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Override
+    protected int size() {
+        return size;
+    }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] sortImprove() {
+        reset();
+        QuickSort.sortImprove(array);
+        return array;
+    }
+}
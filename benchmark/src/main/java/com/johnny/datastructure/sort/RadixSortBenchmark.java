@@ -0,0 +1,80 @@
+package com.johnny.datastructure.sort;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author johnnyhao
+ *
+ * 基数排序基准测试
+ */
+public class RadixSortBenchmark extends AbstractSortBenchmark {
+
+    /**
+     * 数组长度
+     */
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Override
+    protected int size() {
+        return size;
+    }
+
+    /**
+     * 基数排序
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] sort() {
+        reset();
+        RadixSort.sort(array);
+        return array;
+    }
+
+    /**
+     * 基数排序方法1改进
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] sortImprove1() {
+        reset();
+        RadixSort.sortImprove1(array);
+        return array;
+    }
+
+    /**
+     * 基数排序方法2改进
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] sortImprove2() {
+        reset();
+        RadixSort.sortImprove2(array);
+        return array;
+    }
+
+    /**
+     * 按字节的LSD基数排序
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] lsdSort() {
+        reset();
+        RadixSort.lsdSort(array);
+        return array;
+    }
+
+    /**
+     * 并行MSD基数排序
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] parallelSort() {
+        reset();
+        ParallelRadixSort.sort(array, ForkJoinPool.commonPool());
+        return array;
+    }
+}
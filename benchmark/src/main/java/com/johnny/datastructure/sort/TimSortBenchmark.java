@@ -0,0 +1,62 @@
+package com.johnny.datastructure.sort;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * @author johnnyhao
+ *
+ * TimSort基准测试
+ *
+ * 与归并排序对比有序、逆序和管风琴形等包含长有序段的输入
+ */
+public class TimSortBenchmark extends AbstractSortBenchmark {
+
+    /**
+     * 数组长度
+     */
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    /**
+     * 归并排序的临时数组
+     */
+    private int[] temp;
+
+    @Override
+    protected int size() {
+        return size;
+    }
+
+    /**
+     * 初始化临时数组
+     */
+    @Setup(Level.Trial)
+    public void setupTemp() {
+        temp = new int[size];
+    }
+
+    /**
+     * TimSort
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] sort() {
+        reset();
+        TimSort.sort(array);
+        return array;
+    }
+
+    /**
+     * 归并排序，作为TimSort的对照，与MergeSortBenchmark.sort相同
+     * @return 排序后的数组
+     */
+    @Benchmark
+    public int[] mergeSort() {
+        reset();
+        MergeSort.sort(array, temp, 0, array.length - 1);
+        return array;
+    }
+}
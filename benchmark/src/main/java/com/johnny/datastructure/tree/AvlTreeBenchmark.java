@@ -0,0 +1,158 @@
+package com.johnny.datastructure.tree;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author johnnyhao
+ *
+ * AVL树基准测试
+ *
+ * - 随机键和升序键分别测试逐个添加构建整棵树的耗时，升序键每次添加都会触发旋转
+ * - 在构建好的树上按随机顺序查找全部键
+ * - 对比java.util.TreeMap(红黑树)，BinaryBalanceTreeImpl添加是O(n)，见BinaryBalanceTreeBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AvlTreeBenchmark {
+
+    /**
+     * 元素个数
+     */
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    /**
+     * 是否升序添加
+     */
+    @Param({"false", "true"})
+    public boolean ascending;
+
+    /**
+     * 添加顺序的键
+     */
+    private int[] keys;
+
+    /**
+     * 查找顺序的键
+     */
+    private int[] lookupKeys;
+
+    /**
+     * 构建好的AVL树
+     */
+    private AvlTree avlTree;
+
+    /**
+     * 构建好的TreeMap
+     */
+    private TreeMap<Integer, Integer> treeMap;
+
+    /**
+     * 生成键并预先构建用于查找的树
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        keys = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = i;
+        }
+        lookupKeys = keys.clone();
+        Random random = new Random(size);
+        shuffle(lookupKeys, random);
+        if (!ascending) {
+            shuffle(keys, random);
+        }
+
+        avlTree = avlTreeBuild();
+        treeMap = treeMapBuild();
+    }
+
+    /**
+     * AVL树构建
+     * @return AVL树
+     */
+    @Benchmark
+    public AvlTree avlTreeBuild() {
+        AvlTree tree = new AvlTree();
+        for (int key : keys) {
+            tree.add(key);
+        }
+        return tree;
+    }
+
+    /**
+     * TreeMap构建
+     * @return TreeMap
+     */
+    @Benchmark
+    public TreeMap<Integer, Integer> treeMapBuild() {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        for (int key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    /**
+     * AVL树查找全部键
+     * @return 找到的个数
+     */
+    @Benchmark
+    public int avlTreeLookup() {
+        int found = 0;
+        for (int key : lookupKeys) {
+            if (avlTree.contains(key)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * TreeMap查找全部键
+     * @return 找到的个数
+     */
+    @Benchmark
+    public int treeMapLookup() {
+        int found = 0;
+        for (int key : lookupKeys) {
+            if (treeMap.containsKey(key)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 洗牌
+     * @param array 数组
+     * @param random 随机数
+     */
+    static void shuffle(int[] array, Random random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = array[i];
+            array[i] = array[j];
+            array[j] = temp;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.johnny.datastructure.tree;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author johnnyhao
+ *
+ * 平衡二叉树(BinaryBalanceTreeImpl)基准测试
+ *
+ * 每次添加都递归计算子树高度，构建是O(n^2)，规模只到1e4，与AvlTreeBenchmark同规模的结果对照
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BinaryBalanceTreeBenchmark {
+
+    /**
+     * 元素个数
+     */
+    @Param({"1000", "10000"})
+    public int size;
+
+    /**
+     * 是否升序添加
+     */
+    @Param({"false", "true"})
+    public boolean ascending;
+
+    /**
+     * 添加顺序的键
+     */
+    private int[] keys;
+
+    /**
+     * 生成键
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        keys = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = i;
+        }
+        if (!ascending) {
+            AvlTreeBenchmark.shuffle(keys, new Random(size));
+        }
+    }
+
+    /**
+     * 平衡二叉树构建
+     * @return 根节点的值
+     */
+    @Benchmark
+    public int build() {
+        BinaryBalanceTreeImpl tree = new BinaryBalanceTreeImpl();
+        tree.build(keys);
+        return tree.getRoot().getId();
+    }
+}
@@ -0,0 +1,110 @@
+package com.johnny.datastructure.tree;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author johnnyhao
+ *
+ * 并发跳表基准测试
+ *
+ * - 读写混合负载，键在预填充范围的两倍内均匀随机，写操作一半添加一半删除，元素个数保持稳定
+ * - 对比JDK的ConcurrentSkipListMap
+ * - 线程数默认取CPU核数，观察扩展性时用 -t 1、-t 2 ... -t 32 分别运行
+ * - get不分配对象；put和remove每次分配两个16长度的前驱和后继数组，写比例越高分配越多，可加 -prof gc 观察分配速率
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(Threads.MAX)
+public class ConcurrentSkipListIntMapBenchmark {
+
+    /**
+     * 预填充元素个数
+     */
+    @Param({"100000", "1000000"})
+    public int size;
+
+    /**
+     * 写操作比例，百分比
+     */
+    @Param({"10", "50"})
+    public int writePercent;
+
+    /**
+     * 并发跳表
+     */
+    private ConcurrentSkipListIntMap<Integer> skipList;
+
+    /**
+     * JDK并发跳表
+     */
+    private ConcurrentSkipListMap<Integer, Integer> concurrentSkipListMap;
+
+    /**
+     * 预填充，键的范围是元素个数的两倍
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        skipList = new ConcurrentSkipListIntMap<>();
+        concurrentSkipListMap = new ConcurrentSkipListMap<>();
+        for (int i = 0; i < size * 2; i += 2) {
+            skipList.put(i, i);
+            concurrentSkipListMap.put(i, i);
+        }
+    }
+
+    /**
+     * 并发跳表
+     * @return 读到或删除的值
+     */
+    @Benchmark
+    public Integer concurrentSkipListIntMap() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int key = random.nextInt(size * 2);
+        int operation = random.nextInt(200);
+        if (operation < writePercent) {
+            return skipList.put(key, key);
+        }
+        if (operation < writePercent * 2) {
+            return skipList.remove(key);
+        }
+        return skipList.get(key);
+    }
+
+    /**
+     * JDK并发跳表
+     * @return 读到或删除的值
+     */
+    @Benchmark
+    public Integer concurrentSkipListMap() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int key = random.nextInt(size * 2);
+        int operation = random.nextInt(200);
+        if (operation < writePercent) {
+            return concurrentSkipListMap.put(key, key);
+        }
+        if (operation < writePercent * 2) {
+            return concurrentSkipListMap.remove(key);
+        }
+        return concurrentSkipListMap.get(key);
+    }
+}
@@ -0,0 +1,133 @@
+package com.johnny.datastructure.tree;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author johnnyhao
+ *
+ * 哈夫曼解码基准测试
+ *
+ * 每次解码约1MB，吞吐量ops/s即解码速度MB/s
+ * - tableDecode：HuffmanCodec.decompress，查表解码
+ * - legacyDecompress：HuffmanCodingImpl.decompress，逐位截取字符串到Map中查找
+ *
+ * HuffmanCodingImpl会打印整个编码字符串，测试期间标准输出被替换为丢弃输出
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class HuffmanDecodeBenchmark {
+
+    /**
+     * 原数据长度
+     */
+    private static final int SIZE = 1 << 20;
+
+    /**
+     * 原来的标准输出
+     */
+    private PrintStream out;
+
+    /**
+     * HuffmanCodec压缩数据
+     */
+    private byte[] huffmanBytes;
+
+    /**
+     * HuffmanCodingImpl
+     */
+    private HuffmanCodingImpl huffmanCoding;
+
+    /**
+     * HuffmanCodingImpl编码表
+     */
+    private Map<Byte, String> huffmanCodingMap;
+
+    /**
+     * HuffmanCodingImpl压缩数据
+     */
+    private byte[] huffmanCodingBytes;
+
+    /**
+     * 生成偏斜分布的字母，两种实现分别压缩
+     * @throws IOException 解压缩结果不一致
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+
+        Random random = new Random(SIZE);
+        byte[] bytes = new byte[SIZE];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ('a' + Math.min(25, (int) (-Math.log(random.nextDouble()) * 3)));
+        }
+
+        huffmanCoding = new HuffmanCodingImpl();
+        huffmanCodingMap = huffmanCoding.toHuffmanCoding(huffmanCoding.buildHuffmanTree(bytes));
+        huffmanCodingBytes = huffmanCoding.compress(bytes, huffmanCodingMap);
+        huffmanBytes = HuffmanCodec.compress(bytes);
+
+        if (!Arrays.equals(bytes, HuffmanCodec.decompress(huffmanBytes))
+                || !Arrays.equals(bytes, huffmanCoding.decompress(huffmanCodingBytes, huffmanCodingMap))) {
+            throw new IOException("解压缩结果不一致");
+        }
+    }
+
+    /**
+     * 恢复标准输出
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(out);
+    }
+
+    /**
+     * 查表解码
+     * @return 原数据
+     * @throws IOException 压缩数据不正确
+     */
+    @Benchmark
+    public byte[] tableDecode() throws IOException {
+        return HuffmanCodec.decompress(huffmanBytes);
+    }
+
+    /**
+     * 逐位截取字符串查找
+     * @return 原数据
+     */
+    @Benchmark
+    public byte[] legacyDecompress() {
+        return huffmanCoding.decompress(huffmanCodingBytes, huffmanCodingMap);
+    }
+}
@@ -0,0 +1,142 @@
+package com.johnny.datastructure.tree;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author johnnyhao
+ *
+ * 哈夫曼文件压缩基准测试
+ *
+ * 比较HuffmanCodec的输入输出流与MappedHuffmanCodec的映射内存和直接缓冲区，两者的压缩文件格式相同
+ * 原文件默认1GB，由16个偏斜分布的1MB随机块拼成，测试期间临时目录需要约3倍原文件大小的空间
+ * 每次操作读写整个文件，耗时为秒级，每轮只执行一次
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class HuffmanFileBenchmark {
+
+    /**
+     * 原文件长度
+     */
+    @Param({"1073741824"})
+    public long size;
+
+    /**
+     * 原文件
+     */
+    private Path srcFile;
+
+    /**
+     * 压缩文件，解压缩测试的输入
+     */
+    private Path compressFile;
+
+    /**
+     * 压缩测试的输出
+     */
+    private Path compressOutput;
+
+    /**
+     * 解压缩测试的输出
+     */
+    private Path decompressOutput;
+
+    /**
+     * 生成原文件和压缩文件
+     * @throws IOException 读写失败
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        srcFile = Files.createTempFile("huffman", ".src");
+        compressFile = Files.createTempFile("huffman", ".huf");
+        compressOutput = Files.createTempFile("huffman", ".huf");
+        decompressOutput = Files.createTempFile("huffman", ".dst");
+
+        Random random = new Random(size);
+        byte[][] blocks = new byte[16][1 << 20];
+        for (byte[] block : blocks) {
+            for (int i = 0; i < block.length; i++) {
+                block[i] = (byte) ('a' + Math.min(25, (int) (-Math.log(random.nextDouble()) * 3)));
+            }
+        }
+        try (OutputStream os = Files.newOutputStream(srcFile)) {
+            for (long written = 0; written < size; ) {
+                int length = (int) Math.min(size - written, blocks[0].length);
+                os.write(blocks[random.nextInt(blocks.length)], 0, length);
+                written += length;
+            }
+        }
+        HuffmanCodec.compress(srcFile, compressFile);
+    }
+
+    /**
+     * 删除临时文件
+     * @throws IOException 删除失败
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(srcFile);
+        Files.deleteIfExists(compressFile);
+        Files.deleteIfExists(compressOutput);
+        Files.deleteIfExists(decompressOutput);
+    }
+
+    /**
+     * 流式压缩
+     * @throws IOException 读写失败
+     */
+    @Benchmark
+    public void streamCompress() throws IOException {
+        HuffmanCodec.compress(srcFile, compressOutput);
+    }
+
+    /**
+     * 映射压缩
+     * @throws IOException 读写失败
+     */
+    @Benchmark
+    public void mappedCompress() throws IOException {
+        MappedHuffmanCodec.compress(srcFile, compressOutput);
+    }
+
+    /**
+     * 流式解压缩
+     * @throws IOException 读写失败
+     */
+    @Benchmark
+    public void streamDecompress() throws IOException {
+        HuffmanCodec.decompress(compressFile, decompressOutput);
+    }
+
+    /**
+     * 映射解压缩
+     * @throws IOException 读写失败
+     */
+    @Benchmark
+    public void mappedDecompress() throws IOException {
+        MappedHuffmanCodec.decompress(compressFile, decompressOutput);
+    }
+}
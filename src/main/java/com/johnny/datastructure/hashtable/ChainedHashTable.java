@@ -0,0 +1,416 @@
+package com.johnny.datastructure.hashtable;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * @author johnnyhao
+ *
+ * 泛型链式哈希表
+ *
+ * 与HashTableImpl相同的数组加链表结构，键值类型可以任意指定
+ * - 散列函数可替换，运行时调用setHashFunction切换，切换后按新散列函数重新分布所有元素
+ * - 容量为2的幂，散列值取低位定位槽位，元素个数超过负载阈值时容量翻倍
+ * - 统计每次查找、添加、删除比较的节点数，按2的幂分组形成探测长度直方图，配合最长链表长度判断散列函数是否合适
+ *
+ * 非线程安全
+ */
+public class ChainedHashTable<K, V> {
+
+    /**
+     * 默认初始容量
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * 默认负载因子
+     */
+    public static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    /**
+     * 最大容量
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * 探测长度直方图分组数，第i组统计探测长度在[2^(i-1), 2^i)之间的操作，第0组统计探测长度为0的操作
+     */
+    private static final int HISTOGRAM_SIZE = 32;
+
+    /**
+     * 负载因子
+     */
+    private final float loadFactor;
+
+    /**
+     * 散列表
+     */
+    private Node<K, V>[] table;
+
+    /**
+     * 散列函数
+     */
+    @Getter
+    private HashFunction hashFunction;
+
+    /**
+     * 元素个数
+     */
+    private int size;
+
+    /**
+     * 扩容阈值
+     */
+    private int threshold;
+
+    /**
+     * 扩容次数
+     */
+    private int resizeCount;
+
+    /**
+     * 探测长度直方图
+     */
+    private final long[] probeHistogram = new long[HISTOGRAM_SIZE];
+
+    /**
+     * 构造器
+     */
+    public ChainedHashTable() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR, HashFunction.MURMUR3);
+    }
+
+    /**
+     * 构造器
+     * @param hashFunction 散列函数
+     */
+    public ChainedHashTable(HashFunction hashFunction) {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR, hashFunction);
+    }
+
+    /**
+     * 构造器
+     * @param capacity 初始容量，向上取整为2的幂
+     * @param loadFactor 负载因子
+     * @param hashFunction 散列函数
+     */
+    public ChainedHashTable(int capacity, float loadFactor, @NonNull HashFunction hashFunction) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("容量不能为负数");
+        }
+        if (!(loadFactor > 0)) {
+            throw new IllegalArgumentException("负载因子必须大于0");
+        }
+        this.loadFactor = loadFactor;
+        this.hashFunction = hashFunction;
+        allocate(capacity >= MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY : Math.max(Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1, 2));
+    }
+
+    public static void main(String[] args) {
+        // 步长为1024的id，恒等散列下只落在少数槽位
+        ChainedHashTable<Integer, Person> hashTable = new ChainedHashTable<>(HashFunction.IDENTITY);
+        for (int i = 0; i < 10000; i++) {
+            int id = i * 1024;
+            hashTable.put(id, new Person(id, "员工" + i));
+        }
+        for (int i = 0; i < 10000; i++) {
+            hashTable.get(i * 1024);
+        }
+        System.out.println(hashTable.getHashFunction().getName() + " " + hashTable.stats());
+
+        // 最长链表过长，切换散列函数
+        hashTable.setHashFunction(HashFunction.MURMUR3);
+        for (int i = 0; i < 10000; i++) {
+            hashTable.get(i * 1024);
+        }
+        System.out.println(hashTable.getHashFunction().getName() + " " + hashTable.stats());
+        System.out.println(hashTable.get(1024));
+    }
+
+    /**
+     * 查找
+     * @param key 键
+     * @return 值，不存在返回null
+     */
+    public V get(@NonNull Object key) {
+        int hash = hashFunction.hash(key.hashCode());
+        int probes = 0;
+        V value = null;
+        for (Node<K, V> node = table[hash & (table.length - 1)]; node != null; node = node.next) {
+            probes++;
+            if (node.hash == hash && key.equals(node.key)) {
+                value = node.value;
+                break;
+            }
+        }
+        recordProbes(probes);
+        return value;
+    }
+
+    /**
+     * 是否包含键
+     * @param key 键
+     * @return 是否包含
+     */
+    public boolean containsKey(@NonNull Object key) {
+        int hash = hashFunction.hash(key.hashCode());
+        for (Node<K, V> node = table[hash & (table.length - 1)]; node != null; node = node.next) {
+            if (node.hash == hash && key.equals(node.key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 添加或替换
+     * @param key 键
+     * @param value 值
+     * @return 原来的值，不存在返回null
+     */
+    public V put(@NonNull K key, V value) {
+        int hash = hashFunction.hash(key.hashCode());
+        int index = hash & (table.length - 1);
+
+        int probes = 0;
+        Node<K, V> last = null;
+        for (Node<K, V> node = table[index]; node != null; node = node.next) {
+            probes++;
+            if (node.hash == hash && key.equals(node.key)) {
+                recordProbes(probes);
+                V old = node.value;
+                node.value = value;
+                return old;
+            }
+            last = node;
+        }
+        recordProbes(probes);
+
+        // 添加到链表尾部
+        Node<K, V> node = new Node<>(hash, key, value, null);
+        if (last == null) {
+            table[index] = node;
+        }
+        else {
+            last.next = node;
+        }
+
+        if (++size > threshold && table.length < MAXIMUM_CAPACITY) {
+            resizeCount++;
+            rehash(table.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * 删除
+     * @param key 键
+     * @return 删除的值，不存在返回null
+     */
+    public V remove(@NonNull Object key) {
+        int hash = hashFunction.hash(key.hashCode());
+        int index = hash & (table.length - 1);
+
+        int probes = 0;
+        for (Node<K, V> node = table[index], previous = null; node != null; previous = node, node = node.next) {
+            probes++;
+            if (node.hash == hash && key.equals(node.key)) {
+                if (previous == null) {
+                    table[index] = node.next;
+                }
+                else {
+                    previous.next = node.next;
+                }
+                size--;
+                recordProbes(probes);
+                return node.value;
+            }
+        }
+        recordProbes(probes);
+        return null;
+    }
+
+    /**
+     * 元素个数
+     * @return 元素个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 遍历所有元素
+     * @param consumer 元素处理
+     */
+    public void forEach(BiConsumer<? super K, ? super V> consumer) {
+        for (Node<K, V> head : table) {
+            for (Node<K, V> node = head; node != null; node = node.next) {
+                consumer.accept(node.key, node.value);
+            }
+        }
+    }
+
+    /**
+     * 切换散列函数，按新散列函数重新分布所有元素，并清空探测长度直方图
+     * @param hashFunction 散列函数
+     */
+    public void setHashFunction(@NonNull HashFunction hashFunction) {
+        if (hashFunction == this.hashFunction) {
+            return;
+        }
+        this.hashFunction = hashFunction;
+        rehash(table.length);
+        Arrays.fill(probeHistogram, 0);
+    }
+
+    /**
+     * 统计信息
+     * 最长链表长度需要遍历整个散列表
+     * @return 统计信息
+     */
+    public Stats stats() {
+        int maxChainLength = 0;
+        for (Node<K, V> head : table) {
+            int length = 0;
+            for (Node<K, V> node = head; node != null; node = node.next) {
+                length++;
+            }
+            maxChainLength = Math.max(maxChainLength, length);
+        }
+        return new Stats(size, table.length, (double) size / table.length, maxChainLength, resizeCount, probeHistogram.clone());
+    }
+
+    /**
+     * 记录一次操作的探测长度
+     * @param probes 比较的节点数
+     */
+    private void recordProbes(int probes) {
+        probeHistogram[32 - Integer.numberOfLeadingZeros(probes)]++;
+    }
+
+    /**
+     * 按当前散列函数重新分布到指定容量的新数组
+     * 重新计算每个节点的散列值，链表内保持原有顺序
+     * @param capacity 新容量
+     */
+    private void rehash(int capacity) {
+        Node<K, V>[] oldTable = table;
+        allocate(capacity);
+
+        Node<K, V>[] tails = newTable(capacity);
+        for (Node<K, V> head : oldTable) {
+            Node<K, V> node = head;
+            while (node != null) {
+                Node<K, V> next = node.next;
+                node.hash = hashFunction.hash(node.key.hashCode());
+                node.next = null;
+
+                int index = node.hash & (capacity - 1);
+                if (tails[index] == null) {
+                    table[index] = node;
+                }
+                else {
+                    tails[index].next = node;
+                }
+                tails[index] = node;
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * 分配数组
+     * @param capacity 容量，2的幂
+     */
+    private void allocate(int capacity) {
+        table = newTable(capacity);
+        threshold = (int) Math.min(capacity * (double) loadFactor, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 创建节点数组，泛型数组只能创建原始类型数组再转换
+     * @param capacity 容量
+     * @param <K> 键类型
+     * @param <V> 值类型
+     * @return 节点数组
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <K, V> Node<K, V>[] newTable(int capacity) {
+        return (Node<K, V>[]) new Node[capacity];
+    }
+
+    /**
+     * 链表节点
+     */
+    static class Node<K, V> {
+        /**
+         * 散列值
+         */
+        int hash;
+
+        /**
+         * 键
+         */
+        final K key;
+
+        /**
+         * 值
+         */
+        V value;
+
+        /**
+         * 下一节点
+         */
+        Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * 统计信息
+     */
+    @ToString
+    @Getter
+    @AllArgsConstructor
+    public static class Stats {
+        /**
+         * 元素个数
+         */
+        private final int size;
+
+        /**
+         * 容量
+         */
+        private final int capacity;
+
+        /**
+         * 实际负载因子
+         */
+        private final double loadFactor;
+
+        /**
+         * 最长链表长度
+         */
+        private final int maxChainLength;
+
+        /**
+         * 扩容次数
+         */
+        private final int resizeCount;
+
+        /**
+         * 探测长度直方图，第i组统计探测长度在[2^(i-1), 2^i)之间的操作，第0组统计探测长度为0的操作
+         */
+        private final long[] probeHistogram;
+    }
+}
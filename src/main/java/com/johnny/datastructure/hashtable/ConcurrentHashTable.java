@@ -0,0 +1,491 @@
+package com.johnny.datastructure.hashtable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author johnnyhao
+ *
+ * 并发哈希表
+ *
+ * 与HashTableImpl相同的数组加链表结构，支持多线程同时读写
+ * - 写入：空槽位用CAS放入链表头节点，非空槽位锁住链表头节点后修改，锁的粒度是单个槽位，不同槽位的写入互不阻塞
+ * - 读取：不加锁，节点的值和后继指针为volatile，读线程总能看到完整的链表
+ * - 扩容：不暂停所有线程，扩容线程和遇到转移中槽位的写线程按段认领槽位，协作把链表拆分到新数组，已转移的槽位放入转发节点
+ * - 计数：使用LongAdder，写线程更新各自的计数单元，互不竞争
+ */
+public class ConcurrentHashTable<V> {
+
+    /**
+     * 默认初始容量
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * 负载因子
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * 最大容量
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * 扩容时每个线程一次认领的最少槽位数
+     */
+    private static final int MIN_TRANSFER_STRIDE = 16;
+
+    /**
+     * CPU核数
+     */
+    private static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 散列表
+     */
+    private volatile AtomicReferenceArray<Node<V>> table;
+
+    /**
+     * 扩容阈值
+     */
+    private volatile int threshold;
+
+    /**
+     * 进行中的扩容，没有扩容时为null
+     */
+    private final AtomicReference<Resize<V>> resize = new AtomicReference<>();
+
+    /**
+     * 元素个数
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * 构造器
+     */
+    public ConcurrentHashTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 构造器
+     * @param capacity 初始容量，向上取整为2的幂
+     */
+    public ConcurrentHashTable(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("容量不能为负数");
+        }
+        int n = capacity >= MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY : Math.max(Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1, 2);
+        table = new AtomicReferenceArray<>(n);
+        threshold = (int) (n * LOAD_FACTOR);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        // 初始化哈希表，容量较小，多线程写入时会多次扩容
+        ConcurrentHashTable<Person> hashTable = new ConcurrentHashTable<>(4);
+
+        // 4个线程同时写入
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int start = t * 10000;
+            Thread thread = new Thread(() -> {
+                for (int id = start; id < start + 10000; id++) {
+                    hashTable.put(id, new Person(id, "员工" + id));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        System.out.println("元素个数 " + hashTable.size());
+        System.out.println(hashTable.get(25000));
+        hashTable.remove(25000);
+        System.out.println(hashTable.get(25000));
+    }
+
+    /**
+     * 查找，不加锁
+     * @param key 键
+     * @return 值，不存在返回null
+     */
+    public V get(int key) {
+        int hash = IntHashMap.hash(key);
+        AtomicReferenceArray<Node<V>> tab = table;
+
+        while (true) {
+            Node<V> e = tab.get(hash & (tab.length() - 1));
+            // 槽位已转移，到新数组中查找
+            if (e instanceof ForwardingNode) {
+                tab = ((ForwardingNode<V>) e).nextTable;
+                continue;
+            }
+            for (; e != null; e = e.next) {
+                if (e.key == key) {
+                    return e.value;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 是否包含键
+     * @param key 键
+     * @return 是否包含
+     */
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * 添加或替换
+     * @param key 键
+     * @param value 值，不能为null
+     * @return 原来的值，不存在返回null
+     */
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("值不能为null");
+        }
+
+        int hash = IntHashMap.hash(key);
+        AtomicReferenceArray<Node<V>> tab = table;
+
+        while (true) {
+            int index = hash & (tab.length() - 1);
+            Node<V> head = tab.get(index);
+
+            // 空槽位，CAS放入头节点
+            if (head == null) {
+                if (tab.compareAndSet(index, null, new Node<>(hash, key, value, null))) {
+                    count.increment();
+                    return null;
+                }
+                continue;
+            }
+
+            // 槽位正在转移，先协助扩容，再到新数组中写入
+            if (head instanceof ForwardingNode) {
+                tab = helpTransfer(tab, (ForwardingNode<V>) head);
+                continue;
+            }
+
+            // 锁住头节点后修改链表
+            V old = null;
+            int binCount = 0;
+            synchronized (head) {
+                // 加锁前头节点被替换，重试
+                if (tab.get(index) != head) {
+                    continue;
+                }
+                for (Node<V> e = head; ; e = e.next) {
+                    binCount++;
+                    if (e.key == key) {
+                        old = e.value;
+                        e.value = value;
+                        break;
+                    }
+                    if (e.next == null) {
+                        e.next = new Node<>(hash, key, value, null);
+                        break;
+                    }
+                }
+            }
+
+            if (old == null) {
+                count.increment();
+                // 发生冲突时才检查是否需要扩容，避免每次写入都汇总计数
+                if (count.sum() > threshold) {
+                    tryResize(tab);
+                }
+            }
+            return old;
+        }
+    }
+
+    /**
+     * 删除
+     * @param key 键
+     * @return 删除的值，不存在返回null
+     */
+    public V remove(int key) {
+        int hash = IntHashMap.hash(key);
+        AtomicReferenceArray<Node<V>> tab = table;
+
+        while (true) {
+            int index = hash & (tab.length() - 1);
+            Node<V> head = tab.get(index);
+
+            if (head == null) {
+                return null;
+            }
+            if (head instanceof ForwardingNode) {
+                tab = helpTransfer(tab, (ForwardingNode<V>) head);
+                continue;
+            }
+
+            synchronized (head) {
+                if (tab.get(index) != head) {
+                    continue;
+                }
+                for (Node<V> e = head, previous = null; e != null; previous = e, e = e.next) {
+                    if (e.key == key) {
+                        // 删除头节点时替换槽位，其他等待该锁的线程会发现头节点变化而重试
+                        if (previous == null) {
+                            tab.set(index, e.next);
+                        }
+                        else {
+                            previous.next = e.next;
+                        }
+                        count.decrement();
+                        return e.value;
+                    }
+                }
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 元素个数，并发修改时为近似值
+     * @return 元素个数
+     */
+    public long size() {
+        return count.sum();
+    }
+
+    /**
+     * 尝试发起扩容，已有扩容进行中则协助扩容
+     * @param tab 当前散列表
+     */
+    private void tryResize(AtomicReferenceArray<Node<V>> tab) {
+        int n = tab.length();
+        if (n >= MAXIMUM_CAPACITY) {
+            return;
+        }
+
+        Resize<V> current = resize.get();
+        if (current != null) {
+            if (current.table == tab && table == tab) {
+                transfer(current);
+            }
+            // 过期的扩容，旧数组已被其他扩容替换，清除后才能发起新的扩容
+            else if (current.table != table) {
+                resize.compareAndSet(current, null);
+            }
+            return;
+        }
+
+        // 散列表已被其他线程扩容完成，tab已过期，不能再对它发起扩容
+        if (table != tab) {
+            return;
+        }
+        Resize<V> created = new Resize<>(tab, new AtomicReferenceArray<>(n << 1));
+        if (resize.compareAndSet(null, created)) {
+            // 检查与CAS之间散列表被其他线程扩容完成，放弃本次扩容
+            if (table != tab) {
+                resize.compareAndSet(created, null);
+                return;
+            }
+            transfer(created);
+        }
+    }
+
+    /**
+     * 协助转移，完成后返回新数组
+     * @param tab 当前散列表
+     * @param forwarding 转发节点
+     * @return 新数组
+     */
+    private AtomicReferenceArray<Node<V>> helpTransfer(AtomicReferenceArray<Node<V>> tab, ForwardingNode<V> forwarding) {
+        Resize<V> current = resize.get();
+        // tab已过期时转发节点来自已完成的扩容，直接到新数组中重试
+        if (current != null && current.table == tab && table == tab) {
+            transfer(current);
+        }
+        return forwarding.nextTable;
+    }
+
+    /**
+     * 按段认领槽位并转移到新数组
+     * 旧数组下标i的链表拆分到新数组下标i和i+n两个槽位，全部槽位转移完成的线程负责发布新数组
+     * @param current 扩容
+     */
+    private void transfer(Resize<V> current) {
+        AtomicReferenceArray<Node<V>> tab = current.table;
+        AtomicReferenceArray<Node<V>> nextTab = current.nextTable;
+        int n = tab.length();
+        int stride = Math.max(n / (NCPU * 8), MIN_TRANSFER_STRIDE);
+
+        while (true) {
+            // 旧数组已不是当前散列表，扩容已过期，不再转移
+            if (table != tab) {
+                resize.compareAndSet(current, null);
+                return;
+            }
+
+            // 从高到低认领一段槽位
+            int high = current.transferIndex.get();
+            if (high <= 0) {
+                return;
+            }
+            int low = Math.max(high - stride, 0);
+            if (!current.transferIndex.compareAndSet(high, low)) {
+                continue;
+            }
+
+            for (int i = high - 1; i >= low; ) {
+                if (transferBin(tab, nextTab, current.forwarding, i, n)) {
+                    i--;
+                }
+            }
+
+            // 最后完成的线程发布新数组，旧数组仍是当前散列表时才发布
+            if (current.transferred.addAndGet(high - low) == n) {
+                if (table == tab) {
+                    table = nextTab;
+                    threshold = (int) (nextTab.length() * LOAD_FACTOR);
+                }
+                resize.compareAndSet(current, null);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 转移一个槽位
+     * 复制节点而不是移动节点，读线程在旧数组上遍历到的链表始终完整
+     * @param tab 旧数组
+     * @param nextTab 新数组
+     * @param forwarding 转发节点
+     * @param i 槽位下标
+     * @param n 旧数组长度
+     * @return 是否转移成功，头节点被并发修改时返回false
+     */
+    private static <V> boolean transferBin(AtomicReferenceArray<Node<V>> tab, AtomicReferenceArray<Node<V>> nextTab,
+                                           ForwardingNode<V> forwarding, int i, int n) {
+        Node<V> head = tab.get(i);
+        if (head == null) {
+            return tab.compareAndSet(i, null, forwarding);
+        }
+        // 已转移的槽位，不能把转发节点当作普通节点复制
+        if (head instanceof ForwardingNode) {
+            return true;
+        }
+
+        synchronized (head) {
+            if (tab.get(i) != head) {
+                return false;
+            }
+            Node<V> low = null;
+            Node<V> high = null;
+            for (Node<V> e = head; e != null; e = e.next) {
+                if ((e.hash & n) == 0) {
+                    low = new Node<>(e.hash, e.key, e.value, low);
+                }
+                else {
+                    high = new Node<>(e.hash, e.key, e.value, high);
+                }
+            }
+            nextTab.set(i, low);
+            nextTab.set(i + n, high);
+            tab.set(i, forwarding);
+            return true;
+        }
+    }
+
+    /**
+     * 链表节点
+     * @param <V> 值类型
+     */
+    static class Node<V> {
+        /**
+         * 散列值
+         */
+        final int hash;
+
+        /**
+         * 键
+         */
+        final int key;
+
+        /**
+         * 值
+         */
+        volatile V value;
+
+        /**
+         * 下一节点
+         */
+        volatile Node<V> next;
+
+        Node(int hash, int key, V value, Node<V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * 转发节点，放在已转移的槽位上，指向新数组
+     * @param <V> 值类型
+     */
+    static final class ForwardingNode<V> extends Node<V> {
+        /**
+         * 新数组
+         */
+        final AtomicReferenceArray<Node<V>> nextTable;
+
+        ForwardingNode(AtomicReferenceArray<Node<V>> nextTable) {
+            super(0, 0, null, null);
+            this.nextTable = nextTable;
+        }
+    }
+
+    /**
+     * 一次扩容的状态
+     * @param <V> 值类型
+     */
+    static final class Resize<V> {
+        /**
+         * 旧数组
+         */
+        final AtomicReferenceArray<Node<V>> table;
+
+        /**
+         * 新数组
+         */
+        final AtomicReferenceArray<Node<V>> nextTable;
+
+        /**
+         * 转发节点
+         */
+        final ForwardingNode<V> forwarding;
+
+        /**
+         * 尚未认领的槽位上界
+         */
+        final AtomicInteger transferIndex;
+
+        /**
+         * 已转移的槽位数
+         */
+        final AtomicInteger transferred = new AtomicInteger();
+
+        Resize(AtomicReferenceArray<Node<V>> table, AtomicReferenceArray<Node<V>> nextTable) {
+            this.table = table;
+            this.nextTable = nextTable;
+            this.forwarding = new ForwardingNode<>(nextTable);
+            this.transferIndex = new AtomicInteger(table.length());
+        }
+    }
+}
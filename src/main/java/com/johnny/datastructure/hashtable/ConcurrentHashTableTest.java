@@ -0,0 +1,74 @@
+package com.johnny.datastructure.hashtable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * @author johnnyhao
+ *
+ * 并发哈希表扩容测试
+ *
+ * 从很小的容量开始，多个线程同时写入和删除，扩容期间反复发生转移和协助转移
+ * 全部线程结束后检查每个键都还在且值正确，被删除的键不存在，元素个数一致
+ */
+public class ConcurrentHashTableTest {
+
+    public static void main(String[] args) throws InterruptedException {
+        int threadCount = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        int keysPerThread = 50000;
+        int rounds = 20;
+
+        for (int round = 0; round < rounds; round++) {
+            ConcurrentHashTable<Integer> hashTable = new ConcurrentHashTable<>(2);
+            CountDownLatch start = new CountDownLatch(1);
+
+            // 每个线程写入自己的键，键为3的倍数的写入后立即删除
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                int from = t * keysPerThread;
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int key = from; key < from + keysPerThread; key++) {
+                        hashTable.put(key, key);
+                        if (key % 3 == 0) {
+                            hashTable.remove(key);
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            // 检查每个键
+            int expected = 0;
+            for (int key = 0; key < threadCount * keysPerThread; key++) {
+                Integer value = hashTable.get(key);
+                if (key % 3 == 0) {
+                    if (value != null) {
+                        throw new AssertionError("第" + round + "轮 已删除的键仍存在 " + key);
+                    }
+                }
+                else {
+                    expected++;
+                    if (value == null || value != key) {
+                        throw new AssertionError("第" + round + "轮 键丢失或值不正确 " + key + " -> " + value);
+                    }
+                }
+            }
+            if (hashTable.size() != expected) {
+                throw new AssertionError("第" + round + "轮 元素个数不正确 " + hashTable.size() + " != " + expected);
+            }
+        }
+        System.out.printf("%d个线程 %d轮扩容测试通过\n", threadCount, rounds);
+    }
+}
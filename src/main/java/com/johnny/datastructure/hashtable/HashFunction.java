@@ -0,0 +1,88 @@
+package com.johnny.datastructure.hashtable;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * @author johnnyhao
+ *
+ * 散列函数
+ *
+ * 对键的hashCode再做一次混合，哈希表用低位定位槽位，混合后高位的差异也能影响槽位
+ * - 恒等：不做混合，与取模法等价，连续的id分布均匀，但步长为2的幂的id会集中到少数槽位
+ * - murmur3：MurmurHash3的32位终结函数，两次乘法和三次移位异或，雪崩效果好
+ * - wyhash：wyhash的mum混合，64位乘法取128位结果的高低位异或，一次乘法完成混合
+ */
+@Getter
+@RequiredArgsConstructor
+public enum HashFunction {
+
+    /**
+     * 恒等
+     */
+    IDENTITY("恒等") {
+        @Override
+        public int hash(int hashCode) {
+            return hashCode;
+        }
+    },
+
+    /**
+     * murmur3终结函数
+     */
+    MURMUR3("murmur3") {
+        @Override
+        public int hash(int hashCode) {
+            int h = hashCode;
+            h ^= h >>> 16;
+            h *= 0x85EBCA6B;
+            h ^= h >>> 13;
+            h *= 0xC2B2AE35;
+            h ^= h >>> 16;
+            return h;
+        }
+    },
+
+    /**
+     * wyhash混合
+     */
+    WYHASH("wyhash") {
+        @Override
+        public int hash(int hashCode) {
+            long a = hashCode ^ 0xA0761D6478BD642FL;
+            long b = 0xE7037ED1A0B428DBL;
+            long r = (a * b) ^ unsignedMultiplyHigh(a, b);
+            return (int) (r ^ (r >>> 32));
+        }
+    };
+
+    /**
+     * 名称
+     */
+    private final String name;
+
+    /**
+     * 混合hashCode
+     * @param hashCode 键的hashCode
+     * @return 散列值
+     */
+    public abstract int hash(int hashCode);
+
+    /**
+     * 无符号64位乘法结果的高64位
+     * @param x 乘数
+     * @param y 乘数
+     * @return 高64位
+     */
+    static long unsignedMultiplyHigh(long x, long y) {
+        long x1 = x >>> 32;
+        long x0 = x & 0xFFFFFFFFL;
+        long y1 = y >>> 32;
+        long y0 = y & 0xFFFFFFFFL;
+
+        long low = x0 * y0;
+        long middle1 = x1 * y0 + (low >>> 32);
+        long middle2 = x0 * y1 + (middle1 & 0xFFFFFFFFL);
+        return x1 * y1 + (middle1 >>> 32) + (middle2 >>> 32);
+    }
+}
@@ -1,11 +1,5 @@
 package com.johnny.datastructure.hashtable;
 
-import lombok.Getter;
-import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
-import lombok.Setter;
-import lombok.ToString;
-
 /**
  * @author johnnyhao
  *
@@ -24,147 +18,25 @@ public class HashTable {
         hashTable.add(new Person(1, "张三"));
         hashTable.add(new Person(2, "李四"));
         hashTable.add(new Person(17, "王五"));
+        hashTable.add(new Person(-1, "赵六"));
         hashTable.list();
         hashTable.search(2);
-    }
-}
-
-/**
- * 定义Person对象
- * 每个Person对象就是一个节点
- */
-@ToString(exclude = "next")
-@Getter
-@Setter
-@RequiredArgsConstructor
-class Person {
-    /**
-     * ID
-     */
-    @NonNull
-    private int id;
-
-    /**
-     * 姓名
-     */
-    @NonNull
-    private String name;
-
-    /**
-     * 下一节点
-     */
-    private Person next;
-}
 
-/**
- * 定义Person单链表
- */
-class PersonLinkedList {
-    /**
-     * 初始化头节点，定义链表头部
-     */
-    private final Person head = new Person(0, "");
-
-    /**
-     * 添加Person节点到链表尾部
-     * @param person 新节点
-     */
-    public void add(Person person) {
-        Person temp = head;
+        // 开放寻址哈希表，不创建链表节点，容量不足时自动扩容
+        IntHashMap<Person> personMap = new IntHashMap<>();
+        personMap.put(1, new Person(1, "张三"));
+        personMap.put(17, new Person(17, "王五"));
+        personMap.put(-1, new Person(-1, "赵六"));
+        System.out.println(personMap.get(-1));
 
-        while (temp.getNext() != null) {
-            temp = temp.getNext();
+        // 同一槽位冲突超过阈值后链表转为平衡二叉树，删除到阈值以下后转回链表
+        for (int i = 1; i <= 12; i++) {
+            hashTable.add(new Person(i * 16 + 3, "冲突" + i));
         }
-
-        temp.setNext(person);
-    }
-
-    /**
-     * 遍历显示链表
-     */
-    public void list() {
-        Person temp = head.getNext();
-
-        while (temp != null) {
-            System.out.println(temp);
-            temp = temp.getNext();
-        }
-    }
-
-    /**
-     * 通过id查找
-     * @param id id
-     * @return Person
-     */
-    public Person search(int id) {
-        Person temp = head.getNext();
-        while (temp != null) {
-            if (temp.getId() == id) {
-                return temp;
-            }
-            temp = temp.getNext();
+        hashTable.search(99);
+        for (int i = 1; i <= 8; i++) {
+            hashTable.delete(i * 16 + 3);
         }
-        return null;
+        hashTable.search(195);
     }
 }
-
-/**
- * 定义哈希表
- */
-class HashTableImpl {
-
-    /**
-     * 定义散列表
-     */
-    private final PersonLinkedList[] personLinkedListArray;
-
-    /**
-     * 构造器
-     * @param personLinkedListArraySize 散列表大小
-     */
-    public HashTableImpl(int personLinkedListArraySize) {
-        personLinkedListArray = new PersonLinkedList[personLinkedListArraySize];
-
-        // 初始化每个链表
-        for (int i = 0; i < personLinkedListArray.length; i++) {
-            personLinkedListArray[i] = new PersonLinkedList();
-        }
-    }
-
-    /**
-     * 散列函数，使用一个简单取模法
-     * @param id id
-     * @return 散列表下标
-     */
-    public int hashFunction(int id) {
-        return id % personLinkedListArray.length;
-    }
-
-    /**
-     * 添加Person节点到哈希表
-     * @param person 新节点
-     */
-    public void add(Person person) {
-        int personLinkedListIndex = hashFunction(person.getId());
-        personLinkedListArray[personLinkedListIndex].add(person);
-    }
-
-    /**
-     * 遍历显示哈希表
-     */
-    public void list() {
-        for (PersonLinkedList personLinkedList : personLinkedListArray) {
-            personLinkedList.list();
-        }
-    }
-
-    /**
-     * 通过id查找
-     * @param id id
-     */
-    public void search(int id) {
-        int personLinkedListIndex = hashFunction(id);
-        Person person = personLinkedListArray[personLinkedListIndex].search(id);
-        System.out.println(person);
-    }
-}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.johnny.datastructure.hashtable;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * @author johnnyhao
+ *
+ * 定义哈希表
+ */
+@Getter(AccessLevel.PACKAGE)
+class HashTableImpl {
+
+    /**
+     * 链表长度超过该值时转为平衡二叉树
+     */
+    static final int TREEIFY_THRESHOLD = 8;
+
+    /**
+     * 平衡二叉树元素个数不超过该值时转回链表，与转树阈值错开，避免在阈值附近反复转换
+     */
+    static final int UNTREEIFY_THRESHOLD = 6;
+
+    /**
+     * 定义散列表
+     */
+    private final PersonBucket[] buckets;
+
+    /**
+     * 构造器
+     * @param bucketSize 散列表大小
+     */
+    public HashTableImpl(int bucketSize) {
+        buckets = new PersonBucket[bucketSize];
+
+        // 初始化每个链表
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new PersonLinkedList();
+        }
+    }
+
+    /**
+     * 通过已构建好的槽位创建哈希表，用于批量加载
+     * @param buckets 槽位
+     */
+    HashTableImpl(PersonBucket[] buckets) {
+        this.buckets = buckets;
+    }
+
+    /**
+     * 散列函数，使用一个简单取模法
+     * 负数id取模结果为负数，使用floorMod保证下标非负
+     * @param id id
+     * @return 散列表下标
+     */
+    public int hashFunction(int id) {
+        return Math.floorMod(id, buckets.length);
+    }
+
+    /**
+     * 添加Person节点到哈希表
+     * 链表长度超过阈值时转为平衡二叉树，冲突再多查找也是O(log n)
+     * @param person 新节点
+     */
+    public void add(Person person) {
+        int index = hashFunction(person.getId());
+        PersonBucket bucket = buckets[index];
+        bucket.add(person);
+
+        if (bucket instanceof PersonLinkedList && bucket.size() > TREEIFY_THRESHOLD) {
+            PersonTree tree = new PersonTree();
+            bucket.forEach(tree::add);
+            buckets[index] = tree;
+        }
+    }
+
+    /**
+     * 遍历显示哈希表
+     */
+    public void list() {
+        for (PersonBucket bucket : buckets) {
+            bucket.list();
+        }
+    }
+
+    /**
+     * 通过id查找
+     * @param id id
+     */
+    public void search(int id) {
+        Person person = buckets[hashFunction(id)].search(id);
+        System.out.println(person);
+    }
+
+    /**
+     * 通过id删除
+     * 平衡二叉树元素个数降到阈值以下时转回链表
+     * @param id id
+     * @return 是否删除
+     */
+    public boolean delete(int id) {
+        int index = hashFunction(id);
+        PersonBucket bucket = buckets[index];
+        if (!bucket.delete(id)) {
+            return false;
+        }
+
+        if (bucket instanceof PersonTree && bucket.size() <= UNTREEIFY_THRESHOLD) {
+            PersonLinkedList list = new PersonLinkedList();
+            bucket.forEach(list::add);
+            buckets[index] = list;
+        }
+        return true;
+    }
+}
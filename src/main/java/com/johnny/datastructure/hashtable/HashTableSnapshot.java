@@ -0,0 +1,557 @@
+package com.johnny.datastructure.hashtable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * @author johnnyhao
+ *
+ * 哈希表快照
+ *
+ * 将HashTableImpl按槽位顺序写入二进制文件，启动时批量加载或直接映射文件查询，不需要逐条调用add
+ *
+ * 文件格式
+ * - 文件头32字节：标识、版本、槽位数、元素个数、槽位偏移表位置、数据校验和、文件头校验和
+ * - 元素区：按槽位顺序存放元素，每个元素为id、姓名长度和UTF-8编码的姓名
+ * - 槽位偏移表：槽位数加一个long，第i个槽位的元素位于偏移表第i项和第i+1项之间
+ * 数据校验和覆盖元素区和槽位偏移表，使用CRC32
+ *
+ * 加载时槽位数与快照相同，每个元素在快照中的槽位就是加载后的槽位，直接追加到槽位尾部，不需要散列和遍历链表
+ * 映射时只读取文件头，查询时按槽位偏移表定位元素，适合启动后立即提供查询
+ *
+ * HashTableImpl和Person只在包内可见，save、load和search也只在包内使用
+ */
+public class HashTableSnapshot implements Closeable {
+
+    /**
+     * 文件标识
+     */
+    private static final int MAGIC = 0x48545331;
+
+    /**
+     * 文件格式版本
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * 文件头长度
+     */
+    private static final int HEADER_SIZE = 32;
+
+    /**
+     * 读写缓冲区长度
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 文件通道
+     */
+    private final FileChannel channel;
+
+    /**
+     * 只读映射
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * 槽位数
+     */
+    private final int bucketCount;
+
+    /**
+     * 元素个数
+     */
+    private final int size;
+
+    /**
+     * 槽位偏移表位置
+     */
+    private final int offsetsPosition;
+
+    /**
+     * 映射快照文件
+     * @param channel 文件通道
+     * @param buffer 只读映射
+     * @param header 文件头
+     */
+    private HashTableSnapshot(FileChannel channel, MappedByteBuffer buffer, Header header) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.bucketCount = header.bucketCount;
+        this.size = header.size;
+        this.offsetsPosition = (int) header.offsetsPosition;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // 初始化哈希表，id为3的槽位冲突较多，会转为平衡二叉树
+        HashTableImpl hashTable = new HashTableImpl(16);
+        hashTable.add(new Person(1, "张三"));
+        hashTable.add(new Person(2, "李四"));
+        hashTable.add(new Person(-1, "赵六"));
+        for (int i = 0; i < 12; i++) {
+            hashTable.add(new Person(i * 16 + 3, "冲突" + i));
+        }
+
+        Path path = Files.createTempFile("hash-table", ".snapshot");
+        try {
+            // 保存快照
+            save(hashTable, path);
+
+            // 批量加载
+            HashTableImpl loaded = load(path);
+            loaded.search(2);
+            loaded.search(99);
+
+            // 只读映射，校验数据后直接查询
+            try (HashTableSnapshot snapshot = map(path, true)) {
+                System.out.println("元素个数 " + snapshot.size());
+                System.out.println(snapshot.search(-1));
+                System.out.println(snapshot.search(179));
+                System.out.println(snapshot.search(4));
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * 保存快照
+     * 元素按槽位顺序顺序写入，写完元素区和槽位偏移表后再写入文件头
+     * @param hashTable 哈希表
+     * @param path 文件路径
+     * @throws IOException 写入失败
+     */
+    static void save(HashTableImpl hashTable, Path path) throws IOException {
+        PersonBucket[] buckets = hashTable.getBuckets();
+        long[] offsets = new long[buckets.length + 1];
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            SnapshotWriter writer = new SnapshotWriter(channel, HEADER_SIZE);
+
+            // 元素区
+            int size = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                offsets[i] = writer.position();
+                for (Person person : toArray(buckets[i])) {
+                    byte[] name = person.getName().getBytes(StandardCharsets.UTF_8);
+                    writer.ensureRemaining(Integer.BYTES * 2);
+                    writer.buffer.putInt(person.getId()).putInt(name.length);
+                    writer.put(name);
+                    size++;
+                }
+            }
+            offsets[buckets.length] = writer.position();
+
+            // 槽位偏移表
+            long offsetsPosition = writer.position();
+            for (long offset : offsets) {
+                writer.ensureRemaining(Long.BYTES);
+                writer.buffer.putLong(offset);
+            }
+            writer.flush();
+
+            // 文件头
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(buckets.length).putInt(size).putLong(offsetsPosition).putInt((int) writer.crc.getValue());
+            header.putInt(headerChecksum(header));
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * 批量加载快照
+     * 槽位数与快照相同，元素直接追加到所在槽位，元素个数超过转树阈值的槽位构建平衡二叉树
+     * @param path 文件路径
+     * @return 哈希表
+     * @throws IOException 读取失败或校验失败
+     */
+    static HashTableImpl load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            CRC32 crc = new CRC32();
+
+            // 先读取槽位偏移表，确定每个槽位的元素范围
+            int offsetsLength = (header.bucketCount + 1) * Long.BYTES;
+            ByteBuffer offsetsBuffer = ByteBuffer.allocate(offsetsLength);
+            readFully(channel, offsetsBuffer, header.offsetsPosition);
+            offsetsBuffer.flip();
+            long[] offsets = new long[header.bucketCount + 1];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = offsetsBuffer.getLong();
+            }
+            if (offsets[0] != HEADER_SIZE || offsets[header.bucketCount] != header.offsetsPosition) {
+                throw new IOException("快照槽位偏移表不正确 " + path);
+            }
+
+            // 顺序读取元素区，按偏移表划分槽位
+            PersonBucket[] buckets = new PersonBucket[header.bucketCount];
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.limit(0);
+            long position = HEADER_SIZE;
+            int size = 0;
+            for (int i = 0; i < header.bucketCount; i++) {
+                PersonBucket bucket = new PersonLinkedList();
+                while (position < offsets[i + 1]) {
+                    buffer = fill(channel, buffer, position, Integer.BYTES * 2, header.offsetsPosition, crc);
+                    int id = buffer.getInt();
+                    int length = buffer.getInt();
+                    if (length < 0 || position + Integer.BYTES * 2 + length > offsets[i + 1]) {
+                        throw new IOException("快照元素长度不正确 " + path);
+                    }
+                    byte[] name = new byte[length];
+                    buffer = fill(channel, buffer, position + Integer.BYTES * 2, name.length, header.offsetsPosition, crc);
+                    buffer.get(name);
+                    position += Integer.BYTES * 2 + name.length;
+
+                    bucket.add(new Person(id, new String(name, StandardCharsets.UTF_8)));
+                    // 链表长度超过阈值时转为平衡二叉树
+                    if (bucket instanceof PersonLinkedList && bucket.size() > HashTableImpl.TREEIFY_THRESHOLD) {
+                        PersonTree tree = new PersonTree();
+                        bucket.forEach(tree::add);
+                        bucket = tree;
+                    }
+                    size++;
+                }
+                buckets[i] = bucket;
+            }
+            if (position != header.offsetsPosition || size != header.size) {
+                throw new IOException("快照元素区不完整 " + path);
+            }
+
+            crc.update((ByteBuffer) offsetsBuffer.flip());
+            if ((int) crc.getValue() != header.bodyChecksum) {
+                throw new IOException("快照数据校验失败 " + path);
+            }
+            return new HashTableImpl(buckets);
+        }
+    }
+
+    /**
+     * 只读映射快照
+     * 快照超过2GB时不能映射，使用load加载
+     * @param path 文件路径
+     * @param verify 是否校验数据，校验需要读取整个文件
+     * @return 快照
+     * @throws IOException 读取失败或校验失败
+     */
+    public static HashTableSnapshot map(Path path, boolean verify) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            Header header = readHeader(channel);
+            long length = header.offsetsPosition + (header.bucketCount + 1L) * Long.BYTES;
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("快照超过2GB，不能映射 " + path);
+            }
+            if (channel.size() < length) {
+                throw new IOException("快照长度不正确 " + path);
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (verify) {
+                CRC32 crc = new CRC32();
+                ByteBuffer body = buffer.duplicate();
+                body.position(HEADER_SIZE);
+                crc.update(body);
+                if ((int) crc.getValue() != header.bodyChecksum) {
+                    throw new IOException("快照数据校验失败 " + path);
+                }
+            }
+            return new HashTableSnapshot(channel, buffer, header);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 通过id查找，在映射内存中扫描id所在槽位
+     * 映射时可能没有校验数据，偏移和长度都先检查范围，损坏的快照抛出IOException而不是越界
+     * @param id id
+     * @return Person，不存在返回null
+     * @throws IOException 快照数据不正确
+     */
+    Person search(int id) throws IOException {
+        int bucket = Math.floorMod(id, bucketCount);
+        long start = buffer.getLong(offsetsPosition + bucket * Long.BYTES);
+        long end = buffer.getLong(offsetsPosition + (bucket + 1) * Long.BYTES);
+        if (start < HEADER_SIZE || start > end || end > offsetsPosition) {
+            throw new IOException("快照槽位偏移表不正确 " + bucket);
+        }
+
+        int position = (int) start;
+        while (position < end) {
+            if (position + Integer.BYTES * 2 > end) {
+                throw new IOException("快照元素不完整 " + position);
+            }
+            int length = buffer.getInt(position + Integer.BYTES);
+            if (length < 0 || length > end - position - Integer.BYTES * 2) {
+                throw new IOException("快照元素长度不正确 " + position);
+            }
+            if (buffer.getInt(position) == id) {
+                byte[] name = new byte[length];
+                ByteBuffer duplicate = buffer.duplicate();
+                duplicate.position(position + Integer.BYTES * 2);
+                duplicate.get(name);
+                return new Person(id, new String(name, StandardCharsets.UTF_8));
+            }
+            position += Integer.BYTES * 2 + length;
+        }
+        return null;
+    }
+
+    /**
+     * 元素个数
+     * @return 元素个数
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 取出槽位中的元素，平衡二叉树按id顺序
+     * @param bucket 槽位
+     * @return 元素
+     */
+    private static Person[] toArray(PersonBucket bucket) {
+        Person[] persons = new Person[bucket.size()];
+        int[] index = {0};
+        bucket.forEach(person -> persons[index[0]++] = person);
+        return persons;
+    }
+
+    /**
+     * 读取并校验文件头
+     * @param channel 文件通道
+     * @return 文件头
+     * @throws IOException 读取失败或校验失败
+     */
+    private static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, buffer, 0);
+        buffer.flip();
+
+        Header header = new Header();
+        int magic = buffer.getInt();
+        int version = buffer.getInt();
+        header.bucketCount = buffer.getInt();
+        header.size = buffer.getInt();
+        header.offsetsPosition = buffer.getLong();
+        header.bodyChecksum = buffer.getInt();
+        int headerChecksum = buffer.getInt();
+
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("不是哈希表快照文件");
+        }
+        if (headerChecksum != headerChecksum(buffer)) {
+            throw new IOException("快照文件头校验失败");
+        }
+        if (header.bucketCount <= 0 || header.size < 0 || header.offsetsPosition < HEADER_SIZE
+                || header.offsetsPosition + (header.bucketCount + 1L) * Long.BYTES > channel.size()) {
+            throw new IOException("快照文件头不正确");
+        }
+        return header;
+    }
+
+    /**
+     * 文件头校验和，覆盖文件头中校验和之前的部分
+     * @param header 文件头
+     * @return 校验和
+     */
+    private static int headerChecksum(ByteBuffer header) {
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 0, HEADER_SIZE - Integer.BYTES);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 从指定位置读满缓冲区
+     * @param channel 文件通道
+     * @param buffer 缓冲区
+     * @param position 位置
+     * @throws IOException 读取失败或文件过短
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("快照文件过短");
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * 保证缓冲区中至少有指定长度的未读数据，不足时从文件继续读取，最多读到元素区末尾
+     * 新读入的数据计入校验和；需要的长度超过缓冲区时换成更大的缓冲区
+     * @param channel 文件通道
+     * @param buffer 缓冲区，处于读模式
+     * @param position 缓冲区中未读数据在文件中的位置
+     * @param length 需要的长度
+     * @param end 元素区末尾
+     * @param crc 校验和
+     * @return 缓冲区
+     * @throws IOException 读取失败或文件过短
+     */
+    private static ByteBuffer fill(FileChannel channel, ByteBuffer buffer, long position, int length, long end, CRC32 crc) throws IOException {
+        if (buffer.remaining() >= length) {
+            return buffer;
+        }
+        if (position + length > end) {
+            throw new IOException("快照元素区不完整");
+        }
+        if (buffer.capacity() < length) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(length);
+            larger.put(buffer);
+            buffer = larger;
+        }
+        else {
+            buffer.compact();
+        }
+
+        // 已有数据之后接着读取，不超过元素区末尾
+        int start = buffer.position();
+        buffer.limit((int) Math.min(buffer.capacity(), start + (end - position - start)));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("快照文件过短");
+            }
+        }
+        buffer.flip();
+
+        ByteBuffer read = buffer.duplicate();
+        read.position(start);
+        crc.update(read);
+        return buffer;
+    }
+
+    /**
+     * 文件头
+     */
+    private static class Header {
+        /**
+         * 槽位数
+         */
+        int bucketCount;
+
+        /**
+         * 元素个数
+         */
+        int size;
+
+        /**
+         * 槽位偏移表位置
+         */
+        long offsetsPosition;
+
+        /**
+         * 数据校验和
+         */
+        int bodyChecksum;
+    }
+
+    /**
+     * 快照写入器，缓冲区写满后顺序写入文件，同时计算校验和
+     */
+    private static class SnapshotWriter {
+        /**
+         * 文件通道
+         */
+        private final FileChannel channel;
+
+        /**
+         * 缓冲区
+         */
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        /**
+         * 校验和
+         */
+        private final CRC32 crc = new CRC32();
+
+        /**
+         * 缓冲区起始位置在文件中的位置
+         */
+        private long filePosition;
+
+        SnapshotWriter(FileChannel channel, long filePosition) {
+            this.channel = channel;
+            this.filePosition = filePosition;
+        }
+
+        /**
+         * 当前写入位置
+         * @return 位置
+         */
+        long position() {
+            return filePosition + buffer.position();
+        }
+
+        /**
+         * 保证缓冲区剩余空间不小于指定长度
+         * @param length 长度，不超过缓冲区长度
+         * @throws IOException 写入失败
+         */
+        void ensureRemaining(int length) throws IOException {
+            if (buffer.remaining() < length) {
+                flush();
+            }
+        }
+
+        /**
+         * 写入字节，超过缓冲区剩余空间时先写出缓冲区，超过缓冲区长度时直接写入文件
+         * @param bytes 字节
+         * @throws IOException 写入失败
+         */
+        void put(byte[] bytes) throws IOException {
+            if (bytes.length <= buffer.remaining()) {
+                buffer.put(bytes);
+                return;
+            }
+            flush();
+            if (bytes.length <= buffer.remaining()) {
+                buffer.put(bytes);
+                return;
+            }
+            write(ByteBuffer.wrap(bytes));
+        }
+
+        /**
+         * 写出缓冲区
+         * @throws IOException 写入失败
+         */
+        void flush() throws IOException {
+            buffer.flip();
+            write(buffer);
+            buffer.clear();
+        }
+
+        /**
+         * 计算校验和并写入文件
+         * @param source 数据
+         * @throws IOException 写入失败
+         */
+        private void write(ByteBuffer source) throws IOException {
+            crc.update(source.duplicate());
+            while (source.hasRemaining()) {
+                filePosition += channel.write(source, filePosition);
+            }
+        }
+    }
+}
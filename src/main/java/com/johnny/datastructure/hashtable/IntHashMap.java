@@ -0,0 +1,376 @@
+package com.johnny.datastructure.hashtable;
+
+import java.util.Arrays;
+
+/**
+ * @author johnnyhao
+ *
+ * int键开放寻址哈希表
+ *
+ * - 键和值分别存放在两个数组中，不为每个元素创建节点对象，查找时顺序访问相邻槽位，对缓存友好
+ * - 容量为2的幂，先用乘法散列打散键的高低位，再用位与代替取模定位槽位，负数键同样适用
+ * - 线性探测解决冲突，元素个数超过容量与负载因子的乘积时容量翻倍并重新散列
+ * - 删除时将后续同一探测序列上的元素向前移动填补空位(backward shift)，不使用墓碑标记，删除后查找不会变慢
+ * - 键0用作空槽位标记，键为0的元素单独存放
+ */
+public class IntHashMap<V> {
+
+    /**
+     * 默认初始容量
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * 默认负载因子
+     */
+    public static final float DEFAULT_LOAD_FACTOR = 0.5f;
+
+    /**
+     * 最大容量
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * 空槽位标记
+     */
+    private static final int FREE_KEY = 0;
+
+    /**
+     * 负载因子
+     */
+    private final float loadFactor;
+
+    /**
+     * 键数组
+     */
+    private int[] keys;
+
+    /**
+     * 值数组
+     */
+    private V[] values;
+
+    /**
+     * 容量减一，用于位与定位槽位
+     */
+    private int mask;
+
+    /**
+     * 扩容阈值
+     */
+    private int threshold;
+
+    /**
+     * 元素个数，不含键0
+     */
+    private int size;
+
+    /**
+     * 是否存在键0
+     */
+    private boolean hasFreeKey;
+
+    /**
+     * 键0对应的值
+     */
+    private V freeValue;
+
+    /**
+     * 构造器
+     */
+    public IntHashMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * 构造器
+     * @param expectedSize 预计元素个数
+     */
+    public IntHashMap(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * 构造器
+     * @param expectedSize 预计元素个数
+     * @param loadFactor 负载因子，取值(0, 1)
+     */
+    public IntHashMap(int expectedSize, float loadFactor) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("预计元素个数不能为负数");
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("负载因子必须在0和1之间");
+        }
+        this.loadFactor = loadFactor;
+        allocate(tableSizeFor((long) Math.ceil(expectedSize / loadFactor)));
+    }
+
+    public static void main(String[] args) {
+        // 初始化哈希表
+        IntHashMap<String> map = new IntHashMap<>();
+
+        map.put(1, "张三");
+        map.put(2, "李四");
+        map.put(17, "王五");
+        map.put(-3, "赵六");
+        map.put(0, "钱七");
+        System.out.println("元素个数 " + map.size());
+        System.out.println("查找17 " + map.get(17));
+        System.out.println("查找-3 " + map.get(-3));
+
+        // 删除后同一探测序列上的元素前移，仍然可以找到
+        map.remove(1);
+        System.out.println("删除1后查找17 " + map.get(17));
+
+        // 遍历
+        map.forEach((key, value) -> System.out.println(key + "=" + value));
+    }
+
+    /**
+     * 散列函数，乘以黄金分割常数后混合高低位
+     * @param key 键
+     * @return 散列值
+     */
+    static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 查找
+     * @param key 键
+     * @return 值，不存在返回null
+     */
+    public V get(int key) {
+        if (key == FREE_KEY) {
+            return freeValue;
+        }
+
+        int[] keys = this.keys;
+        for (int index = hash(key) & mask; ; index = (index + 1) & mask) {
+            int current = keys[index];
+            if (current == key) {
+                return values[index];
+            }
+            if (current == FREE_KEY) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 是否包含键
+     * @param key 键
+     * @return 是否包含
+     */
+    public boolean containsKey(int key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey;
+        }
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * 添加或替换
+     * @param key 键
+     * @param value 值
+     * @return 原来的值，不存在返回null
+     */
+    public V put(int key, V value) {
+        if (key == FREE_KEY) {
+            V old = freeValue;
+            hasFreeKey = true;
+            freeValue = value;
+            return old;
+        }
+
+        int index = hash(key) & mask;
+        for (int current = keys[index]; current != FREE_KEY; current = keys[index]) {
+            if (current == key) {
+                V old = values[index];
+                values[index] = value;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+
+        // 达到最大容量时至少保留一个空槽位，保证查找能够结束
+        if (size == threshold && keys.length == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("哈希表已满");
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > threshold) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * 删除
+     * @param key 键
+     * @return 删除的值，不存在返回null
+     */
+    public V remove(int key) {
+        if (key == FREE_KEY) {
+            V old = freeValue;
+            hasFreeKey = false;
+            freeValue = null;
+            return old;
+        }
+
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V old = values[index];
+        shiftKeys(index);
+        size--;
+        return old;
+    }
+
+    /**
+     * 元素个数
+     * @return 元素个数
+     */
+    public int size() {
+        return hasFreeKey ? size + 1 : size;
+    }
+
+    /**
+     * 是否为空
+     * @return 是否为空
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 清空
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        Arrays.fill(values, null);
+        size = 0;
+        hasFreeKey = false;
+        freeValue = null;
+    }
+
+    /**
+     * 遍历所有元素，顺序与散列值有关
+     * @param consumer 元素处理
+     */
+    public void forEach(IntEntryConsumer<? super V> consumer) {
+        if (hasFreeKey) {
+            consumer.accept(FREE_KEY, freeValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * 查找键所在槽位
+     * @param key 键，不为0
+     * @return 槽位下标，不存在返回-1
+     */
+    private int indexOf(int key) {
+        for (int index = hash(key) & mask; ; index = (index + 1) & mask) {
+            int current = keys[index];
+            if (current == key) {
+                return index;
+            }
+            if (current == FREE_KEY) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * 删除槽位上的元素，并将后续探测序列上的元素前移填补空位
+     * 后续元素只有当空位位于其理想槽位到当前槽位的探测路径上时才能前移到空位
+     * @param last 空出的槽位
+     */
+    private void shiftKeys(int last) {
+        int index = last;
+        while (true) {
+            index = (index + 1) & mask;
+            int current = keys[index];
+            if (current == FREE_KEY) {
+                break;
+            }
+            int ideal = hash(current) & mask;
+            // 从理想槽位到当前槽位的距离不小于空位到当前槽位的距离，说明空位在探测路径上
+            if (((index - ideal) & mask) >= ((index - last) & mask)) {
+                keys[last] = current;
+                values[last] = values[index];
+                last = index;
+            }
+        }
+        keys[last] = FREE_KEY;
+        values[last] = null;
+    }
+
+    /**
+     * 扩容并重新散列
+     * @param capacity 新容量
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        V[] oldValues = values;
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != FREE_KEY) {
+                int index = hash(key) & mask;
+                while (keys[index] != FREE_KEY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * 分配数组
+     * @param capacity 容量，2的幂
+     */
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = (V[]) new Object[capacity];
+        mask = capacity - 1;
+        threshold = capacity == MAXIMUM_CAPACITY ? capacity - 1 : Math.min((int) (capacity * loadFactor), capacity - 1);
+    }
+
+    /**
+     * 不小于指定值的2的幂
+     * @param capacity 容量
+     * @return 2的幂
+     */
+    static int tableSizeFor(long capacity) {
+        if (capacity >= MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        return Math.max(Integer.highestOneBit((int) Math.max(capacity - 1, 1)) << 1, 2);
+    }
+
+    /**
+     * 元素处理
+     * @param <V> 值类型
+     */
+    @FunctionalInterface
+    public interface IntEntryConsumer<V> {
+        /**
+         * 处理一个元素
+         * @param key 键
+         * @param value 值
+         */
+        void accept(int key, V value);
+    }
+}
@@ -0,0 +1,604 @@
+package com.johnny.datastructure.hashtable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * @author johnnyhao
+ *
+ * 堆外哈希表
+ *
+ * Person数据全部存放在内存映射文件中，不占用堆内存，重启后重新映射文件即可使用，不需要重新加载
+ * - 索引文件：文件头加开放寻址的槽位数组，每个槽位16字节，存放id、姓名长度和姓名在数据文件中的偏移，偏移为0表示空槽位
+ * - 数据文件：姓名按UTF-8编码依次追加，修改和删除只更新索引，旧姓名成为垃圾留在数据文件中
+ * - 线性探测，删除时后续元素前移填补空位；元素个数超过负载阈值时写入一个两倍容量的新索引文件，再原子替换旧文件
+ * - 单个MappedByteBuffer最大2GB，文件按1GB分段映射，槽位按16字节对齐、姓名不跨段存放，读写不会跨越两个分段
+ *
+ * 写入在映射内存上完成，由操作系统异步刷盘，调用flush或close后数据才保证持久化
+ * 非线程安全
+ *
+ * Person只在包内可见，包外通过add(int, String)和getName读写
+ */
+public class MappedHashTable implements Closeable {
+
+    /**
+     * 索引文件名
+     */
+    static final String INDEX_FILE = "person.index";
+
+    /**
+     * 数据文件名
+     */
+    static final String DATA_FILE = "person.data";
+
+    /**
+     * 文件标识
+     */
+    private static final int MAGIC = 0x50455253;
+
+    /**
+     * 文件格式版本
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * 索引文件头长度
+     */
+    private static final int HEADER_SIZE = 64;
+
+    /**
+     * 文件头中容量的偏移
+     */
+    private static final int CAPACITY_OFFSET = 8;
+
+    /**
+     * 文件头中元素个数的偏移
+     */
+    private static final int SIZE_OFFSET = 12;
+
+    /**
+     * 文件头中数据文件已用长度的偏移
+     */
+    private static final int DATA_END_OFFSET = 16;
+
+    /**
+     * 槽位长度
+     */
+    private static final int SLOT_SIZE = 16;
+
+    /**
+     * 默认初始容量
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * 负载因子
+     */
+    private static final float LOAD_FACTOR = 0.6f;
+
+    /**
+     * 最大容量
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * 数据文件起始偏移，保证姓名偏移不为0
+     */
+    private static final long DATA_START = 8;
+
+    /**
+     * 数据文件初始长度
+     */
+    private static final long INITIAL_DATA_SIZE = 1 << 20;
+
+    /**
+     * 文件目录
+     */
+    private final Path directory;
+
+    /**
+     * 索引文件
+     */
+    private MappedRegion index;
+
+    /**
+     * 数据文件
+     */
+    private MappedRegion data;
+
+    /**
+     * 槽位数，2的幂
+     */
+    private int capacity;
+
+    /**
+     * 元素个数
+     */
+    private int size;
+
+    /**
+     * 数据文件已用长度
+     */
+    private long dataEnd;
+
+    /**
+     * 打开目录中的哈希表，不存在则创建
+     * @param directory 文件目录
+     * @throws IOException 读写失败或文件格式不正确
+     */
+    public MappedHashTable(Path directory) throws IOException {
+        this(directory, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 打开目录中的哈希表，不存在则按初始容量创建
+     * @param directory 文件目录
+     * @param initialCapacity 初始容量，已存在的哈希表忽略该参数
+     * @throws IOException 读写失败或文件格式不正确
+     */
+    public MappedHashTable(Path directory, int initialCapacity) throws IOException {
+        if (initialCapacity <= 0 || initialCapacity > MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException("初始容量必须在1到" + MAXIMUM_CAPACITY + "之间");
+        }
+        this.directory = directory;
+        Files.createDirectories(directory);
+
+        Path indexPath = directory.resolve(INDEX_FILE);
+        boolean exists = Files.exists(indexPath);
+        try {
+            if (exists) {
+                // 重新映射已有文件，只读取文件头
+                index = new MappedRegion(indexPath, 0);
+                if (index.size() < HEADER_SIZE || index.getInt(0) != MAGIC || index.getInt(4) != VERSION) {
+                    throw new IOException("索引文件格式不正确 " + indexPath);
+                }
+                capacity = index.getInt(CAPACITY_OFFSET);
+                size = index.getInt(SIZE_OFFSET);
+                dataEnd = index.getLong(DATA_END_OFFSET);
+                if (Integer.bitCount(capacity) != 1 || index.size() != HEADER_SIZE + (long) capacity * SLOT_SIZE) {
+                    throw new IOException("索引文件长度不正确 " + indexPath);
+                }
+                data = new MappedRegion(directory.resolve(DATA_FILE), 0);
+                if (data.size() < dataEnd) {
+                    throw new IOException("数据文件长度不正确 " + directory.resolve(DATA_FILE));
+                }
+            }
+            else {
+                capacity = Integer.highestOneBit(Math.max(initialCapacity - 1, 1)) << 1;
+                dataEnd = DATA_START;
+                data = new MappedRegion(directory.resolve(DATA_FILE), INITIAL_DATA_SIZE);
+                index = createIndex(indexPath, capacity);
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("mapped-hash-table");
+
+        try {
+            // 写入后关闭
+            try (MappedHashTable hashTable = new MappedHashTable(directory, 4)) {
+                hashTable.add(new Person(1, "张三"));
+                hashTable.add(new Person(2, "李四"));
+                hashTable.add(new Person(17, "王五"));
+                hashTable.add(new Person(-1, "赵六"));
+                hashTable.remove(2);
+                hashTable.list();
+            }
+
+            // 重新打开，直接映射已有文件
+            try (MappedHashTable hashTable = new MappedHashTable(directory)) {
+                System.out.println("重新打开后元素个数 " + hashTable.size());
+                System.out.println(hashTable.search(17));
+                System.out.println(hashTable.search(2));
+            }
+        } finally {
+            Files.deleteIfExists(directory.resolve(INDEX_FILE));
+            Files.deleteIfExists(directory.resolve(DATA_FILE));
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    /**
+     * 添加Person，id已存在则替换姓名
+     * @param person Person
+     * @throws IOException 扩容失败
+     */
+    void add(Person person) throws IOException {
+        add(person.getId(), person.getName());
+    }
+
+    /**
+     * 添加Person，id已存在则替换姓名
+     * 确定槽位可用后才追加姓名，扩容失败或哈希表已满时数据文件不会留下垃圾
+     * @param id id
+     * @param name 姓名
+     * @throws IOException 扩容失败
+     */
+    public void add(int id, String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+
+        long slot = findSlot(id);
+        if (index.getLong(slot + 8) == 0) {
+            // 新增前检查负载，扩容后重新查找空槽位
+            if (size + 1 > capacity * LOAD_FACTOR && capacity < MAXIMUM_CAPACITY) {
+                resize(capacity << 1);
+                slot = findSlot(id);
+            }
+            // 达到最大容量时至少保留一个空槽位，保证查找能够结束
+            if (size == capacity - 1) {
+                throw new IllegalStateException("哈希表已满");
+            }
+            long nameOffset = appendName(bytes);
+            // 先写id和长度，最后写偏移标记槽位已占用
+            index.putInt(slot, id);
+            index.putInt(slot + 4, bytes.length);
+            index.putLong(slot + 8, nameOffset);
+            index.putInt(SIZE_OFFSET, ++size);
+        }
+        else {
+            long nameOffset = appendName(bytes);
+            index.putInt(slot + 4, bytes.length);
+            index.putLong(slot + 8, nameOffset);
+        }
+    }
+
+    /**
+     * 通过id查找
+     * @param id id
+     * @return Person，不存在返回null
+     */
+    Person search(int id) {
+        String name = getName(id);
+        return name == null ? null : new Person(id, name);
+    }
+
+    /**
+     * 通过id查找姓名
+     * @param id id
+     * @return 姓名，不存在返回null
+     */
+    public String getName(int id) {
+        long slot = findSlot(id);
+        long nameOffset = index.getLong(slot + 8);
+        if (nameOffset == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[index.getInt(slot + 4)];
+        data.get(nameOffset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 通过id删除
+     * @param id id
+     * @return 是否删除
+     */
+    public boolean remove(int id) {
+        long slot = findSlot(id);
+        if (index.getLong(slot + 8) == 0) {
+            return false;
+        }
+
+        // 后续探测序列上的元素前移填补空位
+        int mask = capacity - 1;
+        int last = (int) ((slot - HEADER_SIZE) / SLOT_SIZE);
+        int current = last;
+        while (true) {
+            current = (current + 1) & mask;
+            long currentSlot = slotOffset(current);
+            long nameOffset = index.getLong(currentSlot + 8);
+            if (nameOffset == 0) {
+                break;
+            }
+            int currentId = index.getInt(currentSlot);
+            int ideal = IntHashMap.hash(currentId) & mask;
+            if (((current - ideal) & mask) >= ((current - last) & mask)) {
+                long lastSlot = slotOffset(last);
+                index.putInt(lastSlot, currentId);
+                index.putInt(lastSlot + 4, index.getInt(currentSlot + 4));
+                index.putLong(lastSlot + 8, nameOffset);
+                last = current;
+            }
+        }
+        index.putLong(slotOffset(last) + 8, 0);
+        index.putInt(SIZE_OFFSET, --size);
+        return true;
+    }
+
+    /**
+     * 元素个数
+     * @return 元素个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 遍历显示哈希表
+     */
+    public void list() {
+        for (int i = 0; i < capacity; i++) {
+            long slot = slotOffset(i);
+            if (index.getLong(slot + 8) != 0) {
+                System.out.println(search(index.getInt(slot)));
+            }
+        }
+    }
+
+    /**
+     * 将映射内存中的修改写入磁盘
+     */
+    public void flush() {
+        // 先刷数据文件，索引中不会出现指向未持久化姓名的偏移
+        data.force();
+        index.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (index != null && data != null) {
+                flush();
+            }
+        } finally {
+            if (data != null) {
+                data.close();
+            }
+            if (index != null) {
+                index.close();
+            }
+        }
+    }
+
+    /**
+     * 查找id所在槽位，不存在返回探测到的空槽位
+     * @param id id
+     * @return 槽位在索引文件中的偏移
+     */
+    private long findSlot(int id) {
+        int mask = capacity - 1;
+        for (int i = IntHashMap.hash(id) & mask; ; i = (i + 1) & mask) {
+            long slot = slotOffset(i);
+            if (index.getLong(slot + 8) == 0 || index.getInt(slot) == id) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * 槽位偏移
+     * @param i 槽位下标
+     * @return 槽位在索引文件中的偏移
+     */
+    private static long slotOffset(int i) {
+        return HEADER_SIZE + (long) i * SLOT_SIZE;
+    }
+
+    /**
+     * 追加姓名到数据文件，姓名不跨越映射分段
+     * @param bytes 姓名
+     * @return 姓名在数据文件中的偏移
+     * @throws IOException 扩展文件失败
+     */
+    private long appendName(byte[] bytes) throws IOException {
+        if (bytes.length > MappedRegion.SEGMENT_SIZE) {
+            throw new IllegalArgumentException("姓名过长");
+        }
+        long offset = dataEnd;
+        if ((offset & MappedRegion.SEGMENT_MASK) + bytes.length > MappedRegion.SEGMENT_SIZE) {
+            offset = (offset | MappedRegion.SEGMENT_MASK) + 1;
+        }
+        data.ensureSize(offset + bytes.length);
+        data.put(offset, bytes);
+        dataEnd = offset + bytes.length;
+        index.putLong(DATA_END_OFFSET, dataEnd);
+        return offset;
+    }
+
+    /**
+     * 创建索引文件并写入文件头
+     * @param path 文件路径
+     * @param capacity 容量
+     * @return 映射区域
+     * @throws IOException 创建失败
+     */
+    private MappedRegion createIndex(Path path, int capacity) throws IOException {
+        MappedRegion region = new MappedRegion(path, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+        region.putInt(0, MAGIC);
+        region.putInt(4, VERSION);
+        region.putInt(CAPACITY_OFFSET, capacity);
+        region.putInt(SIZE_OFFSET, size);
+        region.putLong(DATA_END_OFFSET, dataEnd);
+        return region;
+    }
+
+    /**
+     * 扩容，写入新索引文件后原子替换旧文件
+     * @param newCapacity 新容量
+     * @throws IOException 读写失败
+     */
+    private void resize(int newCapacity) throws IOException {
+        Path tempPath = directory.resolve(INDEX_FILE + ".tmp");
+        Files.deleteIfExists(tempPath);
+        MappedRegion newIndex = createIndex(tempPath, newCapacity);
+
+        int mask = newCapacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            long slot = slotOffset(i);
+            long nameOffset = index.getLong(slot + 8);
+            if (nameOffset != 0) {
+                int id = index.getInt(slot);
+                int j = IntHashMap.hash(id) & mask;
+                while (newIndex.getLong(slotOffset(j) + 8) != 0) {
+                    j = (j + 1) & mask;
+                }
+                long newSlot = slotOffset(j);
+                newIndex.putInt(newSlot, id);
+                newIndex.putInt(newSlot + 4, index.getInt(slot + 4));
+                newIndex.putLong(newSlot + 8, nameOffset);
+            }
+        }
+
+        // 新索引持久化后再替换，任意时刻磁盘上都有一个完整的索引文件
+        data.force();
+        newIndex.force();
+        Files.move(tempPath, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        index.close();
+        index = newIndex;
+        capacity = newCapacity;
+    }
+}
+
+/**
+ * 分段映射的文件区域
+ * 文件按1GB分段映射，突破单个MappedByteBuffer 2GB的限制
+ */
+class MappedRegion implements Closeable {
+    /**
+     * 分段长度的位数
+     */
+    static final int SEGMENT_SHIFT = 30;
+
+    /**
+     * 分段长度
+     */
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+
+    /**
+     * 分段内偏移掩码
+     */
+    static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    /**
+     * 文件通道
+     */
+    private final FileChannel channel;
+
+    /**
+     * 映射分段
+     */
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    /**
+     * 已映射长度
+     */
+    private long size;
+
+    /**
+     * 打开文件并映射，文件不足指定长度时扩展
+     * @param path 文件路径
+     * @param minimumSize 最小长度
+     * @throws IOException 打开失败
+     */
+    MappedRegion(Path path, long minimumSize) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            map(Math.max(channel.size(), minimumSize));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 已映射长度
+     * @return 长度
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * 保证映射长度不小于指定值，不足时按两倍扩展文件
+     * @param minimumSize 最小长度
+     * @throws IOException 扩展失败
+     */
+    void ensureSize(long minimumSize) throws IOException {
+        if (minimumSize > size) {
+            map(Math.max(minimumSize, size << 1));
+        }
+    }
+
+    /**
+     * 映射到指定长度，只重新映射最后一个不完整的分段和新增分段
+     * @param newSize 新长度
+     * @throws IOException 映射失败
+     */
+    private void map(long newSize) throws IOException {
+        int count = (int) ((newSize + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        int first = size % SEGMENT_SIZE == 0 ? segments.length : segments.length - 1;
+        MappedByteBuffer[] newSegments = Arrays.copyOf(segments, count);
+        for (int i = first; i < count; i++) {
+            long position = (long) i << SEGMENT_SHIFT;
+            newSegments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.min(SEGMENT_SIZE, newSize - position));
+        }
+        segments = newSegments;
+        size = newSize;
+    }
+
+    int getInt(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].getInt((int) (position & SEGMENT_MASK));
+    }
+
+    void putInt(long position, int value) {
+        segments[(int) (position >>> SEGMENT_SHIFT)].putInt((int) (position & SEGMENT_MASK), value);
+    }
+
+    long getLong(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].getLong((int) (position & SEGMENT_MASK));
+    }
+
+    void putLong(long position, long value) {
+        segments[(int) (position >>> SEGMENT_SHIFT)].putLong((int) (position & SEGMENT_MASK), value);
+    }
+
+    /**
+     * 读取字节，调用方保证不跨越分段
+     * @param position 位置
+     * @param bytes 目标数组
+     */
+    void get(long position, byte[] bytes) {
+        ByteBuffer buffer = segments[(int) (position >>> SEGMENT_SHIFT)].duplicate();
+        buffer.position((int) (position & SEGMENT_MASK));
+        buffer.get(bytes);
+    }
+
+    /**
+     * 写入字节，调用方保证不跨越分段
+     * @param position 位置
+     * @param bytes 源数组
+     */
+    void put(long position, byte[] bytes) {
+        ByteBuffer buffer = segments[(int) (position >>> SEGMENT_SHIFT)].duplicate();
+        buffer.position((int) (position & SEGMENT_MASK));
+        buffer.put(bytes);
+    }
+
+    /**
+     * 将修改写入磁盘
+     */
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
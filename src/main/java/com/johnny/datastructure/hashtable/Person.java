@@ -0,0 +1,36 @@
+package com.johnny.datastructure.hashtable;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * @author johnnyhao
+ *
+ * 定义Person对象
+ * 每个Person对象就是一个节点
+ */
+@ToString(exclude = "next")
+@Getter
+@Setter
+@RequiredArgsConstructor
+class Person {
+    /**
+     * ID
+     */
+    @NonNull
+    private int id;
+
+    /**
+     * 姓名
+     */
+    @NonNull
+    private String name;
+
+    /**
+     * 下一节点
+     */
+    private Person next;
+}
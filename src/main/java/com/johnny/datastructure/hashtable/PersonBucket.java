@@ -0,0 +1,50 @@
+package com.johnny.datastructure.hashtable;
+
+import java.util.function.Consumer;
+
+/**
+ * @author johnnyhao
+ *
+ * 哈希表槽位
+ * 槽位中的元素较少时使用链表，冲突过多时转为平衡二叉树
+ */
+interface PersonBucket {
+    /**
+     * 添加Person
+     * @param person 新节点
+     */
+    void add(Person person);
+
+    /**
+     * 通过id查找
+     * @param id id
+     * @return Person
+     */
+    Person search(int id);
+
+    /**
+     * 通过id删除
+     * @param id id
+     * @return 是否删除
+     */
+    boolean delete(int id);
+
+    /**
+     * 元素个数
+     * @return 元素个数
+     */
+    int size();
+
+    /**
+     * 遍历，链表按添加顺序，平衡二叉树按id顺序
+     * @param consumer 处理
+     */
+    void forEach(Consumer<Person> consumer);
+
+    /**
+     * 遍历显示
+     */
+    default void list() {
+        forEach(System.out::println);
+    }
+}
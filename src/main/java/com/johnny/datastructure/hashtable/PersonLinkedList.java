@@ -0,0 +1,99 @@
+package com.johnny.datastructure.hashtable;
+
+import java.util.function.Consumer;
+
+/**
+ * @author johnnyhao
+ *
+ * 定义Person单链表
+ */
+class PersonLinkedList implements PersonBucket {
+    /**
+     * 初始化头节点，定义链表头部
+     */
+    private final Person head = new Person(0, "");
+
+    /**
+     * 尾节点，添加时不需要遍历链表
+     */
+    private Person tail = head;
+
+    /**
+     * 元素个数
+     */
+    private int size;
+
+    /**
+     * 添加Person节点到链表尾部
+     * @param person 新节点
+     */
+    @Override
+    public void add(Person person) {
+        person.setNext(null);
+        tail.setNext(person);
+        tail = person;
+        size++;
+    }
+
+    /**
+     * 通过id查找
+     * @param id id
+     * @return Person
+     */
+    @Override
+    public Person search(int id) {
+        Person temp = head.getNext();
+        while (temp != null) {
+            if (temp.getId() == id) {
+                return temp;
+            }
+            temp = temp.getNext();
+        }
+        return null;
+    }
+
+    /**
+     * 通过id删除
+     * @param id id
+     * @return 是否删除
+     */
+    @Override
+    public boolean delete(int id) {
+        Person temp = head;
+        while (temp.getNext() != null) {
+            if (temp.getNext().getId() == id) {
+                Person deleted = temp.getNext();
+                temp.setNext(deleted.getNext());
+                deleted.setNext(null);
+                if (deleted == tail) {
+                    tail = temp;
+                }
+                size--;
+                return true;
+            }
+            temp = temp.getNext();
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 遍历链表
+     * 先取出下一节点再处理当前节点，处理时可以把节点加入其他链表
+     * @param consumer 处理
+     */
+    @Override
+    public void forEach(Consumer<Person> consumer) {
+        Person temp = head.getNext();
+
+        while (temp != null) {
+            Person next = temp.getNext();
+            consumer.accept(temp);
+            temp = next;
+        }
+    }
+}
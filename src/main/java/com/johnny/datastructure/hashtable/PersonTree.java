@@ -0,0 +1,264 @@
+package com.johnny.datastructure.hashtable;
+
+import java.util.function.Consumer;
+
+/**
+ * @author johnnyhao
+ *
+ * 定义Person平衡二叉树
+ * 按id排序，id相同的节点放在右子树
+ * 旋转方式与BinaryBalanceTreeImpl相同，交换节点的值而不是替换子树根节点，父节点和槽位中的引用都不需要修改
+ * 节点缓存子树高度，添加和删除后只沿路径更新高度，不需要重新计算整棵子树
+ * 旋转与tree包的AvlTree写法相同，节点类型不同没有共用，修改时需要同步检查AvlTree
+ */
+class PersonTree implements PersonBucket {
+    /**
+     * 根节点
+     */
+    private PersonTreeNode root;
+
+    /**
+     * 元素个数
+     */
+    private int size;
+
+    /**
+     * 添加Person节点
+     * @param person 新节点
+     */
+    @Override
+    public void add(Person person) {
+        person.setNext(null);
+        if (root == null) {
+            root = new PersonTreeNode(person);
+        }
+        else {
+            add(root, person);
+        }
+        size++;
+    }
+
+    /**
+     * 递归添加
+     * @param node 当前节点
+     * @param person 新节点
+     */
+    private void add(PersonTreeNode node, Person person) {
+        // 新节点的id小于当前节点，加入左子树
+        if (person.getId() < node.getPerson().getId()) {
+            if (node.getLeft() == null) {
+                node.setLeft(new PersonTreeNode(person));
+            }
+            else {
+                add(node.getLeft(), person);
+            }
+        }
+        // 新节点的id不小于当前节点，加入右子树
+        else {
+            if (node.getRight() == null) {
+                node.setRight(new PersonTreeNode(person));
+            }
+            else {
+                add(node.getRight(), person);
+            }
+        }
+
+        rebalance(node);
+    }
+
+    /**
+     * 通过id查找
+     * @param id id
+     * @return Person
+     */
+    @Override
+    public Person search(int id) {
+        PersonTreeNode node = root;
+        while (node != null) {
+            int nodeId = node.getPerson().getId();
+            if (id == nodeId) {
+                return node.getPerson();
+            }
+            node = id < nodeId ? node.getLeft() : node.getRight();
+        }
+        return null;
+    }
+
+    /**
+     * 通过id删除
+     * @param id id
+     * @return 是否删除
+     */
+    @Override
+    public boolean delete(int id) {
+        int oldSize = size;
+        root = delete(root, id);
+        return size < oldSize;
+    }
+
+    /**
+     * 递归删除
+     * @param node 当前节点
+     * @param id id
+     * @return 删除后的子树根节点
+     */
+    private PersonTreeNode delete(PersonTreeNode node, int id) {
+        if (node == null) {
+            return null;
+        }
+
+        int nodeId = node.getPerson().getId();
+        if (id < nodeId) {
+            node.setLeft(delete(node.getLeft(), id));
+        }
+        else if (id > nodeId) {
+            node.setRight(delete(node.getRight(), id));
+        }
+        else {
+            size--;
+            // 只有一个子节点，直接用子节点替换
+            if (node.getLeft() == null) {
+                return node.getRight();
+            }
+            if (node.getRight() == null) {
+                return node.getLeft();
+            }
+            // 有两个子节点，用右子树的最小节点替换
+            PersonTreeNode min = node.getRight();
+            while (min.getLeft() != null) {
+                min = min.getLeft();
+            }
+            node.setPerson(min.getPerson());
+            node.setRight(deleteMin(node.getRight()));
+        }
+
+        rebalance(node);
+        return node;
+    }
+
+    /**
+     * 删除子树的最小节点
+     * @param node 子树根节点
+     * @return 删除后的子树根节点
+     */
+    private PersonTreeNode deleteMin(PersonTreeNode node) {
+        if (node.getLeft() == null) {
+            return node.getRight();
+        }
+        node.setLeft(deleteMin(node.getLeft()));
+        rebalance(node);
+        return node;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 中序遍历
+     * @param consumer 处理
+     */
+    @Override
+    public void forEach(Consumer<Person> consumer) {
+        forEach(root, consumer);
+    }
+
+    /**
+     * 递归中序遍历
+     * @param node 节点
+     * @param consumer 处理
+     */
+    private void forEach(PersonTreeNode node, Consumer<Person> consumer) {
+        if (node != null) {
+            forEach(node.getLeft(), consumer);
+            consumer.accept(node.getPerson());
+            forEach(node.getRight(), consumer);
+        }
+    }
+
+    /**
+     * 子树高度
+     * @param node 节点
+     * @return 高度，空树为0
+     */
+    private static int height(PersonTreeNode node) {
+        return node == null ? 0 : node.getHeight();
+    }
+
+    /**
+     * 更新节点高度
+     * @param node 节点
+     */
+    private static void updateHeight(PersonTreeNode node) {
+        node.setHeight(Math.max(height(node.getLeft()), height(node.getRight())) + 1);
+    }
+
+    /**
+     * 更新高度，高度差超过1时旋转
+     * @param node 节点
+     */
+    private static void rebalance(PersonTreeNode node) {
+        updateHeight(node);
+        int difference = height(node.getLeft()) - height(node.getRight());
+
+        // 左子树高，右旋转，左子节点的右子树更高时先对左子节点左旋转
+        if (difference > 1) {
+            if (height(node.getLeft().getLeft()) < height(node.getLeft().getRight())) {
+                leftRotate(node.getLeft());
+            }
+            rightRotate(node);
+        }
+        // 右子树高，左旋转，右子节点的左子树更高时先对右子节点右旋转
+        else if (difference < -1) {
+            if (height(node.getRight().getRight()) < height(node.getRight().getLeft())) {
+                rightRotate(node.getRight());
+            }
+            leftRotate(node);
+        }
+    }
+
+    /**
+     * 左旋转
+     * 当前节点换成右子节点的值，原来的值下移到左子节点，复用右子节点对象作为新的左子节点
+     * @param node 节点
+     */
+    private static void leftRotate(PersonTreeNode node) {
+        PersonTreeNode newNode = node.getRight();
+        // 交换当前节点和右子节点的值
+        Person person = node.getPerson();
+        node.setPerson(newNode.getPerson());
+        newNode.setPerson(person);
+        // 新的左子节点的右子树设置成原右子节点的左子树，左子树设置成当前节点的左子树
+        node.setRight(newNode.getRight());
+        newNode.setRight(newNode.getLeft());
+        newNode.setLeft(node.getLeft());
+        // 当前节点的左子节点设置成新的节点
+        node.setLeft(newNode);
+
+        updateHeight(newNode);
+        updateHeight(node);
+    }
+
+    /**
+     * 右旋转
+     * 当前节点换成左子节点的值，原来的值下移到右子节点，复用左子节点对象作为新的右子节点
+     * @param node 节点
+     */
+    private static void rightRotate(PersonTreeNode node) {
+        PersonTreeNode newNode = node.getLeft();
+        // 交换当前节点和左子节点的值
+        Person person = node.getPerson();
+        node.setPerson(newNode.getPerson());
+        newNode.setPerson(person);
+        // 新的右子节点的左子树设置成原左子节点的右子树，右子树设置成当前节点的右子树
+        node.setLeft(newNode.getLeft());
+        newNode.setLeft(newNode.getRight());
+        newNode.setRight(node.getRight());
+        // 当前节点的右子节点设置成新的节点
+        node.setRight(newNode);
+
+        updateHeight(newNode);
+        updateHeight(node);
+    }
+}
@@ -0,0 +1,37 @@
+package com.johnny.datastructure.hashtable;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * @author johnnyhao
+ *
+ * 平衡二叉树节点
+ */
+@Getter
+@Setter
+@RequiredArgsConstructor
+class PersonTreeNode {
+    /**
+     * Person
+     */
+    @NonNull
+    private Person person;
+
+    /**
+     * 子树高度
+     */
+    private int height = 1;
+
+    /**
+     * 左子节点
+     */
+    private PersonTreeNode left;
+
+    /**
+     * 右子节点
+     */
+    private PersonTreeNode right;
+}
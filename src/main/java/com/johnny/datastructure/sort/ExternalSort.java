@@ -0,0 +1,622 @@
+package com.johnny.datastructure.sort;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author johnnyhao
+ *
+ * 外部排序
+ *
+ * 对超过堆内存大小的定长记录文件排序，记录的键为记录中指定位置的8字节有符号long(大端序)
+ * - 生成有序段：按内存预算将输入文件分段映射到内存，取出每条记录的键和下标，用基数排序对键排序，再按顺序将记录写入临时文件
+ * - 多路归并：每个有序段一个读取器，用小顶堆选出键最小的记录写入输出，有序段个数超过归并路数时先分组归并成更少的有序段
+ * - 读写重叠：后台线程预先加载下一段映射区域、预读每个有序段的下一块数据，写入时双缓冲，当前缓冲区写满后交给后台线程写入
+ *
+ * 键相同的记录保持输入顺序，排序是稳定的
+ */
+public class ExternalSort {
+
+    /**
+     * 默认归并路数
+     */
+    public static final int DEFAULT_FAN_IN = 64;
+
+    /**
+     * 每条记录在内存中排序时除记录本身外的开销，键、下标及基数排序的辅助数组
+     */
+    private static final int RECORD_OVERHEAD = 2 * (Long.BYTES + Integer.BYTES);
+
+    /**
+     * 单个读写缓冲区的最大长度
+     */
+    private static final int MAX_BUFFER_SIZE = 8 << 20;
+
+    /**
+     * 记录长度
+     */
+    private final int recordSize;
+
+    /**
+     * 键在记录中的偏移
+     */
+    private final int keyOffset;
+
+    /**
+     * 内存预算
+     */
+    private final long memoryBudget;
+
+    /**
+     * 归并路数
+     */
+    private final int fanIn;
+
+    /**
+     * 临时文件目录
+     */
+    private final Path tempDirectory;
+
+    /**
+     * 构造器
+     * @param recordSize 记录长度
+     * @param keyOffset 键在记录中的偏移
+     * @param memoryBudget 内存预算，决定每个有序段的记录数和读写缓冲区大小
+     * @param fanIn 归并路数
+     * @param tempDirectory 临时文件目录
+     */
+    public ExternalSort(int recordSize, int keyOffset, long memoryBudget, int fanIn, Path tempDirectory) {
+        if (recordSize <= 0 || keyOffset < 0 || keyOffset + Long.BYTES > recordSize) {
+            throw new IllegalArgumentException("键必须完整位于记录内");
+        }
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("归并路数不能小于2");
+        }
+        if (memoryBudget < (long) (recordSize + RECORD_OVERHEAD) * fanIn * 4) {
+            throw new IllegalArgumentException("内存预算过小");
+        }
+        this.recordSize = recordSize;
+        this.keyOffset = keyOffset;
+        this.memoryBudget = memoryBudget;
+        this.fanIn = fanIn;
+        this.tempDirectory = tempDirectory;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // 生成测试文件，每条记录32字节，前8字节为键，后面为记录序号
+        int recordSize = 32;
+        int records = 1000000;
+        Path input = Files.createTempFile("external-sort-input", ".dat");
+        Path output = Files.createTempFile("external-sort-output", ".dat");
+
+        try {
+            try (FileChannel channel = FileChannel.open(input, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(recordSize * 1024);
+                Random random = new Random();
+                for (int i = 0; i < records; i++) {
+                    buffer.putLong(random.nextInt(1000) - 500).putLong(i).putLong(0).putLong(0);
+                    if (!buffer.hasRemaining() || i == records - 1) {
+                        buffer.flip();
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer);
+                        }
+                        buffer.clear();
+                    }
+                }
+            }
+
+            // 4MB内存预算，8路归并
+            long startTime = System.currentTimeMillis();
+            new ExternalSort(recordSize, 0, 4 << 20, 8, input.getParent()).sort(input, output);
+            long endTime = System.currentTimeMillis();
+            System.out.printf("排序%d条记录用时%dms\n", records, endTime - startTime);
+
+            // 校验键有序且键相同时序号递增
+            try (FileChannel channel = FileChannel.open(output, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                long previousKey = Long.MIN_VALUE;
+                long previousId = -1;
+                boolean sorted = channel.size() == (long) records * recordSize;
+                for (int i = 0; i < records && sorted; i++) {
+                    long key = buffer.getLong(i * recordSize);
+                    long id = buffer.getLong(i * recordSize + Long.BYTES);
+                    sorted = key > previousKey || key == previousKey && id > previousId;
+                    previousKey = key;
+                    previousId = id;
+                }
+                System.out.println(sorted ? "排序正确" : "排序错误");
+            }
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    /**
+     * 外部排序
+     * @param input 输入文件
+     * @param output 输出文件
+     * @throws IOException 读写失败
+     */
+    public void sort(Path input, Path output) throws IOException {
+        // 后台读写线程
+        ExecutorService io = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "external-sort-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<Path> runs = new ArrayList<>();
+        try {
+            // 生成有序段
+            runs = createRuns(input, io);
+
+            // 有序段个数超过归并路数时，分组归并成更少的有序段
+            while (runs.size() > fanIn) {
+                List<Path> merged = new ArrayList<>();
+                try {
+                    for (int i = 0; i < runs.size(); i += fanIn) {
+                        List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                        Path run = Files.createTempFile(tempDirectory, "run-", ".tmp");
+                        merged.add(run);
+                        merge(group, run, io);
+                        for (Path path : group) {
+                            Files.deleteIfExists(path);
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // 本轮已生成的有序段不在runs中，失败时在这里删除
+                    for (Path run : merged) {
+                        Files.deleteIfExists(run);
+                    }
+                    throw e;
+                }
+                runs = merged;
+            }
+
+            // 最后一次归并写入输出文件
+            merge(runs, output, io);
+        } finally {
+            io.shutdownNow();
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    /**
+     * 生成有序段
+     * 按内存预算分段映射输入文件，对每段记录的键排序后按顺序写入临时文件
+     * @param input 输入文件
+     * @param io 后台读写线程
+     * @return 有序段文件
+     * @throws IOException 读写失败
+     */
+    private List<Path> createRuns(Path input, ExecutorService io) throws IOException {
+        List<Path> runs = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % recordSize != 0) {
+                throw new IOException("文件长度不是记录长度的整数倍");
+            }
+
+            // 每个有序段的记录数，同时受内存预算和单次映射长度限制
+            long totalRecords = size / recordSize;
+            int bufferSize = bufferSize(2);
+            int runRecords = (int) Math.min(Math.min((memoryBudget - 2L * bufferSize) / (recordSize + RECORD_OVERHEAD),
+                    Integer.MAX_VALUE / recordSize), Math.max(totalRecords, 1));
+
+            long[] keys = new long[runRecords];
+            int[] indexes = new int[runRecords];
+
+            MappedByteBuffer current = totalRecords > 0 ? map(channel, 0, runRecords, totalRecords) : null;
+            for (long first = 0; first < totalRecords; first += runRecords) {
+                int count = (int) Math.min(runRecords, totalRecords - first);
+
+                // 后台加载下一段映射区域
+                long nextFirst = first + runRecords;
+                MappedByteBuffer next = nextFirst < totalRecords ? map(channel, nextFirst, runRecords, totalRecords) : null;
+                Future<?> prefetch = next != null ? io.submit(next::load) : null;
+
+                // 取出键和下标，按键排序
+                if (count != keys.length) {
+                    keys = new long[count];
+                    indexes = new int[count];
+                }
+                for (int i = 0; i < count; i++) {
+                    keys[i] = current.getLong(i * recordSize + keyOffset);
+                    indexes[i] = i;
+                }
+                RadixSort.lsdSort(keys, indexes);
+
+                // 按顺序写入有序段
+                Path run = Files.createTempFile(tempDirectory, "run-", ".tmp");
+                runs.add(run);
+                try (RunWriter writer = new RunWriter(run, bufferSize, io)) {
+                    for (int i = 0; i < count; i++) {
+                        writer.write(current, indexes[i] * recordSize, recordSize);
+                    }
+                }
+
+                await(prefetch);
+                current = next;
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            throw e;
+        }
+
+        return runs;
+    }
+
+    /**
+     * 多路归并
+     * @param runs 有序段文件
+     * @param output 输出文件
+     * @param io 后台读写线程
+     * @throws IOException 读写失败
+     */
+    private void merge(List<Path> runs, Path output, ExecutorService io) throws IOException {
+        int k = runs.size();
+        int readBufferSize = bufferSize(2 * k + 2);
+        RunReader[] readers = new RunReader[k];
+
+        try (RunWriter writer = new RunWriter(output, bufferSize(2 * k + 2), io)) {
+            // 小顶堆，存放有序段下标，keys为每个有序段当前记录的键
+            int[] heap = new int[k];
+            long[] keys = new long[k];
+            int length = 0;
+
+            for (int i = 0; i < k; i++) {
+                readers[i] = new RunReader(runs.get(i), readBufferSize, io);
+                if (readers[i].advance()) {
+                    keys[i] = readers[i].key();
+                    heap[length++] = i;
+                }
+            }
+
+            // 构建小顶堆
+            for (int i = length / 2 - 1; i >= 0; i--) {
+                buildHeap(heap, keys, i, length);
+            }
+
+            // 每次取出堆顶有序段的当前记录，有序段读完则用堆尾替换堆顶
+            while (length > 0) {
+                int run = heap[0];
+                readers[run].writeTo(writer);
+
+                if (readers[run].advance()) {
+                    keys[run] = readers[run].key();
+                }
+                else {
+                    heap[0] = heap[--length];
+                }
+                buildHeap(heap, keys, 0, length);
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * 调整小顶堆，与HeapSort.buildHeap相同的下沉方式
+     * 键相同时有序段下标小的在前，保证稳定
+     * @param heap 堆，存放有序段下标
+     * @param keys 每个有序段当前记录的键
+     * @param index 表示非叶子节点在堆中索引
+     * @param length 堆长度
+     */
+    private static void buildHeap(int[] heap, long[] keys, int index, int length) {
+        // 取出当前节点
+        int temp = heap[index];
+
+        // 从当前节点的左子节点开始遍历
+        for (int i = index * 2 + 1; i < length; i = i * 2 + 1) {
+            // 存在右子节点，并且右子节点小于左子节点
+            if (i + 1 < length && less(heap[i + 1], heap[i], keys)) {
+                i++;
+            }
+            // 子节点小于父节点，子节点上移
+            if (less(heap[i], temp, keys)) {
+                heap[index] = heap[i];
+                index = i;
+            }
+            else {
+                break;
+            }
+        }
+
+        heap[index] = temp;
+    }
+
+    /**
+     * 比较两个有序段的当前记录
+     * @param a 有序段a
+     * @param b 有序段b
+     * @param keys 每个有序段当前记录的键
+     * @return a是否排在b前面
+     */
+    private static boolean less(int a, int b, long[] keys) {
+        return keys[a] < keys[b] || keys[a] == keys[b] && a < b;
+    }
+
+    /**
+     * 映射一段记录
+     * @param channel 文件通道
+     * @param first 第一条记录序号
+     * @param runRecords 每段记录数
+     * @param totalRecords 总记录数
+     * @return 映射区域
+     * @throws IOException 映射失败
+     */
+    private MappedByteBuffer map(FileChannel channel, long first, int runRecords, long totalRecords) throws IOException {
+        long count = Math.min(runRecords, totalRecords - first);
+        return channel.map(FileChannel.MapMode.READ_ONLY, first * recordSize, count * recordSize);
+    }
+
+    /**
+     * 按内存预算计算单个缓冲区大小，为记录长度的整数倍
+     * @param buffers 需要同时存在的缓冲区个数
+     * @return 缓冲区大小
+     */
+    private int bufferSize(int buffers) {
+        long size = Math.min(memoryBudget / 4 / buffers, MAX_BUFFER_SIZE);
+        return (int) Math.max(size / recordSize, 1) * recordSize;
+    }
+
+    /**
+     * 等待后台任务完成，并还原后台任务的异常
+     * @param future 后台任务
+     * @param <V> 结果类型
+     * @return 结果
+     * @throws IOException 后台任务读写失败或等待被中断
+     */
+    static <V> V await(Future<V> future) throws IOException {
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待后台读写被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * 有序段读取器
+     * 双缓冲，读取当前缓冲区时后台线程预读下一块
+     */
+    private class RunReader implements Closeable {
+        /**
+         * 文件通道
+         */
+        private final FileChannel channel;
+
+        /**
+         * 后台读写线程
+         */
+        private final ExecutorService io;
+
+        /**
+         * 当前缓冲区
+         */
+        private ByteBuffer current;
+
+        /**
+         * 预读中的缓冲区
+         */
+        private Future<ByteBuffer> pending;
+
+        /**
+         * 下一次预读的文件位置
+         */
+        private long filePosition;
+
+        /**
+         * 当前记录在当前缓冲区中的偏移
+         */
+        private int offset;
+
+        RunReader(Path run, int bufferSize, ExecutorService io) throws IOException {
+            this.channel = FileChannel.open(run, StandardOpenOption.READ);
+            this.io = io;
+            this.current = ByteBuffer.allocateDirect(bufferSize);
+            this.current.limit(0);
+            this.offset = -recordSize;
+            prefetch(ByteBuffer.allocateDirect(bufferSize));
+        }
+
+        /**
+         * 后台预读下一块
+         * @param buffer 缓冲区
+         */
+        private void prefetch(ByteBuffer buffer) {
+            long position = filePosition;
+            filePosition += buffer.capacity();
+            buffer.clear();
+            pending = io.submit(() -> {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, position + buffer.position()) < 0) {
+                        break;
+                    }
+                }
+                buffer.flip();
+                return buffer;
+            });
+        }
+
+        /**
+         * 移动到下一条记录
+         * @return 是否还有记录
+         * @throws IOException 读取失败
+         */
+        boolean advance() throws IOException {
+            offset += recordSize;
+            if (offset + recordSize > current.limit()) {
+                // 当前缓冲区读完，切换到预读的缓冲区，并用旧缓冲区继续预读
+                ByteBuffer loaded = await(pending);
+                pending = null;
+                if (loaded.limit() < recordSize) {
+                    return false;
+                }
+                ByteBuffer old = current;
+                current = loaded;
+                offset = 0;
+                prefetch(old);
+            }
+            return true;
+        }
+
+        /**
+         * 当前记录的键
+         * @return 键
+         */
+        long key() {
+            return current.getLong(offset + keyOffset);
+        }
+
+        /**
+         * 将当前记录写入写入器
+         * @param writer 写入器
+         * @throws IOException 写入失败
+         */
+        void writeTo(RunWriter writer) throws IOException {
+            writer.write(current, offset, recordSize);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (pending != null) {
+                pending.cancel(false);
+                try {
+                    await(pending);
+                } catch (IOException | RuntimeException e) {
+                    // 关闭时忽略预读的结果
+                }
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * 有序段写入器
+     * 双缓冲，当前缓冲区写满后交给后台线程写入，同时继续填充另一个缓冲区
+     */
+    private static class RunWriter implements Closeable {
+        /**
+         * 文件通道
+         */
+        private final FileChannel channel;
+
+        /**
+         * 后台读写线程
+         */
+        private final ExecutorService io;
+
+        /**
+         * 正在填充的缓冲区
+         */
+        private ByteBuffer current;
+
+        /**
+         * 备用缓冲区，可能正在被后台线程写入
+         */
+        private ByteBuffer spare;
+
+        /**
+         * 后台写入任务
+         */
+        private Future<?> pending;
+
+        RunWriter(Path path, int bufferSize, ExecutorService io) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.io = io;
+            this.current = ByteBuffer.allocateDirect(bufferSize);
+            this.spare = ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        /**
+         * 写入一条记录
+         * @param src 记录所在的缓冲区
+         * @param offset 记录偏移
+         * @param length 记录长度
+         * @throws IOException 写入失败
+         */
+        void write(ByteBuffer src, int offset, int length) throws IOException {
+            if (current.remaining() < length) {
+                flush();
+            }
+
+            int limit = src.limit();
+            src.limit(offset + length);
+            src.position(offset);
+            current.put(src);
+            src.limit(limit);
+        }
+
+        /**
+         * 将当前缓冲区交给后台线程写入，切换到备用缓冲区
+         * @throws IOException 上一次写入失败
+         */
+        private void flush() throws IOException {
+            ByteBuffer full = current;
+            full.flip();
+
+            // 等待备用缓冲区写入完成
+            await(pending);
+            pending = io.submit(() -> {
+                while (full.hasRemaining()) {
+                    channel.write(full);
+                }
+                return null;
+            });
+
+            current = spare;
+            current.clear();
+            spare = full;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (current.position() > 0) {
+                    flush();
+                }
+                await(pending);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.johnny.datastructure.sort;
 
 import java.util.Arrays;
+import java.util.Comparator;
 
 /**
  * @author johnnyhao
@@ -13,6 +14,16 @@ import java.util.Arrays;
  */
 public class HeapSort {
 
+    /**
+     * d叉堆默认子节点数，4个int恰好16字节，与父节点的比较集中在同一缓存行内
+     */
+    public static final int DEFAULT_ARITY = 4;
+
+    /**
+     * d叉堆最大子节点数，16个int恰好占满一个64字节缓存行
+     */
+    public static final int MAX_ARITY = 16;
+
     public static void main(String[] args) {
         // 排序前
         int[] array = {3, 9, -1, 10, -2};
@@ -21,6 +32,11 @@ public class HeapSort {
         // 排序后
         sort(array);
         System.out.println("排序后 " + Arrays.toString(array));
+
+        // 自底向上4叉堆排序
+        array = new int[]{3, 9, -1, 10, -2};
+        sortBottomUp(array, DEFAULT_ARITY);
+        System.out.println("4叉堆排序后 " + Arrays.toString(array));
     }
 
     /**
@@ -28,19 +44,32 @@ public class HeapSort {
      * @param array 数组
      */
     public static void sort(int[] array) {
+        sort(array, 0, array.length - 1);
+    }
+
+    /**
+     * 堆排序，只对指定区间排序
+     * 区间内下标为left的元素作为堆顶
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(int[] array, int left, int right) {
+        int length = right - left + 1;
+
         // 将无序序列构建成一个堆，根据升序降序需求选择大顶堆或小顶堆
-        for (int i = array.length / 2 - 1; i >= 0; i--) {
-            buildHeap(array, i, array.length);
+        for (int i = length / 2 - 1; i >= 0; i--) {
+            buildHeap(array, left, i, length);
         }
 
         // 将堆顶元素与末尾元素交换，将最大元素"沉"到数组末端
         // 重新调整结构，使其满足堆定义，然后继续交换堆顶元素与当前末尾元素，反复执行调整+交换步骤，直到整个序列有序
-        for (int i = array.length - 1; i > 0; i--) {
-            int temp = array[i];
-            array[i] = array[0];
-            array[0] = temp;
+        for (int i = length - 1; i > 0; i--) {
+            int temp = array[left + i];
+            array[left + i] = array[left];
+            array[left] = temp;
 
-            buildHeap(array, 0, i);
+            buildHeap(array, left, 0, i);
         }
     }
 
@@ -51,20 +80,31 @@ public class HeapSort {
      * @param length 待构建数组长度
      */
     public static void buildHeap(int[] array, int index, int length) {
+        buildHeap(array, 0, index, length);
+    }
+
+    /**
+     * 构建大顶堆，堆位于数组中以offset开始的区间
+     * @param array 数组
+     * @param offset 堆顶在数组中的下标
+     * @param index 表示非叶子节点在堆中索引
+     * @param length 待构建堆长度
+     */
+    public static void buildHeap(int[] array, int offset, int index, int length) {
         // 取出当前节点
-        int temp = array[index];
+        int temp = array[offset + index];
 
         // 从当前节点的左子节点开始遍历
         for (int i = index * 2 + 1; i < length; i = i * 2 + 1) {
             // 存在右子节点，并且左子节点的值小于右子节点的值
-            if (i + 1 < length && array[i] < array[i + 1]) {
+            if (i + 1 < length && array[offset + i] < array[offset + i + 1]) {
                 // 指向右子节点
                 i++;
             }
             // 子节点的值大于父节点的值
-            if (array[i] > temp) {
+            if (array[offset + i] > temp) {
                 // 将子节点的值赋值给父节点
-                array[index] = array[i];
+                array[offset + index] = array[offset + i];
                 // 继续循环比较
                 index = i;
             }
@@ -76,6 +116,674 @@ public class HeapSort {
 
         // 循环结束说明该节点已经是子树的最大值
         // 将当前节点的值赋值到调整的位置
-        array[index] = temp;
+        array[offset + index] = temp;
+    }
+
+    /**
+     * 堆排序
+     * @param array 数组
+     */
+    public static void sort(long[] array) {
+        sort(array, 0, array.length - 1);
+    }
+
+    /**
+     * 堆排序，只对指定区间排序
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(long[] array, int left, int right) {
+        int length = right - left + 1;
+
+        for (int i = length / 2 - 1; i >= 0; i--) {
+            buildHeap(array, left, i, length);
+        }
+
+        for (int i = length - 1; i > 0; i--) {
+            long temp = array[left + i];
+            array[left + i] = array[left];
+            array[left] = temp;
+
+            buildHeap(array, left, 0, i);
+        }
+    }
+
+    /**
+     * 构建大顶堆，堆位于数组中以offset开始的区间
+     * @param array 数组
+     * @param offset 堆顶在数组中的下标
+     * @param index 表示非叶子节点在堆中索引
+     * @param length 待构建堆长度
+     */
+    public static void buildHeap(long[] array, int offset, int index, int length) {
+        long temp = array[offset + index];
+
+        for (int i = index * 2 + 1; i < length; i = i * 2 + 1) {
+            if (i + 1 < length && array[offset + i] < array[offset + i + 1]) {
+                i++;
+            }
+            if (temp < array[offset + i]) {
+                array[offset + index] = array[offset + i];
+                index = i;
+            }
+            else {
+                break;
+            }
+        }
+
+        array[offset + index] = temp;
+    }
+
+    /**
+     * 堆排序
+     * @param array 数组
+     */
+    public static void sort(short[] array) {
+        sort(array, 0, array.length - 1);
+    }
+
+    /**
+     * 堆排序，只对指定区间排序
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(short[] array, int left, int right) {
+        int length = right - left + 1;
+
+        for (int i = length / 2 - 1; i >= 0; i--) {
+            buildHeap(array, left, i, length);
+        }
+
+        for (int i = length - 1; i > 0; i--) {
+            short temp = array[left + i];
+            array[left + i] = array[left];
+            array[left] = temp;
+
+            buildHeap(array, left, 0, i);
+        }
+    }
+
+    /**
+     * 构建大顶堆，堆位于数组中以offset开始的区间
+     * @param array 数组
+     * @param offset 堆顶在数组中的下标
+     * @param index 表示非叶子节点在堆中索引
+     * @param length 待构建堆长度
+     */
+    public static void buildHeap(short[] array, int offset, int index, int length) {
+        short temp = array[offset + index];
+
+        for (int i = index * 2 + 1; i < length; i = i * 2 + 1) {
+            if (i + 1 < length && array[offset + i] < array[offset + i + 1]) {
+                i++;
+            }
+            if (temp < array[offset + i]) {
+                array[offset + index] = array[offset + i];
+                index = i;
+            }
+            else {
+                break;
+            }
+        }
+
+        array[offset + index] = temp;
+    }
+
+    /**
+     * 堆排序
+     * @param array 数组
+     */
+    public static void sort(char[] array) {
+        sort(array, 0, array.length - 1);
+    }
+
+    /**
+     * 堆排序，只对指定区间排序
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(char[] array, int left, int right) {
+        int length = right - left + 1;
+
+        for (int i = length / 2 - 1; i >= 0; i--) {
+            buildHeap(array, left, i, length);
+        }
+
+        for (int i = length - 1; i > 0; i--) {
+            char temp = array[left + i];
+            array[left + i] = array[left];
+            array[left] = temp;
+
+            buildHeap(array, left, 0, i);
+        }
+    }
+
+    /**
+     * 构建大顶堆，堆位于数组中以offset开始的区间
+     * @param array 数组
+     * @param offset 堆顶在数组中的下标
+     * @param index 表示非叶子节点在堆中索引
+     * @param length 待构建堆长度
+     */
+    public static void buildHeap(char[] array, int offset, int index, int length) {
+        char temp = array[offset + index];
+
+        for (int i = index * 2 + 1; i < length; i = i * 2 + 1) {
+            if (i + 1 < length && array[offset + i] < array[offset + i + 1]) {
+                i++;
+            }
+            if (temp < array[offset + i]) {
+                array[offset + index] = array[offset + i];
+                index = i;
+            }
+            else {
+                break;
+            }
+        }
+
+        array[offset + index] = temp;
+    }
+
+    /**
+     * 堆排序
+     * @param array 数组
+     */
+    public static void sort(byte[] array) {
+        sort(array, 0, array.length - 1);
+    }
+
+    /**
+     * 堆排序，只对指定区间排序
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(byte[] array, int left, int right) {
+        int length = right - left + 1;
+
+        for (int i = length / 2 - 1; i >= 0; i--) {
+            buildHeap(array, left, i, length);
+        }
+
+        for (int i = length - 1; i > 0; i--) {
+            byte temp = array[left + i];
+            array[left + i] = array[left];
+            array[left] = temp;
+
+            buildHeap(array, left, 0, i);
+        }
+    }
+
+    /**
+     * 构建大顶堆，堆位于数组中以offset开始的区间
+     * @param array 数组
+     * @param offset 堆顶在数组中的下标
+     * @param index 表示非叶子节点在堆中索引
+     * @param length 待构建堆长度
+     */
+    public static void buildHeap(byte[] array, int offset, int index, int length) {
+        byte temp = array[offset + index];
+
+        for (int i = index * 2 + 1; i < length; i = i * 2 + 1) {
+            if (i + 1 < length && array[offset + i] < array[offset + i + 1]) {
+                i++;
+            }
+            if (temp < array[offset + i]) {
+                array[offset + index] = array[offset + i];
+                index = i;
+            }
+            else {
+                break;
+            }
+        }
+
+        array[offset + index] = temp;
+    }
+
+    /**
+     * 堆排序
+     * @param array 数组
+     */
+    public static void sort(double[] array) {
+        sort(array, 0, array.length - 1);
+    }
+
+    /**
+     * 堆排序，只对指定区间排序
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(double[] array, int left, int right) {
+        int length = right - left + 1;
+
+        for (int i = length / 2 - 1; i >= 0; i--) {
+            buildHeap(array, left, i, length);
+        }
+
+        for (int i = length - 1; i > 0; i--) {
+            double temp = array[left + i];
+            array[left + i] = array[left];
+            array[left] = temp;
+
+            buildHeap(array, left, 0, i);
+        }
+    }
+
+    /**
+     * 构建大顶堆，堆位于数组中以offset开始的区间
+     * @param array 数组
+     * @param offset 堆顶在数组中的下标
+     * @param index 表示非叶子节点在堆中索引
+     * @param length 待构建堆长度
+     */
+    public static void buildHeap(double[] array, int offset, int index, int length) {
+        double temp = array[offset + index];
+
+        for (int i = index * 2 + 1; i < length; i = i * 2 + 1) {
+            if (i + 1 < length && Double.compare(array[offset + i], array[offset + i + 1]) < 0) {
+                i++;
+            }
+            if (Double.compare(temp, array[offset + i]) < 0) {
+                array[offset + index] = array[offset + i];
+                index = i;
+            }
+            else {
+                break;
+            }
+        }
+
+        array[offset + index] = temp;
+    }
+
+    /**
+     * 堆排序
+     * @param array 数组
+     */
+    public static void sort(float[] array) {
+        sort(array, 0, array.length - 1);
+    }
+
+    /**
+     * 堆排序，只对指定区间排序
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(float[] array, int left, int right) {
+        int length = right - left + 1;
+
+        for (int i = length / 2 - 1; i >= 0; i--) {
+            buildHeap(array, left, i, length);
+        }
+
+        for (int i = length - 1; i > 0; i--) {
+            float temp = array[left + i];
+            array[left + i] = array[left];
+            array[left] = temp;
+
+            buildHeap(array, left, 0, i);
+        }
+    }
+
+    /**
+     * 构建大顶堆，堆位于数组中以offset开始的区间
+     * @param array 数组
+     * @param offset 堆顶在数组中的下标
+     * @param index 表示非叶子节点在堆中索引
+     * @param length 待构建堆长度
+     */
+    public static void buildHeap(float[] array, int offset, int index, int length) {
+        float temp = array[offset + index];
+
+        for (int i = index * 2 + 1; i < length; i = i * 2 + 1) {
+            if (i + 1 < length && Float.compare(array[offset + i], array[offset + i + 1]) < 0) {
+                i++;
+            }
+            if (Float.compare(temp, array[offset + i]) < 0) {
+                array[offset + index] = array[offset + i];
+                index = i;
+            }
+            else {
+                break;
+            }
+        }
+
+        array[offset + index] = temp;
+    }
+
+    /**
+     * 堆排序
+     * @param array 数组
+     * @param comparator 比较器
+     */
+    public static <T> void sort(T[] array, Comparator<? super T> comparator) {
+        sort(array, 0, array.length - 1, comparator);
+    }
+
+    /**
+     * 堆排序，只对指定区间排序
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @param comparator 比较器
+     */
+    public static <T> void sort(T[] array, int left, int right, Comparator<? super T> comparator) {
+        int length = right - left + 1;
+
+        for (int i = length / 2 - 1; i >= 0; i--) {
+            buildHeap(array, left, i, length, comparator);
+        }
+
+        for (int i = length - 1; i > 0; i--) {
+            T temp = array[left + i];
+            array[left + i] = array[left];
+            array[left] = temp;
+
+            buildHeap(array, left, 0, i, comparator);
+        }
+    }
+
+    /**
+     * 构建大顶堆，堆位于数组中以offset开始的区间
+     * @param array 数组
+     * @param offset 堆顶在数组中的下标
+     * @param index 表示非叶子节点在堆中索引
+     * @param length 待构建堆长度
+     * @param comparator 比较器
+     */
+    public static <T> void buildHeap(T[] array, int offset, int index, int length, Comparator<? super T> comparator) {
+        T temp = array[offset + index];
+
+        for (int i = index * 2 + 1; i < length; i = i * 2 + 1) {
+            if (i + 1 < length && comparator.compare(array[offset + i], array[offset + i + 1]) < 0) {
+                i++;
+            }
+            if (comparator.compare(temp, array[offset + i]) < 0) {
+                array[offset + index] = array[offset + i];
+                index = i;
+            }
+            else {
+                break;
+            }
+        }
+
+        array[offset + index] = temp;
+    }
+
+    /**
+     * 自底向上堆排序，使用二叉堆
+     * @param array 数组
+     */
+    public static void sortBottomUp(int[] array) {
+        sortBottomUp(array, 0, array.length - 1, 2);
+    }
+
+    /**
+     * 自底向上堆排序，使用d叉堆
+     * @param array 数组
+     * @param arity 每个节点的子节点数，取2、4、8或16
+     */
+    public static void sortBottomUp(int[] array, int arity) {
+        sortBottomUp(array, 0, array.length - 1, arity);
+    }
+
+    /**
+     * 自底向上堆排序，只对指定区间排序
+     * - Floyd建堆：从最后一个非叶子节点开始向前逐个下沉，总代价为O(n)
+     * - 自底向上下沉：空位沿较大的子节点一路下沉到叶子，再将待放入的元素从叶子向上找到位置
+     *   堆顶换下来的末尾元素通常很小，最终位置靠近叶子，比逐层比较父子节点少一半左右的比较次数
+     * - d叉堆：节点i的子节点为d*i+1到d*i+d，同一节点的子节点在内存中连续
+     *   4叉或8叉时堆的高度减半或减为三分之一，每层选最大子节点只访问一到两个缓存行，大数组上缓存缺失明显减少
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @param arity 每个节点的子节点数，取2、4、8或16
+     */
+    public static void sortBottomUp(int[] array, int left, int right, int arity) {
+        int shift = arityShift(arity);
+        int length = right - left + 1;
+
+        // Floyd建堆，从最后一个非叶子节点开始向前下沉
+        for (int i = (length - 2) >> shift; i >= 0; i--) {
+            if (shift == 1) {
+                siftDown(array, left, i, length, array[left + i]);
+            }
+            else {
+                siftDown(array, left, i, length, array[left + i], shift);
+            }
+        }
+
+        // 将堆顶元素放到末尾，末尾元素从堆顶下沉
+        for (int i = length - 1; i > 0; i--) {
+            int temp = array[left + i];
+            array[left + i] = array[left];
+
+            if (shift == 1) {
+                siftDown(array, left, 0, i, temp);
+            }
+            else {
+                siftDown(array, left, 0, i, temp, shift);
+            }
+        }
+    }
+
+    /**
+     * 自底向上下沉，二叉大顶堆
+     * 只比较左右两个子节点，单独实现以省去多叉堆找最大子节点的循环
+     * @param array 数组
+     * @param offset 堆顶在数组中的下标
+     * @param index 空位在堆中索引
+     * @param length 堆长度
+     * @param value 待放入空位子树的元素
+     */
+    private static void siftDown(int[] array, int offset, int index, int length, int value) {
+        int hole = index;
+        int lastParent = (length - 2) >> 1;
+
+        // 空位沿较大的子节点一路下沉到叶子
+        while (hole <= lastParent) {
+            int child = hole * 2 + 1;
+            if (child + 1 < length && array[offset + child] < array[offset + child + 1]) {
+                child++;
+            }
+            array[offset + hole] = array[offset + child];
+            hole = child;
+        }
+
+        // 从叶子向上为待放入的元素找到位置
+        while (hole > index) {
+            int parent = (hole - 1) >> 1;
+            if (!(array[offset + parent] < value)) {
+                break;
+            }
+            array[offset + hole] = array[offset + parent];
+            hole = parent;
+        }
+
+        array[offset + hole] = value;
+    }
+
+    /**
+     * 自底向上下沉，d叉大顶堆
+     * @param array 数组
+     * @param offset 堆顶在数组中的下标
+     * @param index 空位在堆中索引
+     * @param length 堆长度
+     * @param value 待放入空位子树的元素
+     * @param shift 子节点数的以2为底的对数
+     */
+    private static void siftDown(int[] array, int offset, int index, int length, int value, int shift) {
+        int hole = index;
+        int lastParent = (length - 2) >> shift;
+
+        // 空位沿最大的子节点一路下沉到叶子
+        while (hole <= lastParent) {
+            int child = (hole << shift) + 1;
+            int end = Math.min(child + (1 << shift), length);
+            int max = child;
+            for (int i = child + 1; i < end; i++) {
+                if (array[offset + max] < array[offset + i]) {
+                    max = i;
+                }
+            }
+            array[offset + hole] = array[offset + max];
+            hole = max;
+        }
+
+        // 从叶子向上为待放入的元素找到位置
+        while (hole > index) {
+            int parent = (hole - 1) >> shift;
+            if (!(array[offset + parent] < value)) {
+                break;
+            }
+            array[offset + hole] = array[offset + parent];
+            hole = parent;
+        }
+
+        array[offset + hole] = value;
+    }
+
+    /**
+     * 自底向上堆排序，使用二叉堆
+     * @param array 数组
+     */
+    public static void sortBottomUp(long[] array) {
+        sortBottomUp(array, 0, array.length - 1, 2);
+    }
+
+    /**
+     * 自底向上堆排序，使用d叉堆
+     * @param array 数组
+     * @param arity 每个节点的子节点数，取2、4、8或16
+     */
+    public static void sortBottomUp(long[] array, int arity) {
+        sortBottomUp(array, 0, array.length - 1, arity);
+    }
+
+    /**
+     * 自底向上堆排序，只对指定区间排序
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @param arity 每个节点的子节点数，取2、4、8或16
+     */
+    public static void sortBottomUp(long[] array, int left, int right, int arity) {
+        int shift = arityShift(arity);
+        int length = right - left + 1;
+
+        // Floyd建堆，从最后一个非叶子节点开始向前下沉
+        for (int i = (length - 2) >> shift; i >= 0; i--) {
+            if (shift == 1) {
+                siftDown(array, left, i, length, array[left + i]);
+            }
+            else {
+                siftDown(array, left, i, length, array[left + i], shift);
+            }
+        }
+
+        // 将堆顶元素放到末尾，末尾元素从堆顶下沉
+        for (int i = length - 1; i > 0; i--) {
+            long temp = array[left + i];
+            array[left + i] = array[left];
+
+            if (shift == 1) {
+                siftDown(array, left, 0, i, temp);
+            }
+            else {
+                siftDown(array, left, 0, i, temp, shift);
+            }
+        }
+    }
+
+    /**
+     * 自底向上下沉，二叉大顶堆
+     * 只比较左右两个子节点，单独实现以省去多叉堆找最大子节点的循环
+     * @param array 数组
+     * @param offset 堆顶在数组中的下标
+     * @param index 空位在堆中索引
+     * @param length 堆长度
+     * @param value 待放入空位子树的元素
+     */
+    private static void siftDown(long[] array, int offset, int index, int length, long value) {
+        int hole = index;
+        int lastParent = (length - 2) >> 1;
+
+        // 空位沿较大的子节点一路下沉到叶子
+        while (hole <= lastParent) {
+            int child = hole * 2 + 1;
+            if (child + 1 < length && array[offset + child] < array[offset + child + 1]) {
+                child++;
+            }
+            array[offset + hole] = array[offset + child];
+            hole = child;
+        }
+
+        // 从叶子向上为待放入的元素找到位置
+        while (hole > index) {
+            int parent = (hole - 1) >> 1;
+            if (!(array[offset + parent] < value)) {
+                break;
+            }
+            array[offset + hole] = array[offset + parent];
+            hole = parent;
+        }
+
+        array[offset + hole] = value;
+    }
+
+    /**
+     * 自底向上下沉，d叉大顶堆
+     * @param array 数组
+     * @param offset 堆顶在数组中的下标
+     * @param index 空位在堆中索引
+     * @param length 堆长度
+     * @param value 待放入空位子树的元素
+     * @param shift 子节点数的以2为底的对数
+     */
+    private static void siftDown(long[] array, int offset, int index, int length, long value, int shift) {
+        int hole = index;
+        int lastParent = (length - 2) >> shift;
+
+        // 空位沿最大的子节点一路下沉到叶子
+        while (hole <= lastParent) {
+            int child = (hole << shift) + 1;
+            int end = Math.min(child + (1 << shift), length);
+            int max = child;
+            for (int i = child + 1; i < end; i++) {
+                if (array[offset + max] < array[offset + i]) {
+                    max = i;
+                }
+            }
+            array[offset + hole] = array[offset + max];
+            hole = max;
+        }
+
+        // 从叶子向上为待放入的元素找到位置
+        while (hole > index) {
+            int parent = (hole - 1) >> shift;
+            if (!(array[offset + parent] < value)) {
+                break;
+            }
+            array[offset + hole] = array[offset + parent];
+            hole = parent;
+        }
+
+        array[offset + hole] = value;
+    }
+
+    /**
+     * 校验子节点数并转换为移位数
+     * @param arity 每个节点的子节点数
+     * @return 子节点数的以2为底的对数
+     */
+    private static int arityShift(int arity) {
+        if (arity < 2 || arity > MAX_ARITY || Integer.bitCount(arity) != 1) {
+            throw new IllegalArgumentException("子节点数必须是2到" + MAX_ARITY + "之间的2的幂");
+        }
+        return Integer.numberOfTrailingZeros(arity);
     }
 }
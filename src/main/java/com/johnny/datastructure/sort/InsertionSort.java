@@ -1,6 +1,7 @@
 package com.johnny.datastructure.sort;
 
 import java.util.Arrays;
+import java.util.Comparator;
 
 /**
  * @author johnnyhao
@@ -26,14 +27,24 @@ public class InsertionSort {
      * @param array 数组
      */
     public static void sort(int[] array) {
+        sort(array, 0, array.length - 1);
+    }
+
+    /**
+     * 插入排序，只对指定区间排序
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(int[] array, int left, int right) {
         // 第一个循环控制遍历次数
-        for (int i = 1; i < array.length; i++) {
+        for (int i = left + 1; i <= right; i++) {
             // 临时变量，存放待无序列表中第一个元素的坐标和值
             int insertIndex = i;
             int insertValue = array[i];
 
             // 第二个循环控制判断位置，从有序序列尾部开始判断，如果遍历到的值大于待插入的值，就将其后移，否则说明找到位置
-            while (insertIndex > 0 && array[insertIndex - 1] > insertValue) {
+            while (insertIndex > left && array[insertIndex - 1] > insertValue) {
                 array[insertIndex] = array[insertIndex - 1];
                 insertIndex--;
             }
@@ -42,4 +53,202 @@ public class InsertionSort {
             array[insertIndex] = insertValue;
         }
     }
+
+    /**
+     * 插入排序，只对指定区间排序
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(long[] array, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int insertIndex = i;
+            long insertValue = array[i];
+
+            while (insertIndex > left && array[insertIndex - 1] > insertValue) {
+                array[insertIndex] = array[insertIndex - 1];
+                insertIndex--;
+            }
+
+            array[insertIndex] = insertValue;
+        }
+    }
+
+    /**
+     * 插入排序
+     * @param array 数组
+     */
+    public static void sort(long[] array) {
+        sort(array, 0, array.length - 1);
+    }
+
+    /**
+     * 插入排序
+     * @param array 数组
+     */
+    public static void sort(short[] array) {
+        sort(array, 0, array.length - 1);
+    }
+
+    /**
+     * 插入排序，只对指定区间排序
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(short[] array, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int insertIndex = i;
+            short insertValue = array[i];
+
+            while (insertIndex > left && insertValue < array[insertIndex - 1]) {
+                array[insertIndex] = array[insertIndex - 1];
+                insertIndex--;
+            }
+
+            array[insertIndex] = insertValue;
+        }
+    }
+
+    /**
+     * 插入排序
+     * @param array 数组
+     */
+    public static void sort(char[] array) {
+        sort(array, 0, array.length - 1);
+    }
+
+    /**
+     * 插入排序，只对指定区间排序
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(char[] array, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int insertIndex = i;
+            char insertValue = array[i];
+
+            while (insertIndex > left && insertValue < array[insertIndex - 1]) {
+                array[insertIndex] = array[insertIndex - 1];
+                insertIndex--;
+            }
+
+            array[insertIndex] = insertValue;
+        }
+    }
+
+    /**
+     * 插入排序
+     * @param array 数组
+     */
+    public static void sort(byte[] array) {
+        sort(array, 0, array.length - 1);
+    }
+
+    /**
+     * 插入排序，只对指定区间排序
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(byte[] array, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int insertIndex = i;
+            byte insertValue = array[i];
+
+            while (insertIndex > left && insertValue < array[insertIndex - 1]) {
+                array[insertIndex] = array[insertIndex - 1];
+                insertIndex--;
+            }
+
+            array[insertIndex] = insertValue;
+        }
+    }
+
+    /**
+     * 插入排序
+     * @param array 数组
+     */
+    public static void sort(double[] array) {
+        sort(array, 0, array.length - 1);
+    }
+
+    /**
+     * 插入排序，只对指定区间排序
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(double[] array, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int insertIndex = i;
+            double insertValue = array[i];
+
+            while (insertIndex > left && Double.compare(insertValue, array[insertIndex - 1]) < 0) {
+                array[insertIndex] = array[insertIndex - 1];
+                insertIndex--;
+            }
+
+            array[insertIndex] = insertValue;
+        }
+    }
+
+    /**
+     * 插入排序
+     * @param array 数组
+     */
+    public static void sort(float[] array) {
+        sort(array, 0, array.length - 1);
+    }
+
+    /**
+     * 插入排序，只对指定区间排序
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(float[] array, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int insertIndex = i;
+            float insertValue = array[i];
+
+            while (insertIndex > left && Float.compare(insertValue, array[insertIndex - 1]) < 0) {
+                array[insertIndex] = array[insertIndex - 1];
+                insertIndex--;
+            }
+
+            array[insertIndex] = insertValue;
+        }
+    }
+
+    /**
+     * 插入排序
+     * @param array 数组
+     * @param comparator 比较器
+     */
+    public static <T> void sort(T[] array, Comparator<? super T> comparator) {
+        sort(array, 0, array.length - 1, comparator);
+    }
+
+    /**
+     * 插入排序，只对指定区间排序
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @param comparator 比较器
+     */
+    public static <T> void sort(T[] array, int left, int right, Comparator<? super T> comparator) {
+        for (int i = left + 1; i <= right; i++) {
+            int insertIndex = i;
+            T insertValue = array[i];
+
+            while (insertIndex > left && comparator.compare(insertValue, array[insertIndex - 1]) < 0) {
+                array[insertIndex] = array[insertIndex - 1];
+                insertIndex--;
+            }
+
+            array[insertIndex] = insertValue;
+        }
+    }
 }
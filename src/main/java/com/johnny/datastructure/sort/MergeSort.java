@@ -1,6 +1,11 @@
 package com.johnny.datastructure.sort;
 
+import lombok.AllArgsConstructor;
+
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * @author johnnyhao
@@ -9,9 +14,19 @@ import java.util.Arrays;
  *
  * 利用归并的思想实现的排序方法，该算法采用经典的分治(divide-and-conquer)策略
  * 分治法将问题分(divide)成一些小的问题然后递归求解，而治(conquer)的阶段则将分的阶段得到的各答案"修补"在一起，即分而治之
+ *
+ * 并行归并排序：
+ * - 使用ForkJoinPool并行分解，区间小于阈值时使用串行归并排序
+ * - 合并阶段同样并行，取较长一侧的中值放到最终位置，在另一侧二分查找分割点，将一次合并拆成两个互不相交的合并
+ * - 所有任务共享一个预先分配的临时数组，每个任务只使用临时数组中与自己区间下标相同的部分
  */
 public class MergeSort {
 
+    /**
+     * 并行排序默认阈值，区间长度不超过该值时使用串行排序
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 13;
+
     public static void main(String[] args) {
         // 排序前
         int[] array = {3, 9, -1, 10, -2};
@@ -20,12 +35,17 @@ public class MergeSort {
         // 排序后
         sort(array, new int[array.length], 0, array.length - 1);
         System.out.println("排序后 " + Arrays.toString(array));
+
+        // 并行排序后
+        array = new int[]{3, 9, -1, 10, -2};
+        parallelSort(array, ForkJoinPool.commonPool());
+        System.out.println("并行排序后 " + Arrays.toString(array));
     }
 
     /**
      * 归并排序-分解
      * @param array 数组
-     * @param temp 临时数组
+     * @param temp 临时数组，与原数组下标对齐使用[left, right]部分，长度不小于right + 1
      * @param left 序列最左侧下标
      * @param right 序列最右侧下标
      */
@@ -47,7 +67,7 @@ public class MergeSort {
     /**
      * 归并排序-合并
      * @param array 数组
-     * @param temp 临时数组
+     * @param temp 临时数组，与原数组下标对齐使用[left, right]部分，长度不小于right + 1
      * @param left 序列最左侧下标
      * @param right 序列最右侧下标
      */
@@ -58,8 +78,8 @@ public class MergeSort {
         int l = left;
         int r = mid + 1;
 
-        // 对临时数组初始化指针
-        int t = 0;
+        // 对临时数组初始化指针，与原数组下标对齐，多个任务可以共享同一个临时数组
+        int t = left;
 
         // 先把左右两边(有序)的数据按照规则填充到temp数组
         // 直到左右两边的有序序列，有一边处理完毕为止
@@ -87,11 +107,685 @@ public class MergeSort {
 
         // 将临时数组的元素拷贝到原数组
         // 注意，并不是每次都拷贝所有
-        t = 0;
-        l = left;
-        while (l <= right) {
-            array[l++] = temp[t++];
+        System.arraycopy(temp, left, array, left, right - left + 1);
+    }
+
+    /**
+     * 并行归并排序
+     * @param array 数组
+     * @param pool 线程池
+     */
+    public static void parallelSort(int[] array, ForkJoinPool pool) {
+        parallelSort(array, pool, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * 并行归并排序
+     * @param array 数组
+     * @param pool 线程池
+     * @param threshold 串行阈值，区间长度不超过该值时使用串行排序
+     */
+    public static void parallelSort(int[] array, ForkJoinPool pool, int threshold) {
+        // 数组长度大于1才需要排序
+        if (array.length <= 1) {
+            return;
+        }
+
+        // 所有任务共享的临时数组
+        int[] temp = new int[array.length];
+
+        pool.invoke(new MergeSortTask(array, temp, 0, array.length - 1, Math.max(threshold, 2)));
+    }
+
+    /**
+     * 合并两个有序区间到目标数组
+     * 两侧相等时先取左侧，保证稳定
+     * @param array 数组
+     * @param leftStart 左侧区间起始下标
+     * @param leftEnd 左侧区间结束下标(包含)
+     * @param rightStart 右侧区间起始下标
+     * @param rightEnd 右侧区间结束下标(包含)
+     * @param dest 目标数组
+     * @param destIndex 目标数组起始下标
+     */
+    static void merge(int[] array, int leftStart, int leftEnd, int rightStart, int rightEnd, int[] dest, int destIndex) {
+        int l = leftStart;
+        int r = rightStart;
+
+        while (l <= leftEnd && r <= rightEnd) {
+            dest[destIndex++] = array[l] <= array[r] ? array[l++] : array[r++];
+        }
+
+        // 剩余元素直接拷贝
+        System.arraycopy(array, l, dest, destIndex, leftEnd - l + 1);
+        destIndex += leftEnd - l + 1;
+        System.arraycopy(array, r, dest, destIndex, rightEnd - r + 1);
+    }
+
+    /**
+     * 二分查找第一个大于等于(或大于)目标值的下标
+     * @param array 数组
+     * @param left 区间起始下标
+     * @param right 区间结束下标(包含)
+     * @param value 目标值
+     * @param upper true时查找第一个大于目标值的下标，false时查找第一个大于等于目标值的下标
+     * @return 下标，区间内不存在时返回right + 1
+     */
+    static int binarySearch(int[] array, int left, int right, int value, boolean upper) {
+        int high = right + 1;
+        while (left < high) {
+            int mid = (left + high) >>> 1;
+            if (array[mid] < value || upper && array[mid] == value) {
+                left = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return left;
+    }
+
+    /**
+     * 归并排序
+     * @param array 数组
+     */
+    public static void sort(int[] array) {
+        sort(array, new int[array.length], 0, array.length - 1);
+    }
+
+    /**
+     * 归并排序
+     * @param array 数组
+     */
+    public static void sort(long[] array) {
+        sort(array, new long[array.length], 0, array.length - 1);
+    }
+
+    /**
+     * 归并排序-分解
+     * @param array 数组
+     * @param temp 临时数组，与原数组下标对齐使用[left, right]部分，长度不小于right + 1
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(long[] array, long[] temp, int left, int right) {
+        if (left < right) {
+            int mid = (left + right) / 2;
+            sort(array, temp, left, mid);
+            sort(array, temp, mid + 1, right);
+
+            merge(array, temp, left, right);
+        }
+    }
+
+    /**
+     * 归并排序-合并
+     * 两侧相等时先取左侧，保证稳定
+     * @param array 数组
+     * @param temp 临时数组，与原数组下标对齐使用[left, right]部分，长度不小于right + 1
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void merge(long[] array, long[] temp, int left, int right) {
+        int mid = (left + right) / 2;
+        int l = left;
+        int r = mid + 1;
+        int t = left;
+
+        while (l <= mid && r <= right) {
+            if (array[l] <= array[r]) {
+                temp[t++] = array[l++];
+            }
+            else {
+                temp[t++] = array[r++];
+            }
+        }
+
+        while (l <= mid) {
+            temp[t++] = array[l++];
+        }
+        while (r <= right) {
+            temp[t++] = array[r++];
+        }
+
+        System.arraycopy(temp, left, array, left, right - left + 1);
+    }
+
+    /**
+     * 归并排序
+     * @param array 数组
+     */
+    public static void sort(short[] array) {
+        sort(array, new short[array.length], 0, array.length - 1);
+    }
+
+    /**
+     * 归并排序-分解
+     * @param array 数组
+     * @param temp 临时数组，与原数组下标对齐使用[left, right]部分，长度不小于right + 1
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(short[] array, short[] temp, int left, int right) {
+        if (left < right) {
+            int mid = (left + right) / 2;
+            sort(array, temp, left, mid);
+            sort(array, temp, mid + 1, right);
+
+            merge(array, temp, left, right);
+        }
+    }
+
+    /**
+     * 归并排序-合并
+     * 两侧相等时先取左侧，保证稳定
+     * @param array 数组
+     * @param temp 临时数组，与原数组下标对齐使用[left, right]部分，长度不小于right + 1
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void merge(short[] array, short[] temp, int left, int right) {
+        int mid = (left + right) / 2;
+        int l = left;
+        int r = mid + 1;
+        int t = left;
+
+        while (l <= mid && r <= right) {
+            if (array[l] <= array[r]) {
+                temp[t++] = array[l++];
+            }
+            else {
+                temp[t++] = array[r++];
+            }
+        }
+
+        while (l <= mid) {
+            temp[t++] = array[l++];
+        }
+        while (r <= right) {
+            temp[t++] = array[r++];
+        }
+
+        System.arraycopy(temp, left, array, left, right - left + 1);
+    }
+
+    /**
+     * 归并排序
+     * @param array 数组
+     */
+    public static void sort(char[] array) {
+        sort(array, new char[array.length], 0, array.length - 1);
+    }
+
+    /**
+     * 归并排序-分解
+     * @param array 数组
+     * @param temp 临时数组，与原数组下标对齐使用[left, right]部分，长度不小于right + 1
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(char[] array, char[] temp, int left, int right) {
+        if (left < right) {
+            int mid = (left + right) / 2;
+            sort(array, temp, left, mid);
+            sort(array, temp, mid + 1, right);
+
+            merge(array, temp, left, right);
+        }
+    }
+
+    /**
+     * 归并排序-合并
+     * 两侧相等时先取左侧，保证稳定
+     * @param array 数组
+     * @param temp 临时数组，与原数组下标对齐使用[left, right]部分，长度不小于right + 1
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void merge(char[] array, char[] temp, int left, int right) {
+        int mid = (left + right) / 2;
+        int l = left;
+        int r = mid + 1;
+        int t = left;
+
+        while (l <= mid && r <= right) {
+            if (array[l] <= array[r]) {
+                temp[t++] = array[l++];
+            }
+            else {
+                temp[t++] = array[r++];
+            }
+        }
+
+        while (l <= mid) {
+            temp[t++] = array[l++];
+        }
+        while (r <= right) {
+            temp[t++] = array[r++];
+        }
+
+        System.arraycopy(temp, left, array, left, right - left + 1);
+    }
+
+    /**
+     * 归并排序
+     * @param array 数组
+     */
+    public static void sort(byte[] array) {
+        sort(array, new byte[array.length], 0, array.length - 1);
+    }
+
+    /**
+     * 归并排序-分解
+     * @param array 数组
+     * @param temp 临时数组，与原数组下标对齐使用[left, right]部分，长度不小于right + 1
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(byte[] array, byte[] temp, int left, int right) {
+        if (left < right) {
+            int mid = (left + right) / 2;
+            sort(array, temp, left, mid);
+            sort(array, temp, mid + 1, right);
+
+            merge(array, temp, left, right);
+        }
+    }
+
+    /**
+     * 归并排序-合并
+     * 两侧相等时先取左侧，保证稳定
+     * @param array 数组
+     * @param temp 临时数组，与原数组下标对齐使用[left, right]部分，长度不小于right + 1
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void merge(byte[] array, byte[] temp, int left, int right) {
+        int mid = (left + right) / 2;
+        int l = left;
+        int r = mid + 1;
+        int t = left;
+
+        while (l <= mid && r <= right) {
+            if (array[l] <= array[r]) {
+                temp[t++] = array[l++];
+            }
+            else {
+                temp[t++] = array[r++];
+            }
+        }
+
+        while (l <= mid) {
+            temp[t++] = array[l++];
+        }
+        while (r <= right) {
+            temp[t++] = array[r++];
+        }
+
+        System.arraycopy(temp, left, array, left, right - left + 1);
+    }
+
+    /**
+     * 归并排序
+     * @param array 数组
+     */
+    public static void sort(double[] array) {
+        sort(array, new double[array.length], 0, array.length - 1);
+    }
+
+    /**
+     * 归并排序-分解
+     * @param array 数组
+     * @param temp 临时数组，与原数组下标对齐使用[left, right]部分，长度不小于right + 1
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(double[] array, double[] temp, int left, int right) {
+        if (left < right) {
+            int mid = (left + right) / 2;
+            sort(array, temp, left, mid);
+            sort(array, temp, mid + 1, right);
+
+            merge(array, temp, left, right);
+        }
+    }
+
+    /**
+     * 归并排序-合并
+     * 两侧相等时先取左侧，保证稳定
+     * @param array 数组
+     * @param temp 临时数组，与原数组下标对齐使用[left, right]部分，长度不小于right + 1
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void merge(double[] array, double[] temp, int left, int right) {
+        int mid = (left + right) / 2;
+        int l = left;
+        int r = mid + 1;
+        int t = left;
+
+        while (l <= mid && r <= right) {
+            if (Double.compare(array[l], array[r]) <= 0) {
+                temp[t++] = array[l++];
+            }
+            else {
+                temp[t++] = array[r++];
+            }
+        }
+
+        while (l <= mid) {
+            temp[t++] = array[l++];
+        }
+        while (r <= right) {
+            temp[t++] = array[r++];
+        }
+
+        System.arraycopy(temp, left, array, left, right - left + 1);
+    }
+
+    /**
+     * 归并排序
+     * @param array 数组
+     */
+    public static void sort(float[] array) {
+        sort(array, new float[array.length], 0, array.length - 1);
+    }
+
+    /**
+     * 归并排序-分解
+     * @param array 数组
+     * @param temp 临时数组，与原数组下标对齐使用[left, right]部分，长度不小于right + 1
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void sort(float[] array, float[] temp, int left, int right) {
+        if (left < right) {
+            int mid = (left + right) / 2;
+            sort(array, temp, left, mid);
+            sort(array, temp, mid + 1, right);
+
+            merge(array, temp, left, right);
+        }
+    }
+
+    /**
+     * 归并排序-合并
+     * 两侧相等时先取左侧，保证稳定
+     * @param array 数组
+     * @param temp 临时数组，与原数组下标对齐使用[left, right]部分，长度不小于right + 1
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     */
+    public static void merge(float[] array, float[] temp, int left, int right) {
+        int mid = (left + right) / 2;
+        int l = left;
+        int r = mid + 1;
+        int t = left;
+
+        while (l <= mid && r <= right) {
+            if (Float.compare(array[l], array[r]) <= 0) {
+                temp[t++] = array[l++];
+            }
+            else {
+                temp[t++] = array[r++];
+            }
+        }
+
+        while (l <= mid) {
+            temp[t++] = array[l++];
+        }
+        while (r <= right) {
+            temp[t++] = array[r++];
+        }
+
+        System.arraycopy(temp, left, array, left, right - left + 1);
+    }
+
+    /**
+     * 归并排序
+     * @param array 数组
+     * @param comparator 比较器
+     */
+    public static <T> void sort(T[] array, Comparator<? super T> comparator) {
+        sort(array, Arrays.copyOf(array, array.length), 0, array.length - 1, comparator);
+    }
+
+    /**
+     * 归并排序-分解
+     * @param array 数组
+     * @param temp 临时数组，与原数组下标对齐使用[left, right]部分，长度不小于right + 1
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @param comparator 比较器
+     */
+    public static <T> void sort(T[] array, T[] temp, int left, int right, Comparator<? super T> comparator) {
+        if (left < right) {
+            int mid = (left + right) / 2;
+            sort(array, temp, left, mid, comparator);
+            sort(array, temp, mid + 1, right, comparator);
+
+            merge(array, temp, left, right, comparator);
+        }
+    }
+
+    /**
+     * 归并排序-合并
+     * 两侧相等时先取左侧，保证稳定
+     * @param array 数组
+     * @param temp 临时数组，与原数组下标对齐使用[left, right]部分，长度不小于right + 1
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @param comparator 比较器
+     */
+    public static <T> void merge(T[] array, T[] temp, int left, int right, Comparator<? super T> comparator) {
+        int mid = (left + right) / 2;
+        int l = left;
+        int r = mid + 1;
+        int t = left;
+
+        while (l <= mid && r <= right) {
+            if (comparator.compare(array[l], array[r]) <= 0) {
+                temp[t++] = array[l++];
+            }
+            else {
+                temp[t++] = array[r++];
+            }
+        }
+
+        while (l <= mid) {
+            temp[t++] = array[l++];
+        }
+        while (r <= right) {
+            temp[t++] = array[r++];
+        }
+
+        System.arraycopy(temp, left, array, left, right - left + 1);
+    }
+}
+
+/**
+ * 并行归并排序-分解任务
+ */
+@AllArgsConstructor
+class MergeSortTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 数组
+     */
+    private final int[] array;
+
+    /**
+     * 临时数组
+     */
+    private final int[] temp;
+
+    /**
+     * 序列最左侧下标
+     */
+    private final int left;
+
+    /**
+     * 序列最右侧下标
+     */
+    private final int right;
+
+    /**
+     * 串行阈值
+     */
+    private final int threshold;
+
+    @Override
+    protected void compute() {
+        // 区间较小时使用串行归并排序
+        if (right - left + 1 <= threshold) {
+            MergeSort.sort(array, temp, left, right);
+            return;
+        }
+
+        // 与串行归并排序使用相同的中间位置
+        int mid = (left + right) / 2;
+        invokeAll(new MergeSortTask(array, temp, left, mid, threshold),
+                new MergeSortTask(array, temp, mid + 1, right, threshold));
+
+        // 左侧最大值不大于右侧最小值，说明已经有序
+        if (array[mid] <= array[mid + 1]) {
+            return;
+        }
+
+        // 并行合并到临时数组，再并行拷贝回原数组
+        new MergeTask(array, left, mid, mid + 1, right, temp, left, threshold).invoke();
+        new CopyTask(temp, array, left, right, threshold).invoke();
+    }
+}
+
+/**
+ * 并行归并排序-合并任务
+ * 将两个有序区间合并到目标数组
+ */
+@AllArgsConstructor
+class MergeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 数组
+     */
+    private final int[] array;
+
+    /**
+     * 左侧区间起始下标
+     */
+    private final int leftStart;
+
+    /**
+     * 左侧区间结束下标(包含)
+     */
+    private final int leftEnd;
+
+    /**
+     * 右侧区间起始下标
+     */
+    private final int rightStart;
+
+    /**
+     * 右侧区间结束下标(包含)
+     */
+    private final int rightEnd;
+
+    /**
+     * 目标数组
+     */
+    private final int[] dest;
+
+    /**
+     * 目标数组起始下标
+     */
+    private final int destIndex;
+
+    /**
+     * 串行阈值
+     */
+    private final int threshold;
+
+    @Override
+    protected void compute() {
+        int leftLength = leftEnd - leftStart + 1;
+        int rightLength = rightEnd - rightStart + 1;
+
+        // 合并规模较小时串行合并
+        if (leftLength + rightLength <= threshold) {
+            MergeSort.merge(array, leftStart, leftEnd, rightStart, rightEnd, dest, destIndex);
+            return;
+        }
+
+        // 取较长一侧的中值作为分割点，在另一侧二分查找对应位置
+        // 相等的元素左侧的排在前面，保证稳定
+        int leftSplit;
+        int rightSplit;
+        if (leftLength >= rightLength) {
+            leftSplit = (leftStart + leftEnd) >>> 1;
+            rightSplit = MergeSort.binarySearch(array, rightStart, rightEnd, array[leftSplit], false);
+        }
+        else {
+            rightSplit = (rightStart + rightEnd) >>> 1;
+            leftSplit = MergeSort.binarySearch(array, leftStart, leftEnd, array[rightSplit], true);
+        }
+
+        // 分割点元素直接放到最终位置，两侧剩余部分各自独立合并
+        int splitDestIndex = destIndex + (leftSplit - leftStart) + (rightSplit - rightStart);
+        if (leftLength >= rightLength) {
+            dest[splitDestIndex] = array[leftSplit];
+            invokeAll(new MergeTask(array, leftStart, leftSplit - 1, rightStart, rightSplit - 1, dest, destIndex, threshold),
+                    new MergeTask(array, leftSplit + 1, leftEnd, rightSplit, rightEnd, dest, splitDestIndex + 1, threshold));
+        }
+        else {
+            dest[splitDestIndex] = array[rightSplit];
+            invokeAll(new MergeTask(array, leftStart, leftSplit - 1, rightStart, rightSplit - 1, dest, destIndex, threshold),
+                    new MergeTask(array, leftSplit, leftEnd, rightSplit + 1, rightEnd, dest, splitDestIndex + 1, threshold));
+        }
+    }
+}
+
+/**
+ * 并行拷贝任务
+ */
+@AllArgsConstructor
+class CopyTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 源数组
+     */
+    private final int[] src;
+
+    /**
+     * 目标数组
+     */
+    private final int[] dest;
+
+    /**
+     * 序列最左侧下标
+     */
+    private final int left;
+
+    /**
+     * 序列最右侧下标
+     */
+    private final int right;
+
+    /**
+     * 串行阈值
+     */
+    private final int threshold;
+
+    @Override
+    protected void compute() {
+        if (right - left + 1 <= threshold) {
+            System.arraycopy(src, left, dest, left, right - left + 1);
+            return;
         }
 
+        int mid = (left + right) >>> 1;
+        invokeAll(new CopyTask(src, dest, left, mid, threshold), new CopyTask(src, dest, mid + 1, right, threshold));
     }
 }
@@ -0,0 +1,586 @@
+package com.johnny.datastructure.sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * @author johnnyhao
+ *
+ * 并行基数排序
+ *
+ * 从最高字节开始的MSD基数排序，适合10^8以上规模的int和long数组
+ * - 区间较大时将区间分块，每个线程统计自己分块的字节计数，再合并计算每个分块在每个桶中的写入位置
+ * - 分配时每个线程为每个桶维护一个缓存行大小的写合并缓冲区，缓冲区满后整块写入目标数组，减少随机写造成的缓存缺失
+ * - 分配完成后每个桶互不相交，较大的桶作为ForkJoin任务继续按下一个字节排序，较小的桶在当前线程处理
+ * - 桶中元素很少时改用插入排序，区间较小时不使用写合并缓冲区，直接分配到目标数组
+ * - 原数组和一个等长的辅助数组交替作为源和目标，最高字节翻转符号位以支持负数
+ * - 同一任务内的递归复用计数、桶起始位置和写合并缓冲区，只有新任务和并行分块才重新分配
+ */
+public class ParallelRadixSort {
+
+    /**
+     * 按字节排序的基数
+     */
+    private static final int RADIX = 256;
+
+    /**
+     * 字节掩码
+     */
+    private static final int MASK = RADIX - 1;
+
+    /**
+     * 区间长度不超过该值时使用插入排序
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 64;
+
+    /**
+     * 区间长度不小于该值时并行统计和分配
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * 并行统计和分配时每个分块的最小长度
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 14;
+
+    /**
+     * 桶长度不小于该值时作为新任务处理
+     */
+    private static final int FORK_THRESHOLD = 1 << 13;
+
+    /**
+     * 区间长度不小于该值时使用写合并缓冲区，平均每个桶至少一个缓存行，较小的区间缓冲区很少写满
+     */
+    private static final int WRITE_COMBINE_THRESHOLD = 1 << 12;
+
+    /**
+     * int写合并缓冲区大小，16个int为一个64字节缓存行
+     */
+    private static final int INT_BUFFER_SIZE = 16;
+
+    /**
+     * long写合并缓冲区大小，8个long为一个64字节缓存行
+     */
+    private static final int LONG_BUFFER_SIZE = 8;
+
+    public static void main(String[] args) {
+        // 排序前
+        int[] array = {3, 9, -1, 10, -2};
+        System.out.println("排序前 " + Arrays.toString(array));
+
+        // 排序后
+        sort(array, ForkJoinPool.commonPool());
+        System.out.println("排序后 " + Arrays.toString(array));
+
+        // long数组排序
+        long[] longArray = {3L, 9L, -1L, 10L, -2L, Long.MIN_VALUE, Long.MAX_VALUE};
+        sort(longArray, ForkJoinPool.commonPool());
+        System.out.println("long数组排序后 " + Arrays.toString(longArray));
+    }
+
+    /**
+     * 并行基数排序
+     * @param array 数组
+     * @param pool 线程池
+     */
+    public static void sort(int[] array, ForkJoinPool pool) {
+        // 数组长度大于1才需要排序
+        if (array.length <= 1) {
+            return;
+        }
+
+        int[] buffer = new int[array.length];
+        int parallelism = pool.getParallelism();
+        pool.invoke(ForkJoinTask.adapt(() -> sort(array, buffer, array, 0, array.length, Integer.SIZE - 8, parallelism, new Scratch(Integer.SIZE / 8))));
+    }
+
+    /**
+     * 并行基数排序
+     * @param array 数组
+     * @param pool 线程池
+     */
+    public static void sort(long[] array, ForkJoinPool pool) {
+        // 数组长度大于1才需要排序
+        if (array.length <= 1) {
+            return;
+        }
+
+        long[] buffer = new long[array.length];
+        int parallelism = pool.getParallelism();
+        pool.invoke(ForkJoinTask.adapt(() -> sort(array, buffer, array, 0, array.length, Long.SIZE - 8, parallelism, new Scratch(Long.SIZE / 8))));
+    }
+
+    /**
+     * 按指定字节对区间排序，并继续处理更低的字节
+     * @param src 源数组，区间内的数据当前所在的数组
+     * @param dest 目标数组
+     * @param array 原数组，排序结果最终需要写回的数组
+     * @param from 区间起始下标
+     * @param to 区间结束下标(不包含)
+     * @param shift 当前字节的位移
+     * @param parallelism 并行度
+     * @param scratch 当前任务的工作数组
+     */
+    private static void sort(int[] src, int[] dest, int[] array, int from, int to, int shift, int parallelism, Scratch scratch) {
+        int length = to - from;
+
+        // 区间较小时使用插入排序，最高字节翻转符号位与有符号比较的顺序一致
+        if (length <= INSERTION_SORT_THRESHOLD) {
+            InsertionSort.sort(src, from, to - 1);
+            copyBack(src, array, from, to);
+            return;
+        }
+
+        // 统计字节计数，区间较大时按分块并行统计
+        int chunks = length >= PARALLEL_THRESHOLD ? Math.min(parallelism, length / MIN_CHUNK_SIZE) : 1;
+        int[][] counts;
+        if (chunks > 1) {
+            counts = new int[chunks][RADIX];
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+            for (int c = 0; c < chunks; c++) {
+                int chunkFrom = chunkStart(from, length, chunks, c);
+                int chunkTo = chunkStart(from, length, chunks, c + 1);
+                int[] count = counts[c];
+                tasks.add(ForkJoinTask.adapt(() -> histogram(src, chunkFrom, chunkTo, shift, count)));
+            }
+            ForkJoinTask.invokeAll(tasks);
+        }
+        else {
+            counts = scratch.count;
+            Arrays.fill(counts[0], 0);
+            histogram(src, from, to, shift, counts[0]);
+        }
+
+        // 计算每个桶的起始位置，子区间递归期间仍要使用，每个字节一个数组
+        int[] bucketStart = scratch.bucketStarts[shift >>> 3];
+        bucketStart[0] = from;
+        for (int b = 0; b < RADIX; b++) {
+            int total = 0;
+            for (int[] count : counts) {
+                total += count[b];
+            }
+            bucketStart[b + 1] = bucketStart[b] + total;
+        }
+
+        // 所有元素这个字节都相同，不需要分配，直接处理下一个字节
+        int first = digit(src[from], shift);
+        if (bucketStart[first + 1] - bucketStart[first] == length) {
+            if (shift == 0) {
+                copyBack(src, array, from, to);
+            }
+            else {
+                sort(src, dest, array, from, to, shift - 8, parallelism, scratch);
+            }
+            return;
+        }
+
+        // 分配，每个分块在每个桶中的写入位置为桶起始位置加上之前分块在该桶中的计数
+        if (chunks > 1) {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+            int[] offset = Arrays.copyOf(bucketStart, RADIX);
+            for (int c = 0; c < chunks; c++) {
+                int chunkFrom = chunkStart(from, length, chunks, c);
+                int chunkTo = chunkStart(from, length, chunks, c + 1);
+                int[] chunkOffset = offset.clone();
+                for (int b = 0; b < RADIX; b++) {
+                    offset[b] += counts[c][b];
+                }
+                tasks.add(ForkJoinTask.adapt(() -> scatter(src, chunkFrom, chunkTo, shift, dest, chunkOffset, new int[RADIX * INT_BUFFER_SIZE], new int[RADIX])));
+            }
+            ForkJoinTask.invokeAll(tasks);
+        }
+        else {
+            int[] offset = scratch.offset;
+            System.arraycopy(bucketStart, 0, offset, 0, RADIX);
+            if (length < WRITE_COMBINE_THRESHOLD) {
+                scatter(src, from, to, shift, dest, offset);
+            }
+            else {
+                scatter(src, from, to, shift, dest, offset, scratch.intBuffer(), scratch.size);
+            }
+        }
+
+        // 最低字节分配完成后区间已经有序
+        if (shift == 0) {
+            copyBack(dest, array, from, to);
+            return;
+        }
+
+        // 按下一个字节处理每个桶，较大的桶作为新任务
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int b = 0; b < RADIX; b++) {
+            int bucketFrom = bucketStart[b];
+            int bucketTo = bucketStart[b + 1];
+            if (bucketTo - bucketFrom >= FORK_THRESHOLD && parallelism > 1) {
+                tasks.add(ForkJoinTask.adapt(() -> sort(dest, src, array, bucketFrom, bucketTo, shift - 8, parallelism, new Scratch(scratch.bucketStarts.length))));
+            }
+            else if (bucketTo > bucketFrom) {
+                sort(dest, src, array, bucketFrom, bucketTo, shift - 8, parallelism, scratch);
+            }
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    /**
+     * 按指定字节对区间排序，并继续处理更低的字节
+     * @param src 源数组，区间内的数据当前所在的数组
+     * @param dest 目标数组
+     * @param array 原数组，排序结果最终需要写回的数组
+     * @param from 区间起始下标
+     * @param to 区间结束下标(不包含)
+     * @param shift 当前字节的位移
+     * @param parallelism 并行度
+     * @param scratch 当前任务的工作数组
+     */
+    private static void sort(long[] src, long[] dest, long[] array, int from, int to, int shift, int parallelism, Scratch scratch) {
+        int length = to - from;
+
+        // 区间较小时使用插入排序，最高字节翻转符号位与有符号比较的顺序一致
+        if (length <= INSERTION_SORT_THRESHOLD) {
+            InsertionSort.sort(src, from, to - 1);
+            copyBack(src, array, from, to);
+            return;
+        }
+
+        // 统计字节计数，区间较大时按分块并行统计
+        int chunks = length >= PARALLEL_THRESHOLD ? Math.min(parallelism, length / MIN_CHUNK_SIZE) : 1;
+        int[][] counts;
+        if (chunks > 1) {
+            counts = new int[chunks][RADIX];
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+            for (int c = 0; c < chunks; c++) {
+                int chunkFrom = chunkStart(from, length, chunks, c);
+                int chunkTo = chunkStart(from, length, chunks, c + 1);
+                int[] count = counts[c];
+                tasks.add(ForkJoinTask.adapt(() -> histogram(src, chunkFrom, chunkTo, shift, count)));
+            }
+            ForkJoinTask.invokeAll(tasks);
+        }
+        else {
+            counts = scratch.count;
+            Arrays.fill(counts[0], 0);
+            histogram(src, from, to, shift, counts[0]);
+        }
+
+        // 计算每个桶的起始位置，子区间递归期间仍要使用，每个字节一个数组
+        int[] bucketStart = scratch.bucketStarts[shift >>> 3];
+        bucketStart[0] = from;
+        for (int b = 0; b < RADIX; b++) {
+            int total = 0;
+            for (int[] count : counts) {
+                total += count[b];
+            }
+            bucketStart[b + 1] = bucketStart[b] + total;
+        }
+
+        // 所有元素这个字节都相同，不需要分配，直接处理下一个字节
+        int first = digit(src[from], shift);
+        if (bucketStart[first + 1] - bucketStart[first] == length) {
+            if (shift == 0) {
+                copyBack(src, array, from, to);
+            }
+            else {
+                sort(src, dest, array, from, to, shift - 8, parallelism, scratch);
+            }
+            return;
+        }
+
+        // 分配，每个分块在每个桶中的写入位置为桶起始位置加上之前分块在该桶中的计数
+        if (chunks > 1) {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+            int[] offset = Arrays.copyOf(bucketStart, RADIX);
+            for (int c = 0; c < chunks; c++) {
+                int chunkFrom = chunkStart(from, length, chunks, c);
+                int chunkTo = chunkStart(from, length, chunks, c + 1);
+                int[] chunkOffset = offset.clone();
+                for (int b = 0; b < RADIX; b++) {
+                    offset[b] += counts[c][b];
+                }
+                tasks.add(ForkJoinTask.adapt(() -> scatter(src, chunkFrom, chunkTo, shift, dest, chunkOffset, new long[RADIX * LONG_BUFFER_SIZE], new int[RADIX])));
+            }
+            ForkJoinTask.invokeAll(tasks);
+        }
+        else {
+            int[] offset = scratch.offset;
+            System.arraycopy(bucketStart, 0, offset, 0, RADIX);
+            if (length < WRITE_COMBINE_THRESHOLD) {
+                scatter(src, from, to, shift, dest, offset);
+            }
+            else {
+                scatter(src, from, to, shift, dest, offset, scratch.longBuffer(), scratch.size);
+            }
+        }
+
+        // 最低字节分配完成后区间已经有序
+        if (shift == 0) {
+            copyBack(dest, array, from, to);
+            return;
+        }
+
+        // 按下一个字节处理每个桶，较大的桶作为新任务
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int b = 0; b < RADIX; b++) {
+            int bucketFrom = bucketStart[b];
+            int bucketTo = bucketStart[b + 1];
+            if (bucketTo - bucketFrom >= FORK_THRESHOLD && parallelism > 1) {
+                tasks.add(ForkJoinTask.adapt(() -> sort(dest, src, array, bucketFrom, bucketTo, shift - 8, parallelism, new Scratch(scratch.bucketStarts.length))));
+            }
+            else if (bucketTo > bucketFrom) {
+                sort(dest, src, array, bucketFrom, bucketTo, shift - 8, parallelism, scratch);
+            }
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    /**
+     * 统计区间内指定字节的计数
+     * @param src 源数组
+     * @param from 区间起始下标
+     * @param to 区间结束下标(不包含)
+     * @param shift 字节位移
+     * @param count 计数数组
+     */
+    private static void histogram(int[] src, int from, int to, int shift, int[] count) {
+        for (int i = from; i < to; i++) {
+            count[digit(src[i], shift)]++;
+        }
+    }
+
+    /**
+     * 统计区间内指定字节的计数
+     * @param src 源数组
+     * @param from 区间起始下标
+     * @param to 区间结束下标(不包含)
+     * @param shift 字节位移
+     * @param count 计数数组
+     */
+    private static void histogram(long[] src, int from, int to, int shift, int[] count) {
+        for (int i = from; i < to; i++) {
+            count[digit(src[i], shift)]++;
+        }
+    }
+
+    /**
+     * 通过写合并缓冲区将区间内的元素按字节分配到目标数组
+     * @param src 源数组
+     * @param from 区间起始下标
+     * @param to 区间结束下标(不包含)
+     * @param shift 字节位移
+     * @param dest 目标数组
+     * @param offset 每个桶的写入位置
+     * @param buffer 写合并缓冲区，每个桶一个缓存行大小
+     * @param size 每个桶缓冲区中的元素个数，调用前后都为0
+     */
+    private static void scatter(int[] src, int from, int to, int shift, int[] dest, int[] offset, int[] buffer, int[] size) {
+        for (int i = from; i < to; i++) {
+            int value = src[i];
+            int b = digit(value, shift);
+            int n = size[b];
+            buffer[b * INT_BUFFER_SIZE + n++] = value;
+
+            // 缓冲区满则整块写入目标数组
+            if (n == INT_BUFFER_SIZE) {
+                System.arraycopy(buffer, b * INT_BUFFER_SIZE, dest, offset[b], INT_BUFFER_SIZE);
+                offset[b] += INT_BUFFER_SIZE;
+                n = 0;
+            }
+            size[b] = n;
+        }
+
+        // 写入缓冲区中剩余的元素
+        for (int b = 0; b < RADIX; b++) {
+            if (size[b] > 0) {
+                System.arraycopy(buffer, b * INT_BUFFER_SIZE, dest, offset[b], size[b]);
+                size[b] = 0;
+            }
+        }
+    }
+
+    /**
+     * 不经过缓冲区直接将区间内的元素按字节分配到目标数组，区间较小时使用
+     * @param src 源数组
+     * @param from 区间起始下标
+     * @param to 区间结束下标(不包含)
+     * @param shift 字节位移
+     * @param dest 目标数组
+     * @param offset 每个桶的写入位置
+     */
+    private static void scatter(int[] src, int from, int to, int shift, int[] dest, int[] offset) {
+        for (int i = from; i < to; i++) {
+            int value = src[i];
+            dest[offset[digit(value, shift)]++] = value;
+        }
+    }
+
+    /**
+     * 通过写合并缓冲区将区间内的元素按字节分配到目标数组
+     * @param src 源数组
+     * @param from 区间起始下标
+     * @param to 区间结束下标(不包含)
+     * @param shift 字节位移
+     * @param dest 目标数组
+     * @param offset 每个桶的写入位置
+     * @param buffer 写合并缓冲区，每个桶一个缓存行大小
+     * @param size 每个桶缓冲区中的元素个数，调用前后都为0
+     */
+    private static void scatter(long[] src, int from, int to, int shift, long[] dest, int[] offset, long[] buffer, int[] size) {
+        for (int i = from; i < to; i++) {
+            long value = src[i];
+            int b = digit(value, shift);
+            int n = size[b];
+            buffer[b * LONG_BUFFER_SIZE + n++] = value;
+
+            // 缓冲区满则整块写入目标数组
+            if (n == LONG_BUFFER_SIZE) {
+                System.arraycopy(buffer, b * LONG_BUFFER_SIZE, dest, offset[b], LONG_BUFFER_SIZE);
+                offset[b] += LONG_BUFFER_SIZE;
+                n = 0;
+            }
+            size[b] = n;
+        }
+
+        // 写入缓冲区中剩余的元素
+        for (int b = 0; b < RADIX; b++) {
+            if (size[b] > 0) {
+                System.arraycopy(buffer, b * LONG_BUFFER_SIZE, dest, offset[b], size[b]);
+                size[b] = 0;
+            }
+        }
+    }
+
+    /**
+     * 不经过缓冲区直接将区间内的元素按字节分配到目标数组，区间较小时使用
+     * @param src 源数组
+     * @param from 区间起始下标
+     * @param to 区间结束下标(不包含)
+     * @param shift 字节位移
+     * @param dest 目标数组
+     * @param offset 每个桶的写入位置
+     */
+    private static void scatter(long[] src, int from, int to, int shift, long[] dest, int[] offset) {
+        for (int i = from; i < to; i++) {
+            long value = src[i];
+            dest[offset[digit(value, shift)]++] = value;
+        }
+    }
+
+    /**
+     * 取出指定字节，最高字节翻转符号位
+     * @param value 值
+     * @param shift 字节位移
+     * @return 字节值
+     */
+    private static int digit(int value, int shift) {
+        int digit = (value >>> shift) & MASK;
+        return shift == Integer.SIZE - 8 ? digit ^ 0x80 : digit;
+    }
+
+    /**
+     * 取出指定字节，最高字节翻转符号位
+     * @param value 值
+     * @param shift 字节位移
+     * @return 字节值
+     */
+    private static int digit(long value, int shift) {
+        int digit = (int) (value >>> shift) & MASK;
+        return shift == Long.SIZE - 8 ? digit ^ 0x80 : digit;
+    }
+
+    /**
+     * 计算分块起始下标
+     * @param from 区间起始下标
+     * @param length 区间长度
+     * @param chunks 分块个数
+     * @param chunk 分块序号
+     * @return 分块起始下标
+     */
+    private static int chunkStart(int from, int length, int chunks, int chunk) {
+        return from + (int) ((long) length * chunk / chunks);
+    }
+
+    /**
+     * 排序完成的区间不在原数组中则拷贝回原数组
+     * @param src 区间所在的数组
+     * @param array 原数组
+     * @param from 区间起始下标
+     * @param to 区间结束下标(不包含)
+     */
+    private static void copyBack(int[] src, int[] array, int from, int to) {
+        if (src != array) {
+            System.arraycopy(src, from, array, from, to - from);
+        }
+    }
+
+    /**
+     * 排序完成的区间不在原数组中则拷贝回原数组
+     * @param src 区间所在的数组
+     * @param array 原数组
+     * @param from 区间起始下标
+     * @param to 区间结束下标(不包含)
+     */
+    private static void copyBack(long[] src, long[] array, int from, int to) {
+        if (src != array) {
+            System.arraycopy(src, from, array, from, to - from);
+        }
+    }
+
+    /**
+     * 一个任务内递归复用的工作数组
+     * 桶起始位置在处理子区间时仍要使用，每个字节一个数组；其余数组只在一次分配内使用
+     */
+    private static final class Scratch {
+        /**
+         * 串行统计的计数
+         */
+        final int[][] count = new int[1][RADIX];
+
+        /**
+         * 每个字节的桶起始位置
+         */
+        final int[][] bucketStarts;
+
+        /**
+         * 每个桶的写入位置
+         */
+        final int[] offset = new int[RADIX];
+
+        /**
+         * 每个桶写合并缓冲区中的元素个数
+         */
+        final int[] size = new int[RADIX];
+
+        /**
+         * int写合并缓冲区，第一次使用时分配
+         */
+        private int[] intBuffer;
+
+        /**
+         * long写合并缓冲区，第一次使用时分配
+         */
+        private long[] longBuffer;
+
+        /**
+         * @param levels 字节数
+         */
+        Scratch(int levels) {
+            bucketStarts = new int[levels][RADIX + 1];
+        }
+
+        int[] intBuffer() {
+            if (intBuffer == null) {
+                intBuffer = new int[RADIX * INT_BUFFER_SIZE];
+            }
+            return intBuffer;
+        }
+
+        long[] longBuffer() {
+            if (longBuffer == null) {
+                longBuffer = new long[RADIX * LONG_BUFFER_SIZE];
+            }
+            return longBuffer;
+        }
+    }
+}
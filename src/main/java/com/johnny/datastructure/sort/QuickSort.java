@@ -1,6 +1,7 @@
 package com.johnny.datastructure.sort;
 
 import java.util.Arrays;
+import java.util.Comparator;
 
 /**
  * @author johnnyhao
@@ -11,9 +12,26 @@ import java.util.Arrays;
  *
  * 通过一次排序将要配虚的数据分成独立的两份，其中一部分数据比另一部分数据都要小
  * 然后将两部分数据分别进行快速排序，递归完成排序
+ *
+ * 优化(内省排序)：
+ * - 基准数取三数中值，区间较大时取九数中值(ninther)，避免有序序列退化为O(n^2)
+ * - 三路划分，将等于基准数的元素集中在中间，重复元素较多时不再参与递归
+ * - 只递归较小的一侧，较大的一侧循环处理，递归深度不超过log n
+ * - 划分次数超过2log n时改用堆排序，保证最坏时间复杂度O(n log n)
+ * - 区间较小时改用插入排序
  */
 public class QuickSort {
 
+    /**
+     * 区间长度不超过该值时使用插入排序
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    /**
+     * 区间长度超过该值时使用九数取中
+     */
+    private static final int NINTHER_THRESHOLD = 128;
+
     public static void main(String[] args) {
         // 排序前
         int[] array = {3, 9, -1, 10, -2};
@@ -22,6 +40,11 @@ public class QuickSort {
         // 排序后
         sort(array, 0, array.length - 1);
         System.out.println("排序后 " + Arrays.toString(array));
+
+        // 优化排序后
+        array = new int[]{3, 9, -1, 10, -2};
+        sortImprove(array);
+        System.out.println("优化排序后 " + Arrays.toString(array));
     }
 
     /**
@@ -77,4 +100,924 @@ public class QuickSort {
         // 递归右侧序列
         sort(array, l + 1, right);
     }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @param array 数组
+     */
+    public static void sortImprove(int[] array) {
+        // 数组长度大于1才需要排序
+        if (array.length <= 1) {
+            return;
+        }
+
+        // 划分深度上限为2log n
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(array.length));
+
+        sortImprove(array, 0, array.length - 1, depthLimit);
+    }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @param depthLimit 剩余划分深度，用尽后改用堆排序
+     */
+    private static void sortImprove(int[] array, int left, int right, int depthLimit) {
+        // 区间较大时进行划分，否则跳出循环使用插入排序
+        while (right - left + 1 > INSERTION_SORT_THRESHOLD) {
+            // 划分深度用尽说明基准数选择持续失衡，改用堆排序
+            if (depthLimit-- == 0) {
+                HeapSort.sort(array, left, right);
+                return;
+            }
+
+            // 选择基准数值
+            int standard = selectStandard(array, left, right);
+
+            // 三路划分
+            // [left, lt)小于基准数，[lt, i)等于基准数，(gt, right]大于基准数
+            int lt = left;
+            int gt = right;
+            int i = left;
+            while (i <= gt) {
+                if (array[i] < standard) {
+                    swap(array, lt++, i++);
+                }
+                else if (array[i] > standard) {
+                    swap(array, i, gt--);
+                }
+                else {
+                    i++;
+                }
+            }
+
+            // 递归较小的一侧，较大的一侧继续循环，保证递归深度不超过log n
+            if (lt - left < right - gt) {
+                sortImprove(array, left, lt - 1, depthLimit);
+                left = gt + 1;
+            }
+            else {
+                sortImprove(array, gt + 1, right, depthLimit);
+                right = lt - 1;
+            }
+        }
+
+        // 小区间使用插入排序
+        InsertionSort.sort(array, left, right);
+    }
+
+    /**
+     * 选择基准数值
+     * 区间较小时取首、中、尾三数中值，区间较大时取九数中值
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @return 基准数值
+     */
+    private static int selectStandard(int[] array, int left, int right) {
+        int length = right - left + 1;
+        int mid = left + (length >>> 1);
+
+        // 三数取中
+        if (length <= NINTHER_THRESHOLD) {
+            return array[medianOfThree(array, left, mid, right)];
+        }
+
+        // 九数取中，将区间八等分，取三组三数中值的中值
+        int step = length >>> 3;
+        int first = medianOfThree(array, left, left + step, left + 2 * step);
+        int second = medianOfThree(array, mid - step, mid, mid + step);
+        int third = medianOfThree(array, right - 2 * step, right - step, right);
+        return array[medianOfThree(array, first, second, third)];
+    }
+
+    /**
+     * 三数取中
+     * @param array 数组
+     * @param a 下标a
+     * @param b 下标b
+     * @param c 下标c
+     * @return 中值的下标
+     */
+    private static int medianOfThree(int[] array, int a, int b, int c) {
+        if (array[a] < array[b]) {
+            if (array[b] < array[c]) {
+                return b;
+            }
+            return array[a] < array[c] ? c : a;
+        }
+        if (array[a] < array[c]) {
+            return a;
+        }
+        return array[b] < array[c] ? c : b;
+    }
+
+    /**
+     * 交换数组中两个元素
+     * @param array 数组
+     * @param i 下标i
+     * @param j 下标j
+     */
+    private static void swap(int[] array, int i, int j) {
+        int temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @param array 数组
+     */
+    public static void sortImprove(long[] array) {
+        if (array.length <= 1) {
+            return;
+        }
+
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(array.length));
+
+        sortImprove(array, 0, array.length - 1, depthLimit);
+    }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @param depthLimit 剩余划分深度，用尽后改用堆排序
+     */
+    private static void sortImprove(long[] array, int left, int right, int depthLimit) {
+        while (right - left + 1 > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                HeapSort.sort(array, left, right);
+                return;
+            }
+
+            long standard = selectStandard(array, left, right);
+
+            int lt = left;
+            int gt = right;
+            int i = left;
+            while (i <= gt) {
+                if (array[i] < standard) {
+                    swap(array, lt++, i++);
+                }
+                else if (standard < array[i]) {
+                    swap(array, i, gt--);
+                }
+                else {
+                    i++;
+                }
+            }
+
+            if (lt - left < right - gt) {
+                sortImprove(array, left, lt - 1, depthLimit);
+                left = gt + 1;
+            }
+            else {
+                sortImprove(array, gt + 1, right, depthLimit);
+                right = lt - 1;
+            }
+        }
+
+        InsertionSort.sort(array, left, right);
+    }
+
+    /**
+     * 选择基准数值
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @return 基准数值
+     */
+    private static long selectStandard(long[] array, int left, int right) {
+        int length = right - left + 1;
+        int mid = left + (length >>> 1);
+
+        if (length <= NINTHER_THRESHOLD) {
+            return array[medianOfThree(array, left, mid, right)];
+        }
+
+        int step = length >>> 3;
+        int first = medianOfThree(array, left, left + step, left + 2 * step);
+        int second = medianOfThree(array, mid - step, mid, mid + step);
+        int third = medianOfThree(array, right - 2 * step, right - step, right);
+        return array[medianOfThree(array, first, second, third)];
+    }
+
+    /**
+     * 三数取中
+     * @param array 数组
+     * @param a 下标a
+     * @param b 下标b
+     * @param c 下标c
+     * @return 中值的下标
+     */
+    private static int medianOfThree(long[] array, int a, int b, int c) {
+        if (array[a] < array[b]) {
+            if (array[b] < array[c]) {
+                return b;
+            }
+            return array[a] < array[c] ? c : a;
+        }
+        if (array[a] < array[c]) {
+            return a;
+        }
+        return array[b] < array[c] ? c : b;
+    }
+
+    /**
+     * 交换数组中两个元素
+     * @param array 数组
+     * @param i 下标i
+     * @param j 下标j
+     */
+    private static void swap(long[] array, int i, int j) {
+        long temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @param array 数组
+     */
+    public static void sortImprove(short[] array) {
+        if (array.length <= 1) {
+            return;
+        }
+
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(array.length));
+
+        sortImprove(array, 0, array.length - 1, depthLimit);
+    }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @param depthLimit 剩余划分深度，用尽后改用堆排序
+     */
+    private static void sortImprove(short[] array, int left, int right, int depthLimit) {
+        while (right - left + 1 > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                HeapSort.sort(array, left, right);
+                return;
+            }
+
+            short standard = selectStandard(array, left, right);
+
+            int lt = left;
+            int gt = right;
+            int i = left;
+            while (i <= gt) {
+                if (array[i] < standard) {
+                    swap(array, lt++, i++);
+                }
+                else if (standard < array[i]) {
+                    swap(array, i, gt--);
+                }
+                else {
+                    i++;
+                }
+            }
+
+            if (lt - left < right - gt) {
+                sortImprove(array, left, lt - 1, depthLimit);
+                left = gt + 1;
+            }
+            else {
+                sortImprove(array, gt + 1, right, depthLimit);
+                right = lt - 1;
+            }
+        }
+
+        InsertionSort.sort(array, left, right);
+    }
+
+    /**
+     * 选择基准数值
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @return 基准数值
+     */
+    private static short selectStandard(short[] array, int left, int right) {
+        int length = right - left + 1;
+        int mid = left + (length >>> 1);
+
+        if (length <= NINTHER_THRESHOLD) {
+            return array[medianOfThree(array, left, mid, right)];
+        }
+
+        int step = length >>> 3;
+        int first = medianOfThree(array, left, left + step, left + 2 * step);
+        int second = medianOfThree(array, mid - step, mid, mid + step);
+        int third = medianOfThree(array, right - 2 * step, right - step, right);
+        return array[medianOfThree(array, first, second, third)];
+    }
+
+    /**
+     * 三数取中
+     * @param array 数组
+     * @param a 下标a
+     * @param b 下标b
+     * @param c 下标c
+     * @return 中值的下标
+     */
+    private static int medianOfThree(short[] array, int a, int b, int c) {
+        if (array[a] < array[b]) {
+            if (array[b] < array[c]) {
+                return b;
+            }
+            return array[a] < array[c] ? c : a;
+        }
+        if (array[a] < array[c]) {
+            return a;
+        }
+        return array[b] < array[c] ? c : b;
+    }
+
+    /**
+     * 交换数组中两个元素
+     * @param array 数组
+     * @param i 下标i
+     * @param j 下标j
+     */
+    private static void swap(short[] array, int i, int j) {
+        short temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @param array 数组
+     */
+    public static void sortImprove(char[] array) {
+        if (array.length <= 1) {
+            return;
+        }
+
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(array.length));
+
+        sortImprove(array, 0, array.length - 1, depthLimit);
+    }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @param depthLimit 剩余划分深度，用尽后改用堆排序
+     */
+    private static void sortImprove(char[] array, int left, int right, int depthLimit) {
+        while (right - left + 1 > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                HeapSort.sort(array, left, right);
+                return;
+            }
+
+            char standard = selectStandard(array, left, right);
+
+            int lt = left;
+            int gt = right;
+            int i = left;
+            while (i <= gt) {
+                if (array[i] < standard) {
+                    swap(array, lt++, i++);
+                }
+                else if (standard < array[i]) {
+                    swap(array, i, gt--);
+                }
+                else {
+                    i++;
+                }
+            }
+
+            if (lt - left < right - gt) {
+                sortImprove(array, left, lt - 1, depthLimit);
+                left = gt + 1;
+            }
+            else {
+                sortImprove(array, gt + 1, right, depthLimit);
+                right = lt - 1;
+            }
+        }
+
+        InsertionSort.sort(array, left, right);
+    }
+
+    /**
+     * 选择基准数值
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @return 基准数值
+     */
+    private static char selectStandard(char[] array, int left, int right) {
+        int length = right - left + 1;
+        int mid = left + (length >>> 1);
+
+        if (length <= NINTHER_THRESHOLD) {
+            return array[medianOfThree(array, left, mid, right)];
+        }
+
+        int step = length >>> 3;
+        int first = medianOfThree(array, left, left + step, left + 2 * step);
+        int second = medianOfThree(array, mid - step, mid, mid + step);
+        int third = medianOfThree(array, right - 2 * step, right - step, right);
+        return array[medianOfThree(array, first, second, third)];
+    }
+
+    /**
+     * 三数取中
+     * @param array 数组
+     * @param a 下标a
+     * @param b 下标b
+     * @param c 下标c
+     * @return 中值的下标
+     */
+    private static int medianOfThree(char[] array, int a, int b, int c) {
+        if (array[a] < array[b]) {
+            if (array[b] < array[c]) {
+                return b;
+            }
+            return array[a] < array[c] ? c : a;
+        }
+        if (array[a] < array[c]) {
+            return a;
+        }
+        return array[b] < array[c] ? c : b;
+    }
+
+    /**
+     * 交换数组中两个元素
+     * @param array 数组
+     * @param i 下标i
+     * @param j 下标j
+     */
+    private static void swap(char[] array, int i, int j) {
+        char temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @param array 数组
+     */
+    public static void sortImprove(byte[] array) {
+        if (array.length <= 1) {
+            return;
+        }
+
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(array.length));
+
+        sortImprove(array, 0, array.length - 1, depthLimit);
+    }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @param depthLimit 剩余划分深度，用尽后改用堆排序
+     */
+    private static void sortImprove(byte[] array, int left, int right, int depthLimit) {
+        while (right - left + 1 > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                HeapSort.sort(array, left, right);
+                return;
+            }
+
+            byte standard = selectStandard(array, left, right);
+
+            int lt = left;
+            int gt = right;
+            int i = left;
+            while (i <= gt) {
+                if (array[i] < standard) {
+                    swap(array, lt++, i++);
+                }
+                else if (standard < array[i]) {
+                    swap(array, i, gt--);
+                }
+                else {
+                    i++;
+                }
+            }
+
+            if (lt - left < right - gt) {
+                sortImprove(array, left, lt - 1, depthLimit);
+                left = gt + 1;
+            }
+            else {
+                sortImprove(array, gt + 1, right, depthLimit);
+                right = lt - 1;
+            }
+        }
+
+        InsertionSort.sort(array, left, right);
+    }
+
+    /**
+     * 选择基准数值
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @return 基准数值
+     */
+    private static byte selectStandard(byte[] array, int left, int right) {
+        int length = right - left + 1;
+        int mid = left + (length >>> 1);
+
+        if (length <= NINTHER_THRESHOLD) {
+            return array[medianOfThree(array, left, mid, right)];
+        }
+
+        int step = length >>> 3;
+        int first = medianOfThree(array, left, left + step, left + 2 * step);
+        int second = medianOfThree(array, mid - step, mid, mid + step);
+        int third = medianOfThree(array, right - 2 * step, right - step, right);
+        return array[medianOfThree(array, first, second, third)];
+    }
+
+    /**
+     * 三数取中
+     * @param array 数组
+     * @param a 下标a
+     * @param b 下标b
+     * @param c 下标c
+     * @return 中值的下标
+     */
+    private static int medianOfThree(byte[] array, int a, int b, int c) {
+        if (array[a] < array[b]) {
+            if (array[b] < array[c]) {
+                return b;
+            }
+            return array[a] < array[c] ? c : a;
+        }
+        if (array[a] < array[c]) {
+            return a;
+        }
+        return array[b] < array[c] ? c : b;
+    }
+
+    /**
+     * 交换数组中两个元素
+     * @param array 数组
+     * @param i 下标i
+     * @param j 下标j
+     */
+    private static void swap(byte[] array, int i, int j) {
+        byte temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @param array 数组
+     */
+    public static void sortImprove(double[] array) {
+        if (array.length <= 1) {
+            return;
+        }
+
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(array.length));
+
+        sortImprove(array, 0, array.length - 1, depthLimit);
+    }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @param depthLimit 剩余划分深度，用尽后改用堆排序
+     */
+    private static void sortImprove(double[] array, int left, int right, int depthLimit) {
+        while (right - left + 1 > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                HeapSort.sort(array, left, right);
+                return;
+            }
+
+            double standard = selectStandard(array, left, right);
+
+            int lt = left;
+            int gt = right;
+            int i = left;
+            while (i <= gt) {
+                if (Double.compare(array[i], standard) < 0) {
+                    swap(array, lt++, i++);
+                }
+                else if (Double.compare(standard, array[i]) < 0) {
+                    swap(array, i, gt--);
+                }
+                else {
+                    i++;
+                }
+            }
+
+            if (lt - left < right - gt) {
+                sortImprove(array, left, lt - 1, depthLimit);
+                left = gt + 1;
+            }
+            else {
+                sortImprove(array, gt + 1, right, depthLimit);
+                right = lt - 1;
+            }
+        }
+
+        InsertionSort.sort(array, left, right);
+    }
+
+    /**
+     * 选择基准数值
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @return 基准数值
+     */
+    private static double selectStandard(double[] array, int left, int right) {
+        int length = right - left + 1;
+        int mid = left + (length >>> 1);
+
+        if (length <= NINTHER_THRESHOLD) {
+            return array[medianOfThree(array, left, mid, right)];
+        }
+
+        int step = length >>> 3;
+        int first = medianOfThree(array, left, left + step, left + 2 * step);
+        int second = medianOfThree(array, mid - step, mid, mid + step);
+        int third = medianOfThree(array, right - 2 * step, right - step, right);
+        return array[medianOfThree(array, first, second, third)];
+    }
+
+    /**
+     * 三数取中
+     * @param array 数组
+     * @param a 下标a
+     * @param b 下标b
+     * @param c 下标c
+     * @return 中值的下标
+     */
+    private static int medianOfThree(double[] array, int a, int b, int c) {
+        if (Double.compare(array[a], array[b]) < 0) {
+            if (Double.compare(array[b], array[c]) < 0) {
+                return b;
+            }
+            return Double.compare(array[a], array[c]) < 0 ? c : a;
+        }
+        if (Double.compare(array[a], array[c]) < 0) {
+            return a;
+        }
+        return Double.compare(array[b], array[c]) < 0 ? c : b;
+    }
+
+    /**
+     * 交换数组中两个元素
+     * @param array 数组
+     * @param i 下标i
+     * @param j 下标j
+     */
+    private static void swap(double[] array, int i, int j) {
+        double temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @param array 数组
+     */
+    public static void sortImprove(float[] array) {
+        if (array.length <= 1) {
+            return;
+        }
+
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(array.length));
+
+        sortImprove(array, 0, array.length - 1, depthLimit);
+    }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @param depthLimit 剩余划分深度，用尽后改用堆排序
+     */
+    private static void sortImprove(float[] array, int left, int right, int depthLimit) {
+        while (right - left + 1 > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                HeapSort.sort(array, left, right);
+                return;
+            }
+
+            float standard = selectStandard(array, left, right);
+
+            int lt = left;
+            int gt = right;
+            int i = left;
+            while (i <= gt) {
+                if (Float.compare(array[i], standard) < 0) {
+                    swap(array, lt++, i++);
+                }
+                else if (Float.compare(standard, array[i]) < 0) {
+                    swap(array, i, gt--);
+                }
+                else {
+                    i++;
+                }
+            }
+
+            if (lt - left < right - gt) {
+                sortImprove(array, left, lt - 1, depthLimit);
+                left = gt + 1;
+            }
+            else {
+                sortImprove(array, gt + 1, right, depthLimit);
+                right = lt - 1;
+            }
+        }
+
+        InsertionSort.sort(array, left, right);
+    }
+
+    /**
+     * 选择基准数值
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @return 基准数值
+     */
+    private static float selectStandard(float[] array, int left, int right) {
+        int length = right - left + 1;
+        int mid = left + (length >>> 1);
+
+        if (length <= NINTHER_THRESHOLD) {
+            return array[medianOfThree(array, left, mid, right)];
+        }
+
+        int step = length >>> 3;
+        int first = medianOfThree(array, left, left + step, left + 2 * step);
+        int second = medianOfThree(array, mid - step, mid, mid + step);
+        int third = medianOfThree(array, right - 2 * step, right - step, right);
+        return array[medianOfThree(array, first, second, third)];
+    }
+
+    /**
+     * 三数取中
+     * @param array 数组
+     * @param a 下标a
+     * @param b 下标b
+     * @param c 下标c
+     * @return 中值的下标
+     */
+    private static int medianOfThree(float[] array, int a, int b, int c) {
+        if (Float.compare(array[a], array[b]) < 0) {
+            if (Float.compare(array[b], array[c]) < 0) {
+                return b;
+            }
+            return Float.compare(array[a], array[c]) < 0 ? c : a;
+        }
+        if (Float.compare(array[a], array[c]) < 0) {
+            return a;
+        }
+        return Float.compare(array[b], array[c]) < 0 ? c : b;
+    }
+
+    /**
+     * 交换数组中两个元素
+     * @param array 数组
+     * @param i 下标i
+     * @param j 下标j
+     */
+    private static void swap(float[] array, int i, int j) {
+        float temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @param array 数组
+     * @param comparator 比较器
+     */
+    public static <T> void sortImprove(T[] array, Comparator<? super T> comparator) {
+        if (array.length <= 1) {
+            return;
+        }
+
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(array.length));
+
+        sortImprove(array, 0, array.length - 1, depthLimit, comparator);
+    }
+
+    /**
+     * 快速排序优化(内省排序)
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @param depthLimit 剩余划分深度，用尽后改用堆排序
+     * @param comparator 比较器
+     */
+    private static <T> void sortImprove(T[] array, int left, int right, int depthLimit, Comparator<? super T> comparator) {
+        while (right - left + 1 > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                HeapSort.sort(array, left, right, comparator);
+                return;
+            }
+
+            T standard = selectStandard(array, left, right, comparator);
+
+            int lt = left;
+            int gt = right;
+            int i = left;
+            while (i <= gt) {
+                if (comparator.compare(array[i], standard) < 0) {
+                    swap(array, lt++, i++);
+                }
+                else if (comparator.compare(standard, array[i]) < 0) {
+                    swap(array, i, gt--);
+                }
+                else {
+                    i++;
+                }
+            }
+
+            if (lt - left < right - gt) {
+                sortImprove(array, left, lt - 1, depthLimit, comparator);
+                left = gt + 1;
+            }
+            else {
+                sortImprove(array, gt + 1, right, depthLimit, comparator);
+                right = lt - 1;
+            }
+        }
+
+        InsertionSort.sort(array, left, right, comparator);
+    }
+
+    /**
+     * 选择基准数值
+     * @param array 数组
+     * @param left 序列最左侧下标
+     * @param right 序列最右侧下标
+     * @param comparator 比较器
+     * @return 基准数值
+     */
+    private static <T> T selectStandard(T[] array, int left, int right, Comparator<? super T> comparator) {
+        int length = right - left + 1;
+        int mid = left + (length >>> 1);
+
+        if (length <= NINTHER_THRESHOLD) {
+            return array[medianOfThree(array, left, mid, right, comparator)];
+        }
+
+        int step = length >>> 3;
+        int first = medianOfThree(array, left, left + step, left + 2 * step, comparator);
+        int second = medianOfThree(array, mid - step, mid, mid + step, comparator);
+        int third = medianOfThree(array, right - 2 * step, right - step, right, comparator);
+        return array[medianOfThree(array, first, second, third, comparator)];
+    }
+
+    /**
+     * 三数取中
+     * @param array 数组
+     * @param a 下标a
+     * @param b 下标b
+     * @param c 下标c
+     * @param comparator 比较器
+     * @return 中值的下标
+     */
+    private static <T> int medianOfThree(T[] array, int a, int b, int c, Comparator<? super T> comparator) {
+        if (comparator.compare(array[a], array[b]) < 0) {
+            if (comparator.compare(array[b], array[c]) < 0) {
+                return b;
+            }
+            return comparator.compare(array[a], array[c]) < 0 ? c : a;
+        }
+        if (comparator.compare(array[a], array[c]) < 0) {
+            return a;
+        }
+        return comparator.compare(array[b], array[c]) < 0 ? c : b;
+    }
+
+    /**
+     * 交换数组中两个元素
+     * @param array 数组
+     * @param i 下标i
+     * @param j 下标j
+     */
+    private static <T> void swap(T[] array, int i, int j) {
+        T temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
 }
@@ -1,6 +1,7 @@
 package com.johnny.datastructure.sort;
 
 import java.util.Arrays;
+import java.util.function.ToLongFunction;
 
 /**
  * @author johnnyhao
@@ -14,9 +15,25 @@ import java.util.Arrays;
  * 要使基数排序支持负数
  * - 将待排序序列分解成正负两个数组，分别进行基数排序，最后合并
  * - 将所有数据加上一个数转化为正数，最后再减去这个数还原数据
+ *
+ * 按字节的LSD基数排序：
+ * - 以256为基数，每次处理一个字节，int需要4趟，long需要8趟
+ * - 只使用一个与原数组等长的辅助数组，两个数组交替作为源和目标，通过计数和前缀和直接计算每个元素的位置，不再需要10个桶
+ * - 最高字节翻转符号位，负数自然排在正数前面，不需要拆分或加增量
+ * - 一次遍历统计所有字节的计数，如果所有元素某个字节都相同，则跳过这一趟
  */
 public class RadixSort {
 
+    /**
+     * 按字节排序的基数
+     */
+    private static final int RADIX = 256;
+
+    /**
+     * 字节掩码
+     */
+    private static final int MASK = RADIX - 1;
+
     public static void main(String[] args) {
         // 排序前
         int[] array = {3, 9, -1, 10, -2};
@@ -25,6 +42,11 @@ public class RadixSort {
         // 排序后
         sortImprove1(array);
         System.out.println("排序后 " + Arrays.toString(array));
+
+        // 按字节排序后
+        array = new int[]{3, 9, -1, 10, -2};
+        lsdSort(array);
+        System.out.println("按字节排序后 " + Arrays.toString(array));
     }
 
     /**
@@ -166,4 +188,481 @@ public class RadixSort {
             }
         }
     }
+
+    /**
+     * 按字节的LSD基数排序
+     * @param array 数组
+     */
+    public static void lsdSort(int[] array) {
+        // 数组长度大于1才需要排序
+        int length = array.length;
+        if (length <= 1) {
+            return;
+        }
+
+        // 一次遍历统计每个字节的计数，最高字节翻转符号位
+        int[][] counts = new int[Integer.BYTES][RADIX];
+        for (int value : array) {
+            counts[0][value & MASK]++;
+            counts[1][(value >>> 8) & MASK]++;
+            counts[2][(value >>> 16) & MASK]++;
+            counts[3][(value >>> 24) ^ 0x80]++;
+        }
+
+        // 源数组和目标数组交替使用
+        int[] src = array;
+        int[] dest = new int[length];
+
+        for (int pass = 0, shift = 0; pass < Integer.BYTES; pass++, shift += 8) {
+            int[] count = counts[pass];
+            int flip = pass == Integer.BYTES - 1 ? 0x80 : 0;
+
+            // 所有元素这个字节都相同，跳过这一趟
+            if (count[((src[0] >>> shift) & MASK) ^ flip] == length) {
+                continue;
+            }
+
+            // 计数转换成每个字节值在目标数组中的起始位置
+            toOffsets(count);
+
+            // 按字节将元素放到目标数组
+            for (int value : src) {
+                dest[count[((value >>> shift) & MASK) ^ flip]++] = value;
+            }
+
+            // 交换源数组和目标数组
+            int[] temp = src;
+            src = dest;
+            dest = temp;
+        }
+
+        // 结果不在原数组则拷贝回原数组
+        if (src != array) {
+            System.arraycopy(src, 0, array, 0, length);
+        }
+    }
+
+    /**
+     * 按字节的LSD基数排序
+     * @param array 数组
+     */
+    public static void lsdSort(long[] array) {
+        // 数组长度大于1才需要排序
+        int length = array.length;
+        if (length <= 1) {
+            return;
+        }
+
+        // 一次遍历统计每个字节的计数，最高字节翻转符号位
+        int[][] counts = new int[Long.BYTES][RADIX];
+        for (long value : array) {
+            for (int pass = 0, shift = 0; pass < Long.BYTES - 1; pass++, shift += 8) {
+                counts[pass][(int) (value >>> shift) & MASK]++;
+            }
+            counts[Long.BYTES - 1][(int) (value >>> 56) ^ 0x80]++;
+        }
+
+        // 源数组和目标数组交替使用
+        long[] src = array;
+        long[] dest = new long[length];
+
+        for (int pass = 0, shift = 0; pass < Long.BYTES; pass++, shift += 8) {
+            int[] count = counts[pass];
+            int flip = pass == Long.BYTES - 1 ? 0x80 : 0;
+
+            // 所有元素这个字节都相同，跳过这一趟
+            if (count[((int) (src[0] >>> shift) & MASK) ^ flip] == length) {
+                continue;
+            }
+
+            // 计数转换成每个字节值在目标数组中的起始位置
+            toOffsets(count);
+
+            // 按字节将元素放到目标数组
+            for (long value : src) {
+                dest[count[((int) (value >>> shift) & MASK) ^ flip]++] = value;
+            }
+
+            // 交换源数组和目标数组
+            long[] temp = src;
+            src = dest;
+            dest = temp;
+        }
+
+        // 结果不在原数组则拷贝回原数组
+        if (src != array) {
+            System.arraycopy(src, 0, array, 0, length);
+        }
+    }
+
+    /**
+     * 将计数数组转换为前缀和，即每个字节值的起始位置
+     * @param count 计数数组
+     */
+    private static void toOffsets(int[] count) {
+        for (int i = 0, sum = 0; i < count.length; i++) {
+            int c = count[i];
+            count[i] = sum;
+            sum += c;
+        }
+    }
+
+    /**
+     * 按字节的LSD基数排序
+     * @param array 数组
+     */
+    public static void lsdSort(short[] array) {
+        int length = array.length;
+        if (length <= 1) {
+            return;
+        }
+
+        int[][] counts = new int[Short.BYTES][RADIX];
+        for (short value : array) {
+            int key = ((value & 0xFFFF) ^ 0x8000);
+            for (int pass = 0, shift = 0; pass < Short.BYTES; pass++, shift += 8) {
+                counts[pass][(key >>> shift) & MASK]++;
+            }
+        }
+
+        short[] src = array;
+        short[] dest = new short[length];
+
+        for (int pass = 0, shift = 0; pass < Short.BYTES; pass++, shift += 8) {
+            int[] count = counts[pass];
+
+            if (count[(((src[0] & 0xFFFF) ^ 0x8000) >>> shift) & MASK] == length) {
+                continue;
+            }
+
+            toOffsets(count);
+
+            for (short value : src) {
+                dest[count[(((value & 0xFFFF) ^ 0x8000) >>> shift) & MASK]++] = value;
+            }
+
+            short[] temp = src;
+            src = dest;
+            dest = temp;
+        }
+
+        if (src != array) {
+            System.arraycopy(src, 0, array, 0, length);
+        }
+    }
+
+    /**
+     * 按字节的LSD基数排序
+     * @param array 数组
+     */
+    public static void lsdSort(char[] array) {
+        int length = array.length;
+        if (length <= 1) {
+            return;
+        }
+
+        int[][] counts = new int[Character.BYTES][RADIX];
+        for (char value : array) {
+            int key = value;
+            for (int pass = 0, shift = 0; pass < Character.BYTES; pass++, shift += 8) {
+                counts[pass][(key >>> shift) & MASK]++;
+            }
+        }
+
+        char[] src = array;
+        char[] dest = new char[length];
+
+        for (int pass = 0, shift = 0; pass < Character.BYTES; pass++, shift += 8) {
+            int[] count = counts[pass];
+
+            if (count[(src[0] >>> shift) & MASK] == length) {
+                continue;
+            }
+
+            toOffsets(count);
+
+            for (char value : src) {
+                dest[count[(value >>> shift) & MASK]++] = value;
+            }
+
+            char[] temp = src;
+            src = dest;
+            dest = temp;
+        }
+
+        if (src != array) {
+            System.arraycopy(src, 0, array, 0, length);
+        }
+    }
+
+    /**
+     * 按字节的LSD基数排序
+     * @param array 数组
+     */
+    public static void lsdSort(byte[] array) {
+        int length = array.length;
+        if (length <= 1) {
+            return;
+        }
+
+        int[][] counts = new int[Byte.BYTES][RADIX];
+        for (byte value : array) {
+            int key = ((value & MASK) ^ 0x80);
+            for (int pass = 0, shift = 0; pass < Byte.BYTES; pass++, shift += 8) {
+                counts[pass][(key >>> shift) & MASK]++;
+            }
+        }
+
+        byte[] src = array;
+        byte[] dest = new byte[length];
+
+        for (int pass = 0, shift = 0; pass < Byte.BYTES; pass++, shift += 8) {
+            int[] count = counts[pass];
+
+            if (count[(((src[0] & MASK) ^ 0x80) >>> shift) & MASK] == length) {
+                continue;
+            }
+
+            toOffsets(count);
+
+            for (byte value : src) {
+                dest[count[(((value & MASK) ^ 0x80) >>> shift) & MASK]++] = value;
+            }
+
+            byte[] temp = src;
+            src = dest;
+            dest = temp;
+        }
+
+        if (src != array) {
+            System.arraycopy(src, 0, array, 0, length);
+        }
+    }
+
+    /**
+     * 按字节的LSD基数排序
+     * @param array 数组
+     */
+    public static void lsdSort(float[] array) {
+        int length = array.length;
+        if (length <= 1) {
+            return;
+        }
+
+        int[][] counts = new int[Float.BYTES][RADIX];
+        for (float value : array) {
+            int key = floatKey(value);
+            for (int pass = 0, shift = 0; pass < Float.BYTES; pass++, shift += 8) {
+                counts[pass][(key >>> shift) & MASK]++;
+            }
+        }
+
+        float[] src = array;
+        float[] dest = new float[length];
+
+        for (int pass = 0, shift = 0; pass < Float.BYTES; pass++, shift += 8) {
+            int[] count = counts[pass];
+
+            if (count[(floatKey(src[0]) >>> shift) & MASK] == length) {
+                continue;
+            }
+
+            toOffsets(count);
+
+            for (float value : src) {
+                dest[count[(floatKey(value) >>> shift) & MASK]++] = value;
+            }
+
+            float[] temp = src;
+            src = dest;
+            dest = temp;
+        }
+
+        if (src != array) {
+            System.arraycopy(src, 0, array, 0, length);
+        }
+    }
+
+    /**
+     * 按字节的LSD基数排序
+     * @param array 数组
+     */
+    public static void lsdSort(double[] array) {
+        int length = array.length;
+        if (length <= 1) {
+            return;
+        }
+
+        int[][] counts = new int[Double.BYTES][RADIX];
+        for (double value : array) {
+            long key = doubleKey(value);
+            for (int pass = 0, shift = 0; pass < Double.BYTES; pass++, shift += 8) {
+                counts[pass][(int) (key >>> shift) & MASK]++;
+            }
+        }
+
+        double[] src = array;
+        double[] dest = new double[length];
+
+        for (int pass = 0, shift = 0; pass < Double.BYTES; pass++, shift += 8) {
+            int[] count = counts[pass];
+
+            if (count[(int) (doubleKey(src[0]) >>> shift) & MASK] == length) {
+                continue;
+            }
+
+            toOffsets(count);
+
+            for (double value : src) {
+                dest[count[(int) (doubleKey(value) >>> shift) & MASK]++] = value;
+            }
+
+            double[] temp = src;
+            src = dest;
+            dest = temp;
+        }
+
+        if (src != array) {
+            System.arraycopy(src, 0, array, 0, length);
+        }
+    }
+
+    /**
+     * 按long类型的键对对象数组进行LSD基数排序，排序是稳定的
+     * 先取出所有键，键和对象一起分配，每个对象只调用一次键提取函数
+     * @param array 数组
+     * @param keyExtractor 键提取函数
+     */
+    public static <T> void lsdSort(T[] array, ToLongFunction<? super T> keyExtractor) {
+        int length = array.length;
+        if (length <= 1) {
+            return;
+        }
+
+        // 取出键，翻转符号位后按无符号比较
+        long[] keys = new long[length];
+        int[][] counts = new int[Long.BYTES][RADIX];
+        for (int i = 0; i < length; i++) {
+            long key = keyExtractor.applyAsLong(array[i]) ^ Long.MIN_VALUE;
+            keys[i] = key;
+            for (int pass = 0, shift = 0; pass < Long.BYTES; pass++, shift += 8) {
+                counts[pass][(int) (key >>> shift) & MASK]++;
+            }
+        }
+
+        long[] srcKeys = keys;
+        long[] destKeys = new long[length];
+        T[] src = array;
+        T[] dest = Arrays.copyOf(array, length);
+
+        for (int pass = 0, shift = 0; pass < Long.BYTES; pass++, shift += 8) {
+            int[] count = counts[pass];
+
+            if (count[(int) (srcKeys[0] >>> shift) & MASK] == length) {
+                continue;
+            }
+
+            toOffsets(count);
+
+            for (int i = 0; i < length; i++) {
+                int index = count[(int) (srcKeys[i] >>> shift) & MASK]++;
+                destKeys[index] = srcKeys[i];
+                dest[index] = src[i];
+            }
+
+            long[] tempKeys = srcKeys;
+            srcKeys = destKeys;
+            destKeys = tempKeys;
+            T[] temp = src;
+            src = dest;
+            dest = temp;
+        }
+
+        if (src != array) {
+            System.arraycopy(src, 0, array, 0, length);
+        }
+    }
+
+    /**
+     * 将float转换成按无符号比较时顺序一致的int
+     * 负数翻转所有位，正数只翻转符号位，与Float.compare的顺序一致
+     * @param value 值
+     * @return 键
+     */
+    private static int floatKey(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+    }
+
+    /**
+     * 将double转换成按无符号比较时顺序一致的long
+     * 负数翻转所有位，正数只翻转符号位，与Double.compare的顺序一致
+     * @param value 值
+     * @return 键
+     */
+    private static long doubleKey(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    /**
+     * 按long类型的键进行LSD基数排序，值数组随键一起移动，排序是稳定的
+     * 适合对记录的键和记录下标一起排序，不需要为每条记录创建对象
+     * @param keys 键数组
+     * @param values 值数组，长度与键数组相同
+     */
+    public static void lsdSort(long[] keys, int[] values) {
+        int length = keys.length;
+        if (length != values.length) {
+            throw new IllegalArgumentException("键数组与值数组长度不同");
+        }
+        if (length <= 1) {
+            return;
+        }
+
+        // 一次遍历统计每个字节的计数，最高字节翻转符号位
+        int[][] counts = new int[Long.BYTES][RADIX];
+        for (long key : keys) {
+            for (int pass = 0, shift = 0; pass < Long.BYTES - 1; pass++, shift += 8) {
+                counts[pass][(int) (key >>> shift) & MASK]++;
+            }
+            counts[Long.BYTES - 1][(int) (key >>> 56) ^ 0x80]++;
+        }
+
+        long[] srcKeys = keys;
+        long[] destKeys = new long[length];
+        int[] srcValues = values;
+        int[] destValues = new int[length];
+
+        for (int pass = 0, shift = 0; pass < Long.BYTES; pass++, shift += 8) {
+            int[] count = counts[pass];
+            int flip = pass == Long.BYTES - 1 ? 0x80 : 0;
+
+            // 所有键这个字节都相同，跳过这一趟
+            if (count[((int) (srcKeys[0] >>> shift) & MASK) ^ flip] == length) {
+                continue;
+            }
+
+            toOffsets(count);
+
+            for (int i = 0; i < length; i++) {
+                int index = count[((int) (srcKeys[i] >>> shift) & MASK) ^ flip]++;
+                destKeys[index] = srcKeys[i];
+                destValues[index] = srcValues[i];
+            }
+
+            long[] tempKeys = srcKeys;
+            srcKeys = destKeys;
+            destKeys = tempKeys;
+            int[] tempValues = srcValues;
+            srcValues = destValues;
+            destValues = tempValues;
+        }
+
+        // 结果不在原数组则拷贝回原数组
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, 0, keys, 0, length);
+            System.arraycopy(srcValues, 0, values, 0, length);
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package com.johnny.datastructure.sort;
 
 import java.util.Arrays;
+import java.util.Comparator;
 
 /**
  * @author johnnyhao
@@ -47,4 +48,145 @@ public class ShellSort {
             }
         }
     }
+
+    /**
+     * 希尔排序
+     * @param array 数组
+     */
+    public static void sort(long[] array) {
+        for (int step = array.length / 2; step > 0; step /= 2) {
+            for (int i = step; i < array.length; i++) {
+                int insertIndex = i;
+                long insertValue = array[i];
+
+                while (insertIndex - step >= 0 && insertValue < array[insertIndex - step]) {
+                    array[insertIndex] = array[insertIndex - step];
+                    insertIndex -= step;
+                }
+
+                array[insertIndex] = insertValue;
+            }
+        }
+    }
+
+    /**
+     * 希尔排序
+     * @param array 数组
+     */
+    public static void sort(short[] array) {
+        for (int step = array.length / 2; step > 0; step /= 2) {
+            for (int i = step; i < array.length; i++) {
+                int insertIndex = i;
+                short insertValue = array[i];
+
+                while (insertIndex - step >= 0 && insertValue < array[insertIndex - step]) {
+                    array[insertIndex] = array[insertIndex - step];
+                    insertIndex -= step;
+                }
+
+                array[insertIndex] = insertValue;
+            }
+        }
+    }
+
+    /**
+     * 希尔排序
+     * @param array 数组
+     */
+    public static void sort(char[] array) {
+        for (int step = array.length / 2; step > 0; step /= 2) {
+            for (int i = step; i < array.length; i++) {
+                int insertIndex = i;
+                char insertValue = array[i];
+
+                while (insertIndex - step >= 0 && insertValue < array[insertIndex - step]) {
+                    array[insertIndex] = array[insertIndex - step];
+                    insertIndex -= step;
+                }
+
+                array[insertIndex] = insertValue;
+            }
+        }
+    }
+
+    /**
+     * 希尔排序
+     * @param array 数组
+     */
+    public static void sort(byte[] array) {
+        for (int step = array.length / 2; step > 0; step /= 2) {
+            for (int i = step; i < array.length; i++) {
+                int insertIndex = i;
+                byte insertValue = array[i];
+
+                while (insertIndex - step >= 0 && insertValue < array[insertIndex - step]) {
+                    array[insertIndex] = array[insertIndex - step];
+                    insertIndex -= step;
+                }
+
+                array[insertIndex] = insertValue;
+            }
+        }
+    }
+
+    /**
+     * 希尔排序
+     * @param array 数组
+     */
+    public static void sort(double[] array) {
+        for (int step = array.length / 2; step > 0; step /= 2) {
+            for (int i = step; i < array.length; i++) {
+                int insertIndex = i;
+                double insertValue = array[i];
+
+                while (insertIndex - step >= 0 && Double.compare(insertValue, array[insertIndex - step]) < 0) {
+                    array[insertIndex] = array[insertIndex - step];
+                    insertIndex -= step;
+                }
+
+                array[insertIndex] = insertValue;
+            }
+        }
+    }
+
+    /**
+     * 希尔排序
+     * @param array 数组
+     */
+    public static void sort(float[] array) {
+        for (int step = array.length / 2; step > 0; step /= 2) {
+            for (int i = step; i < array.length; i++) {
+                int insertIndex = i;
+                float insertValue = array[i];
+
+                while (insertIndex - step >= 0 && Float.compare(insertValue, array[insertIndex - step]) < 0) {
+                    array[insertIndex] = array[insertIndex - step];
+                    insertIndex -= step;
+                }
+
+                array[insertIndex] = insertValue;
+            }
+        }
+    }
+
+    /**
+     * 希尔排序
+     * @param array 数组
+     * @param comparator 比较器
+     */
+    public static <T> void sort(T[] array, Comparator<? super T> comparator) {
+        for (int step = array.length / 2; step > 0; step /= 2) {
+            for (int i = step; i < array.length; i++) {
+                int insertIndex = i;
+                T insertValue = array[i];
+
+                while (insertIndex - step >= 0 && comparator.compare(insertValue, array[insertIndex - step]) < 0) {
+                    array[insertIndex] = array[insertIndex - step];
+                    insertIndex -= step;
+                }
+
+                array[insertIndex] = insertValue;
+            }
+        }
+    }
 }
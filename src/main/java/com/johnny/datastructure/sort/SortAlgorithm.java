@@ -0,0 +1,354 @@
+package com.johnny.datastructure.sort;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Comparator;
+import java.util.function.ToLongFunction;
+
+/**
+ * @author johnnyhao
+ *
+ * 排序算法
+ *
+ * 将各排序类的静态方法统一为Sorter接口，新增的排序算法加入枚举后即可被SortTest自动测试
+ * - 快速排序使用内省排序
+ * - 基数排序使用按字节的LSD基数排序，对象数组按键排序
+ * - TimSort只实现了int、long和对象数组，其他基本类型使用归并排序
+ * - 归并排序、TimSort、插入排序和按键的基数排序是稳定的
+ */
+@Getter
+@RequiredArgsConstructor
+public enum SortAlgorithm implements Sorter {
+
+    /**
+     * 快速排序
+     */
+    QUICK("快速排序") {
+        @Override
+        public void sort(int[] array) {
+            QuickSort.sortImprove(array);
+        }
+
+        @Override
+        public void sort(long[] array) {
+            QuickSort.sortImprove(array);
+        }
+
+        @Override
+        public void sort(double[] array) {
+            QuickSort.sortImprove(array);
+        }
+
+        @Override
+        public void sort(float[] array) {
+            QuickSort.sortImprove(array);
+        }
+
+        @Override
+        public void sort(short[] array) {
+            QuickSort.sortImprove(array);
+        }
+
+        @Override
+        public void sort(char[] array) {
+            QuickSort.sortImprove(array);
+        }
+
+        @Override
+        public void sort(byte[] array) {
+            QuickSort.sortImprove(array);
+        }
+
+        @Override
+        public <T> void sort(T[] array, Comparator<? super T> comparator) {
+            QuickSort.sortImprove(array, comparator);
+        }
+    },
+
+    /**
+     * 归并排序
+     */
+    MERGE("归并排序") {
+        @Override
+        public void sort(int[] array) {
+            MergeSort.sort(array);
+        }
+
+        @Override
+        public void sort(long[] array) {
+            MergeSort.sort(array);
+        }
+
+        @Override
+        public void sort(double[] array) {
+            MergeSort.sort(array);
+        }
+
+        @Override
+        public void sort(float[] array) {
+            MergeSort.sort(array);
+        }
+
+        @Override
+        public void sort(short[] array) {
+            MergeSort.sort(array);
+        }
+
+        @Override
+        public void sort(char[] array) {
+            MergeSort.sort(array);
+        }
+
+        @Override
+        public void sort(byte[] array) {
+            MergeSort.sort(array);
+        }
+
+        @Override
+        public <T> void sort(T[] array, Comparator<? super T> comparator) {
+            MergeSort.sort(array, comparator);
+        }
+    },
+
+    /**
+     * TimSort
+     */
+    TIM("TimSort") {
+        @Override
+        public void sort(int[] array) {
+            TimSort.sort(array);
+        }
+
+        @Override
+        public void sort(long[] array) {
+            TimSort.sort(array);
+        }
+
+        /**
+         * TimSort只实现了int、long和对象数组，其他类型改用同样稳定的归并排序
+         */
+        @Override
+        public void sort(double[] array) {
+            MergeSort.sort(array);
+        }
+
+        @Override
+        public void sort(float[] array) {
+            MergeSort.sort(array);
+        }
+
+        @Override
+        public void sort(short[] array) {
+            MergeSort.sort(array);
+        }
+
+        @Override
+        public void sort(char[] array) {
+            MergeSort.sort(array);
+        }
+
+        @Override
+        public void sort(byte[] array) {
+            MergeSort.sort(array);
+        }
+
+        @Override
+        public <T> void sort(T[] array, Comparator<? super T> comparator) {
+            TimSort.sort(array, comparator);
+        }
+    },
+
+    /**
+     * 堆排序
+     */
+    HEAP("堆排序") {
+        @Override
+        public void sort(int[] array) {
+            HeapSort.sort(array);
+        }
+
+        @Override
+        public void sort(long[] array) {
+            HeapSort.sort(array);
+        }
+
+        @Override
+        public void sort(double[] array) {
+            HeapSort.sort(array);
+        }
+
+        @Override
+        public void sort(float[] array) {
+            HeapSort.sort(array);
+        }
+
+        @Override
+        public void sort(short[] array) {
+            HeapSort.sort(array);
+        }
+
+        @Override
+        public void sort(char[] array) {
+            HeapSort.sort(array);
+        }
+
+        @Override
+        public void sort(byte[] array) {
+            HeapSort.sort(array);
+        }
+
+        @Override
+        public <T> void sort(T[] array, Comparator<? super T> comparator) {
+            HeapSort.sort(array, comparator);
+        }
+    },
+
+    /**
+     * 希尔排序
+     */
+    SHELL("希尔排序") {
+        @Override
+        public void sort(int[] array) {
+            ShellSort.sort(array);
+        }
+
+        @Override
+        public void sort(long[] array) {
+            ShellSort.sort(array);
+        }
+
+        @Override
+        public void sort(double[] array) {
+            ShellSort.sort(array);
+        }
+
+        @Override
+        public void sort(float[] array) {
+            ShellSort.sort(array);
+        }
+
+        @Override
+        public void sort(short[] array) {
+            ShellSort.sort(array);
+        }
+
+        @Override
+        public void sort(char[] array) {
+            ShellSort.sort(array);
+        }
+
+        @Override
+        public void sort(byte[] array) {
+            ShellSort.sort(array);
+        }
+
+        @Override
+        public <T> void sort(T[] array, Comparator<? super T> comparator) {
+            ShellSort.sort(array, comparator);
+        }
+    },
+
+    /**
+     * 插入排序
+     */
+    INSERTION("插入排序") {
+        @Override
+        public void sort(int[] array) {
+            InsertionSort.sort(array);
+        }
+
+        @Override
+        public void sort(long[] array) {
+            InsertionSort.sort(array);
+        }
+
+        @Override
+        public void sort(double[] array) {
+            InsertionSort.sort(array);
+        }
+
+        @Override
+        public void sort(float[] array) {
+            InsertionSort.sort(array);
+        }
+
+        @Override
+        public void sort(short[] array) {
+            InsertionSort.sort(array);
+        }
+
+        @Override
+        public void sort(char[] array) {
+            InsertionSort.sort(array);
+        }
+
+        @Override
+        public void sort(byte[] array) {
+            InsertionSort.sort(array);
+        }
+
+        @Override
+        public <T> void sort(T[] array, Comparator<? super T> comparator) {
+            InsertionSort.sort(array, comparator);
+        }
+    },
+
+    /**
+     * 基数排序
+     */
+    RADIX("基数排序") {
+        @Override
+        public void sort(int[] array) {
+            RadixSort.lsdSort(array);
+        }
+
+        @Override
+        public void sort(long[] array) {
+            RadixSort.lsdSort(array);
+        }
+
+        @Override
+        public void sort(double[] array) {
+            RadixSort.lsdSort(array);
+        }
+
+        @Override
+        public void sort(float[] array) {
+            RadixSort.lsdSort(array);
+        }
+
+        @Override
+        public void sort(short[] array) {
+            RadixSort.lsdSort(array);
+        }
+
+        @Override
+        public void sort(char[] array) {
+            RadixSort.lsdSort(array);
+        }
+
+        @Override
+        public void sort(byte[] array) {
+            RadixSort.lsdSort(array);
+        }
+
+        /**
+         * 基数排序不能使用比较器，改用稳定的归并排序
+         */
+        @Override
+        public <T> void sort(T[] array, Comparator<? super T> comparator) {
+            MergeSort.sort(array, comparator);
+        }
+
+        @Override
+        public <T> void sortByKey(T[] array, ToLongFunction<? super T> keyExtractor) {
+            RadixSort.lsdSort(array, keyExtractor);
+        }
+    };
+
+    /**
+     * 排序名称
+     */
+    private final String name;
+}
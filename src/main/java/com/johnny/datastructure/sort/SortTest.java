@@ -1,11 +1,15 @@
 package com.johnny.datastructure.sort;
 
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @author johnnyhao
  *
  * 排序测试
+ *
+ * 仅用于快速对比各排序的大致耗时，单次计时受JIT预热和GC影响较大
+ * 精确的性能数据使用benchmark模块中的JMH基准测试
  */
 public class SortTest {
 
@@ -50,11 +54,21 @@ public class SortTest {
         endTime = System.currentTimeMillis();
         System.out.printf("- 快速排序\t%d\n", endTime - startTime);
 
+        startTime = System.currentTimeMillis();
+        QuickSort.sortImprove(array.clone());
+        endTime = System.currentTimeMillis();
+        System.out.printf("  快速排序改进\t%d\n", endTime - startTime);
+
         startTime = System.currentTimeMillis();
         MergeSort.sort(array.clone(), new int[array.length], 0, array.length - 1);
         endTime = System.currentTimeMillis();
         System.out.printf("- 归并排序\t%d\n", endTime - startTime);
 
+        startTime = System.currentTimeMillis();
+        MergeSort.parallelSort(array.clone(), ForkJoinPool.commonPool());
+        endTime = System.currentTimeMillis();
+        System.out.printf("  并行归并排序\t%d\n", endTime - startTime);
+
         startTime = System.currentTimeMillis();
         RadixSort.sort(array.clone());
         endTime = System.currentTimeMillis();
@@ -65,9 +79,50 @@ public class SortTest {
         endTime = System.currentTimeMillis();
         System.out.printf("  基数排序改进\t%d\n", endTime - startTime);
 
+        startTime = System.currentTimeMillis();
+        RadixSort.lsdSort(array.clone());
+        endTime = System.currentTimeMillis();
+        System.out.printf("  基数排序按字节\t%d\n", endTime - startTime);
+
+        startTime = System.currentTimeMillis();
+        ParallelRadixSort.sort(array.clone(), ForkJoinPool.commonPool());
+        endTime = System.currentTimeMillis();
+        System.out.printf("  并行基数排序\t%d\n", endTime - startTime);
+
         startTime = System.currentTimeMillis();
         HeapSort.sort(array.clone());
         endTime = System.currentTimeMillis();
         System.out.printf("- 堆排序\t%d\n", endTime - startTime);
+
+        // 自底向上4叉堆排序
+        startTime = System.currentTimeMillis();
+        HeapSort.sortBottomUp(array.clone(), HeapSort.DEFAULT_ARITY);
+        endTime = System.currentTimeMillis();
+        System.out.printf("- 堆排序自底向上4叉\t%d\n", endTime - startTime);
+
+        // 通过Sorter接口测试所有排序算法，新增的算法加入SortAlgorithm后自动参与测试
+        long[] longArray = new long[maxSize];
+        double[] doubleArray = new double[maxSize];
+        for (int i = 0; i < maxSize; i++) {
+            longArray[i] = (long) array[i] * maxSize + i;
+            doubleArray[i] = array[i] / (double) maxSize;
+        }
+
+        for (Sorter sorter : SortAlgorithm.values()) {
+            startTime = System.currentTimeMillis();
+            sorter.sort(array.clone());
+            endTime = System.currentTimeMillis();
+            System.out.printf("- %s int\t%d\n", sorter.getName(), endTime - startTime);
+
+            startTime = System.currentTimeMillis();
+            sorter.sort(longArray.clone());
+            endTime = System.currentTimeMillis();
+            System.out.printf("  %s long\t%d\n", sorter.getName(), endTime - startTime);
+
+            startTime = System.currentTimeMillis();
+            sorter.sort(doubleArray.clone());
+            endTime = System.currentTimeMillis();
+            System.out.printf("  %s double\t%d\n", sorter.getName(), endTime - startTime);
+        }
     }
 }
@@ -0,0 +1,82 @@
+package com.johnny.datastructure.sort;
+
+import java.util.Comparator;
+import java.util.function.ToLongFunction;
+
+/**
+ * @author johnnyhao
+ *
+ * 排序接口
+ *
+ * - 每种基本类型数组都有单独的重载，排序过程中不会装箱
+ * - 对象数组通过比较器排序，或者通过键提取函数按long类型的键排序
+ * - 是否稳定取决于具体的排序算法
+ */
+public interface Sorter {
+
+    /**
+     * 排序名称
+     * @return 名称
+     */
+    String getName();
+
+    /**
+     * int数组排序
+     * @param array 数组
+     */
+    void sort(int[] array);
+
+    /**
+     * long数组排序
+     * @param array 数组
+     */
+    void sort(long[] array);
+
+    /**
+     * double数组排序，顺序与Double.compare一致
+     * @param array 数组
+     */
+    void sort(double[] array);
+
+    /**
+     * float数组排序，顺序与Float.compare一致
+     * @param array 数组
+     */
+    void sort(float[] array);
+
+    /**
+     * short数组排序
+     * @param array 数组
+     */
+    void sort(short[] array);
+
+    /**
+     * char数组排序
+     * @param array 数组
+     */
+    void sort(char[] array);
+
+    /**
+     * byte数组排序
+     * @param array 数组
+     */
+    void sort(byte[] array);
+
+    /**
+     * 对象数组排序
+     * @param array 数组
+     * @param comparator 比较器
+     * @param <T> 对象类型
+     */
+    <T> void sort(T[] array, Comparator<? super T> comparator);
+
+    /**
+     * 对象数组按long类型的键排序
+     * @param array 数组
+     * @param keyExtractor 键提取函数
+     * @param <T> 对象类型
+     */
+    default <T> void sortByKey(T[] array, ToLongFunction<? super T> keyExtractor) {
+        sort(array, Comparator.comparingLong(keyExtractor));
+    }
+}
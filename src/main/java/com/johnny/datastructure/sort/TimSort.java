@@ -0,0 +1,1869 @@
+package com.johnny.datastructure.sort;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * @author johnnyhao
+ *
+ * TimSort
+ *
+ * 自适应的自然归并排序，适合包含较长有序段的数据，例如追加写入的日志和多个有序分片的合并结果
+ * - 从左到右找出已经有序的段，严格降序的段直接翻转
+ * - 较短的有序段用二分插入排序扩展到最小长度minRun，使有序段个数接近2的幂
+ * - 有序段入栈，维持栈中长度近似斐波那契增长，保证合并平衡
+ * - 合并时如果某一侧连续胜出多次，进入galloping模式，通过指数查找整块拷贝
+ *
+ * 已经有序的数组只需要一次遍历，时间复杂度O(n)，最坏时间复杂度O(n log n)，排序是稳定的
+ */
+public class TimSort {
+
+    /**
+     * 数组长度小于该值时直接使用二分插入排序
+     */
+    static final int MIN_MERGE = 32;
+
+    /**
+     * 进入galloping模式的初始阈值
+     */
+    static final int MIN_GALLOP = 7;
+
+    /**
+     * 临时数组初始最大长度
+     */
+    static final int INITIAL_TEMP_LENGTH = 256;
+
+    /**
+     * 有序段栈的最大深度，有序段长度近似斐波那契增长，49足够容纳int范围内的数组
+     */
+    static final int MAX_STACK_SIZE = 49;
+
+    public static void main(String[] args) {
+        // 排序前
+        int[] array = {1, 2, 3, 4, 10, 9, 8, 7, -1, -2, 5, 6};
+        System.out.println("排序前 " + Arrays.toString(array));
+
+        // 排序后
+        sort(array);
+        System.out.println("排序后 " + Arrays.toString(array));
+    }
+
+    /**
+     * TimSort
+     * @param array 数组
+     */
+    public static void sort(int[] array) {
+        new IntTimSorter(array).sort();
+    }
+
+    /**
+     * TimSort
+     * @param array 数组
+     */
+    public static void sort(long[] array) {
+        new LongTimSorter(array).sort();
+    }
+
+    /**
+     * TimSort
+     * @param array 数组
+     * @param comparator 比较器
+     */
+    public static <T> void sort(T[] array, Comparator<? super T> comparator) {
+        new ObjectTimSorter<>(array, comparator).sort();
+    }
+
+    /**
+     * 计算最小有序段长度
+     * 取n的最高5位，如果剩余位中有1则加1，使n / minRun接近且不超过2的幂
+     * @param n 数组长度
+     * @return 最小有序段长度
+     */
+    static int minRunLength(int n) {
+        int r = 0;
+        while (n >= MIN_MERGE) {
+            r |= n & 1;
+            n >>= 1;
+        }
+        return n + r;
+    }
+}
+
+/**
+ * int数组的TimSort排序状态
+ * 保存待合并的有序段栈、临时数组和当前的galloping阈值
+ */
+class IntTimSorter {
+    /**
+     * 数组
+     */
+    private final int[] array;
+
+    /**
+     * 临时数组，按需扩容
+     */
+    private int[] temp;
+
+    /**
+     * 进入galloping模式的阈值，随数据特征动态调整
+     */
+    private int minGallop = TimSort.MIN_GALLOP;
+
+    /**
+     * 待合并有序段的起始下标
+     */
+    private final int[] runBase = new int[TimSort.MAX_STACK_SIZE];
+
+    /**
+     * 待合并有序段的长度
+     */
+    private final int[] runLength = new int[TimSort.MAX_STACK_SIZE];
+
+    /**
+     * 栈中有序段的个数
+     */
+    private int stackSize;
+
+    IntTimSorter(int[] array) {
+        this.array = array;
+        this.temp = new int[Math.min(array.length >>> 1, TimSort.INITIAL_TEMP_LENGTH)];
+    }
+
+    /**
+     * 排序
+     */
+    void sort() {
+        int low = 0;
+        int high = array.length;
+        int remaining = high - low;
+        if (remaining < 2) {
+            return;
+        }
+
+        // 数组较小时直接使用二分插入排序
+        if (remaining < TimSort.MIN_MERGE) {
+            int initRunLength = countRunAndMakeAscending(low, high);
+            binaryInsertionSort(low, high, low + initRunLength);
+            return;
+        }
+
+        // 从左到右找出有序段，较短的有序段用二分插入排序扩展到最小长度，再按栈规则合并
+        int minRun = TimSort.minRunLength(remaining);
+        do {
+            int runLength = countRunAndMakeAscending(low, high);
+
+            if (runLength < minRun) {
+                int force = Math.min(remaining, minRun);
+                binaryInsertionSort(low, low + force, low + runLength);
+                runLength = force;
+            }
+
+            pushRun(low, runLength);
+            mergeCollapse();
+
+            low += runLength;
+            remaining -= runLength;
+        } while (remaining != 0);
+
+        // 合并剩余的有序段
+        mergeForceCollapse();
+    }
+
+    /**
+     * 找出从low开始的有序段长度，严格降序的有序段翻转为升序
+     * 只翻转严格降序的有序段，保证稳定
+     * @param low 起始下标
+     * @param high 结束下标(不包含)
+     * @return 有序段长度
+     */
+    private int countRunAndMakeAscending(int low, int high) {
+        int runHigh = low + 1;
+        if (runHigh == high) {
+            return 1;
+        }
+
+        if (array[runHigh++] < array[low]) {
+            while (runHigh < high && array[runHigh] < array[runHigh - 1]) {
+                runHigh++;
+            }
+            reverseRange(low, runHigh);
+        }
+        else {
+            while (runHigh < high && array[runHigh - 1] <= array[runHigh]) {
+                runHigh++;
+            }
+        }
+
+        return runHigh - low;
+    }
+
+    /**
+     * 翻转区间
+     * @param low 起始下标
+     * @param high 结束下标(不包含)
+     */
+    private void reverseRange(int low, int high) {
+        high--;
+        while (low < high) {
+            int value = array[low];
+            array[low++] = array[high];
+            array[high--] = value;
+        }
+    }
+
+    /**
+     * 二分插入排序，[low, start)已经有序
+     * @param low 起始下标
+     * @param high 结束下标(不包含)
+     * @param start 第一个待插入元素的下标
+     */
+    private void binaryInsertionSort(int low, int high, int start) {
+        if (start == low) {
+            start++;
+        }
+        for (; start < high; start++) {
+            int pivot = array[start];
+
+            // 二分查找插入位置，相等元素插入到后面，保证稳定
+            int left = low;
+            int right = start;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (pivot < array[mid]) {
+                    right = mid;
+                }
+                else {
+                    left = mid + 1;
+                }
+            }
+
+            System.arraycopy(array, left, array, left + 1, start - left);
+            array[left] = pivot;
+        }
+    }
+
+    /**
+     * 有序段入栈
+     * @param base 起始下标
+     * @param length 长度
+     */
+    private void pushRun(int base, int length) {
+        runBase[stackSize] = base;
+        runLength[stackSize] = length;
+        stackSize++;
+    }
+
+    /**
+     * 合并栈顶的有序段，直到满足
+     * - runLength[i - 2] > runLength[i - 1] + runLength[i]
+     * - runLength[i - 1] > runLength[i]
+     * 使有序段长度近似斐波那契增长，合并两侧长度接近
+     */
+    private void mergeCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1]
+                    || n > 1 && runLength[n - 2] <= runLength[n] + runLength[n - 1]) {
+                if (runLength[n - 1] < runLength[n + 1]) {
+                    n--;
+                }
+            }
+            else if (runLength[n] > runLength[n + 1]) {
+                break;
+            }
+            mergeAt(n);
+        }
+    }
+
+    /**
+     * 合并栈中所有的有序段
+     */
+    private void mergeForceCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLength[n - 1] < runLength[n + 1]) {
+                n--;
+            }
+            mergeAt(n);
+        }
+    }
+
+    /**
+     * 合并栈中第i和第i + 1个有序段
+     * @param i 栈下标
+     */
+    private void mergeAt(int i) {
+        int base1 = runBase[i];
+        int length1 = runLength[i];
+        int base2 = runBase[i + 1];
+        int length2 = runLength[i + 1];
+
+        runLength[i] = length1 + length2;
+        if (i == stackSize - 3) {
+            runBase[i + 1] = runBase[i + 2];
+            runLength[i + 1] = runLength[i + 2];
+        }
+        stackSize--;
+
+        // 第一段中不大于第二段首元素的前缀已经在最终位置
+        int k = gallopRight(array[base2], array, base1, length1, 0);
+        base1 += k;
+        length1 -= k;
+        if (length1 == 0) {
+            return;
+        }
+
+        // 第二段中不小于第一段尾元素的后缀已经在最终位置
+        length2 = gallopLeft(array[base1 + length1 - 1], array, base2, length2, length2 - 1);
+        if (length2 == 0) {
+            return;
+        }
+
+        // 较短的一段拷贝到临时数组
+        if (length1 <= length2) {
+            mergeLow(base1, length1, base2, length2);
+        }
+        else {
+            mergeHigh(base1, length1, base2, length2);
+        }
+    }
+
+    /**
+     * 查找key的插入位置，相等时插入到最左侧
+     * 从hint开始按1、3、7、15...的步长指数查找，再在最后一步的区间内二分查找
+     * @param key 目标值
+     * @param a 数组
+     * @param base 区间起始下标
+     * @param length 区间长度
+     * @param hint 开始查找的位置
+     * @return k，满足a[base + k - 1] < key <= a[base + k]
+     */
+    private int gallopLeft(int key, int[] a, int base, int length, int hint) {
+        int lastOffset = 0;
+        int offset = 1;
+        if (a[base + hint] < key) {
+            int maxOffset = length - hint;
+            while (offset < maxOffset && a[base + hint + offset] < key) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            if (offset > maxOffset) {
+                offset = maxOffset;
+            }
+            lastOffset += hint;
+            offset += hint;
+        }
+        else {
+            int maxOffset = hint + 1;
+            while (offset < maxOffset && key <= a[base + hint - offset]) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            if (offset > maxOffset) {
+                offset = maxOffset;
+            }
+            int temp = lastOffset;
+            lastOffset = hint - offset;
+            offset = hint - temp;
+        }
+
+        // a[base + lastOffset] < key <= a[base + offset]，在区间内二分查找
+        lastOffset++;
+        while (lastOffset < offset) {
+            int mid = lastOffset + ((offset - lastOffset) >>> 1);
+            if (a[base + mid] < key) {
+                lastOffset = mid + 1;
+            }
+            else {
+                offset = mid;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * 查找key的插入位置，相等时插入到最右侧
+     * @param key 目标值
+     * @param a 数组
+     * @param base 区间起始下标
+     * @param length 区间长度
+     * @param hint 开始查找的位置
+     * @return k，满足a[base + k - 1] <= key < a[base + k]
+     */
+    private int gallopRight(int key, int[] a, int base, int length, int hint) {
+        int lastOffset = 0;
+        int offset = 1;
+        if (key < a[base + hint]) {
+            int maxOffset = hint + 1;
+            while (offset < maxOffset && key < a[base + hint - offset]) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            if (offset > maxOffset) {
+                offset = maxOffset;
+            }
+            int temp = lastOffset;
+            lastOffset = hint - offset;
+            offset = hint - temp;
+        }
+        else {
+            int maxOffset = length - hint;
+            while (offset < maxOffset && a[base + hint + offset] <= key) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            if (offset > maxOffset) {
+                offset = maxOffset;
+            }
+            lastOffset += hint;
+            offset += hint;
+        }
+
+        // a[base + lastOffset] <= key < a[base + offset]，在区间内二分查找
+        lastOffset++;
+        while (lastOffset < offset) {
+            int mid = lastOffset + ((offset - lastOffset) >>> 1);
+            if (key < a[base + mid]) {
+                offset = mid;
+            }
+            else {
+                lastOffset = mid + 1;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * 从左向右合并，第一段较短，拷贝到临时数组
+     * 调用前保证第一段首元素大于第二段首元素，第一段尾元素大于第二段所有元素
+     * @param base1 第一段起始下标
+     * @param length1 第一段长度
+     * @param base2 第二段起始下标
+     * @param length2 第二段长度
+     */
+    private void mergeLow(int base1, int length1, int base2, int length2) {
+        int[] a = array;
+        int[] t = ensureCapacity(length1);
+        System.arraycopy(a, base1, t, 0, length1);
+
+        int cursor1 = 0;
+        int cursor2 = base2;
+        int dest = base1;
+
+        a[dest++] = a[cursor2++];
+        if (--length2 == 0) {
+            System.arraycopy(t, cursor1, a, dest, length1);
+            return;
+        }
+        if (length1 == 1) {
+            System.arraycopy(a, cursor2, a, dest, length2);
+            a[dest + length2] = t[cursor1];
+            return;
+        }
+
+        int minGallop = this.minGallop;
+        outer:
+        while (true) {
+            // 记录每一侧连续胜出的次数
+            int count1 = 0;
+            int count2 = 0;
+
+            // 逐个比较，直到某一侧连续胜出minGallop次
+            do {
+                if (a[cursor2] < t[cursor1]) {
+                    a[dest++] = a[cursor2++];
+                    count2++;
+                    count1 = 0;
+                    if (--length2 == 0) {
+                        break outer;
+                    }
+                }
+                else {
+                    a[dest++] = t[cursor1++];
+                    count1++;
+                    count2 = 0;
+                    if (--length1 == 1) {
+                        break outer;
+                    }
+                }
+            } while ((count1 | count2) < minGallop);
+
+            // galloping模式，通过查找直接整块拷贝，直到两侧每次都不能整块拷贝足够多的元素
+            do {
+                count1 = gallopRight(a[cursor2], t, cursor1, length1, 0);
+                if (count1 != 0) {
+                    System.arraycopy(t, cursor1, a, dest, count1);
+                    dest += count1;
+                    cursor1 += count1;
+                    length1 -= count1;
+                    if (length1 <= 1) {
+                        break outer;
+                    }
+                }
+                a[dest++] = a[cursor2++];
+                if (--length2 == 0) {
+                    break outer;
+                }
+
+                count2 = gallopLeft(t[cursor1], a, cursor2, length2, 0);
+                if (count2 != 0) {
+                    System.arraycopy(a, cursor2, a, dest, count2);
+                    dest += count2;
+                    cursor2 += count2;
+                    length2 -= count2;
+                    if (length2 == 0) {
+                        break outer;
+                    }
+                }
+                a[dest++] = t[cursor1++];
+                if (--length1 == 1) {
+                    break outer;
+                }
+                minGallop--;
+            } while (count1 >= TimSort.MIN_GALLOP | count2 >= TimSort.MIN_GALLOP);
+
+            // 退出galloping模式后提高阈值
+            if (minGallop < 0) {
+                minGallop = 0;
+            }
+            minGallop += 2;
+        }
+        this.minGallop = Math.max(minGallop, 1);
+
+        if (length1 == 1) {
+            System.arraycopy(a, cursor2, a, dest, length2);
+            a[dest + length2] = t[cursor1];
+        }
+        else if (length1 == 0) {
+            throw new IllegalArgumentException("比较方法不满足约定");
+        }
+        else {
+            System.arraycopy(t, cursor1, a, dest, length1);
+        }
+    }
+
+    /**
+     * 从右向左合并，第二段较短，拷贝到临时数组
+     * 调用前保证第一段首元素大于第二段首元素，第一段尾元素大于第二段所有元素
+     * @param base1 第一段起始下标
+     * @param length1 第一段长度
+     * @param base2 第二段起始下标
+     * @param length2 第二段长度
+     */
+    private void mergeHigh(int base1, int length1, int base2, int length2) {
+        int[] a = array;
+        int[] t = ensureCapacity(length2);
+        System.arraycopy(a, base2, t, 0, length2);
+
+        int cursor1 = base1 + length1 - 1;
+        int cursor2 = length2 - 1;
+        int dest = base2 + length2 - 1;
+
+        a[dest--] = a[cursor1--];
+        if (--length1 == 0) {
+            System.arraycopy(t, 0, a, dest - (length2 - 1), length2);
+            return;
+        }
+        if (length2 == 1) {
+            dest -= length1;
+            cursor1 -= length1;
+            System.arraycopy(a, cursor1 + 1, a, dest + 1, length1);
+            a[dest] = t[cursor2];
+            return;
+        }
+
+        int minGallop = this.minGallop;
+        outer:
+        while (true) {
+            int count1 = 0;
+            int count2 = 0;
+
+            do {
+                if (t[cursor2] < a[cursor1]) {
+                    a[dest--] = a[cursor1--];
+                    count1++;
+                    count2 = 0;
+                    if (--length1 == 0) {
+                        break outer;
+                    }
+                }
+                else {
+                    a[dest--] = t[cursor2--];
+                    count2++;
+                    count1 = 0;
+                    if (--length2 == 1) {
+                        break outer;
+                    }
+                }
+            } while ((count1 | count2) < minGallop);
+
+            do {
+                count1 = length1 - gallopRight(t[cursor2], a, base1, length1, length1 - 1);
+                if (count1 != 0) {
+                    dest -= count1;
+                    cursor1 -= count1;
+                    length1 -= count1;
+                    System.arraycopy(a, cursor1 + 1, a, dest + 1, count1);
+                    if (length1 == 0) {
+                        break outer;
+                    }
+                }
+                a[dest--] = t[cursor2--];
+                if (--length2 == 1) {
+                    break outer;
+                }
+
+                count2 = length2 - gallopLeft(a[cursor1], t, 0, length2, length2 - 1);
+                if (count2 != 0) {
+                    dest -= count2;
+                    cursor2 -= count2;
+                    length2 -= count2;
+                    System.arraycopy(t, cursor2 + 1, a, dest + 1, count2);
+                    if (length2 <= 1) {
+                        break outer;
+                    }
+                }
+                a[dest--] = a[cursor1--];
+                if (--length1 == 0) {
+                    break outer;
+                }
+                minGallop--;
+            } while (count1 >= TimSort.MIN_GALLOP | count2 >= TimSort.MIN_GALLOP);
+
+            if (minGallop < 0) {
+                minGallop = 0;
+            }
+            minGallop += 2;
+        }
+        this.minGallop = Math.max(minGallop, 1);
+
+        if (length2 == 1) {
+            dest -= length1;
+            cursor1 -= length1;
+            System.arraycopy(a, cursor1 + 1, a, dest + 1, length1);
+            a[dest] = t[cursor2];
+        }
+        else if (length2 == 0) {
+            throw new IllegalArgumentException("比较方法不满足约定");
+        }
+        else {
+            System.arraycopy(t, 0, a, dest - (length2 - 1), length2);
+        }
+    }
+
+    /**
+     * 保证临时数组长度不小于minCapacity，按2的幂扩容，不超过数组长度的一半
+     * @param minCapacity 最小长度
+     * @return 临时数组
+     */
+    private int[] ensureCapacity(int minCapacity) {
+        if (temp.length < minCapacity) {
+            int newSize = Integer.highestOneBit(minCapacity) << 1;
+            if (newSize < 0 || newSize > array.length >>> 1) {
+                newSize = Math.max(minCapacity, array.length >>> 1);
+            }
+            temp = new int[newSize];
+        }
+        return temp;
+    }
+}
+
+/**
+ * long数组的TimSort排序状态
+ * 保存待合并的有序段栈、临时数组和当前的galloping阈值
+ */
+class LongTimSorter {
+    /**
+     * 数组
+     */
+    private final long[] array;
+
+    /**
+     * 临时数组，按需扩容
+     */
+    private long[] temp;
+
+    /**
+     * 进入galloping模式的阈值，随数据特征动态调整
+     */
+    private int minGallop = TimSort.MIN_GALLOP;
+
+    /**
+     * 待合并有序段的起始下标
+     */
+    private final int[] runBase = new int[TimSort.MAX_STACK_SIZE];
+
+    /**
+     * 待合并有序段的长度
+     */
+    private final int[] runLength = new int[TimSort.MAX_STACK_SIZE];
+
+    /**
+     * 栈中有序段的个数
+     */
+    private int stackSize;
+
+    LongTimSorter(long[] array) {
+        this.array = array;
+        this.temp = new long[Math.min(array.length >>> 1, TimSort.INITIAL_TEMP_LENGTH)];
+    }
+
+    /**
+     * 排序
+     */
+    void sort() {
+        int low = 0;
+        int high = array.length;
+        int remaining = high - low;
+        if (remaining < 2) {
+            return;
+        }
+
+        // 数组较小时直接使用二分插入排序
+        if (remaining < TimSort.MIN_MERGE) {
+            int initRunLength = countRunAndMakeAscending(low, high);
+            binaryInsertionSort(low, high, low + initRunLength);
+            return;
+        }
+
+        // 从左到右找出有序段，较短的有序段用二分插入排序扩展到最小长度，再按栈规则合并
+        int minRun = TimSort.minRunLength(remaining);
+        do {
+            int runLength = countRunAndMakeAscending(low, high);
+
+            if (runLength < minRun) {
+                int force = Math.min(remaining, minRun);
+                binaryInsertionSort(low, low + force, low + runLength);
+                runLength = force;
+            }
+
+            pushRun(low, runLength);
+            mergeCollapse();
+
+            low += runLength;
+            remaining -= runLength;
+        } while (remaining != 0);
+
+        // 合并剩余的有序段
+        mergeForceCollapse();
+    }
+
+    /**
+     * 找出从low开始的有序段长度，严格降序的有序段翻转为升序
+     * 只翻转严格降序的有序段，保证稳定
+     * @param low 起始下标
+     * @param high 结束下标(不包含)
+     * @return 有序段长度
+     */
+    private int countRunAndMakeAscending(int low, int high) {
+        int runHigh = low + 1;
+        if (runHigh == high) {
+            return 1;
+        }
+
+        if (array[runHigh++] < array[low]) {
+            while (runHigh < high && array[runHigh] < array[runHigh - 1]) {
+                runHigh++;
+            }
+            reverseRange(low, runHigh);
+        }
+        else {
+            while (runHigh < high && array[runHigh - 1] <= array[runHigh]) {
+                runHigh++;
+            }
+        }
+
+        return runHigh - low;
+    }
+
+    /**
+     * 翻转区间
+     * @param low 起始下标
+     * @param high 结束下标(不包含)
+     */
+    private void reverseRange(int low, int high) {
+        high--;
+        while (low < high) {
+            long value = array[low];
+            array[low++] = array[high];
+            array[high--] = value;
+        }
+    }
+
+    /**
+     * 二分插入排序，[low, start)已经有序
+     * @param low 起始下标
+     * @param high 结束下标(不包含)
+     * @param start 第一个待插入元素的下标
+     */
+    private void binaryInsertionSort(int low, int high, int start) {
+        if (start == low) {
+            start++;
+        }
+        for (; start < high; start++) {
+            long pivot = array[start];
+
+            // 二分查找插入位置，相等元素插入到后面，保证稳定
+            int left = low;
+            int right = start;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (pivot < array[mid]) {
+                    right = mid;
+                }
+                else {
+                    left = mid + 1;
+                }
+            }
+
+            System.arraycopy(array, left, array, left + 1, start - left);
+            array[left] = pivot;
+        }
+    }
+
+    /**
+     * 有序段入栈
+     * @param base 起始下标
+     * @param length 长度
+     */
+    private void pushRun(int base, int length) {
+        runBase[stackSize] = base;
+        runLength[stackSize] = length;
+        stackSize++;
+    }
+
+    /**
+     * 合并栈顶的有序段，直到满足
+     * - runLength[i - 2] > runLength[i - 1] + runLength[i]
+     * - runLength[i - 1] > runLength[i]
+     * 使有序段长度近似斐波那契增长，合并两侧长度接近
+     */
+    private void mergeCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1]
+                    || n > 1 && runLength[n - 2] <= runLength[n] + runLength[n - 1]) {
+                if (runLength[n - 1] < runLength[n + 1]) {
+                    n--;
+                }
+            }
+            else if (runLength[n] > runLength[n + 1]) {
+                break;
+            }
+            mergeAt(n);
+        }
+    }
+
+    /**
+     * 合并栈中所有的有序段
+     */
+    private void mergeForceCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLength[n - 1] < runLength[n + 1]) {
+                n--;
+            }
+            mergeAt(n);
+        }
+    }
+
+    /**
+     * 合并栈中第i和第i + 1个有序段
+     * @param i 栈下标
+     */
+    private void mergeAt(int i) {
+        int base1 = runBase[i];
+        int length1 = runLength[i];
+        int base2 = runBase[i + 1];
+        int length2 = runLength[i + 1];
+
+        runLength[i] = length1 + length2;
+        if (i == stackSize - 3) {
+            runBase[i + 1] = runBase[i + 2];
+            runLength[i + 1] = runLength[i + 2];
+        }
+        stackSize--;
+
+        // 第一段中不大于第二段首元素的前缀已经在最终位置
+        int k = gallopRight(array[base2], array, base1, length1, 0);
+        base1 += k;
+        length1 -= k;
+        if (length1 == 0) {
+            return;
+        }
+
+        // 第二段中不小于第一段尾元素的后缀已经在最终位置
+        length2 = gallopLeft(array[base1 + length1 - 1], array, base2, length2, length2 - 1);
+        if (length2 == 0) {
+            return;
+        }
+
+        // 较短的一段拷贝到临时数组
+        if (length1 <= length2) {
+            mergeLow(base1, length1, base2, length2);
+        }
+        else {
+            mergeHigh(base1, length1, base2, length2);
+        }
+    }
+
+    /**
+     * 查找key的插入位置，相等时插入到最左侧
+     * 从hint开始按1、3、7、15...的步长指数查找，再在最后一步的区间内二分查找
+     * @param key 目标值
+     * @param a 数组
+     * @param base 区间起始下标
+     * @param length 区间长度
+     * @param hint 开始查找的位置
+     * @return k，满足a[base + k - 1] < key <= a[base + k]
+     */
+    private int gallopLeft(long key, long[] a, int base, int length, int hint) {
+        int lastOffset = 0;
+        int offset = 1;
+        if (a[base + hint] < key) {
+            int maxOffset = length - hint;
+            while (offset < maxOffset && a[base + hint + offset] < key) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            if (offset > maxOffset) {
+                offset = maxOffset;
+            }
+            lastOffset += hint;
+            offset += hint;
+        }
+        else {
+            int maxOffset = hint + 1;
+            while (offset < maxOffset && key <= a[base + hint - offset]) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            if (offset > maxOffset) {
+                offset = maxOffset;
+            }
+            int temp = lastOffset;
+            lastOffset = hint - offset;
+            offset = hint - temp;
+        }
+
+        // a[base + lastOffset] < key <= a[base + offset]，在区间内二分查找
+        lastOffset++;
+        while (lastOffset < offset) {
+            int mid = lastOffset + ((offset - lastOffset) >>> 1);
+            if (a[base + mid] < key) {
+                lastOffset = mid + 1;
+            }
+            else {
+                offset = mid;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * 查找key的插入位置，相等时插入到最右侧
+     * @param key 目标值
+     * @param a 数组
+     * @param base 区间起始下标
+     * @param length 区间长度
+     * @param hint 开始查找的位置
+     * @return k，满足a[base + k - 1] <= key < a[base + k]
+     */
+    private int gallopRight(long key, long[] a, int base, int length, int hint) {
+        int lastOffset = 0;
+        int offset = 1;
+        if (key < a[base + hint]) {
+            int maxOffset = hint + 1;
+            while (offset < maxOffset && key < a[base + hint - offset]) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            if (offset > maxOffset) {
+                offset = maxOffset;
+            }
+            int temp = lastOffset;
+            lastOffset = hint - offset;
+            offset = hint - temp;
+        }
+        else {
+            int maxOffset = length - hint;
+            while (offset < maxOffset && a[base + hint + offset] <= key) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            if (offset > maxOffset) {
+                offset = maxOffset;
+            }
+            lastOffset += hint;
+            offset += hint;
+        }
+
+        // a[base + lastOffset] <= key < a[base + offset]，在区间内二分查找
+        lastOffset++;
+        while (lastOffset < offset) {
+            int mid = lastOffset + ((offset - lastOffset) >>> 1);
+            if (key < a[base + mid]) {
+                offset = mid;
+            }
+            else {
+                lastOffset = mid + 1;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * 从左向右合并，第一段较短，拷贝到临时数组
+     * 调用前保证第一段首元素大于第二段首元素，第一段尾元素大于第二段所有元素
+     * @param base1 第一段起始下标
+     * @param length1 第一段长度
+     * @param base2 第二段起始下标
+     * @param length2 第二段长度
+     */
+    private void mergeLow(int base1, int length1, int base2, int length2) {
+        long[] a = array;
+        long[] t = ensureCapacity(length1);
+        System.arraycopy(a, base1, t, 0, length1);
+
+        int cursor1 = 0;
+        int cursor2 = base2;
+        int dest = base1;
+
+        a[dest++] = a[cursor2++];
+        if (--length2 == 0) {
+            System.arraycopy(t, cursor1, a, dest, length1);
+            return;
+        }
+        if (length1 == 1) {
+            System.arraycopy(a, cursor2, a, dest, length2);
+            a[dest + length2] = t[cursor1];
+            return;
+        }
+
+        int minGallop = this.minGallop;
+        outer:
+        while (true) {
+            // 记录每一侧连续胜出的次数
+            int count1 = 0;
+            int count2 = 0;
+
+            // 逐个比较，直到某一侧连续胜出minGallop次
+            do {
+                if (a[cursor2] < t[cursor1]) {
+                    a[dest++] = a[cursor2++];
+                    count2++;
+                    count1 = 0;
+                    if (--length2 == 0) {
+                        break outer;
+                    }
+                }
+                else {
+                    a[dest++] = t[cursor1++];
+                    count1++;
+                    count2 = 0;
+                    if (--length1 == 1) {
+                        break outer;
+                    }
+                }
+            } while ((count1 | count2) < minGallop);
+
+            // galloping模式，通过查找直接整块拷贝，直到两侧每次都不能整块拷贝足够多的元素
+            do {
+                count1 = gallopRight(a[cursor2], t, cursor1, length1, 0);
+                if (count1 != 0) {
+                    System.arraycopy(t, cursor1, a, dest, count1);
+                    dest += count1;
+                    cursor1 += count1;
+                    length1 -= count1;
+                    if (length1 <= 1) {
+                        break outer;
+                    }
+                }
+                a[dest++] = a[cursor2++];
+                if (--length2 == 0) {
+                    break outer;
+                }
+
+                count2 = gallopLeft(t[cursor1], a, cursor2, length2, 0);
+                if (count2 != 0) {
+                    System.arraycopy(a, cursor2, a, dest, count2);
+                    dest += count2;
+                    cursor2 += count2;
+                    length2 -= count2;
+                    if (length2 == 0) {
+                        break outer;
+                    }
+                }
+                a[dest++] = t[cursor1++];
+                if (--length1 == 1) {
+                    break outer;
+                }
+                minGallop--;
+            } while (count1 >= TimSort.MIN_GALLOP | count2 >= TimSort.MIN_GALLOP);
+
+            // 退出galloping模式后提高阈值
+            if (minGallop < 0) {
+                minGallop = 0;
+            }
+            minGallop += 2;
+        }
+        this.minGallop = Math.max(minGallop, 1);
+
+        if (length1 == 1) {
+            System.arraycopy(a, cursor2, a, dest, length2);
+            a[dest + length2] = t[cursor1];
+        }
+        else if (length1 == 0) {
+            throw new IllegalArgumentException("比较方法不满足约定");
+        }
+        else {
+            System.arraycopy(t, cursor1, a, dest, length1);
+        }
+    }
+
+    /**
+     * 从右向左合并，第二段较短，拷贝到临时数组
+     * 调用前保证第一段首元素大于第二段首元素，第一段尾元素大于第二段所有元素
+     * @param base1 第一段起始下标
+     * @param length1 第一段长度
+     * @param base2 第二段起始下标
+     * @param length2 第二段长度
+     */
+    private void mergeHigh(int base1, int length1, int base2, int length2) {
+        long[] a = array;
+        long[] t = ensureCapacity(length2);
+        System.arraycopy(a, base2, t, 0, length2);
+
+        int cursor1 = base1 + length1 - 1;
+        int cursor2 = length2 - 1;
+        int dest = base2 + length2 - 1;
+
+        a[dest--] = a[cursor1--];
+        if (--length1 == 0) {
+            System.arraycopy(t, 0, a, dest - (length2 - 1), length2);
+            return;
+        }
+        if (length2 == 1) {
+            dest -= length1;
+            cursor1 -= length1;
+            System.arraycopy(a, cursor1 + 1, a, dest + 1, length1);
+            a[dest] = t[cursor2];
+            return;
+        }
+
+        int minGallop = this.minGallop;
+        outer:
+        while (true) {
+            int count1 = 0;
+            int count2 = 0;
+
+            do {
+                if (t[cursor2] < a[cursor1]) {
+                    a[dest--] = a[cursor1--];
+                    count1++;
+                    count2 = 0;
+                    if (--length1 == 0) {
+                        break outer;
+                    }
+                }
+                else {
+                    a[dest--] = t[cursor2--];
+                    count2++;
+                    count1 = 0;
+                    if (--length2 == 1) {
+                        break outer;
+                    }
+                }
+            } while ((count1 | count2) < minGallop);
+
+            do {
+                count1 = length1 - gallopRight(t[cursor2], a, base1, length1, length1 - 1);
+                if (count1 != 0) {
+                    dest -= count1;
+                    cursor1 -= count1;
+                    length1 -= count1;
+                    System.arraycopy(a, cursor1 + 1, a, dest + 1, count1);
+                    if (length1 == 0) {
+                        break outer;
+                    }
+                }
+                a[dest--] = t[cursor2--];
+                if (--length2 == 1) {
+                    break outer;
+                }
+
+                count2 = length2 - gallopLeft(a[cursor1], t, 0, length2, length2 - 1);
+                if (count2 != 0) {
+                    dest -= count2;
+                    cursor2 -= count2;
+                    length2 -= count2;
+                    System.arraycopy(t, cursor2 + 1, a, dest + 1, count2);
+                    if (length2 <= 1) {
+                        break outer;
+                    }
+                }
+                a[dest--] = a[cursor1--];
+                if (--length1 == 0) {
+                    break outer;
+                }
+                minGallop--;
+            } while (count1 >= TimSort.MIN_GALLOP | count2 >= TimSort.MIN_GALLOP);
+
+            if (minGallop < 0) {
+                minGallop = 0;
+            }
+            minGallop += 2;
+        }
+        this.minGallop = Math.max(minGallop, 1);
+
+        if (length2 == 1) {
+            dest -= length1;
+            cursor1 -= length1;
+            System.arraycopy(a, cursor1 + 1, a, dest + 1, length1);
+            a[dest] = t[cursor2];
+        }
+        else if (length2 == 0) {
+            throw new IllegalArgumentException("比较方法不满足约定");
+        }
+        else {
+            System.arraycopy(t, 0, a, dest - (length2 - 1), length2);
+        }
+    }
+
+    /**
+     * 保证临时数组长度不小于minCapacity，按2的幂扩容，不超过数组长度的一半
+     * @param minCapacity 最小长度
+     * @return 临时数组
+     */
+    private long[] ensureCapacity(int minCapacity) {
+        if (temp.length < minCapacity) {
+            int newSize = Integer.highestOneBit(minCapacity) << 1;
+            if (newSize < 0 || newSize > array.length >>> 1) {
+                newSize = Math.max(minCapacity, array.length >>> 1);
+            }
+            temp = new long[newSize];
+        }
+        return temp;
+    }
+}
+
+/**
+ * 对象数组的TimSort排序状态
+ * 保存待合并的有序段栈、临时数组和当前的galloping阈值
+ */
+class ObjectTimSorter<T> {
+    /**
+     * 数组
+     */
+    private final T[] array;
+
+    /**
+     * 比较器
+     */
+    private final Comparator<? super T> comparator;
+
+    /**
+     * 临时数组，按需扩容
+     */
+    private T[] temp;
+
+    /**
+     * 进入galloping模式的阈值，随数据特征动态调整
+     */
+    private int minGallop = TimSort.MIN_GALLOP;
+
+    /**
+     * 待合并有序段的起始下标
+     */
+    private final int[] runBase = new int[TimSort.MAX_STACK_SIZE];
+
+    /**
+     * 待合并有序段的长度
+     */
+    private final int[] runLength = new int[TimSort.MAX_STACK_SIZE];
+
+    /**
+     * 栈中有序段的个数
+     */
+    private int stackSize;
+
+    ObjectTimSorter(T[] array, Comparator<? super T> comparator) {
+        this.array = array;
+        this.comparator = comparator;
+        this.temp = Arrays.copyOf(array, Math.min(array.length >>> 1, TimSort.INITIAL_TEMP_LENGTH));
+    }
+
+    /**
+     * 排序
+     */
+    void sort() {
+        int low = 0;
+        int high = array.length;
+        int remaining = high - low;
+        if (remaining < 2) {
+            return;
+        }
+
+        // 数组较小时直接使用二分插入排序
+        if (remaining < TimSort.MIN_MERGE) {
+            int initRunLength = countRunAndMakeAscending(low, high);
+            binaryInsertionSort(low, high, low + initRunLength);
+            return;
+        }
+
+        // 从左到右找出有序段，较短的有序段用二分插入排序扩展到最小长度，再按栈规则合并
+        int minRun = TimSort.minRunLength(remaining);
+        do {
+            int runLength = countRunAndMakeAscending(low, high);
+
+            if (runLength < minRun) {
+                int force = Math.min(remaining, minRun);
+                binaryInsertionSort(low, low + force, low + runLength);
+                runLength = force;
+            }
+
+            pushRun(low, runLength);
+            mergeCollapse();
+
+            low += runLength;
+            remaining -= runLength;
+        } while (remaining != 0);
+
+        // 合并剩余的有序段
+        mergeForceCollapse();
+    }
+
+    /**
+     * 找出从low开始的有序段长度，严格降序的有序段翻转为升序
+     * 只翻转严格降序的有序段，保证稳定
+     * @param low 起始下标
+     * @param high 结束下标(不包含)
+     * @return 有序段长度
+     */
+    private int countRunAndMakeAscending(int low, int high) {
+        int runHigh = low + 1;
+        if (runHigh == high) {
+            return 1;
+        }
+
+        if (comparator.compare(array[runHigh++], array[low]) < 0) {
+            while (runHigh < high && comparator.compare(array[runHigh], array[runHigh - 1]) < 0) {
+                runHigh++;
+            }
+            reverseRange(low, runHigh);
+        }
+        else {
+            while (runHigh < high && comparator.compare(array[runHigh - 1], array[runHigh]) <= 0) {
+                runHigh++;
+            }
+        }
+
+        return runHigh - low;
+    }
+
+    /**
+     * 翻转区间
+     * @param low 起始下标
+     * @param high 结束下标(不包含)
+     */
+    private void reverseRange(int low, int high) {
+        high--;
+        while (low < high) {
+            T value = array[low];
+            array[low++] = array[high];
+            array[high--] = value;
+        }
+    }
+
+    /**
+     * 二分插入排序，[low, start)已经有序
+     * @param low 起始下标
+     * @param high 结束下标(不包含)
+     * @param start 第一个待插入元素的下标
+     */
+    private void binaryInsertionSort(int low, int high, int start) {
+        if (start == low) {
+            start++;
+        }
+        for (; start < high; start++) {
+            T pivot = array[start];
+
+            // 二分查找插入位置，相等元素插入到后面，保证稳定
+            int left = low;
+            int right = start;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (comparator.compare(pivot, array[mid]) < 0) {
+                    right = mid;
+                }
+                else {
+                    left = mid + 1;
+                }
+            }
+
+            System.arraycopy(array, left, array, left + 1, start - left);
+            array[left] = pivot;
+        }
+    }
+
+    /**
+     * 有序段入栈
+     * @param base 起始下标
+     * @param length 长度
+     */
+    private void pushRun(int base, int length) {
+        runBase[stackSize] = base;
+        runLength[stackSize] = length;
+        stackSize++;
+    }
+
+    /**
+     * 合并栈顶的有序段，直到满足
+     * - runLength[i - 2] > runLength[i - 1] + runLength[i]
+     * - runLength[i - 1] > runLength[i]
+     * 使有序段长度近似斐波那契增长，合并两侧长度接近
+     */
+    private void mergeCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1]
+                    || n > 1 && runLength[n - 2] <= runLength[n] + runLength[n - 1]) {
+                if (runLength[n - 1] < runLength[n + 1]) {
+                    n--;
+                }
+            }
+            else if (runLength[n] > runLength[n + 1]) {
+                break;
+            }
+            mergeAt(n);
+        }
+    }
+
+    /**
+     * 合并栈中所有的有序段
+     */
+    private void mergeForceCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLength[n - 1] < runLength[n + 1]) {
+                n--;
+            }
+            mergeAt(n);
+        }
+    }
+
+    /**
+     * 合并栈中第i和第i + 1个有序段
+     * @param i 栈下标
+     */
+    private void mergeAt(int i) {
+        int base1 = runBase[i];
+        int length1 = runLength[i];
+        int base2 = runBase[i + 1];
+        int length2 = runLength[i + 1];
+
+        runLength[i] = length1 + length2;
+        if (i == stackSize - 3) {
+            runBase[i + 1] = runBase[i + 2];
+            runLength[i + 1] = runLength[i + 2];
+        }
+        stackSize--;
+
+        // 第一段中不大于第二段首元素的前缀已经在最终位置
+        int k = gallopRight(array[base2], array, base1, length1, 0);
+        base1 += k;
+        length1 -= k;
+        if (length1 == 0) {
+            return;
+        }
+
+        // 第二段中不小于第一段尾元素的后缀已经在最终位置
+        length2 = gallopLeft(array[base1 + length1 - 1], array, base2, length2, length2 - 1);
+        if (length2 == 0) {
+            return;
+        }
+
+        // 较短的一段拷贝到临时数组
+        if (length1 <= length2) {
+            mergeLow(base1, length1, base2, length2);
+        }
+        else {
+            mergeHigh(base1, length1, base2, length2);
+        }
+    }
+
+    /**
+     * 查找key的插入位置，相等时插入到最左侧
+     * 从hint开始按1、3、7、15...的步长指数查找，再在最后一步的区间内二分查找
+     * @param key 目标值
+     * @param a 数组
+     * @param base 区间起始下标
+     * @param length 区间长度
+     * @param hint 开始查找的位置
+     * @return k，满足a[base + k - 1] < key <= a[base + k]
+     */
+    private int gallopLeft(T key, T[] a, int base, int length, int hint) {
+        int lastOffset = 0;
+        int offset = 1;
+        if (comparator.compare(a[base + hint], key) < 0) {
+            int maxOffset = length - hint;
+            while (offset < maxOffset && comparator.compare(a[base + hint + offset], key) < 0) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            if (offset > maxOffset) {
+                offset = maxOffset;
+            }
+            lastOffset += hint;
+            offset += hint;
+        }
+        else {
+            int maxOffset = hint + 1;
+            while (offset < maxOffset && comparator.compare(key, a[base + hint - offset]) <= 0) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            if (offset > maxOffset) {
+                offset = maxOffset;
+            }
+            int temp = lastOffset;
+            lastOffset = hint - offset;
+            offset = hint - temp;
+        }
+
+        // a[base + lastOffset] < key <= a[base + offset]，在区间内二分查找
+        lastOffset++;
+        while (lastOffset < offset) {
+            int mid = lastOffset + ((offset - lastOffset) >>> 1);
+            if (comparator.compare(a[base + mid], key) < 0) {
+                lastOffset = mid + 1;
+            }
+            else {
+                offset = mid;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * 查找key的插入位置，相等时插入到最右侧
+     * @param key 目标值
+     * @param a 数组
+     * @param base 区间起始下标
+     * @param length 区间长度
+     * @param hint 开始查找的位置
+     * @return k，满足a[base + k - 1] <= key < a[base + k]
+     */
+    private int gallopRight(T key, T[] a, int base, int length, int hint) {
+        int lastOffset = 0;
+        int offset = 1;
+        if (comparator.compare(key, a[base + hint]) < 0) {
+            int maxOffset = hint + 1;
+            while (offset < maxOffset && comparator.compare(key, a[base + hint - offset]) < 0) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            if (offset > maxOffset) {
+                offset = maxOffset;
+            }
+            int temp = lastOffset;
+            lastOffset = hint - offset;
+            offset = hint - temp;
+        }
+        else {
+            int maxOffset = length - hint;
+            while (offset < maxOffset && comparator.compare(a[base + hint + offset], key) <= 0) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            if (offset > maxOffset) {
+                offset = maxOffset;
+            }
+            lastOffset += hint;
+            offset += hint;
+        }
+
+        // a[base + lastOffset] <= key < a[base + offset]，在区间内二分查找
+        lastOffset++;
+        while (lastOffset < offset) {
+            int mid = lastOffset + ((offset - lastOffset) >>> 1);
+            if (comparator.compare(key, a[base + mid]) < 0) {
+                offset = mid;
+            }
+            else {
+                lastOffset = mid + 1;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * 从左向右合并，第一段较短，拷贝到临时数组
+     * 调用前保证第一段首元素大于第二段首元素，第一段尾元素大于第二段所有元素
+     * @param base1 第一段起始下标
+     * @param length1 第一段长度
+     * @param base2 第二段起始下标
+     * @param length2 第二段长度
+     */
+    private void mergeLow(int base1, int length1, int base2, int length2) {
+        T[] a = array;
+        T[] t = ensureCapacity(length1);
+        System.arraycopy(a, base1, t, 0, length1);
+
+        int cursor1 = 0;
+        int cursor2 = base2;
+        int dest = base1;
+
+        a[dest++] = a[cursor2++];
+        if (--length2 == 0) {
+            System.arraycopy(t, cursor1, a, dest, length1);
+            return;
+        }
+        if (length1 == 1) {
+            System.arraycopy(a, cursor2, a, dest, length2);
+            a[dest + length2] = t[cursor1];
+            return;
+        }
+
+        int minGallop = this.minGallop;
+        outer:
+        while (true) {
+            // 记录每一侧连续胜出的次数
+            int count1 = 0;
+            int count2 = 0;
+
+            // 逐个比较，直到某一侧连续胜出minGallop次
+            do {
+                if (comparator.compare(a[cursor2], t[cursor1]) < 0) {
+                    a[dest++] = a[cursor2++];
+                    count2++;
+                    count1 = 0;
+                    if (--length2 == 0) {
+                        break outer;
+                    }
+                }
+                else {
+                    a[dest++] = t[cursor1++];
+                    count1++;
+                    count2 = 0;
+                    if (--length1 == 1) {
+                        break outer;
+                    }
+                }
+            } while ((count1 | count2) < minGallop);
+
+            // galloping模式，通过查找直接整块拷贝，直到两侧每次都不能整块拷贝足够多的元素
+            do {
+                count1 = gallopRight(a[cursor2], t, cursor1, length1, 0);
+                if (count1 != 0) {
+                    System.arraycopy(t, cursor1, a, dest, count1);
+                    dest += count1;
+                    cursor1 += count1;
+                    length1 -= count1;
+                    if (length1 <= 1) {
+                        break outer;
+                    }
+                }
+                a[dest++] = a[cursor2++];
+                if (--length2 == 0) {
+                    break outer;
+                }
+
+                count2 = gallopLeft(t[cursor1], a, cursor2, length2, 0);
+                if (count2 != 0) {
+                    System.arraycopy(a, cursor2, a, dest, count2);
+                    dest += count2;
+                    cursor2 += count2;
+                    length2 -= count2;
+                    if (length2 == 0) {
+                        break outer;
+                    }
+                }
+                a[dest++] = t[cursor1++];
+                if (--length1 == 1) {
+                    break outer;
+                }
+                minGallop--;
+            } while (count1 >= TimSort.MIN_GALLOP | count2 >= TimSort.MIN_GALLOP);
+
+            // 退出galloping模式后提高阈值
+            if (minGallop < 0) {
+                minGallop = 0;
+            }
+            minGallop += 2;
+        }
+        this.minGallop = Math.max(minGallop, 1);
+
+        if (length1 == 1) {
+            System.arraycopy(a, cursor2, a, dest, length2);
+            a[dest + length2] = t[cursor1];
+        }
+        else if (length1 == 0) {
+            throw new IllegalArgumentException("比较方法不满足约定");
+        }
+        else {
+            System.arraycopy(t, cursor1, a, dest, length1);
+        }
+    }
+
+    /**
+     * 从右向左合并，第二段较短，拷贝到临时数组
+     * 调用前保证第一段首元素大于第二段首元素，第一段尾元素大于第二段所有元素
+     * @param base1 第一段起始下标
+     * @param length1 第一段长度
+     * @param base2 第二段起始下标
+     * @param length2 第二段长度
+     */
+    private void mergeHigh(int base1, int length1, int base2, int length2) {
+        T[] a = array;
+        T[] t = ensureCapacity(length2);
+        System.arraycopy(a, base2, t, 0, length2);
+
+        int cursor1 = base1 + length1 - 1;
+        int cursor2 = length2 - 1;
+        int dest = base2 + length2 - 1;
+
+        a[dest--] = a[cursor1--];
+        if (--length1 == 0) {
+            System.arraycopy(t, 0, a, dest - (length2 - 1), length2);
+            return;
+        }
+        if (length2 == 1) {
+            dest -= length1;
+            cursor1 -= length1;
+            System.arraycopy(a, cursor1 + 1, a, dest + 1, length1);
+            a[dest] = t[cursor2];
+            return;
+        }
+
+        int minGallop = this.minGallop;
+        outer:
+        while (true) {
+            int count1 = 0;
+            int count2 = 0;
+
+            do {
+                if (comparator.compare(t[cursor2], a[cursor1]) < 0) {
+                    a[dest--] = a[cursor1--];
+                    count1++;
+                    count2 = 0;
+                    if (--length1 == 0) {
+                        break outer;
+                    }
+                }
+                else {
+                    a[dest--] = t[cursor2--];
+                    count2++;
+                    count1 = 0;
+                    if (--length2 == 1) {
+                        break outer;
+                    }
+                }
+            } while ((count1 | count2) < minGallop);
+
+            do {
+                count1 = length1 - gallopRight(t[cursor2], a, base1, length1, length1 - 1);
+                if (count1 != 0) {
+                    dest -= count1;
+                    cursor1 -= count1;
+                    length1 -= count1;
+                    System.arraycopy(a, cursor1 + 1, a, dest + 1, count1);
+                    if (length1 == 0) {
+                        break outer;
+                    }
+                }
+                a[dest--] = t[cursor2--];
+                if (--length2 == 1) {
+                    break outer;
+                }
+
+                count2 = length2 - gallopLeft(a[cursor1], t, 0, length2, length2 - 1);
+                if (count2 != 0) {
+                    dest -= count2;
+                    cursor2 -= count2;
+                    length2 -= count2;
+                    System.arraycopy(t, cursor2 + 1, a, dest + 1, count2);
+                    if (length2 <= 1) {
+                        break outer;
+                    }
+                }
+                a[dest--] = a[cursor1--];
+                if (--length1 == 0) {
+                    break outer;
+                }
+                minGallop--;
+            } while (count1 >= TimSort.MIN_GALLOP | count2 >= TimSort.MIN_GALLOP);
+
+            if (minGallop < 0) {
+                minGallop = 0;
+            }
+            minGallop += 2;
+        }
+        this.minGallop = Math.max(minGallop, 1);
+
+        if (length2 == 1) {
+            dest -= length1;
+            cursor1 -= length1;
+            System.arraycopy(a, cursor1 + 1, a, dest + 1, length1);
+            a[dest] = t[cursor2];
+        }
+        else if (length2 == 0) {
+            throw new IllegalArgumentException("比较方法不满足约定");
+        }
+        else {
+            System.arraycopy(t, 0, a, dest - (length2 - 1), length2);
+        }
+    }
+
+    /**
+     * 保证临时数组长度不小于minCapacity，按2的幂扩容，不超过数组长度的一半
+     * @param minCapacity 最小长度
+     * @return 临时数组
+     */
+    private T[] ensureCapacity(int minCapacity) {
+        if (temp.length < minCapacity) {
+            int newSize = Integer.highestOneBit(minCapacity) << 1;
+            if (newSize < 0 || newSize > array.length >>> 1) {
+                newSize = Math.max(minCapacity, array.length >>> 1);
+            }
+            temp = Arrays.copyOf(array, newSize);
+        }
+        return temp;
+    }
+}
@@ -0,0 +1,401 @@
+package com.johnny.datastructure.tree;
+
+import java.util.function.IntConsumer;
+
+/**
+ * @author johnnyhao
+ *
+ * AVL树
+ *
+ * BinaryBalanceTreeImpl每次添加都递归计算整棵子树的高度，添加一个节点是O(n)
+ * AVL树在AvlTreeNode中缓存子树高度和子树节点个数
+ * - 添加和删除只沿查找路径回溯，逐个节点更新高度并在高度差超过1时旋转，都是O(log n)
+ * - 旋转方式与BinaryBalanceTreeImpl相同，交换节点的值使子树根节点对象不变，复用子节点代替新建节点
+ * - 子树节点个数支持按值求排名和按排名取值，同样是O(log n)
+ *
+ * id不重复，重复添加时忽略
+ *
+ * hashtable包的PersonTree有一份相同思路的旋转，节点类型不同(交换Person而不是id)且不维护子树节点个数，
+ * 所以没有抽成公共方法，修改这里的旋转或高度更新时需要同步检查PersonTree
+ */
+public class AvlTree {
+
+    /**
+     * 根节点
+     */
+    private AvlTreeNode root;
+
+    public static void main(String[] args) {
+        // 初始化AVL树，升序添加时BinaryBalanceTreeImpl需要不断旋转根节点
+        AvlTree avlTree = new AvlTree();
+        for (int id = 1; id <= 10; id++) {
+            avlTree.add(id * 10);
+        }
+        System.out.println("元素个数 " + avlTree.size() + " 高度 " + avlTree.height());
+
+        // 删除
+        avlTree.delete(50);
+        System.out.println("删除50后是否包含50 " + avlTree.contains(50));
+
+        // 不大于55的最大值，不小于55的最小值
+        System.out.println("floor(55) " + avlTree.floor(55) + " ceiling(55) " + avlTree.ceiling(55));
+
+        // 排名与按排名取值
+        System.out.println("rank(70) " + avlTree.rank(70) + " select(0) " + avlTree.select(0));
+
+        // 范围遍历
+        System.out.println("[25, 75]范围内");
+        avlTree.forEachInRange(25, 75, System.out::println);
+    }
+
+    /**
+     * 添加
+     * @param id id
+     * @return 是否添加，id已存在返回false
+     */
+    public boolean add(int id) {
+        int oldSize = size();
+        root = add(root, id);
+        return size() > oldSize;
+    }
+
+    /**
+     * 递归添加，回溯时更新高度并调整平衡
+     * @param node 当前节点
+     * @param id id
+     * @return 添加后的子树根节点
+     */
+    private AvlTreeNode add(AvlTreeNode node, int id) {
+        if (node == null) {
+            return new AvlTreeNode(id);
+        }
+
+        if (id < node.getId()) {
+            node.setLeft(add(node.getLeft(), id));
+        }
+        else if (id > node.getId()) {
+            node.setRight(add(node.getRight(), id));
+        }
+        else {
+            return node;
+        }
+
+        rebalance(node);
+        return node;
+    }
+
+    /**
+     * 删除
+     * @param id id
+     * @return 是否删除
+     */
+    public boolean delete(int id) {
+        int oldSize = size();
+        root = delete(root, id);
+        return size() < oldSize;
+    }
+
+    /**
+     * 递归删除，回溯时更新高度并调整平衡
+     * @param node 当前节点
+     * @param id id
+     * @return 删除后的子树根节点
+     */
+    private AvlTreeNode delete(AvlTreeNode node, int id) {
+        if (node == null) {
+            return null;
+        }
+
+        if (id < node.getId()) {
+            node.setLeft(delete(node.getLeft(), id));
+        }
+        else if (id > node.getId()) {
+            node.setRight(delete(node.getRight(), id));
+        }
+        else {
+            // 只有一个子节点，直接用子节点替换
+            if (node.getLeft() == null) {
+                return node.getRight();
+            }
+            if (node.getRight() == null) {
+                return node.getLeft();
+            }
+            // 有两个子节点，用右子树的最小值替换
+            AvlTreeNode min = node.getRight();
+            while (min.getLeft() != null) {
+                min = min.getLeft();
+            }
+            node.setId(min.getId());
+            node.setRight(deleteMin(node.getRight()));
+        }
+
+        rebalance(node);
+        return node;
+    }
+
+    /**
+     * 删除子树的最小节点
+     * @param node 子树根节点
+     * @return 删除后的子树根节点
+     */
+    private AvlTreeNode deleteMin(AvlTreeNode node) {
+        if (node.getLeft() == null) {
+            return node.getRight();
+        }
+        node.setLeft(deleteMin(node.getLeft()));
+        rebalance(node);
+        return node;
+    }
+
+    /**
+     * 是否包含
+     * @param id id
+     * @return 是否包含
+     */
+    public boolean contains(int id) {
+        AvlTreeNode node = root;
+        while (node != null) {
+            if (id == node.getId()) {
+                return true;
+            }
+            node = id < node.getId() ? node.getLeft() : node.getRight();
+        }
+        return false;
+    }
+
+    /**
+     * 不大于id的最大值
+     * @param id id
+     * @return 最大值，不存在返回null
+     */
+    public Integer floor(int id) {
+        AvlTreeNode node = root;
+        Integer result = null;
+        while (node != null) {
+            if (id == node.getId()) {
+                return id;
+            }
+            if (id < node.getId()) {
+                node = node.getLeft();
+            }
+            else {
+                result = node.getId();
+                node = node.getRight();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 不小于id的最小值
+     * @param id id
+     * @return 最小值，不存在返回null
+     */
+    public Integer ceiling(int id) {
+        AvlTreeNode node = root;
+        Integer result = null;
+        while (node != null) {
+            if (id == node.getId()) {
+                return id;
+            }
+            if (id > node.getId()) {
+                node = node.getRight();
+            }
+            else {
+                result = node.getId();
+                node = node.getLeft();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 排名，即小于id的元素个数
+     * @param id id
+     * @return 排名，从0开始
+     */
+    public int rank(int id) {
+        AvlTreeNode node = root;
+        int rank = 0;
+        while (node != null) {
+            if (id <= node.getId()) {
+                node = node.getLeft();
+            }
+            else {
+                rank += size(node.getLeft()) + 1;
+                node = node.getRight();
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * 按排名取值
+     * @param rank 排名，从0开始
+     * @return 第rank小的id
+     */
+    public int select(int rank) {
+        if (rank < 0 || rank >= size()) {
+            throw new IndexOutOfBoundsException("排名超出范围: " + rank);
+        }
+
+        AvlTreeNode node = root;
+        while (true) {
+            int leftSize = size(node.getLeft());
+            if (rank < leftSize) {
+                node = node.getLeft();
+            }
+            else if (rank == leftSize) {
+                return node.getId();
+            }
+            else {
+                rank -= leftSize + 1;
+                node = node.getRight();
+            }
+        }
+    }
+
+    /**
+     * 按升序遍历[from, to]范围内的元素，跳过范围外的子树
+     * @param from 下界，包含
+     * @param to 上界，包含
+     * @param consumer 处理
+     */
+    public void forEachInRange(int from, int to, IntConsumer consumer) {
+        forEachInRange(root, from, to, consumer);
+    }
+
+    /**
+     * 递归范围遍历
+     * @param node 节点
+     * @param from 下界
+     * @param to 上界
+     * @param consumer 处理
+     */
+    private void forEachInRange(AvlTreeNode node, int from, int to, IntConsumer consumer) {
+        if (node == null) {
+            return;
+        }
+        int id = node.getId();
+        if (from < id) {
+            forEachInRange(node.getLeft(), from, to, consumer);
+        }
+        if (from <= id && id <= to) {
+            consumer.accept(id);
+        }
+        if (id < to) {
+            forEachInRange(node.getRight(), from, to, consumer);
+        }
+    }
+
+    /**
+     * 元素个数
+     * @return 元素个数
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * 树高度
+     * @return 高度，空树为0
+     */
+    public int height() {
+        return height(root);
+    }
+
+    /**
+     * 子树高度
+     * @param node 节点
+     * @return 高度，空树为0
+     */
+    private static int height(AvlTreeNode node) {
+        return node == null ? 0 : node.getHeight();
+    }
+
+    /**
+     * 子树节点个数
+     * @param node 节点
+     * @return 节点个数，空树为0
+     */
+    private static int size(AvlTreeNode node) {
+        return node == null ? 0 : node.getSize();
+    }
+
+    /**
+     * 根据子节点更新高度和节点个数
+     * @param node 节点
+     */
+    private static void update(AvlTreeNode node) {
+        node.setHeight(Math.max(height(node.getLeft()), height(node.getRight())) + 1);
+        node.setSize(size(node.getLeft()) + size(node.getRight()) + 1);
+    }
+
+    /**
+     * 更新节点，高度差超过1时旋转
+     * @param node 节点
+     */
+    private static void rebalance(AvlTreeNode node) {
+        update(node);
+        int difference = height(node.getLeft()) - height(node.getRight());
+
+        // 左子树高，右旋转，左子节点的右子树更高时先对左子节点左旋转
+        if (difference > 1) {
+            if (height(node.getLeft().getLeft()) < height(node.getLeft().getRight())) {
+                leftRotate(node.getLeft());
+            }
+            rightRotate(node);
+        }
+        // 右子树高，左旋转，右子节点的左子树更高时先对右子节点右旋转
+        else if (difference < -1) {
+            if (height(node.getRight().getRight()) < height(node.getRight().getLeft())) {
+                rightRotate(node.getRight());
+            }
+            leftRotate(node);
+        }
+    }
+
+    /**
+     * 左旋转
+     * 当前节点换成右子节点的值，原来的值下移到左子节点，复用右子节点对象作为新的左子节点
+     * @param node 节点
+     */
+    private static void leftRotate(AvlTreeNode node) {
+        AvlTreeNode newNode = node.getRight();
+        // 交换当前节点和右子节点的值
+        int id = node.getId();
+        node.setId(newNode.getId());
+        newNode.setId(id);
+        // 新的左子节点的右子树设置成原右子节点的左子树，左子树设置成当前节点的左子树
+        node.setRight(newNode.getRight());
+        newNode.setRight(newNode.getLeft());
+        newNode.setLeft(node.getLeft());
+        // 当前节点的左子节点设置成新的节点
+        node.setLeft(newNode);
+
+        update(newNode);
+        update(node);
+    }
+
+    /**
+     * 右旋转
+     * 当前节点换成左子节点的值，原来的值下移到右子节点，复用左子节点对象作为新的右子节点
+     * @param node 节点
+     */
+    private static void rightRotate(AvlTreeNode node) {
+        AvlTreeNode newNode = node.getLeft();
+        // 交换当前节点和左子节点的值
+        int id = node.getId();
+        node.setId(newNode.getId());
+        newNode.setId(id);
+        // 新的右子节点的左子树设置成原左子节点的右子树，右子树设置成当前节点的右子树
+        node.setLeft(newNode.getLeft());
+        newNode.setLeft(newNode.getRight());
+        newNode.setRight(node.getRight());
+        // 当前节点的右子节点设置成新的节点
+        node.setRight(newNode);
+
+        update(newNode);
+        update(node);
+    }
+}
@@ -0,0 +1,44 @@
+package com.johnny.datastructure.tree;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * @author johnnyhao
+ *
+ * AVL树节点，缓存子树高度和子树节点个数
+ */
+@ToString(exclude = {"left", "right"})
+@Getter
+@Setter
+class AvlTreeNode {
+    /**
+     * ID
+     */
+    private int id;
+
+    /**
+     * 子树高度，叶子节点为1
+     */
+    private int height = 1;
+
+    /**
+     * 子树节点个数，用于按排名查找
+     */
+    private int size = 1;
+
+    /**
+     * 左子节点
+     */
+    private AvlTreeNode left;
+
+    /**
+     * 右子节点
+     */
+    private AvlTreeNode right;
+
+    AvlTreeNode(int id) {
+        this.id = id;
+    }
+}
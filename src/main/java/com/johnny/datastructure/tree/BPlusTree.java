@@ -0,0 +1,615 @@
+package com.johnny.datastructure.tree;
+
+import com.johnny.datastructure.sort.RadixSort;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * @author johnnyhao
+ *
+ * B+树
+ *
+ * 二叉树每层一个节点，查找时每层都要跳转指针，节点分散在堆中，几乎每次跳转都缓存未命中
+ * B+树每个节点(页)存放多个键，键和值放在页内的基本类型数组中，一次缓存未命中可以比较多个键
+ * - 页之间不用对象引用，通过页号在页数组中定位，页号同时也是序列化后在文件中的位置
+ * - 内部页只存放分隔键和子页号，第i个分隔键是第i+1个子页的最小键，值全部存放在叶子页
+ * - 叶子页按键的顺序通过下一页号串成链表，范围查询定位到起始叶子后顺着链表扫描
+ * - 扇出即内部页的最大子页数和叶子页的最大元素个数，64到256比较合适，页大小固定为4KB
+ * - 可以从无序数组批量构建，先用基数排序按键排序，再自底向上逐层填满页，不需要逐个插入和分裂
+ * - 删除只从叶子页移除元素，不合并页，叶子页可以为空
+ *
+ * 可以保存到文件，由MappedBPlusTree映射文件直接查询，作为磁盘索引使用
+ *
+ * 键不重复，非线程安全
+ */
+public class BPlusTree {
+
+    /**
+     * 最小扇出
+     */
+    public static final int MIN_FAN_OUT = 4;
+
+    /**
+     * 最大扇出
+     */
+    public static final int MAX_FAN_OUT = 256;
+
+    /**
+     * 默认扇出
+     */
+    public static final int DEFAULT_FAN_OUT = 128;
+
+    /**
+     * 文件标识
+     */
+    static final int MAGIC = 0x42505431;
+
+    /**
+     * 文件格式版本
+     */
+    static final int VERSION = 1;
+
+    /**
+     * 页大小，文件头占第一页，树的第i页位于文件第i+1页
+     */
+    static final int PAGE_SIZE = 4096;
+
+    /**
+     * 页头长度：页类型、元素个数、下一页号
+     */
+    static final int PAGE_HEADER_SIZE = 16;
+
+    /**
+     * 叶子页类型
+     */
+    static final int LEAF = 0;
+
+    /**
+     * 内部页类型
+     */
+    static final int INNER = 1;
+
+    /**
+     * 空页号
+     */
+    static final int NIL = -1;
+
+    /**
+     * 扇出
+     */
+    private final int fanOut;
+
+    /**
+     * 页
+     */
+    private BPlusPage[] pages = new BPlusPage[16];
+
+    /**
+     * 页数
+     */
+    private int pageCount;
+
+    /**
+     * 根页号
+     */
+    private int root;
+
+    /**
+     * 树高度，只有根叶子页时为1
+     */
+    private int height = 1;
+
+    /**
+     * 元素个数
+     */
+    private int size;
+
+    /**
+     * 添加时记录的路径页号，下标为层数，0为根
+     */
+    private int[] path = new int[8];
+
+    /**
+     * 添加时记录的路径上子页位置
+     */
+    private int[] pathIndex = new int[8];
+
+    /**
+     * 构造器，默认扇出
+     */
+    public BPlusTree() {
+        this(DEFAULT_FAN_OUT);
+    }
+
+    /**
+     * 构造器
+     * @param fanOut 扇出
+     */
+    public BPlusTree(int fanOut) {
+        if (fanOut < MIN_FAN_OUT || fanOut > MAX_FAN_OUT) {
+            throw new IllegalArgumentException("扇出必须在" + MIN_FAN_OUT + "到" + MAX_FAN_OUT + "之间");
+        }
+        this.fanOut = fanOut;
+        this.root = newPage(true);
+    }
+
+    public static void main(String[] args) throws IOException {
+        // 逐个添加
+        BPlusTree tree = new BPlusTree(64);
+        for (int id = 0; id < 100000; id += 2) {
+            tree.put(id, id * 10L);
+        }
+        System.out.println("元素个数 " + tree.size() + " 高度 " + tree.height() + " 页数 " + tree.pageCount);
+        System.out.println("get(100) " + tree.get(100, -1) + " get(101) " + tree.get(101, -1));
+
+        // 删除
+        tree.remove(100);
+        System.out.println("删除100后是否包含100 " + tree.containsKey(100));
+
+        // 范围查询
+        System.out.println("[95, 110]范围内");
+        tree.scan(95, 110, (key, value) -> System.out.println(key + " " + value));
+
+        // 从无序数组批量构建
+        int[] keys = new int[1000000];
+        long[] values = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (int) ((i * 0x9E3779B9L) >>> 8);
+            values[i] = i;
+        }
+        BPlusTree loaded = bulkLoad(keys, values, DEFAULT_FAN_OUT);
+        System.out.println("批量构建 元素个数 " + loaded.size() + " 高度 " + loaded.height() + " 页数 " + loaded.pageCount);
+
+        // 保存后映射查询
+        Path path = Files.createTempFile("b-plus-tree", ".index");
+        try {
+            loaded.save(path);
+            try (MappedBPlusTree mapped = MappedBPlusTree.open(path)) {
+                System.out.println("映射 元素个数 " + mapped.size() + " get(" + keys[12345] + ") " + mapped.get(keys[12345], -1));
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * 从数组批量构建
+     * 按键基数排序后，相同的键保留最后一个，叶子页依次填充，再逐层向上构建内部页
+     * @param keys 键
+     * @param values 值，长度与键相同
+     * @param fanOut 扇出
+     * @return B+树
+     */
+    public static BPlusTree bulkLoad(int[] keys, long[] values, int fanOut) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("键数组与值数组长度不同");
+        }
+        BPlusTree tree = new BPlusTree(fanOut);
+        if (keys.length == 0) {
+            return tree;
+        }
+
+        // 键和原下标一起排序，排序稳定，相同的键按原顺序排列
+        long[] sortedKeys = new long[keys.length];
+        int[] indexes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            sortedKeys[i] = keys[i];
+            indexes[i] = i;
+        }
+        RadixSort.lsdSort(sortedKeys, indexes);
+
+        // 去重，保留每个键最后出现的值
+        int count = 0;
+        for (int i = 0; i < sortedKeys.length; i++) {
+            if (i + 1 < sortedKeys.length && sortedKeys[i + 1] == sortedKeys[i]) {
+                continue;
+            }
+            sortedKeys[count] = sortedKeys[i];
+            indexes[count++] = indexes[i];
+        }
+
+        // 构建叶子层，元素平均分配到各页，除单页外每页至少半满
+        tree.pageCount = 0;
+        int leafCount = (count + fanOut - 1) / fanOut;
+        int[] level = new int[leafCount];
+        int[] firstKeys = new int[leafCount];
+        for (int leaf = 0, from = 0; leaf < leafCount; leaf++) {
+            int to = (int) ((long) count * (leaf + 1) / leafCount);
+            level[leaf] = tree.newPage(true);
+            BPlusPage page = tree.pages[level[leaf]];
+            for (int i = from; i < to; i++) {
+                page.keys[i - from] = (int) sortedKeys[i];
+                page.values[i - from] = values[indexes[i]];
+            }
+            page.count = to - from;
+            if (leaf > 0) {
+                tree.pages[level[leaf - 1]].next = level[leaf];
+            }
+            firstKeys[leaf] = page.keys[0];
+            from = to;
+        }
+
+        // 逐层构建内部页，直到只剩一页
+        int height = 1;
+        while (level.length > 1) {
+            int parentCount = (level.length + fanOut - 1) / fanOut;
+            int[] parents = new int[parentCount];
+            int[] parentFirstKeys = new int[parentCount];
+            for (int parent = 0, from = 0; parent < parentCount; parent++) {
+                int to = (int) ((long) level.length * (parent + 1) / parentCount);
+                parents[parent] = tree.newPage(false);
+                BPlusPage page = tree.pages[parents[parent]];
+                for (int i = from; i < to; i++) {
+                    page.children[i - from] = level[i];
+                    if (i > from) {
+                        page.keys[i - from - 1] = firstKeys[i];
+                    }
+                }
+                page.count = to - from - 1;
+                parentFirstKeys[parent] = firstKeys[from];
+                from = to;
+            }
+            level = parents;
+            firstKeys = parentFirstKeys;
+            height++;
+        }
+
+        tree.root = level[0];
+        tree.height = height;
+        tree.size = count;
+        return tree;
+    }
+
+    /**
+     * 查找
+     * @param key 键
+     * @param defaultValue 不存在时返回的值
+     * @return 值
+     */
+    public long get(int key, long defaultValue) {
+        BPlusPage leaf = pages[findLeaf(key)];
+        int index = Arrays.binarySearch(leaf.keys, 0, leaf.count, key);
+        return index >= 0 ? leaf.values[index] : defaultValue;
+    }
+
+    /**
+     * 是否包含键
+     * @param key 键
+     * @return 是否包含
+     */
+    public boolean containsKey(int key) {
+        BPlusPage leaf = pages[findLeaf(key)];
+        return Arrays.binarySearch(leaf.keys, 0, leaf.count, key) >= 0;
+    }
+
+    /**
+     * 添加或替换
+     * 叶子页超过扇出时对半分裂，新页的最小键作为分隔键插入父页，父页超过扇出时继续向上分裂
+     * @param key 键
+     * @param value 值
+     * @return 是否新增
+     */
+    public boolean put(int key, long value) {
+        // 向下查找，记录路径
+        if (path.length < height) {
+            path = Arrays.copyOf(path, height << 1);
+            pathIndex = Arrays.copyOf(pathIndex, height << 1);
+        }
+        int pageId = root;
+        for (int depth = 0; depth < height - 1; depth++) {
+            BPlusPage page = pages[pageId];
+            int index = childIndex(page, key);
+            path[depth] = pageId;
+            pathIndex[depth] = index;
+            pageId = page.children[index];
+        }
+
+        // 插入叶子页
+        BPlusPage leaf = pages[pageId];
+        int index = Arrays.binarySearch(leaf.keys, 0, leaf.count, key);
+        if (index >= 0) {
+            leaf.values[index] = value;
+            return false;
+        }
+        index = -index - 1;
+        System.arraycopy(leaf.keys, index, leaf.keys, index + 1, leaf.count - index);
+        System.arraycopy(leaf.values, index, leaf.values, index + 1, leaf.count - index);
+        leaf.keys[index] = key;
+        leaf.values[index] = value;
+        leaf.count++;
+        size++;
+        if (leaf.count <= fanOut) {
+            return true;
+        }
+
+        // 叶子页分裂
+        int newPageId = newPage(true);
+        leaf = pages[pageId];
+        BPlusPage newLeaf = pages[newPageId];
+        int mid = leaf.count >>> 1;
+        newLeaf.count = leaf.count - mid;
+        System.arraycopy(leaf.keys, mid, newLeaf.keys, 0, newLeaf.count);
+        System.arraycopy(leaf.values, mid, newLeaf.values, 0, newLeaf.count);
+        leaf.count = mid;
+        newLeaf.next = leaf.next;
+        leaf.next = newPageId;
+        int separator = newLeaf.keys[0];
+
+        // 分隔键逐层向上插入
+        for (int depth = height - 2; depth >= 0; depth--) {
+            BPlusPage parent = pages[path[depth]];
+            int position = pathIndex[depth];
+            System.arraycopy(parent.keys, position, parent.keys, position + 1, parent.count - position);
+            System.arraycopy(parent.children, position + 1, parent.children, position + 2, parent.count - position);
+            parent.keys[position] = separator;
+            parent.children[position + 1] = newPageId;
+            parent.count++;
+            if (parent.count < fanOut) {
+                return true;
+            }
+
+            // 内部页分裂，中间的分隔键上移，不保留在任何一半
+            int newParentId = newPage(false);
+            parent = pages[path[depth]];
+            BPlusPage newParent = pages[newParentId];
+            int middle = parent.count >>> 1;
+            separator = parent.keys[middle];
+            newParent.count = parent.count - middle - 1;
+            System.arraycopy(parent.keys, middle + 1, newParent.keys, 0, newParent.count);
+            System.arraycopy(parent.children, middle + 1, newParent.children, 0, newParent.count + 1);
+            parent.count = middle;
+            newPageId = newParentId;
+        }
+
+        // 根页分裂，树长高一层
+        int newRoot = newPage(false);
+        BPlusPage rootPage = pages[newRoot];
+        rootPage.keys[0] = separator;
+        rootPage.children[0] = root;
+        rootPage.children[1] = newPageId;
+        rootPage.count = 1;
+        root = newRoot;
+        height++;
+        return true;
+    }
+
+    /**
+     * 删除，不合并页
+     * @param key 键
+     * @return 是否删除
+     */
+    public boolean remove(int key) {
+        BPlusPage leaf = pages[findLeaf(key)];
+        int index = Arrays.binarySearch(leaf.keys, 0, leaf.count, key);
+        if (index < 0) {
+            return false;
+        }
+        leaf.count--;
+        System.arraycopy(leaf.keys, index + 1, leaf.keys, index, leaf.count - index);
+        System.arraycopy(leaf.values, index + 1, leaf.values, index, leaf.count - index);
+        size--;
+        return true;
+    }
+
+    /**
+     * 范围查询，定位到下界所在叶子页后沿叶子链表按键升序扫描
+     * @param from 下界，包含
+     * @param to 上界，包含
+     * @param consumer 元素处理
+     */
+    public void scan(int from, int to, EntryConsumer consumer) {
+        if (from > to) {
+            return;
+        }
+        int pageId = findLeaf(from);
+        BPlusPage leaf = pages[pageId];
+        int index = Arrays.binarySearch(leaf.keys, 0, leaf.count, from);
+        index = index >= 0 ? index : -index - 1;
+        while (true) {
+            for (; index < leaf.count; index++) {
+                if (leaf.keys[index] > to) {
+                    return;
+                }
+                consumer.accept(leaf.keys[index], leaf.values[index]);
+            }
+            if (leaf.next == NIL) {
+                return;
+            }
+            leaf = pages[leaf.next];
+            index = 0;
+        }
+    }
+
+    /**
+     * 元素个数
+     * @return 元素个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 树高度
+     * @return 高度
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * 保存到文件
+     * 先写入临时文件，页按页号顺序写入后再写文件头，刷盘后替换目标文件
+     * @param path 文件路径
+     * @throws IOException 写入失败
+     */
+    public void save(Path path) throws IOException {
+        Path temp = Paths.get(path + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(PAGE_SIZE);
+            for (int pageId = 0; pageId < pageCount; pageId++) {
+                BPlusPage page = pages[pageId];
+                buffer.clear();
+                buffer.putInt(page.leaf ? LEAF : INNER).putInt(page.count).putInt(page.next).putInt(0);
+                for (int i = 0; i < page.count; i++) {
+                    buffer.putInt(page.keys[i]);
+                }
+                buffer.position(valuesOffset(fanOut));
+                if (page.leaf) {
+                    for (int i = 0; i < page.count; i++) {
+                        buffer.putLong(page.values[i]);
+                    }
+                }
+                else {
+                    for (int i = 0; i <= page.count; i++) {
+                        buffer.putInt(page.children[i]);
+                    }
+                }
+                buffer.clear();
+                write(channel, buffer, (pageId + 1L) * PAGE_SIZE);
+            }
+
+            // 文件头
+            buffer.clear();
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(PAGE_SIZE).putInt(fanOut)
+                    .putInt(pageCount).putInt(root).putInt(height).putInt(size);
+            buffer.flip();
+            write(channel, buffer, 0);
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 页内值或子页号的偏移，键区按8字节对齐
+     * @param fanOut 扇出
+     * @return 偏移
+     */
+    static int valuesOffset(int fanOut) {
+        return PAGE_HEADER_SIZE + ((fanOut * Integer.BYTES + 7) & ~7);
+    }
+
+    /**
+     * 内部页中键所在的子页位置，即不大于键的分隔键个数
+     * @param page 内部页
+     * @param key 键
+     * @return 子页位置
+     */
+    private static int childIndex(BPlusPage page, int key) {
+        int low = 0;
+        int high = page.count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (page.keys[mid] <= key) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 查找键所在的叶子页
+     * @param key 键
+     * @return 叶子页号
+     */
+    private int findLeaf(int key) {
+        int pageId = root;
+        for (int depth = 0; depth < height - 1; depth++) {
+            BPlusPage page = pages[pageId];
+            pageId = page.children[childIndex(page, key)];
+        }
+        return pageId;
+    }
+
+    /**
+     * 分配新页
+     * @param leaf 是否叶子页
+     * @return 页号
+     */
+    private int newPage(boolean leaf) {
+        if (pageCount == pages.length) {
+            pages = Arrays.copyOf(pages, pageCount << 1);
+        }
+        pages[pageCount] = new BPlusPage(leaf, fanOut);
+        return pageCount++;
+    }
+
+    /**
+     * 写满缓冲区
+     * @param channel 文件通道
+     * @param buffer 缓冲区
+     * @param position 文件位置
+     * @throws IOException 写入失败
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * 元素处理
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * 处理一个元素
+         * @param key 键
+         * @param value 值
+         */
+        void accept(int key, long value);
+    }
+}
+
+/**
+ * 页
+ * 数组多留一个位置，插入后超过扇出再分裂
+ */
+class BPlusPage {
+    /**
+     * 是否叶子页
+     */
+    final boolean leaf;
+
+    /**
+     * 键，叶子页为元素的键，内部页为分隔键
+     */
+    final int[] keys;
+
+    /**
+     * 值，只有叶子页有
+     */
+    final long[] values;
+
+    /**
+     * 子页号，只有内部页有
+     */
+    final int[] children;
+
+    /**
+     * 元素个数，内部页为分隔键个数，子页数多一个
+     */
+    int count;
+
+    /**
+     * 下一叶子页号
+     */
+    int next = BPlusTree.NIL;
+
+    BPlusPage(boolean leaf, int fanOut) {
+        this.leaf = leaf;
+        this.keys = new int[fanOut + 1];
+        this.values = leaf ? new long[fanOut + 1] : null;
+        this.children = leaf ? null : new int[fanOut + 1];
+    }
+}
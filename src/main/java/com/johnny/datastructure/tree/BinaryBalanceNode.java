@@ -0,0 +1,34 @@
+package com.johnny.datastructure.tree;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * @author johnnyhao
+ *
+ * 平衡二叉树节点
+ */
+@ToString(exclude = {"left", "right"})
+@Getter
+@Setter
+@RequiredArgsConstructor
+class BinaryBalanceNode {
+    /**
+     * ID
+     */
+    @NonNull
+    private int id;
+
+    /**
+     * 左叶子节点
+     */
+    private BinaryBalanceNode left;
+
+    /**
+     * 右叶子节点
+     */
+    private BinaryBalanceNode right;
+}
@@ -1,10 +1,6 @@
 package com.johnny.datastructure.tree;
 
 import lombok.Getter;
-import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
-import lombok.Setter;
-import lombok.ToString;
 
 /**
  * @author johnnyhao
@@ -70,31 +66,6 @@ public class BinaryBalanceTree {
     }
 }
 
-/**
- * 节点
- */
-@ToString(exclude = {"left", "right"})
-@Getter
-@Setter
-@RequiredArgsConstructor
-class BinaryBalanceNode {
-    /**
-     * ID
-     */
-    @NonNull
-    private int id;
-
-    /**
-     * 左叶子节点
-     */
-    private BinaryBalanceNode left;
-
-    /**
-     * 右叶子节点
-     */
-    private BinaryBalanceNode right;
-}
-
 /**
  * 平衡二叉树
  */
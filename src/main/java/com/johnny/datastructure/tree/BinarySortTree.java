@@ -6,6 +6,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+
 /**
  * @author johnnyhao
  *
@@ -73,6 +76,7 @@ class BinarySortTreeImpl {
 
     /**
      * 构建二叉排序树
+     * 循环向下查找插入位置，有序输入退化成链表时也不会栈溢出
      * @param node 当前节点
      * @param newNode 新节点
      */
@@ -82,57 +86,65 @@ class BinarySortTreeImpl {
             return;
         }
 
-        // 判断节点值
-        // 新节点的值小于当前节点
-        if (newNode.getId() < node.getId()) {
-            // 当前节点左节点的值为空，则添加到左节点
-            if (node.getLeft() == null) {
-                node.setLeft(newNode);
-            }
-            // 当前节点左节点的值不为空，则继续向左子树递归
-            else {
-                build(node.getLeft(), newNode);
-            }
-        }
-        // 新节点的值不小于当前节点
-        else {
-            // 当前节点右节点的值为空，则添加到右节点
-            if (node.getRight() == null) {
-                node.setRight(newNode);
+        while (true) {
+            // 判断节点值
+            // 新节点的值小于当前节点
+            if (newNode.getId() < node.getId()) {
+                // 当前节点左节点的值为空，则添加到左节点
+                if (node.getLeft() == null) {
+                    node.setLeft(newNode);
+                    return;
+                }
+                // 当前节点左节点的值不为空，则继续向左子树查找
+                node = node.getLeft();
             }
-            // 当前节点右节点的值不为空，则继续向右子树递归
+            // 新节点的值不小于当前节点
             else {
-                build(node.getRight(), newNode);
+                // 当前节点右节点的值为空，则添加到右节点
+                if (node.getRight() == null) {
+                    node.setRight(newNode);
+                    return;
+                }
+                // 当前节点右节点的值不为空，则继续向右子树查找
+                node = node.getRight();
             }
         }
     }
 
     /**
      * 构建二叉排序树默认调用
+     * 已有节点时在原有的树上继续添加
      * @param array 数组
      */
     public void build(int[] array) {
-        // 根节点为空则加入根节点
-        if (root == null || array.length > 1) {
-            root = new SortNode(array[0]);
-        }
-
-        // 将剩余节点加入到二叉排序树
-        for (int i = 1; i < array.length; i++) {
-            build(root, new SortNode(array[i]));
+        for (int id : array) {
+            // 根节点为空则加入根节点
+            if (root == null) {
+                root = new SortNode(id);
+            }
+            // 否则加入到二叉排序树
+            else {
+                build(root, new SortNode(id));
+            }
         }
     }
 
     /**
      * 中序遍历
      * 先遍历左子树，再输出父节点，再遍历右子树
+     * 用显式栈代替递归，左子节点依次入栈，出栈时输出并转向右子树
      * @param node 节点
      */
     private void infixOrder(SortNode node) {
-        if (node != null) {
-            infixOrder(node.getLeft());
+        Deque<SortNode> stack = new ArrayDeque<>();
+        while (node != null || !stack.isEmpty()) {
+            while (node != null) {
+                stack.push(node);
+                node = node.getLeft();
+            }
+            node = stack.pop();
             System.out.println(node);
-            infixOrder(node.getRight());
+            node = node.getRight();
         }
     }
 
@@ -1,11 +1,16 @@
 package com.johnny.datastructure.tree;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 /**
  * @author johnnyhao
  *
@@ -52,6 +57,21 @@ public class BinaryTree {
         System.out.println("后序遍历");
         binaryTree.postfixOrder();
 
+        // Morris中序遍历，不使用栈，只收集id
+        System.out.println("Morris中序遍历");
+        StringBuilder ids = new StringBuilder();
+        binaryTree.morrisInfixOrder(person -> {
+            ids.append(person.getId()).append(' ');
+            return true;
+        });
+        System.out.println(ids);
+
+        // 后序迭代器
+        System.out.println("后序迭代器");
+        for (Iterator<Person> iterator = binaryTree.postfixIterator(); iterator.hasNext(); ) {
+            System.out.println(iterator.next().getName());
+        }
+
         // 前序查找
         System.out.println("前序查找");
         System.out.println(binaryTree.prefixSearch(5));
@@ -100,26 +120,79 @@ class Person {
     private Person right;
 }
 
+/**
+ * 节点访问器
+ */
+@FunctionalInterface
+interface PersonVisitor {
+    /**
+     * 访问节点
+     * @param person 节点
+     * @return 是否继续遍历
+     */
+    boolean visit(Person person);
+}
+
 /**
  * 二叉树
+ * 前序、中序、后序遍历都用显式栈代替递归，栈在多次遍历间复用，遍历过程不分配对象
+ * 同一棵树的遍历不能嵌套，需要嵌套时使用迭代器
  */
 @Setter
 class BinaryTreeImpl {
+    /**
+     * 前序
+     */
+    static final int PREFIX = 0;
+
+    /**
+     * 中序
+     */
+    static final int INFIX = 1;
+
+    /**
+     * 后序
+     */
+    static final int POSTFIX = 2;
+
     /**
      * 根节点
      */
     private Person root;
 
+    /**
+     * 遍历复用的栈，每次遍历结束后清空用过的槽位，不再引用已删除的节点
+     */
+    @Setter(AccessLevel.NONE)
+    private Person[] stack = new Person[32];
+
+    /**
+     * 本次遍历用过的栈槽位数
+     */
+    @Setter(AccessLevel.NONE)
+    private int used;
+
     /**
      * 前序遍历
-     * 先输出父节点，再遍历左子树和右子树
-     * @param person 节点
+     * 先访问父节点，再遍历左子树和右子树
+     * 出栈即访问，右子节点先入栈，左子节点先出栈
+     * @param visitor 访问器
+     * @return 是否遍历完成，访问器返回false时提前结束
      */
-    public void prefixOrder(Person person) {
-        if (person != null) {
-            System.out.println(person);
-            prefixOrder(person.getLeft());
-            prefixOrder(person.getRight());
+    public boolean prefixOrder(PersonVisitor visitor) {
+        try {
+            int depth = push(0, root);
+            while (depth > 0) {
+                Person person = stack[--depth];
+                if (!visitor.visit(person)) {
+                    return false;
+                }
+                depth = push(depth, person.getRight());
+                depth = push(depth, person.getLeft());
+            }
+            return true;
+        } finally {
+            clearStack();
         }
     }
 
@@ -127,19 +200,34 @@ class BinaryTreeImpl {
      * 前序遍历根节点默认调用
      */
     public void prefixOrder() {
-        prefixOrder(root);
+        prefixOrder(BinaryTreeImpl::print);
     }
 
     /**
      * 中序遍历
-     * 先遍历左子树，再输出父节点，再遍历右子树
-     * @param person 节点
+     * 先遍历左子树，再访问父节点，再遍历右子树
+     * 左子节点依次入栈，出栈时访问并转向右子树
+     * @param visitor 访问器
+     * @return 是否遍历完成，访问器返回false时提前结束
      */
-    public void infixOrder(Person person) {
-        if (person != null) {
-            infixOrder(person.getLeft());
-            System.out.println(person);
-            infixOrder(person.getRight());
+    public boolean infixOrder(PersonVisitor visitor) {
+        try {
+            int depth = 0;
+            Person person = root;
+            while (person != null || depth > 0) {
+                while (person != null) {
+                    depth = push(depth, person);
+                    person = person.getLeft();
+                }
+                person = stack[--depth];
+                if (!visitor.visit(person)) {
+                    return false;
+                }
+                person = person.getRight();
+            }
+            return true;
+        } finally {
+            clearStack();
         }
     }
 
@@ -147,19 +235,41 @@ class BinaryTreeImpl {
      * 中序遍历根节点默认调用
      */
     public void infixOrder() {
-        infixOrder(root);
+        infixOrder(BinaryTreeImpl::print);
     }
 
     /**
      * 后序遍历
-     * 先遍历左子树，再遍历右子树，最后输出父节点
-     * @param person 节点
+     * 先遍历左子树，再遍历右子树，最后访问父节点
+     * 栈顶节点的右子树为空或刚访问完时才访问栈顶节点，否则转向右子树
+     * @param visitor 访问器
+     * @return 是否遍历完成，访问器返回false时提前结束
      */
-    public void postfixOrder(Person person) {
-        if (person != null) {
-            postfixOrder(person.getLeft());
-            postfixOrder(person.getRight());
-            System.out.println(person);
+    public boolean postfixOrder(PersonVisitor visitor) {
+        try {
+            int depth = 0;
+            Person person = root;
+            Person last = null;
+            while (person != null || depth > 0) {
+                while (person != null) {
+                    depth = push(depth, person);
+                    person = person.getLeft();
+                }
+                Person top = stack[depth - 1];
+                if (top.getRight() != null && top.getRight() != last) {
+                    person = top.getRight();
+                }
+                else {
+                    depth--;
+                    if (!visitor.visit(top)) {
+                        return false;
+                    }
+                    last = top;
+                }
+            }
+            return true;
+        } finally {
+            clearStack();
         }
     }
 
@@ -167,124 +277,192 @@ class BinaryTreeImpl {
      * 后序遍历根节点默认调用
      */
     public void postfixOrder() {
-        postfixOrder(root);
+        postfixOrder(BinaryTreeImpl::print);
     }
 
     /**
-     * 前序查找
-     * 先判断父节点，再递归判断左子树和右子树
-     * @param person 节点
-     * @param id id
-     * @return 返回结果
+     * Morris前序遍历，只用O(1)额外空间
+     * 有左子树的节点，把左子树最右节点的右指针临时指向自己作为回到父节点的线索
+     * 第一次到达节点时访问，第二次经线索回到节点时删除线索
+     * 遍历过程中会临时修改树，不能与其他遍历或修改同时进行
+     * @param visitor 访问器，返回false后不再访问，但仍会走完遍历以恢复临时线索
+     * @return 是否遍历完成
      */
-    public Person prefixSearch(Person person, int id) {
-        // 定义返回结果
-        Person resultPerson = null;
+    public boolean morrisPrefixOrder(PersonVisitor visitor) {
+        boolean visiting = true;
+        Person current = root;
+        while (current != null) {
+            Person left = current.getLeft();
+            if (left == null) {
+                visiting = visiting && visitor.visit(current);
+                current = current.getRight();
+                continue;
+            }
 
-        // 先判断父节点
-        if (person.getId() == id) {
-            resultPerson = person;
-        }
+            // 找到左子树的最右节点，即中序前驱
+            Person predecessor = left;
+            while (predecessor.getRight() != null && predecessor.getRight() != current) {
+                predecessor = predecessor.getRight();
+            }
 
-        // 父节点不匹配，递归判断左子树
-        if (resultPerson == null && person.getLeft() != null) {
-            resultPerson = prefixSearch(person.getLeft(), id);
+            // 第一次到达，访问后建立线索进入左子树
+            if (predecessor.getRight() == null) {
+                visiting = visiting && visitor.visit(current);
+                predecessor.setRight(current);
+                current = left;
+            }
+            // 经线索回到节点，左子树已遍历完，删除线索进入右子树
+            else {
+                predecessor.setRight(null);
+                current = current.getRight();
+            }
         }
+        return visiting;
+    }
+
+    /**
+     * Morris中序遍历，只用O(1)额外空间
+     * 与Morris前序遍历相同，改为经线索回到节点时访问
+     * 遍历过程中会临时修改树，不能与其他遍历或修改同时进行
+     * @param visitor 访问器，返回false后不再访问，但仍会走完遍历以恢复临时线索
+     * @return 是否遍历完成
+     */
+    public boolean morrisInfixOrder(PersonVisitor visitor) {
+        boolean visiting = true;
+        Person current = root;
+        while (current != null) {
+            Person left = current.getLeft();
+            if (left == null) {
+                visiting = visiting && visitor.visit(current);
+                current = current.getRight();
+                continue;
+            }
+
+            // 找到左子树的最右节点，即中序前驱
+            Person predecessor = left;
+            while (predecessor.getRight() != null && predecessor.getRight() != current) {
+                predecessor = predecessor.getRight();
+            }
 
-        // 父节点和左子树不匹配，递归判断右子树
-        if (resultPerson == null && person.getRight() != null) {
-            resultPerson = prefixSearch(person.getRight(), id);
+            // 第一次到达，建立线索进入左子树
+            if (predecessor.getRight() == null) {
+                predecessor.setRight(current);
+                current = left;
+            }
+            // 经线索回到节点，左子树已遍历完，删除线索后访问并进入右子树
+            else {
+                predecessor.setRight(null);
+                visiting = visiting && visitor.visit(current);
+                current = current.getRight();
+            }
         }
+        return visiting;
+    }
 
-        // 返回结果
-        return resultPerson;
+    /**
+     * 前序迭代器
+     * @return 迭代器
+     */
+    public Iterator<Person> prefixIterator() {
+        return new PersonIterator(root, PREFIX);
     }
 
     /**
-     * 前序查找根节点默认调用
-     * @param id id
-     * @return 返回结果
+     * 中序迭代器
+     * @return 迭代器
      */
-    public Person prefixSearch(int id) {
-        return prefixSearch(root, id);
+    public Iterator<Person> infixIterator() {
+        return new PersonIterator(root, INFIX);
     }
 
     /**
-     * 中序查找
-     * 先递归判断左子树，再判断父节点，最后递归判断右子树
-     * @param person 节点
+     * 后序迭代器
+     * @return 迭代器
+     */
+    public Iterator<Person> postfixIterator() {
+        return new PersonIterator(root, POSTFIX);
+    }
+
+    /**
+     * 前序查找
+     * 先判断父节点，再判断左子树和右子树
      * @param id id
      * @return 返回结果
      */
-    public Person infixSearch(Person person, int id) {
-        // 定义返回结果
-        Person resultPerson = null;
-
-        // 先递归判断左子树
-        if (person.getLeft() != null) {
-            resultPerson = infixSearch(person.getLeft(), id);
-        }
-
-        // 左子树不匹配，判断父节点
-        if (resultPerson == null && person.getId() == id) {
-            resultPerson = person;
-        }
-
-        // 左子树和父节点不匹配，递归判断右子树
-        if (resultPerson == null && person.getRight() != null) {
-            resultPerson = infixSearch(person.getRight(), id);
-        }
-
-        // 返回结果
-        return resultPerson;
+    public Person prefixSearch(int id) {
+        return search(prefixIterator(), id);
     }
 
     /**
-     * 中序查找根节点默认调用
+     * 中序查找
+     * 先判断左子树，再判断父节点，最后判断右子树
      * @param id id
      * @return 返回结果
      */
     public Person infixSearch(int id) {
-        return infixSearch(root, id);
+        return search(infixIterator(), id);
     }
 
     /**
      * 后序查找
-     * 先递归判断左子树，再递归判断右子树，最后判断父节点
-     * @param person 节点
+     * 先判断左子树，再判断右子树，最后判断父节点
      * @param id id
      * @return 返回结果
      */
-    public Person postfixSearch(Person person, int id) {
-        // 定义返回结果
-        Person resultPerson = null;
+    public Person postfixSearch(int id) {
+        return search(postfixIterator(), id);
+    }
 
-        // 先递归判断左子树
-        if (person.getLeft() != null) {
-            resultPerson = infixSearch(person.getLeft(), id);
+    /**
+     * 按迭代器的顺序查找
+     * @param iterator 迭代器
+     * @param id id
+     * @return 返回结果，不存在返回null
+     */
+    private static Person search(Iterator<Person> iterator, int id) {
+        while (iterator.hasNext()) {
+            Person person = iterator.next();
+            if (person.getId() == id) {
+                return person;
+            }
         }
+        return null;
+    }
 
-        // 左子树不匹配，递归判断右子树
-        if (resultPerson == null && person.getRight() != null) {
-            resultPerson = infixSearch(person.getRight(), id);
-        }
+    /**
+     * 输出节点
+     * @param person 节点
+     * @return 继续遍历
+     */
+    private static boolean print(Person person) {
+        System.out.println(person);
+        return true;
+    }
 
-        // 左子树和右子树不匹配，判断父节点
-        if (resultPerson == null && person.getId() == id) {
-            resultPerson = person;
+    /**
+     * 非空节点入栈，栈满时扩容
+     * @param depth 当前栈深度
+     * @param person 节点
+     * @return 入栈后的栈深度
+     */
+    private int push(int depth, Person person) {
+        if (person == null) {
+            return depth;
         }
-
-        // 返回结果
-        return resultPerson;
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth << 1);
+        }
+        stack[depth] = person;
+        used = Math.max(used, depth + 1);
+        return depth + 1;
     }
 
     /**
-     * 后序查找根节点默认调用
-     * @param id id
-     * @return 返回结果
+     * 清空本次遍历用过的栈槽位
      */
-    public Person postfixSearch(int id) {
-        return postfixSearch(root, id);
+    private void clearStack() {
+        Arrays.fill(stack, 0, used, null);
+        used = 0;
     }
 
     /**
@@ -309,7 +487,7 @@ class BinaryTreeImpl {
 
         // 未找到则递归遍历
         // 递归左子树
-        if (person.getRight() != null) {
+        if (person.getLeft() != null) {
             delete(person.getLeft(), id);
         }
 
@@ -335,4 +513,118 @@ class BinaryTreeImpl {
             }
         }
     }
-}
\ No newline at end of file
+}
+
+/**
+ * 二叉树迭代器
+ * 每个迭代器有自己的栈，预先找到下一个节点，多个迭代器可以同时使用
+ */
+class PersonIterator implements Iterator<Person> {
+    /**
+     * 遍历顺序
+     */
+    private final int order;
+
+    /**
+     * 栈
+     */
+    private Person[] stack = new Person[16];
+
+    /**
+     * 栈深度
+     */
+    private int depth;
+
+    /**
+     * 中序、后序遍历时下一个要入栈的子树
+     */
+    private Person current;
+
+    /**
+     * 后序遍历上一次访问的节点
+     */
+    private Person last;
+
+    /**
+     * 下一个节点
+     */
+    private Person next;
+
+    PersonIterator(Person root, int order) {
+        this.order = order;
+        if (order == BinaryTreeImpl.PREFIX) {
+            push(root);
+        }
+        else {
+            current = root;
+        }
+        next = advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Person next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        Person person = next;
+        next = advance();
+        return person;
+    }
+
+    /**
+     * 找到下一个节点，逻辑与BinaryTreeImpl对应的遍历相同
+     * @return 下一个节点，遍历结束返回null
+     */
+    private Person advance() {
+        if (order == BinaryTreeImpl.PREFIX) {
+            if (depth == 0) {
+                return null;
+            }
+            Person person = stack[--depth];
+            push(person.getRight());
+            push(person.getLeft());
+            return person;
+        }
+
+        while (current != null || depth > 0) {
+            while (current != null) {
+                push(current);
+                current = current.getLeft();
+            }
+            Person top = stack[depth - 1];
+            if (order == BinaryTreeImpl.INFIX) {
+                depth--;
+                current = top.getRight();
+                return top;
+            }
+            if (top.getRight() != null && top.getRight() != last) {
+                current = top.getRight();
+            }
+            else {
+                depth--;
+                last = top;
+                return top;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 非空节点入栈
+     * @param person 节点
+     */
+    private void push(Person person) {
+        if (person == null) {
+            return;
+        }
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth << 1);
+        }
+        stack[depth++] = person;
+    }
+}
@@ -0,0 +1,100 @@
+package com.johnny.datastructure.tree;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * @author johnnyhao
+ *
+ * 位读取
+ * 字节按从高位到低位的顺序依次放入64位缓冲区，由解码方直接读取和丢弃缓冲区中的位
+ * 字节来自输入流读入的缓冲区，或者依次来自文件的各个映射分段
+ */
+class BitReader {
+    /**
+     * 输入流，读取映射分段时为null
+     */
+    private final InputStream in;
+
+    /**
+     * 映射分段，读取输入流时为null
+     */
+    private final ByteBuffer[] segments;
+
+    /**
+     * 下一个映射分段
+     */
+    private int nextSegment;
+
+    /**
+     * 当前读取的字节缓冲区或映射分段
+     */
+    private ByteBuffer source;
+
+    /**
+     * 位缓冲区，高count位有效，其余位为0
+     */
+    long bits;
+
+    /**
+     * 位缓冲区中的位数
+     */
+    int count;
+
+    BitReader(InputStream in) {
+        this.in = in;
+        this.segments = null;
+        this.source = ByteBuffer.allocate(HuffmanCodec.BUFFER_SIZE);
+        this.source.limit(0);
+    }
+
+    /**
+     * 从第一个分段的position开始依次读取各分段
+     * @param segments 映射分段
+     */
+    BitReader(ByteBuffer[] segments) {
+        this.in = null;
+        this.segments = segments;
+        this.source = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * 补充位缓冲区到57位以上，流末尾只有剩余的位
+     * @throws IOException 读取失败，或已到流末尾且没有剩余的位
+     */
+    void refill() throws IOException {
+        while (count <= 56) {
+            if (!source.hasRemaining() && !next()) {
+                if (count == 0) {
+                    throw new EOFException("压缩数据不完整");
+                }
+                return;
+            }
+            bits |= (source.get() & 0xFFL) << 56 - count;
+            count += 8;
+        }
+    }
+
+    /**
+     * 切换到下一段字节
+     * @return 是否还有字节
+     * @throws IOException 读取失败
+     */
+    private boolean next() throws IOException {
+        if (in != null) {
+            int read = in.read(source.array());
+            source.position(0);
+            source.limit(Math.max(read, 0));
+            return read > 0;
+        }
+        while (nextSegment < segments.length) {
+            source = segments[nextSegment++];
+            if (source.hasRemaining()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
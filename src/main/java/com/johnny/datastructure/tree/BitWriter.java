@@ -0,0 +1,106 @@
+package com.johnny.datastructure.tree;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * @author johnnyhao
+ *
+ * 位写入
+ * 编码拼接到64位缓冲区的低位，凑满32位按大端序写入字节缓冲区，字节缓冲区满了再写入输出流或通道
+ * 写入通道时使用直接缓冲区，通道写出时不需要再复制到堆外
+ */
+class BitWriter {
+    /**
+     * 输出流，写入通道时为null
+     */
+    private final OutputStream out;
+
+    /**
+     * 输出通道，写入输出流时为null
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * 字节缓冲区
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * 位缓冲区，低count位有效
+     */
+    private long bits;
+
+    /**
+     * 位缓冲区中的位数，总是小于32
+     */
+    private int count;
+
+    BitWriter(OutputStream out) {
+        this.out = out;
+        this.channel = null;
+        this.buffer = ByteBuffer.allocate(HuffmanCodec.BUFFER_SIZE);
+    }
+
+    BitWriter(WritableByteChannel channel, int bufferSize) {
+        this.out = null;
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * 写入编码
+     * @param code 编码，低length位有效，高位为0
+     * @param length 编码长度，不超过32
+     * @throws IOException 写入失败
+     */
+    void write(int code, int length) throws IOException {
+        bits = bits << length | code;
+        count += length;
+        if (count >= 32) {
+            count -= 32;
+            if (buffer.remaining() < Integer.BYTES) {
+                drain();
+            }
+            buffer.putInt((int) (bits >>> count));
+        }
+    }
+
+    /**
+     * 写出剩余的位，最后不足一个字节的部分低位补0，不关闭输出流或通道
+     * @throws IOException 写入失败
+     */
+    void flush() throws IOException {
+        if (buffer.remaining() < Integer.BYTES) {
+            drain();
+        }
+        while (count > 0) {
+            int shift = count - 8;
+            buffer.put((byte) (shift >= 0 ? bits >>> shift : bits << -shift));
+            count = Math.max(0, shift);
+        }
+        drain();
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    /**
+     * 字节缓冲区写入输出流或通道后清空
+     * @throws IOException 写入失败
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        if (out != null) {
+            out.write(buffer.array(), 0, buffer.limit());
+        }
+        else {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        buffer.clear();
+    }
+}
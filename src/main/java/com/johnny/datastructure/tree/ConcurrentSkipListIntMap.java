@@ -0,0 +1,437 @@
+package com.johnny.datastructure.tree;
+
+import com.johnny.datastructure.hashtable.IntHashMap.IntEntryConsumer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * @author johnnyhao
+ *
+ * 并发跳表
+ *
+ * BinarySortTreeImpl不能在多线程间共享，跳表用多层有序链表代替树，每层都是无锁链表，支持多线程同时读写
+ * - 层数：新节点的层数随机生成，每升一层概率为1/4，上层链表是下层的稀疏索引，查找期望O(log n)
+ * - 删除：先用CAS把值置为null，置空成功即删除成功；每层的后继指针带删除标记，再从上到下逐层标记，之后由查找到的线程用CAS摘除
+ *   替换值时遇到值为null的节点，先帮助完成标记再重新查找，不等待删除线程
+ * - 添加：先用CAS链入最底层，链入即添加成功，再逐层向上链入，向上链入失败时重新查找前驱
+ * - 读取：不加锁也不修改链表，跳过带删除标记的节点，不会被写线程阻塞
+ * - 遍历：沿最底层链表进行，弱一致性，不抛出并发修改异常，能看到遍历开始前完成的修改，遍历期间的修改可能看到也可能看不到
+ *
+ * 键不重复，添加相同的键替换值，值不能为null
+ */
+public class ConcurrentSkipListIntMap<V> {
+
+    /**
+     * 最大层数，每层概率1/4，16层足够容纳约40亿个元素
+     */
+    private static final int MAX_LEVEL = 16;
+
+    /**
+     * 值更新器
+     */
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Node, Object> VALUE =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "value");
+
+    /**
+     * 头节点，不存放元素，层数为最大层数
+     */
+    private final Node<V> head = new Node<>(0, null, MAX_LEVEL - 1);
+
+    /**
+     * 元素个数
+     */
+    private final LongAdder count = new LongAdder();
+
+    public static void main(String[] args) throws InterruptedException {
+        ConcurrentSkipListIntMap<String> skipList = new ConcurrentSkipListIntMap<>();
+
+        // 4个线程交错写入
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int start = t;
+            Thread thread = new Thread(() -> {
+                for (int id = start; id < 40000; id += 4) {
+                    skipList.put(id, "员工" + id);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.println("元素个数 " + skipList.size() + " 最小键 " + skipList.firstKey());
+
+        // 与BinarySortTree相同的构建、删除和中序遍历
+        ConcurrentSkipListIntMap<String> small = new ConcurrentSkipListIntMap<>();
+        small.build(new int[]{7, 3, 10, 12, 5, 1, 9, 2}, id -> "员工" + id);
+        small.infixOrder();
+        small.remove(10);
+        small.infixOrder();
+    }
+
+    /**
+     * 构建，逐个添加
+     * @param keys 键
+     * @param valueFunction 根据键生成值
+     */
+    public void build(int[] keys, IntFunction<? extends V> valueFunction) {
+        for (int key : keys) {
+            put(key, valueFunction.apply(key));
+        }
+    }
+
+    /**
+     * 查找，不修改链表
+     * @param key 键
+     * @return 值，不存在返回null
+     */
+    public V get(int key) {
+        Node<V> pred = head;
+        Node<V> current = null;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            current = pred.next[level].getReference();
+            while (current != null) {
+                // 跳过已删除的节点，标记后后继不再改变，先读标记再读后继不需要get(boolean[])
+                boolean marked = current.next[level].isMarked();
+                Node<V> succ = current.next[level].getReference();
+                while (marked && current != null) {
+                    current = succ;
+                    if (current != null) {
+                        marked = current.next[level].isMarked();
+                        succ = current.next[level].getReference();
+                    }
+                }
+                if (current == null || current.key >= key) {
+                    break;
+                }
+                pred = current;
+                current = succ;
+            }
+        }
+        // 值为null表示正在删除
+        return current != null && current.key == key ? current.value : null;
+    }
+
+    /**
+     * 是否包含键
+     * @param key 键
+     * @return 是否包含
+     */
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * 添加或替换
+     * 每次调用分配两个MAX_LEVEL长度的前驱和后继数组，约160字节，在线程本地分配缓冲区中分配，远小于CAS的开销
+     * @param key 键
+     * @param value 值，不能为null
+     * @return 原来的值，不存在返回null
+     */
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("值不能为null");
+        }
+
+        int topLevel = randomLevel();
+        Node<V>[] preds = newNodeArray(MAX_LEVEL);
+        Node<V>[] succs = newNodeArray(MAX_LEVEL);
+
+        retry:
+        while (true) {
+            // 已存在，替换值，值为null说明正在删除，帮助标记后重新查找
+            if (find(key, preds, succs)) {
+                Node<V> node = succs[0];
+                while (true) {
+                    V old = node.value;
+                    if (old == null) {
+                        mark(node);
+                        continue retry;
+                    }
+                    if (VALUE.compareAndSet(node, old, value)) {
+                        return old;
+                    }
+                }
+            }
+
+            // 链入最底层，成功即添加成功
+            Node<V> node = new Node<>(key, value, topLevel);
+            for (int level = 0; level <= topLevel; level++) {
+                node.next[level].set(succs[level], false);
+            }
+            if (!preds[0].next[0].compareAndSet(succs[0], node, false, false)) {
+                continue;
+            }
+            count.increment();
+
+            // 逐层向上链入
+            for (int level = 1; level <= topLevel; level++) {
+                while (true) {
+                    // 节点已被删除，不再链入
+                    Node<V> next = node.next[level].getReference();
+                    if (node.next[level].isMarked()) {
+                        return null;
+                    }
+                    if (next != succs[level] && !node.next[level].compareAndSet(next, succs[level], false, false)) {
+                        continue;
+                    }
+                    if (preds[level].next[level].compareAndSet(succs[level], node, false, false)) {
+                        break;
+                    }
+                    find(key, preds, succs);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 删除
+     * 与put相同，每次调用分配前驱和后继数组
+     * @param key 键
+     * @return 删除的值，不存在返回null
+     */
+    public V remove(int key) {
+        Node<V>[] preds = newNodeArray(MAX_LEVEL);
+        Node<V>[] succs = newNodeArray(MAX_LEVEL);
+        if (!find(key, preds, succs)) {
+            return null;
+        }
+        Node<V> node = succs[0];
+
+        // 值置为null，置空成功的线程完成删除
+        while (true) {
+            V old = node.value;
+            if (old == null) {
+                return null;
+            }
+            if (VALUE.compareAndSet(node, old, null)) {
+                count.decrement();
+                mark(node);
+                // 查找时摘除已标记的节点
+                find(key, preds, succs);
+                return old;
+            }
+        }
+    }
+
+    /**
+     * 最小键
+     * @return 最小键
+     */
+    public int firstKey() {
+        Node<V> node = firstNode();
+        if (node == null) {
+            throw new NoSuchElementException("映射为空");
+        }
+        return node.key;
+    }
+
+    /**
+     * 元素个数，并发修改时为近似值
+     * @return 元素个数
+     */
+    public long size() {
+        return count.sum();
+    }
+
+    /**
+     * 按键升序遍历，弱一致性
+     * @param consumer 元素处理
+     */
+    public void forEach(IntEntryConsumer<? super V> consumer) {
+        for (Node<V> node = firstNode(); node != null; node = nextNode(node)) {
+            V value = node.value;
+            if (value != null) {
+                consumer.accept(node.key, value);
+            }
+        }
+    }
+
+    /**
+     * 键的迭代器，按键升序，弱一致性
+     * @return 迭代器
+     */
+    public PrimitiveIterator.OfInt keyIterator() {
+        return new PrimitiveIterator.OfInt() {
+            /**
+             * 下一个节点
+             */
+            private Node<V> next = firstNode();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                int key = next.key;
+                next = nextNode(next);
+                return key;
+            }
+        };
+    }
+
+    /**
+     * 中序遍历，按键升序输出
+     */
+    public void infixOrder() {
+        forEach((key, value) -> System.out.println(key + "=" + value));
+    }
+
+    /**
+     * 查找每层的前驱和后继，同时摘除遇到的已删除节点
+     * @param key 键
+     * @param preds 每层键小于目标键的最后一个节点
+     * @param succs 每层键不小于目标键的第一个节点
+     * @return 最底层是否找到键
+     */
+    private boolean find(int key, Node<V>[] preds, Node<V>[] succs) {
+        retry:
+        while (true) {
+            Node<V> pred = head;
+            for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+                Node<V> current = pred.next[level].getReference();
+                while (current != null) {
+                    // 标记后后继不再改变，读到标记时再读的后继就是标记时的后继
+                    boolean marked = current.next[level].isMarked();
+                    Node<V> succ = current.next[level].getReference();
+                    // 摘除已删除的节点，前驱已变化则从头重新查找
+                    while (marked) {
+                        if (!pred.next[level].compareAndSet(current, succ, false, false)) {
+                            continue retry;
+                        }
+                        current = succ;
+                        if (current == null) {
+                            break;
+                        }
+                        marked = current.next[level].isMarked();
+                        succ = current.next[level].getReference();
+                    }
+                    if (current == null || current.key >= key) {
+                        break;
+                    }
+                    pred = current;
+                    current = succ;
+                }
+                preds[level] = pred;
+                succs[level] = current;
+            }
+            return succs[0] != null && succs[0].key == key;
+        }
+    }
+
+    /**
+     * 从上到下逐层标记节点的后继指针，已标记的层跳过
+     * @param node 节点
+     */
+    private void mark(Node<V> node) {
+        for (int level = node.topLevel; level >= 0; level--) {
+            AtomicMarkableReference<Node<V>> next = node.next[level];
+            while (!next.isMarked()) {
+                next.attemptMark(next.getReference(), true);
+            }
+        }
+    }
+
+    /**
+     * 最底层第一个未删除的节点
+     * @return 节点，不存在返回null
+     */
+    private Node<V> firstNode() {
+        return nextNode(head);
+    }
+
+    /**
+     * 最底层下一个未删除的节点
+     * @param node 节点
+     * @return 节点，不存在返回null
+     */
+    private Node<V> nextNode(Node<V> node) {
+        Node<V> next = node.next[0].getReference();
+        while (next != null && (next.value == null || next.next[0].isMarked())) {
+            next = next.next[0].getReference();
+        }
+        return next;
+    }
+
+    /**
+     * 创建节点数组，泛型数组只能创建原始类型数组再转换
+     * @param length 长度
+     * @param <V> 值类型
+     * @return 节点数组
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <V> Node<V>[] newNodeArray(int length) {
+        return (Node<V>[]) new Node[length];
+    }
+
+    /**
+     * 随机层数，每升一层概率1/4
+     * @return 最高层下标
+     */
+    private static int randomLevel() {
+        int random = ThreadLocalRandom.current().nextInt();
+        return Math.min(Integer.numberOfTrailingZeros(random) >>> 1, MAX_LEVEL - 1);
+    }
+
+    /**
+     * 跳表节点
+     */
+    static class Node<V> {
+        /**
+         * 键
+         */
+        final int key;
+
+        /**
+         * 值，删除时置为null
+         */
+        volatile V value;
+
+        /**
+         * 每层的后继，带删除标记
+         */
+        final AtomicMarkableReference<Node<V>>[] next;
+
+        /**
+         * 最高层下标
+         */
+        final int topLevel;
+
+        Node(int key, V value, int topLevel) {
+            this.key = key;
+            this.value = value;
+            this.topLevel = topLevel;
+            this.next = newNextArray(topLevel + 1);
+            for (int level = 0; level <= topLevel; level++) {
+                next[level] = new AtomicMarkableReference<>(null, false);
+            }
+        }
+
+        /**
+         * 创建后继数组，泛型数组只能创建原始类型数组再转换
+         * @param length 长度
+         * @param <V> 值类型
+         * @return 后继数组
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static <V> AtomicMarkableReference<Node<V>>[] newNextArray(int length) {
+            return (AtomicMarkableReference<Node<V>>[]) new AtomicMarkableReference[length];
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.johnny.datastructure.tree;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * @author johnnyhao
+ *
+ * 分块并行哈夫曼压缩
+ *
+ * HuffmanCodec单线程顺序编码，大文件只能用到一个核
+ * 分块压缩把原文件切成固定大小的块，每块独立编码，块内编码位补齐到整字节，块之间没有依赖
+ * - 压缩：在ForkJoinPool中并行读取和编码，按块号顺序写出，同时进行的块数有上限，内存占用与文件大小无关
+ * - 编码表：默认每块统计自己的出现次数，块头保存编码长度；共享编码表时先并行统计整个文件，文件头保存一份编码长度
+ * - 索引：文件末尾保存每块在压缩文件中的位置，解压缩时并行解码各块，写入原文件对应位置
+ * - 随机访问：HuffmanBlockFile根据索引只解码需要的块
+ *
+ * 压缩文件格式，多字节整数为大端序
+ * - 文件头：标识4字节，块大小4字节，原数据长度8字节，是否共享编码表1字节，共享编码表时之后为编码长度
+ * - 块：不共享编码表时先是编码长度，之后为编码位，最后一块的原长度为剩余长度
+ * - 索引：每块的起始位置，各8字节
+ * - 文件尾：索引起始位置8字节，标识4字节
+ *
+ * 编码长度的格式与HuffmanCodec相同
+ */
+public class HuffmanBlockCodec {
+
+    /**
+     * 压缩文件标识
+     */
+    static final int MAGIC = 0x48554642;
+
+    /**
+     * 文件头固定部分长度
+     */
+    static final int HEADER_SIZE = 17;
+
+    /**
+     * 文件尾长度
+     */
+    static final int FOOTER_SIZE = 12;
+
+    /**
+     * 默认块大小
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    /**
+     * 最大块大小
+     */
+    public static final int MAX_BLOCK_SIZE = 1 << 30;
+
+    /**
+     * 线程池
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * 块大小
+     */
+    private final int blockSize;
+
+    /**
+     * 是否共享编码表
+     */
+    private final boolean sharedTable;
+
+    /**
+     * 使用公共线程池、默认块大小、每块独立编码表
+     */
+    public HuffmanBlockCodec() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BLOCK_SIZE, false);
+    }
+
+    /**
+     * @param pool 线程池
+     * @param blockSize 块大小
+     * @param sharedTable 是否共享编码表
+     */
+    public HuffmanBlockCodec(ForkJoinPool pool, int blockSize, boolean sharedTable) {
+        if (blockSize <= 0 || blockSize > MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException("块大小超出范围 " + blockSize);
+        }
+        this.pool = pool;
+        this.blockSize = blockSize;
+        this.sharedTable = sharedTable;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // 生成偏斜分布的随机字节，前一半和后一半分布不同
+        Path srcFile = Files.createTempFile("huffman", ".src");
+        Path compressFile = Files.createTempFile("huffman", ".hfb");
+        Path decompressFile = Files.createTempFile("huffman", ".dst");
+        try {
+            Random random = new Random(42);
+            byte[] block = new byte[HuffmanCodec.BUFFER_SIZE];
+            try (OutputStream os = Files.newOutputStream(srcFile)) {
+                for (int i = 0; i < 160; i++) {
+                    char first = i < 80 ? 'a' : 'A';
+                    for (int j = 0; j < block.length; j++) {
+                        block[j] = (byte) (first + Math.min(25, (int) (-Math.log(random.nextDouble()) * 3)));
+                    }
+                    os.write(block);
+                }
+            }
+
+            // 每块独立编码表和共享编码表
+            for (boolean sharedTable : new boolean[]{false, true}) {
+                HuffmanBlockCodec codec = new HuffmanBlockCodec(ForkJoinPool.commonPool(), DEFAULT_BLOCK_SIZE, sharedTable);
+                codec.compress(srcFile, compressFile);
+                codec.decompress(compressFile, decompressFile);
+                System.out.printf("共享编码表%b 压缩前文件长度为%d 压缩后文件长度为%d 解压缩后内容%s\n",
+                        sharedTable, Files.size(srcFile), Files.size(compressFile),
+                        Arrays.equals(Files.readAllBytes(srcFile), Files.readAllBytes(decompressFile)) ? "一致" : "不一致");
+            }
+
+            // 随机访问，只解码跨越的两块
+            try (HuffmanBlockFile file = HuffmanBlockFile.open(compressFile)) {
+                byte[] bytes = new byte[16];
+                long position = 5L * DEFAULT_BLOCK_SIZE - 8;
+                file.read(position, bytes, 0, bytes.length);
+                System.out.printf("块数%d 位置%d开始的16字节 %s\n", file.blockCount(), position, new String(bytes));
+            }
+        } finally {
+            Files.deleteIfExists(srcFile);
+            Files.deleteIfExists(compressFile);
+            Files.deleteIfExists(decompressFile);
+        }
+    }
+
+    /**
+     * 压缩文件
+     * @param srcFile 原文件
+     * @param compressFile 压缩文件
+     * @throws IOException 读写失败
+     */
+    public void compress(Path srcFile, Path compressFile) throws IOException {
+        try (FileChannel in = FileChannel.open(srcFile, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(compressFile, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long length = in.size();
+            int blockCount = blockCount(length, blockSize);
+
+            // 共享编码表时先并行统计每块出现次数再合并
+            HuffmanCodec shared = null;
+            if (sharedTable) {
+                long[] frequencies = new long[HuffmanCodec.SYMBOLS];
+                Deque<ForkJoinTask<long[]>> tasks = new ArrayDeque<>();
+                try {
+                    for (int i = 0; i < blockCount; i++) {
+                        int block = i;
+                        tasks.add(pool.submit(() -> {
+                            byte[] bytes = readBlock(in, block, length);
+                            long[] blockFrequencies = new long[HuffmanCodec.SYMBOLS];
+                            HuffmanCodec.histogram(bytes, 0, bytes.length, blockFrequencies);
+                            return blockFrequencies;
+                        }));
+                    }
+                    while (!tasks.isEmpty()) {
+                        long[] blockFrequencies = join(tasks.poll());
+                        for (int symbol = 0; symbol < HuffmanCodec.SYMBOLS; symbol++) {
+                            frequencies[symbol] += blockFrequencies[symbol];
+                        }
+                    }
+                } finally {
+                    cancel(tasks);
+                }
+                shared = new HuffmanCodec(frequencies);
+            }
+
+            // 文件头
+            ByteArrayOutputStream header = new ByteArrayOutputStream(HEADER_SIZE + HuffmanCodec.SYMBOLS);
+            DataOutputStream headerOut = new DataOutputStream(header);
+            headerOut.writeInt(MAGIC);
+            headerOut.writeInt(blockSize);
+            headerOut.writeLong(length);
+            headerOut.writeBoolean(shared != null);
+            if (shared != null) {
+                HuffmanCodec.writeLengths(headerOut, shared.lengths());
+            }
+            long position = write(out, ByteBuffer.wrap(header.toByteArray()), 0);
+
+            // 并行编码，按块号顺序写出
+            long[] offsets = new long[blockCount];
+            HuffmanCodec codec = shared;
+            Deque<ForkJoinTask<byte[]>> window = new ArrayDeque<>();
+            try {
+                int next = 0;
+                for (int i = 0; i < blockCount; i++) {
+                    while (next < blockCount && window.size() < maxInFlight()) {
+                        int block = next++;
+                        window.add(pool.submit(() -> encodeBlock(readBlock(in, block, length), codec)));
+                    }
+                    offsets[i] = position;
+                    position += write(out, ByteBuffer.wrap(join(window.poll())), position);
+                }
+            } finally {
+                cancel(window);
+            }
+
+            // 索引和文件尾
+            ByteBuffer index = ByteBuffer.allocate(blockCount * Long.BYTES + FOOTER_SIZE);
+            for (long offset : offsets) {
+                index.putLong(offset);
+            }
+            index.putLong(position);
+            index.putInt(MAGIC);
+            index.flip();
+            write(out, index, position);
+        }
+    }
+
+    /**
+     * 解压缩文件，并行解码各块写入对应位置
+     * @param compressFile 压缩文件
+     * @param decompressFile 解压缩文件
+     * @throws IOException 读写失败或压缩文件格式不正确
+     */
+    public void decompress(Path compressFile, Path decompressFile) throws IOException {
+        try (HuffmanBlockFile file = HuffmanBlockFile.open(compressFile);
+             FileChannel out = FileChannel.open(decompressFile, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            int blockCount = file.blockCount();
+            Deque<ForkJoinTask<Void>> window = new ArrayDeque<>();
+            try {
+                int next = 0;
+                for (int i = 0; i < blockCount; i++) {
+                    while (next < blockCount && window.size() < maxInFlight()) {
+                        int block = next++;
+                        window.add(pool.submit(() -> {
+                            write(out, ByteBuffer.wrap(file.readBlock(block)), (long) block * file.blockSize());
+                            return null;
+                        }));
+                    }
+                    join(window.poll());
+                }
+            } finally {
+                cancel(window);
+            }
+        }
+    }
+
+    /**
+     * 同时进行的块数，限制内存占用
+     * @return 块数
+     */
+    private int maxInFlight() {
+        return pool.getParallelism() * 2;
+    }
+
+    /**
+     * 编码一块
+     * @param bytes 原数据
+     * @param shared 共享编码表，为null时使用本块的编码表并写入编码长度
+     * @return 压缩数据
+     * @throws IOException 字节不在共享编码表中
+     */
+    private static byte[] encodeBlock(byte[] bytes, HuffmanCodec shared) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + HuffmanCodec.SYMBOLS);
+        HuffmanCodec codec = shared;
+        if (codec == null) {
+            long[] frequencies = new long[HuffmanCodec.SYMBOLS];
+            HuffmanCodec.histogram(bytes, 0, bytes.length, frequencies);
+            codec = new HuffmanCodec(frequencies);
+            HuffmanCodec.writeLengths(new DataOutputStream(out), codec.lengths());
+        }
+        BitWriter writer = new BitWriter(out);
+        codec.encode(bytes, 0, bytes.length, writer);
+        writer.flush();
+        return out.toByteArray();
+    }
+
+    /**
+     * 读取原文件的一块
+     * @param in 原文件
+     * @param block 块号
+     * @param length 原文件长度
+     * @return 原数据
+     * @throws IOException 读取失败或文件长度变化
+     */
+    private byte[] readBlock(FileChannel in, int block, long length) throws IOException {
+        long position = (long) block * blockSize;
+        byte[] bytes = new byte[(int) Math.min(blockSize, length - position)];
+        read(in, ByteBuffer.wrap(bytes), position);
+        return bytes;
+    }
+
+    /**
+     * 块数
+     * @param length 原数据长度
+     * @param blockSize 块大小
+     * @return 块数
+     * @throws IOException 块数超出范围
+     */
+    static int blockCount(long length, int blockSize) throws IOException {
+        long blockCount = (length + blockSize - 1) / blockSize;
+        if (blockCount > Integer.MAX_VALUE / Long.BYTES) {
+            throw new IOException("块数过多，请增大块大小 " + blockCount);
+        }
+        return (int) blockCount;
+    }
+
+    /**
+     * 从指定位置读满缓冲区
+     * @param channel 文件通道
+     * @param buffer 缓冲区
+     * @param position 位置
+     * @throws IOException 读取失败或已到文件末尾
+     */
+    static void read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("文件长度不足");
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * 从指定位置写出缓冲区
+     * @param channel 文件通道
+     * @param buffer 缓冲区
+     * @param position 位置
+     * @return 写出的字节数
+     * @throws IOException 写入失败
+     */
+    static int write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return length;
+    }
+
+    /**
+     * 等待任务完成，还原任务中抛出的异常
+     * @param task 任务
+     * @param <T> 结果类型
+     * @return 结果
+     * @throws IOException 任务中抛出的IO异常，或等待被中断
+     */
+    private static <T> T join(ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * 出错时取消还没开始的任务
+     * @param tasks 任务
+     */
+    private static void cancel(Deque<? extends ForkJoinTask<?>> tasks) {
+        for (ForkJoinTask<?> task : tasks) {
+            task.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.johnny.datastructure.tree;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author johnnyhao
+ *
+ * 分块哈夫曼压缩文件的随机访问
+ *
+ * 打开HuffmanBlockCodec压缩的文件，只读取文件头、文件尾和索引
+ * 读取原数据的任意位置时，根据块大小算出块号，按索引读取并解码这几块，不需要从头解码
+ * 各块按位置读取文件，可以被多个线程同时读取
+ */
+public class HuffmanBlockFile implements Closeable {
+
+    /**
+     * 文件通道
+     */
+    private final FileChannel channel;
+
+    /**
+     * 块大小
+     */
+    private final int blockSize;
+
+    /**
+     * 原数据长度
+     */
+    private final long length;
+
+    /**
+     * 共享编码表的解码，每块独立编码表时为null
+     */
+    private final HuffmanDecoder shared;
+
+    /**
+     * 每块的起始位置，最后一个元素为索引起始位置，即最后一块的结束位置
+     */
+    private final long[] offsets;
+
+    /**
+     * @param channel 文件通道
+     * @param blockSize 块大小
+     * @param length 原数据长度
+     * @param shared 共享编码表的解码
+     * @param offsets 每块的起始位置
+     */
+    private HuffmanBlockFile(FileChannel channel, int blockSize, long length, HuffmanDecoder shared, long[] offsets) {
+        this.channel = channel;
+        this.blockSize = blockSize;
+        this.length = length;
+        this.shared = shared;
+        this.offsets = offsets;
+    }
+
+    /**
+     * 打开文件
+     * @param path 文件路径
+     * @return 压缩文件
+     * @throws IOException 读取失败或文件格式不正确
+     */
+    public static HuffmanBlockFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HuffmanBlockCodec.HEADER_SIZE + HuffmanBlockCodec.FOOTER_SIZE) {
+                throw new IOException("不是分块哈夫曼压缩文件 " + path);
+            }
+
+            // 文件头，共享编码表最多256字节
+            ByteBuffer header = ByteBuffer.allocate((int) Math.min(size, HuffmanBlockCodec.HEADER_SIZE + HuffmanCodec.SYMBOLS));
+            HuffmanBlockCodec.read(channel, header, 0);
+            int blockSize = header.getInt(4);
+            long length = header.getLong(8);
+            if (header.getInt(0) != HuffmanBlockCodec.MAGIC || blockSize <= 0
+                    || blockSize > HuffmanBlockCodec.MAX_BLOCK_SIZE || length < 0) {
+                throw new IOException("不是分块哈夫曼压缩文件 " + path);
+            }
+            HuffmanDecoder shared = null;
+            int headerSize = HuffmanBlockCodec.HEADER_SIZE;
+            if (header.get(16) != 0) {
+                ByteArrayInputStream lengths = new ByteArrayInputStream(header.array(), headerSize, header.capacity() - headerSize);
+                shared = HuffmanCodec.readDecoder(new DataInputStream(lengths));
+                headerSize = header.capacity() - lengths.available();
+            }
+
+            // 文件尾和索引
+            ByteBuffer footer = ByteBuffer.allocate(HuffmanBlockCodec.FOOTER_SIZE);
+            HuffmanBlockCodec.read(channel, footer, size - HuffmanBlockCodec.FOOTER_SIZE);
+            long indexPosition = footer.getLong(0);
+            int blockCount = HuffmanBlockCodec.blockCount(length, blockSize);
+            if (footer.getInt(8) != HuffmanBlockCodec.MAGIC
+                    || indexPosition + (long) blockCount * Long.BYTES + HuffmanBlockCodec.FOOTER_SIZE != size) {
+                throw new IOException("索引不正确 " + path);
+            }
+            ByteBuffer index = ByteBuffer.allocate(blockCount * Long.BYTES);
+            HuffmanBlockCodec.read(channel, index, indexPosition);
+            long[] offsets = new long[blockCount + 1];
+            index.flip();
+            index.asLongBuffer().get(offsets, 0, blockCount);
+            offsets[blockCount] = indexPosition;
+            long previous = headerSize;
+            for (long offset : offsets) {
+                if (offset < previous) {
+                    throw new IOException("索引不正确 " + path);
+                }
+                previous = offset;
+            }
+            return new HuffmanBlockFile(channel, blockSize, length, shared, offsets);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 原数据长度
+     * @return 长度
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * 块大小
+     * @return 块大小
+     */
+    public int blockSize() {
+        return blockSize;
+    }
+
+    /**
+     * 块数
+     * @return 块数
+     */
+    public int blockCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * 解码一块
+     * @param block 块号
+     * @return 原数据
+     * @throws IOException 读取失败或压缩数据不正确
+     */
+    public byte[] readBlock(int block) throws IOException {
+        if (block < 0 || block >= blockCount()) {
+            throw new IndexOutOfBoundsException("块号超出范围: " + block);
+        }
+        long compressedLength = offsets[block + 1] - offsets[block];
+        if (compressedLength > Integer.MAX_VALUE) {
+            throw new IOException("块长度不正确 " + block);
+        }
+        byte[] compressed = new byte[(int) compressedLength];
+        HuffmanBlockCodec.read(channel, ByteBuffer.wrap(compressed), offsets[block]);
+
+        long position = (long) block * blockSize;
+        byte[] bytes = new byte[(int) Math.min(blockSize, length - position)];
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(compressed));
+        HuffmanDecoder decoder = shared != null ? shared : HuffmanCodec.readDecoder(in);
+        decoder.decode(new BitReader(in), bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    /**
+     * 从原数据的指定位置读取，只解码跨越的块
+     * @param position 原数据位置
+     * @param bytes 字节数组
+     * @param offset 起始位置
+     * @param length 最多读取的字节数
+     * @return 读取的字节数，位置不小于原数据长度时返回-1
+     * @throws IOException 读取失败或压缩数据不正确
+     */
+    public int read(long position, byte[] bytes, int offset, int length) throws IOException {
+        if (position < 0 || offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (position >= this.length) {
+            return -1;
+        }
+        length = (int) Math.min(length, this.length - position);
+        int read = 0;
+        while (read < length) {
+            int block = (int) (position / blockSize);
+            int from = (int) (position - (long) block * blockSize);
+            byte[] blockBytes = readBlock(block);
+            int count = Math.min(length - read, blockBytes.length - from);
+            System.arraycopy(blockBytes, from, bytes, offset + read, count);
+            read += count;
+            position += count;
+        }
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,553 @@
+package com.johnny.datastructure.tree;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @author johnnyhao
+ *
+ * 流式哈夫曼编码
+ *
+ * HuffmanCodingImpl用'0'和'1'组成的字符串表示编码，每个输出位要占用十几个字节的堆内存，压缩大文件需要几个GB内存
+ * 流式编码直接读写位，内存占用与文件大小无关
+ * - 编码表：每个字节的编码和编码长度分别存放在int数组和byte数组中，编码时按下标取出，不创建对象
+ * - 写入：编码先拼接到64位缓冲区，凑满32位再写出，最后不足一个字节的部分补0
+ * - 读取：字节依次放入64位缓冲区，由HuffmanDecoder查表解码，每次查表得到一个字节
+ * - 文件：读两遍原文件，第一遍统计字节出现次数，第二遍编码
+ * - 范式编码：编码只由编码长度决定，文件头只保存编码长度，解压缩时重建同样的编码，不需要Java序列化
+ *
+ * 压缩数据格式，多字节整数为大端序
+ * - 标识4字节，原数据长度8字节，解压缩时按长度停止，不受最后一个字节补0的影响
+ * - 256个字节的编码长度，游程编码：0到24为下一个字节的编码长度，0x40+(n-2)表示上一个编码长度再重复n次，n为2到65
+ *   第一个字节之前的编码长度视为0，未出现的字节连成一段只占一两个字节，最多256字节
+ * - 之后为编码位，按从高位到低位的顺序存放
+ *
+ * 编码长度不超过MAX_CODE_LENGTH，超过时把出现次数减半后重新构建哈夫曼树
+ */
+public class HuffmanCodec {
+
+    /**
+     * 压缩数据标识
+     */
+    static final int MAGIC = 0x48554632;
+
+    /**
+     * 字节种类数
+     */
+    static final int SYMBOLS = 256;
+
+    /**
+     * 最大编码长度
+     */
+    static final int MAX_CODE_LENGTH = 24;
+
+    /**
+     * 读写缓冲区大小
+     */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * 游程编码中重复上一个编码长度的标记
+     */
+    private static final int REPEAT = 0x40;
+
+    /**
+     * 游程编码一次最多重复次数
+     */
+    private static final int MAX_REPEAT = 65;
+
+    /**
+     * 原数据长度，即出现次数之和
+     */
+    private final long total;
+
+    /**
+     * 每个字节的编码，低位有效
+     */
+    private final int[] codes = new int[SYMBOLS];
+
+    /**
+     * 每个字节的编码长度，未出现的字节为0
+     */
+    private final byte[] lengths;
+
+    /**
+     * 根据出现次数构建编码表
+     * @param frequencies 每个字节出现次数，长度为256
+     */
+    public HuffmanCodec(long[] frequencies) {
+        if (frequencies.length != SYMBOLS) {
+            throw new IllegalArgumentException("出现次数数组长度应为" + SYMBOLS);
+        }
+        long total = 0;
+        for (long frequency : frequencies) {
+            total += frequency;
+        }
+        this.total = total;
+        this.lengths = codeLengths(frequencies);
+        canonicalCodes(lengths, codes);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String string = "i like like like java do you like a java";
+
+        // 压缩和解压缩字节数组
+        byte[] bytes = string.getBytes();
+        byte[] huffmanBytes = compress(bytes);
+        System.out.printf("压缩前长度为%d 压缩后长度为%d\n", bytes.length, huffmanBytes.length);
+        System.out.printf("还原后的字符串\n%s\n", new String(decompress(huffmanBytes)));
+
+        // 压缩和解压缩文件，文件内容为偏斜分布的随机字节
+        Path srcFile = Files.createTempFile("huffman", ".src");
+        Path compressFile = Files.createTempFile("huffman", ".huf");
+        Path decompressFile = Files.createTempFile("huffman", ".dst");
+        try {
+            Random random = new Random(42);
+            byte[] block = new byte[BUFFER_SIZE];
+            try (OutputStream os = Files.newOutputStream(srcFile)) {
+                for (int i = 0; i < 128; i++) {
+                    for (int j = 0; j < block.length; j++) {
+                        block[j] = (byte) ('a' + Math.min(25, (int) -Math.log(random.nextDouble()) * 3));
+                    }
+                    os.write(block);
+                }
+            }
+            compress(srcFile, compressFile);
+            decompress(compressFile, decompressFile);
+            System.out.printf("压缩前文件长度为%d 压缩后文件长度为%d 解压缩后内容%s\n",
+                    Files.size(srcFile), Files.size(compressFile),
+                    Arrays.equals(Files.readAllBytes(srcFile), Files.readAllBytes(decompressFile)) ? "一致" : "不一致");
+        } finally {
+            Files.deleteIfExists(srcFile);
+            Files.deleteIfExists(compressFile);
+            Files.deleteIfExists(decompressFile);
+        }
+    }
+
+    /**
+     * 统计每个字节出现次数，读到流末尾，不关闭流
+     * @param in 输入流
+     * @return 每个字节出现次数
+     * @throws IOException 读取失败
+     */
+    public static long[] histogram(InputStream in) throws IOException {
+        long[] frequencies = new long[SYMBOLS];
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            histogram(buffer, 0, read, frequencies);
+        }
+        return frequencies;
+    }
+
+    /**
+     * 累加字节数组中每个字节出现次数
+     * @param bytes 字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @param frequencies 每个字节出现次数
+     */
+    static void histogram(byte[] bytes, int offset, int length, long[] frequencies) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            frequencies[bytes[i] & 0xFF]++;
+        }
+    }
+
+    /**
+     * 累加缓冲区position到limit之间每个字节出现次数，不改变position
+     * 每次读取8个字节再按移位拆开，减少直接缓冲区逐字节读取的边界检查
+     * @param bytes 缓冲区
+     * @param frequencies 每个字节出现次数
+     */
+    static void histogram(ByteBuffer bytes, long[] frequencies) {
+        int i = bytes.position();
+        int end = bytes.limit();
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            long word = bytes.getLong(i);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                frequencies[(int) (word >>> shift) & 0xFF]++;
+            }
+        }
+        for (; i < end; i++) {
+            frequencies[bytes.get(i) & 0xFF]++;
+        }
+    }
+
+    /**
+     * 压缩字节数组
+     * @param bytes 字节数组
+     * @return 压缩数据
+     */
+    public static byte[] compress(byte[] bytes) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 64);
+            new HuffmanCodec(histogram(new ByteArrayInputStream(bytes))).compress(new ByteArrayInputStream(bytes), out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            // 内存流不会抛出IO异常
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 解压缩字节数组
+     * @param huffmanBytes 压缩数据
+     * @return 字节数组
+     * @throws IOException 压缩数据格式不正确
+     */
+    public static byte[] decompress(byte[] huffmanBytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(huffmanBytes.length * 2);
+        decompress(new ByteArrayInputStream(huffmanBytes), out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 压缩文件，读两遍原文件，第一遍统计出现次数
+     * @param srcFile 原文件
+     * @param compressFile 压缩文件
+     * @throws IOException 读写失败
+     */
+    public static void compress(Path srcFile, Path compressFile) throws IOException {
+        long[] frequencies;
+        try (InputStream in = Files.newInputStream(srcFile)) {
+            frequencies = histogram(in);
+        }
+        HuffmanCodec codec = new HuffmanCodec(frequencies);
+        try (InputStream in = Files.newInputStream(srcFile);
+             OutputStream out = Files.newOutputStream(compressFile)) {
+            codec.compress(in, out);
+        }
+    }
+
+    /**
+     * 解压缩文件
+     * @param compressFile 压缩文件
+     * @param decompressFile 解压缩文件
+     * @throws IOException 读写失败或压缩文件格式不正确
+     */
+    public static void decompress(Path compressFile, Path decompressFile) throws IOException {
+        try (InputStream in = Files.newInputStream(compressFile);
+             OutputStream out = Files.newOutputStream(decompressFile)) {
+            decompress(in, out);
+        }
+    }
+
+    /**
+     * 压缩，写入文件头和编码位，不关闭流
+     * @param in 输入流，内容的出现次数必须与构建编码表时一致
+     * @param out 输出流
+     * @throws IOException 读写失败或内容与出现次数不一致
+     */
+    public void compress(InputStream in, OutputStream out) throws IOException {
+        writeHeader(new DataOutputStream(out));
+
+        // 编码
+        BitWriter writer = new BitWriter(out);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long count = 0;
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            encode(buffer, 0, read, writer);
+            count += read;
+        }
+        if (count != total) {
+            throw new IOException("内容长度" + count + "与出现次数之和" + total + "不一致");
+        }
+        writer.flush();
+    }
+
+    /**
+     * 编码缓冲区position到limit之间的字节，不改变position，与histogram一样每次读取8个字节
+     * @param bytes 缓冲区
+     * @param writer 位写入
+     * @throws IOException 写入失败或字节不在编码表中
+     */
+    void encode(ByteBuffer bytes, BitWriter writer) throws IOException {
+        int i = bytes.position();
+        int end = bytes.limit();
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            long word = bytes.getLong(i);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                encode((int) (word >>> shift) & 0xFF, writer);
+            }
+        }
+        for (; i < end; i++) {
+            encode(bytes.get(i) & 0xFF, writer);
+        }
+    }
+
+    /**
+     * 查表写入一个字节的编码
+     * @param symbol 字节
+     * @param writer 位写入
+     * @throws IOException 写入失败或字节不在编码表中
+     */
+    private void encode(int symbol, BitWriter writer) throws IOException {
+        if (lengths[symbol] == 0) {
+            throw new IOException("字节" + symbol + "不在编码表中");
+        }
+        writer.write(codes[symbol], lengths[symbol]);
+    }
+
+    /**
+     * 编码字节数组，逐个字节查表写入编码
+     * @param bytes 字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @param writer 位写入
+     * @throws IOException 写入失败或字节不在编码表中
+     */
+    void encode(byte[] bytes, int offset, int length, BitWriter writer) throws IOException {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            encode(bytes[i] & 0xFF, writer);
+        }
+    }
+
+    /**
+     * 每个字节的编码长度
+     * @return 编码长度，不能修改
+     */
+    byte[] lengths() {
+        return lengths;
+    }
+
+    /**
+     * 原数据长度
+     * @return 出现次数之和
+     */
+    long total() {
+        return total;
+    }
+
+    /**
+     * 解压缩，读取文件头并重建编码表，不关闭流
+     * @param in 输入流
+     * @param out 输出流
+     * @throws IOException 读写失败或压缩数据格式不正确
+     */
+    public static void decompress(InputStream in, OutputStream out) throws IOException {
+        DataInputStream header = new DataInputStream(in);
+        long total = readTotal(header);
+        HuffmanDecoder decoder = readDecoder(header);
+        decoder.decode(new BitReader(in), total, out);
+    }
+
+    /**
+     * 写入文件头
+     * @param out 输出
+     * @throws IOException 写入失败
+     */
+    void writeHeader(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeLong(total);
+        writeLengths(out, lengths);
+    }
+
+    /**
+     * 读取文件头的标识和原数据长度
+     * @param in 输入
+     * @return 原数据长度
+     * @throws IOException 读取失败或不是哈夫曼压缩数据
+     */
+    static long readTotal(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("不是哈夫曼压缩数据");
+        }
+        long total = in.readLong();
+        if (total < 0) {
+            throw new IOException("原数据长度不正确 " + total);
+        }
+        return total;
+    }
+
+    /**
+     * 读取编码长度并构建解码表
+     * @param in 输入
+     * @return 解码
+     * @throws IOException 读取失败或编码长度不正确
+     */
+    static HuffmanDecoder readDecoder(DataInput in) throws IOException {
+        try {
+            return new HuffmanDecoder(readLengths(in));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /**
+     * 游程编码写入编码长度
+     * @param out 输出
+     * @param lengths 每个字节的编码长度
+     * @throws IOException 写入失败
+     */
+    static void writeLengths(DataOutput out, byte[] lengths) throws IOException {
+        int previous = 0;
+        int symbol = 0;
+        while (symbol < SYMBOLS) {
+            // 与上一个编码长度相同的个数
+            int run = 0;
+            while (symbol + run < SYMBOLS && run < MAX_REPEAT && lengths[symbol + run] == previous) {
+                run++;
+            }
+            if (run >= 2) {
+                out.writeByte(REPEAT + run - 2);
+                symbol += run;
+            }
+            else {
+                previous = lengths[symbol++];
+                out.writeByte(previous);
+            }
+        }
+    }
+
+    /**
+     * 读取游程编码的编码长度
+     * @param in 输入
+     * @return 每个字节的编码长度
+     * @throws IOException 读取失败或格式不正确
+     */
+    static byte[] readLengths(DataInput in) throws IOException {
+        byte[] lengths = new byte[SYMBOLS];
+        int previous = 0;
+        int symbol = 0;
+        while (symbol < SYMBOLS) {
+            int b = in.readUnsignedByte();
+            if (b <= MAX_CODE_LENGTH) {
+                previous = b;
+                lengths[symbol++] = (byte) b;
+            }
+            else if (b >= REPEAT && b < REPEAT + MAX_REPEAT - 1 && symbol + b - REPEAT + 2 <= SYMBOLS) {
+                for (int end = symbol + b - REPEAT + 2; symbol < end; symbol++) {
+                    lengths[symbol] = (byte) previous;
+                }
+            }
+            else {
+                throw new IOException("编码长度格式不正确 " + b);
+            }
+        }
+        return lengths;
+    }
+
+    /**
+     * 根据出现次数计算每个字节的编码长度
+     * 出现过的字节按出现次数排序后用两个队列合并，叶子队列和父节点队列都是有序的，每次从两个队头取较小的
+     * 编码长度超过MAX_CODE_LENGTH时，出现次数减半后重新计算
+     * @param frequencies 每个字节出现次数
+     * @return 每个字节的编码长度
+     */
+    static byte[] codeLengths(long[] frequencies) {
+        byte[] lengths = new byte[SYMBOLS];
+
+        // 出现过的字节按出现次数、字节升序排列，保证压缩和解压缩得到相同的结果
+        long[] weights = new long[2 * SYMBOLS];
+        int n = 0;
+        for (int symbol = 0; symbol < SYMBOLS; symbol++) {
+            if (frequencies[symbol] < 0) {
+                throw new IllegalArgumentException("出现次数不能为负数");
+            }
+            if (frequencies[symbol] > 0) {
+                n++;
+            }
+        }
+        if (n == 0) {
+            return lengths;
+        }
+        if (n == 1) {
+            // 只有一种字节时编码为一位
+            for (int symbol = 0; symbol < SYMBOLS; symbol++) {
+                if (frequencies[symbol] > 0) {
+                    lengths[symbol] = 1;
+                }
+            }
+            return lengths;
+        }
+
+        Integer[] order = new Integer[n];
+        for (int symbol = 0, i = 0; symbol < SYMBOLS; symbol++) {
+            if (frequencies[symbol] > 0) {
+                order[i++] = symbol;
+            }
+        }
+        Arrays.sort(order, (a, b) -> frequencies[a] != frequencies[b] ? Long.compare(frequencies[a], frequencies[b]) : a - b);
+
+        long[] scaled = new long[n];
+        for (int i = 0; i < n; i++) {
+            scaled[i] = frequencies[order[i]];
+        }
+        int[] parent = new int[2 * n - 1];
+        int[] depth = new int[2 * n - 1];
+        while (true) {
+            // 前n个节点是叶子节点，之后依次是合并生成的父节点
+            System.arraycopy(scaled, 0, weights, 0, n);
+            int leaf = 0;
+            int inner = n;
+            for (int next = n; next < 2 * n - 1; next++) {
+                int left = leaf < n && (inner == next || weights[leaf] <= weights[inner]) ? leaf++ : inner++;
+                int right = leaf < n && (inner == next || weights[leaf] <= weights[inner]) ? leaf++ : inner++;
+                weights[next] = weights[left] + weights[right];
+                parent[left] = next;
+                parent[right] = next;
+            }
+
+            // 根节点最后生成，父节点下标总是大于子节点，倒序即可从上往下计算深度
+            int maxDepth = 0;
+            depth[2 * n - 2] = 0;
+            for (int i = 2 * n - 3; i >= 0; i--) {
+                depth[i] = depth[parent[i]] + 1;
+                maxDepth = Math.max(maxDepth, depth[i]);
+            }
+            if (maxDepth <= MAX_CODE_LENGTH) {
+                for (int i = 0; i < n; i++) {
+                    lengths[order[i]] = (byte) depth[i];
+                }
+                return lengths;
+            }
+
+            // 出现次数减半，差距缩小后树变矮，排序不变
+            for (int i = 0; i < n; i++) {
+                scaled[i] = Math.max(1, scaled[i] >>> 1);
+            }
+        }
+    }
+
+    /**
+     * 根据编码长度生成范式哈夫曼编码
+     * 编码长度相同的字节按字节升序分配连续编码，较长编码的前缀比较短编码大，只由编码长度决定编码
+     * @param lengths 每个字节的编码长度
+     * @param codes 每个字节的编码
+     */
+    static void canonicalCodes(byte[] lengths, int[] codes) {
+        int[] lengthCount = new int[MAX_CODE_LENGTH + 1];
+        for (byte length : lengths) {
+            lengthCount[length]++;
+        }
+        lengthCount[0] = 0;
+
+        // 每种长度的第一个编码
+        int[] nextCode = new int[MAX_CODE_LENGTH + 1];
+        int code = 0;
+        for (int length = 1; length <= MAX_CODE_LENGTH; length++) {
+            code = (code + lengthCount[length - 1]) << 1;
+            nextCode[length] = code;
+        }
+
+        for (int symbol = 0; symbol < SYMBOLS; symbol++) {
+            int length = lengths[symbol];
+            if (length > 0) {
+                codes[symbol] = nextCode[length]++;
+            }
+        }
+    }
+}
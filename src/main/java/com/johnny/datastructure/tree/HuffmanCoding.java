@@ -6,12 +6,7 @@ import lombok.Setter;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.OutputStream;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -241,6 +236,7 @@ class HuffmanCodingImpl {
 
     /**
      * 将字节数组压缩成哈夫曼编码字节数组
+     * 编码字符串每8位一个字节，最后一个字节不满8位时低位对齐，末尾再加一个字节记录最后一个字节的有效位数
      * @param bytes 字节数组
      * @param huffmanCodingMap 哈夫曼编码表
      * @return 哈夫曼编码字节数组
@@ -254,8 +250,10 @@ class HuffmanCodingImpl {
 
         System.out.printf("生成哈夫曼编码字符串\n%s\n", huffmanCodings);
 
-        // 初始化压缩后的字节数组，计算长度可以用(stringBuilder.length() + 7) / 8
-        byte[] huffmanCodeBytes = new byte[huffmanCodings.length() % 8 == 0 ? huffmanCodings.length() / 8 : huffmanCodings.length() / 8 + 1];
+        // 初始化压缩后的字节数组，计算长度可以用(stringBuilder.length() + 7) / 8，多一个字节记录最后一个字节的有效位数
+        int length = (huffmanCodings.length() + 7) / 8;
+        byte[] huffmanCodeBytes = new byte[length + 1];
+        huffmanCodeBytes[length] = (byte) (huffmanCodings.length() - Math.max(length - 1, 0) * 8);
 
         // 因为是每八位对应一个字节，所以步长8
         for (int i = 0; i < huffmanCodings.length(); i += 8) {
@@ -284,6 +282,7 @@ class HuffmanCodingImpl {
 
     /**
      * 将哈夫曼编码字节数组解压缩成字节数组
+     * 最后一个字节只取末尾记录的有效位数，高位的0不会丢失
      * @param huffmanCodingBytes 哈夫曼编码字节数组
      * @param huffmanCodingMap 哈夫曼编码表
      * @return 字节数组
@@ -292,22 +291,20 @@ class HuffmanCodingImpl {
         // 利用哈夫曼编码表，将字节数组转换成对应的哈夫曼编码字符串
         StringBuilder huffmanCodings = new StringBuilder();
 
-        for (int i = 0; i < huffmanCodingBytes.length; i++) {
-            // 将字节码转换成整型
-            int b = huffmanCodingBytes[i];
-            // 判断是不是最后一个字节
-            if (i != huffmanCodingBytes.length - 1) {
-                // 正数需要补高位
-                b |= 256;
-                // 生成对应的二进制补码
-                String str = Integer.toBinaryString(b);
-                // 截取最后八位
-                huffmanCodings.append(str.substring(str.length() - 8));
-            }
-            // 最后一位不需要截取
-            else {
-                huffmanCodings.append(Integer.toBinaryString(b));
-            }
+        // 末尾字节是最后一个编码字节的有效位数
+        int length = huffmanCodingBytes.length - 1;
+        int lastBits = length >= 0 ? huffmanCodingBytes[length] : -1;
+        if (length < 0 || (length == 0 ? lastBits != 0 : lastBits < 1 || lastBits > 8)) {
+            throw new IllegalArgumentException("哈夫曼编码字节数组不正确");
+        }
+
+        for (int i = 0; i < length; i++) {
+            // 将字节码转换成整型，正数需要补高位
+            int b = huffmanCodingBytes[i] | 256;
+            // 生成对应的二进制补码
+            String str = Integer.toBinaryString(b);
+            // 截取最后八位，最后一个字节只截取有效位数
+            huffmanCodings.append(str.substring(str.length() - (i != length - 1 ? 8 : lastBits)));
         }
 
         System.out.printf("还原哈夫曼编码字符串\n%s\n", huffmanCodings);
@@ -368,98 +365,30 @@ class HuffmanCodingImpl {
 
     /**
      * 哈夫曼编码压缩文件
+     * 由MappedHuffmanCodec在映射内存中压缩，不把文件读入堆内存，超过2GB的文件也可以压缩
+     * 文件头只有原数据长度和范式哈夫曼编码的编码长度
      * @param srcFile 原文件路径
      * @param compressFile 压缩文件路径
      */
     public void huffmanCodingCompressFile(String srcFile, String compressFile) {
-        // 定义一个输出流
-        OutputStream os = null;
-        // 定义一个对象输出流
-        ObjectOutputStream oos = null;
-        // 定义一个文件的输入流
-        FileInputStream is = null;
         try {
-            //创建文件的输入流
-            is = new FileInputStream(srcFile);
-            //创建一个和源文件大小一样的byte[]
-            byte[] bytes = new byte[is.available()];
-            //读取文件
-            is.read(bytes);
-            //直接对源文件压缩
-            byte[] huffmanBytes = huffmanCodingCompress(bytes);
-            //创建文件的输出流, 存放压缩文件
-            os = new FileOutputStream(compressFile);
-            //创建一个和文件输出流关联的ObjectOutputStream
-            oos = new ObjectOutputStream(os);
-            //把 哈夫曼编码后的字节数组写入压缩文件
-            oos.writeObject(huffmanBytes);
-            //这里我们以对象流的方式写入哈夫曼编码，是为了以后我们恢复源文件时使用
-            //注意一定要把哈夫曼编码写入压缩文件
-            oos.writeObject(huffmanCodingMap);
-        }catch (Exception e) {
+            MappedHuffmanCodec.compress(Paths.get(srcFile), Paths.get(compressFile));
+        } catch (Exception e) {
             System.out.println(e.getMessage());
-        }finally {
-            try {
-                if (is != null) {
-                    is.close();
-                }
-                if (oos != null) {
-                    oos.close();
-                }
-                if (os != null) {
-                    os.close();
-                }
-            }catch (Exception e) {
-                System.out.println(e.getMessage());
-            }
         }
     }
 
     /**
      * 哈夫曼编码解压缩文件
+     * 根据文件头中的编码长度重建范式哈夫曼编码，解码到原数据长度为止
      * @param compressFile 压缩文件路径
-     * @param decompressFile 压缩文件路径
+     * @param decompressFile 解压缩文件路径
      */
     public void huffmanCodingDecompressFile(String compressFile, String decompressFile) {
-        // 定义文件输入流
-        InputStream is = null;
-        // 定义一个对象输入流
-        ObjectInputStream ois = null;
-        // 定义文件的输出流
-        OutputStream os = null;
         try {
-            // 创建文件输入流
-            is = new FileInputStream(compressFile);
-            // 创建一个和文件输入流关联的对象输入流
-            ois = new ObjectInputStream(is);
-            // 读取byte数组  huffmanBytes
-            byte[] huffmanBytes = (byte[]) ois.readObject();
-            //读取哈夫曼编码表
-            Map<Byte, String> huffmanCodes = (Map<Byte, String>) ois.readObject();
-
-            //解码
-            byte[] bytes = decompress(huffmanBytes, huffmanCodes);
-            //将bytes 数组写入到目标文件
-            os = new FileOutputStream(decompressFile);
-            //写数据到 dstFile 文件
-            os.write(bytes);
+            MappedHuffmanCodec.decompress(Paths.get(compressFile), Paths.get(decompressFile));
         } catch (Exception e) {
             System.out.println(e.getMessage());
-        } finally {
-            try {
-                if (os != null) {
-                    os.close();
-                }
-                if (ois != null) {
-                    ois.close();
-                }
-                if (is != null) {
-                    is.close();
-                }
-            } catch (Exception e) {
-                System.out.println(e.getMessage());
-            }
-
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,201 @@
+package com.johnny.datastructure.tree;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * @author johnnyhao
+ *
+ * 查表的范式哈夫曼解码
+ *
+ * HuffmanCodingImpl.decompress每次多截取一位再到Map中查找，沿哈夫曼树逐位解码也要每位一次分支
+ * 范式哈夫曼编码只由编码长度决定，可以预先展开成查找表，每次查表解码一个字节
+ * - 一级表：以接下来的PRIMARY_BITS位为下标，编码不超过PRIMARY_BITS位的字节，以编码为前缀的所有下标都存放该字节和编码长度
+ * - 二级表：更长的编码按前PRIMARY_BITS位分组，一级表中存放二级表的位置和位数，二级表以剩余的位为下标
+ * - 解码：位缓冲区不少于MAX_CODE_LENGTH位时，最多查两次表就能得到字节和编码长度，再丢弃编码长度的位
+ *
+ * 表项为非负数时，低8位为字节，16位以上为编码长度，编码长度为0表示不存在的编码
+ * 表项为负数时取反，低5位为二级表位数，5位以上为二级表在数组中的位置
+ */
+public class HuffmanDecoder {
+
+    /**
+     * 一级表位数
+     */
+    static final int PRIMARY_BITS = 11;
+
+    /**
+     * 查找表，一级表之后依次存放二级表
+     */
+    private final int[] table;
+
+    /**
+     * 根据编码长度构建查找表
+     * @param lengths 每个字节的编码长度，未出现的字节为0
+     */
+    public HuffmanDecoder(byte[] lengths) {
+        if (lengths.length != HuffmanCodec.SYMBOLS) {
+            throw new IllegalArgumentException("编码长度数组长度应为" + HuffmanCodec.SYMBOLS);
+        }
+
+        // 编码长度必须满足Kraft不等式，否则不是前缀编码
+        long kraft = 0;
+        for (byte length : lengths) {
+            if (length < 0 || length > HuffmanCodec.MAX_CODE_LENGTH) {
+                throw new IllegalArgumentException("编码长度超出范围 " + length);
+            }
+            if (length > 0) {
+                kraft += 1L << HuffmanCodec.MAX_CODE_LENGTH - length;
+            }
+        }
+        if (kraft > 1L << HuffmanCodec.MAX_CODE_LENGTH) {
+            throw new IllegalArgumentException("编码长度不是前缀编码");
+        }
+
+        int[] codes = new int[HuffmanCodec.SYMBOLS];
+        HuffmanCodec.canonicalCodes(lengths, codes);
+
+        // 每组长编码的最大长度决定二级表位数
+        int[] subBits = new int[1 << PRIMARY_BITS];
+        for (int symbol = 0; symbol < HuffmanCodec.SYMBOLS; symbol++) {
+            int length = lengths[symbol];
+            if (length > PRIMARY_BITS) {
+                int prefix = codes[symbol] >>> length - PRIMARY_BITS;
+                subBits[prefix] = Math.max(subBits[prefix], length - PRIMARY_BITS);
+            }
+        }
+        int size = 1 << PRIMARY_BITS;
+        for (int prefix = 0; prefix < subBits.length; prefix++) {
+            if (subBits[prefix] > 0) {
+                size += 1 << subBits[prefix];
+            }
+        }
+        table = new int[size];
+
+        // 分配二级表
+        int offset = 1 << PRIMARY_BITS;
+        for (int prefix = 0; prefix < subBits.length; prefix++) {
+            if (subBits[prefix] > 0) {
+                table[prefix] = ~(offset << 5 | subBits[prefix]);
+                offset += 1 << subBits[prefix];
+            }
+        }
+
+        // 以编码为前缀的下标都填入表项
+        for (int symbol = 0; symbol < HuffmanCodec.SYMBOLS; symbol++) {
+            int length = lengths[symbol];
+            if (length == 0) {
+                continue;
+            }
+            int entry = length << 16 | symbol;
+            if (length <= PRIMARY_BITS) {
+                int from = codes[symbol] << PRIMARY_BITS - length;
+                Arrays.fill(table, from, from + (1 << PRIMARY_BITS - length), entry);
+            }
+            else {
+                int prefix = codes[symbol] >>> length - PRIMARY_BITS;
+                int link = ~table[prefix];
+                int bits = link & 31;
+                int rest = length - PRIMARY_BITS;
+                int from = (link >>> 5) + ((codes[symbol] & (1 << rest) - 1) << bits - rest);
+                Arrays.fill(table, from, from + (1 << bits - rest), entry);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // 编码长度分别为1、2、3、3
+        byte[] lengths = new byte[HuffmanCodec.SYMBOLS];
+        lengths['a'] = 1;
+        lengths['b'] = 2;
+        lengths['c'] = 3;
+        lengths['d'] = 3;
+        int[] codes = new int[HuffmanCodec.SYMBOLS];
+        HuffmanCodec.canonicalCodes(lengths, codes);
+        for (char c = 'a'; c <= 'd'; c++) {
+            System.out.printf("%c 编码长度%d 范式编码%s\n", c, lengths[c], Integer.toBinaryString(codes[c]));
+        }
+
+        // "abacad"的编码为0 10 0 110 0 111，共11位
+        byte[] huffmanBytes = {(byte) 0b01001100, (byte) 0b11100000};
+        byte[] bytes = new byte[6];
+        new HuffmanDecoder(lengths).decode(new BitReader(new ByteArrayInputStream(huffmanBytes)), bytes, 0, bytes.length);
+        System.out.println("解码结果 " + new String(bytes));
+    }
+
+    /**
+     * 解码指定个数的字节写入输出流，不关闭流
+     * @param reader 位读取
+     * @param total 字节个数
+     * @param out 输出流
+     * @throws IOException 读写失败或压缩数据不正确
+     */
+    void decode(BitReader reader, long total, OutputStream out) throws IOException {
+        byte[] buffer = new byte[HuffmanCodec.BUFFER_SIZE];
+        while (total > 0) {
+            int length = (int) Math.min(total, buffer.length);
+            decode(reader, buffer, 0, length);
+            out.write(buffer, 0, length);
+            total -= length;
+        }
+    }
+
+    /**
+     * 解码指定个数的字节写入数组
+     * @param reader 位读取
+     * @param bytes 字节数组
+     * @param offset 起始位置
+     * @param length 字节个数
+     * @throws IOException 读取失败或压缩数据不正确
+     */
+    void decode(BitReader reader, byte[] bytes, int offset, int length) throws IOException {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            bytes[i] = (byte) decode(reader);
+        }
+    }
+
+    /**
+     * 解码指定个数的字节写入缓冲区
+     * @param reader 位读取
+     * @param buffer 缓冲区，剩余空间不少于字节个数
+     * @param length 字节个数
+     * @throws IOException 读取失败或压缩数据不正确
+     */
+    void decode(BitReader reader, ByteBuffer buffer, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) decode(reader));
+        }
+    }
+
+    /**
+     * 解码一个字节
+     * @param reader 位读取
+     * @return 字节
+     * @throws IOException 读取失败或压缩数据不正确
+     */
+    private int decode(BitReader reader) throws IOException {
+        if (reader.count < HuffmanCodec.MAX_CODE_LENGTH) {
+            reader.refill();
+        }
+        long bits = reader.bits;
+
+        // 一级表，长编码再查二级表
+        int entry = table[(int) (bits >>> 64 - PRIMARY_BITS)];
+        if (entry < 0) {
+            int link = ~entry;
+            entry = table[(link >>> 5) + (int) (bits << PRIMARY_BITS >>> 64 - (link & 31))];
+        }
+
+        // 不存在的编码，或者流末尾补的0不够一个编码
+        int codeLength = entry >>> 16;
+        if (codeLength == 0 || codeLength > reader.count) {
+            throw new IOException("压缩数据不正确");
+        }
+        reader.bits = bits << codeLength;
+        reader.count -= codeLength;
+        return entry & 0xFF;
+    }
+}
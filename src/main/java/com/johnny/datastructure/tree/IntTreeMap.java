@@ -0,0 +1,537 @@
+package com.johnny.datastructure.tree;
+
+import com.johnny.datastructure.hashtable.IntHashMap.IntEntryConsumer;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * @author johnnyhao
+ *
+ * int键有序映射
+ *
+ * 在二叉排序树的基础上改为数组存储，所有操作都不递归
+ * - 节点不再是对象，键、值、左右子节点、优先级分别存放在并行数组中，子节点用下标表示，0表示空
+ * - 删除的节点下标通过左子节点数组串成空闲链表，添加时优先复用
+ * - 查找、添加、删除用循环实现，添加时记录查找路径，有序输入退化成链表也不会栈溢出
+ * - 可选树堆(treap)平衡：每个节点有随机优先级，按键是二叉排序树，按优先级是大顶堆，期望高度O(log n)
+ *   添加后沿路径向上旋转到堆序满足为止，删除时把目标节点向优先级高的子节点方向旋转到最多只有一个子节点再摘除
+ * - 中序遍历和范围查询使用复用的显式栈，遍历本身不分配对象，范围查询返回int数组
+ *
+ * 非线程安全，遍历过程中不能修改映射，也不能嵌套遍历
+ */
+public class IntTreeMap<V> {
+
+    /**
+     * 空节点下标
+     */
+    private static final int NIL = 0;
+
+    /**
+     * 默认初始容量
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * 是否树堆平衡
+     */
+    private final boolean balanced;
+
+    /**
+     * 键
+     */
+    private int[] keys;
+
+    /**
+     * 值
+     */
+    private Object[] values;
+
+    /**
+     * 左子节点，空闲节点用来串成空闲链表
+     */
+    private int[] left;
+
+    /**
+     * 右子节点
+     */
+    private int[] right;
+
+    /**
+     * 优先级
+     */
+    private int[] priority;
+
+    /**
+     * 根节点
+     */
+    private int root = NIL;
+
+    /**
+     * 元素个数
+     */
+    private int size;
+
+    /**
+     * 已使用过的最大下标
+     */
+    private int used;
+
+    /**
+     * 空闲链表头
+     */
+    private int free = NIL;
+
+    /**
+     * 优先级随机数种子，xorshift生成
+     */
+    private int seed = 0x9E3779B9;
+
+    /**
+     * 查找路径和遍历复用的栈
+     */
+    private int[] stack = new int[32];
+
+    /**
+     * 构造器，默认树堆平衡
+     */
+    public IntTreeMap() {
+        this(true);
+    }
+
+    /**
+     * 构造器
+     * @param balanced 是否树堆平衡，不平衡时与BinarySortTree行为相同
+     */
+    public IntTreeMap(boolean balanced) {
+        this.balanced = balanced;
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    public static void main(String[] args) {
+        // 有序输入，不平衡时退化成链表
+        IntTreeMap<String> unbalanced = new IntTreeMap<>(false);
+        IntTreeMap<String> balanced = new IntTreeMap<>();
+        for (int id = 0; id < 10000; id++) {
+            unbalanced.put(id, "员工" + id);
+            balanced.put(id, "员工" + id);
+        }
+        System.out.println("不平衡高度 " + unbalanced.height() + " 树堆高度 " + balanced.height());
+
+        // 删除
+        balanced.remove(50);
+        System.out.println("删除50后 " + balanced.get(50) + " 元素个数 " + balanced.size());
+
+        // 范围查询
+        System.out.println("[45, 55] " + Arrays.toString(balanced.keys(45, 55)));
+
+        // 中序遍历
+        IntTreeMap<String> small = new IntTreeMap<>();
+        for (int id : new int[]{7, 3, 10, 12, 5, 1, 9, 2}) {
+            small.put(id, "员工" + id);
+        }
+        small.forEach((key, value) -> System.out.println(key + " " + value));
+    }
+
+    /**
+     * 查找
+     * @param key 键
+     * @return 值，不存在返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int node = find(key);
+        return node == NIL ? null : (V) values[node];
+    }
+
+    /**
+     * 是否包含键
+     * @param key 键
+     * @return 是否包含
+     */
+    public boolean containsKey(int key) {
+        return find(key) != NIL;
+    }
+
+    /**
+     * 添加或替换
+     * @param key 键
+     * @param value 值
+     * @return 原来的值，不存在返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        // 向下查找，记录路径
+        int depth = 0;
+        int node = root;
+        while (node != NIL) {
+            if (key == keys[node]) {
+                V old = (V) values[node];
+                values[node] = value;
+                return old;
+            }
+            push(depth++, node);
+            node = key < keys[node] ? left[node] : right[node];
+        }
+
+        // 挂到路径末端节点下
+        int newNode = newNode(key, value);
+        if (depth == 0) {
+            root = newNode;
+        }
+        else {
+            int parent = stack[depth - 1];
+            if (key < keys[parent]) {
+                left[parent] = newNode;
+            }
+            else {
+                right[parent] = newNode;
+            }
+        }
+        size++;
+
+        // 树堆沿路径向上旋转，直到父节点优先级不低于新节点
+        if (balanced) {
+            for (int i = depth - 1; i >= 0; i--) {
+                int parent = stack[i];
+                if (priority[newNode] <= priority[parent]) {
+                    break;
+                }
+                rotateUp(newNode, parent, i == 0 ? NIL : stack[i - 1]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 删除
+     * @param key 键
+     * @return 删除的值，不存在返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        // 查找目标节点和父节点
+        int parent = NIL;
+        int node = root;
+        while (node != NIL && key != keys[node]) {
+            parent = node;
+            node = key < keys[node] ? left[node] : right[node];
+        }
+        if (node == NIL) {
+            return null;
+        }
+        V old = (V) values[node];
+
+        if (balanced) {
+            // 有两个子节点时，把优先级高的子节点旋转上来，目标节点下沉一层
+            while (left[node] != NIL && right[node] != NIL) {
+                int child = priority[left[node]] > priority[right[node]] ? left[node] : right[node];
+                rotateUp(child, node, parent);
+                parent = child;
+            }
+        }
+        else if (left[node] != NIL && right[node] != NIL) {
+            // 有两个子节点时，用右子树的最小节点替换，转为删除最小节点
+            int minParent = node;
+            int min = right[node];
+            while (left[min] != NIL) {
+                minParent = min;
+                min = left[min];
+            }
+            keys[node] = keys[min];
+            values[node] = values[min];
+            parent = minParent;
+            node = min;
+        }
+
+        // 最多只有一个子节点，用子节点替换
+        replaceChild(parent, node, left[node] != NIL ? left[node] : right[node]);
+        release(node);
+        size--;
+        return old;
+    }
+
+    /**
+     * 最小键
+     * @return 最小键
+     */
+    public int firstKey() {
+        if (root == NIL) {
+            throw new NoSuchElementException("映射为空");
+        }
+        int node = root;
+        while (left[node] != NIL) {
+            node = left[node];
+        }
+        return keys[node];
+    }
+
+    /**
+     * 最大键
+     * @return 最大键
+     */
+    public int lastKey() {
+        if (root == NIL) {
+            throw new NoSuchElementException("映射为空");
+        }
+        int node = root;
+        while (right[node] != NIL) {
+            node = right[node];
+        }
+        return keys[node];
+    }
+
+    /**
+     * 元素个数
+     * @return 元素个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 是否为空
+     * @return 是否为空
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 清空，保留已分配的数组
+     */
+    public void clear() {
+        Arrays.fill(values, 1, used + 1, null);
+        root = NIL;
+        free = NIL;
+        size = 0;
+        used = 0;
+    }
+
+    /**
+     * 按键升序遍历
+     * @param consumer 元素处理
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(IntEntryConsumer<? super V> consumer) {
+        int depth = pushLeft(0, root);
+        while (depth > 0) {
+            int node = stack[--depth];
+            consumer.accept(keys[node], (V) values[node]);
+            depth = pushLeft(depth, right[node]);
+        }
+    }
+
+    /**
+     * 范围查询
+     * @param from 下界，包含
+     * @param to 上界，包含
+     * @return 范围内的键，升序
+     */
+    public int[] keys(int from, int to) {
+        if (from > to) {
+            return new int[0];
+        }
+        int[] result = new int[16];
+        int count = 0;
+
+        // 从根节点向下，把不小于下界的节点入栈，栈顶即为第一个不小于下界的节点
+        int depth = 0;
+        int node = root;
+        while (node != NIL) {
+            if (keys[node] >= from) {
+                push(depth++, node);
+                node = left[node];
+            }
+            else {
+                node = right[node];
+            }
+        }
+
+        // 中序向后遍历，超过上界结束
+        while (depth > 0) {
+            node = stack[--depth];
+            if (keys[node] > to) {
+                break;
+            }
+            if (count == result.length) {
+                result = Arrays.copyOf(result, count << 1);
+            }
+            result[count++] = keys[node];
+            depth = pushLeft(depth, right[node]);
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * 树高度，按层遍历计算
+     * @return 高度，空树为0
+     */
+    public int height() {
+        if (root == NIL) {
+            return 0;
+        }
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = root;
+        int height = 0;
+        while (head < tail) {
+            // 逐层出队
+            int levelEnd = tail;
+            while (head < levelEnd) {
+                int node = queue[head++];
+                if (left[node] != NIL) {
+                    queue[tail++] = left[node];
+                }
+                if (right[node] != NIL) {
+                    queue[tail++] = right[node];
+                }
+            }
+            height++;
+        }
+        return height;
+    }
+
+    /**
+     * 查找节点
+     * @param key 键
+     * @return 节点下标，不存在返回NIL
+     */
+    private int find(int key) {
+        int node = root;
+        while (node != NIL && key != keys[node]) {
+            node = key < keys[node] ? left[node] : right[node];
+        }
+        return node;
+    }
+
+    /**
+     * 把子节点旋转到父节点的位置
+     * @param child 子节点
+     * @param parent 父节点
+     * @param grandParent 祖父节点，父节点为根时为NIL
+     */
+    private void rotateUp(int child, int parent, int grandParent) {
+        // 右旋转
+        if (left[parent] == child) {
+            left[parent] = right[child];
+            right[child] = parent;
+        }
+        // 左旋转
+        else {
+            right[parent] = left[child];
+            left[child] = parent;
+        }
+        replaceChild(grandParent, parent, child);
+    }
+
+    /**
+     * 替换父节点下的子节点
+     * @param parent 父节点，NIL表示替换根节点
+     * @param oldChild 原子节点
+     * @param newChild 新子节点
+     */
+    private void replaceChild(int parent, int oldChild, int newChild) {
+        if (parent == NIL) {
+            root = newChild;
+        }
+        else if (left[parent] == oldChild) {
+            left[parent] = newChild;
+        }
+        else {
+            right[parent] = newChild;
+        }
+    }
+
+    /**
+     * 从节点开始沿左子节点全部入栈
+     * @param depth 当前栈深度
+     * @param node 节点
+     * @return 入栈后的栈深度
+     */
+    private int pushLeft(int depth, int node) {
+        while (node != NIL) {
+            push(depth++, node);
+            node = left[node];
+        }
+        return depth;
+    }
+
+    /**
+     * 入栈，栈满时扩容
+     * @param depth 位置
+     * @param node 节点
+     */
+    private void push(int depth, int node) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth << 1);
+        }
+        stack[depth] = node;
+    }
+
+    /**
+     * 分配节点，优先复用空闲链表
+     * @param key 键
+     * @param value 值
+     * @return 节点下标
+     */
+    private int newNode(int key, V value) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = left[node];
+        }
+        else {
+            if (used + 1 == keys.length) {
+                if (keys.length == Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("映射已满");
+                }
+                allocate((int) Math.min((long) keys.length << 1, Integer.MAX_VALUE - 8));
+            }
+            node = ++used;
+        }
+
+        keys[node] = key;
+        values[node] = value;
+        left[node] = NIL;
+        right[node] = NIL;
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        priority[node] = seed;
+        return node;
+    }
+
+    /**
+     * 释放节点到空闲链表
+     * @param node 节点
+     */
+    private void release(int node) {
+        values[node] = null;
+        right[node] = NIL;
+        left[node] = free;
+        free = node;
+    }
+
+    /**
+     * 分配或扩容数组，下标0留给NIL
+     * @param capacity 容量
+     */
+    private void allocate(int capacity) {
+        if (keys == null) {
+            keys = new int[capacity];
+            values = new Object[capacity];
+            left = new int[capacity];
+            right = new int[capacity];
+            priority = new int[capacity];
+        }
+        else {
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            priority = Arrays.copyOf(priority, capacity);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.johnny.datastructure.tree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author johnnyhao
+ *
+ * 映射文件的只读B+树
+ *
+ * 打开BPlusTree.save保存的文件，只读取文件头，查询时直接在映射内存中按页号定位页、二分查找页内的键
+ * 只有访问到的页才会从磁盘读入，适合作为磁盘索引在启动后立即提供查询
+ *
+ * 文件格式
+ * - 第一页为文件头：标识、版本、页大小、扇出、页数、根页号、树高度、元素个数
+ * - 树的第i页位于文件第i+1页，页头为页类型、元素个数、下一叶子页号
+ * - 页头之后为键，按8字节对齐后为值(叶子页)或子页号(内部页)
+ *
+ * 文件按1GB分段映射，页大小整除分段大小，页不会跨段，文件超过2GB也可以映射
+ * 查询时检查读到的页号、页类型和元素个数，文件损坏时抛出IOException，不校验键和值的内容
+ */
+public class MappedBPlusTree implements Closeable {
+
+    /**
+     * 分段大小的位数
+     */
+    private static final int SEGMENT_SHIFT = 30;
+
+    /**
+     * 文件通道
+     */
+    private final FileChannel channel;
+
+    /**
+     * 只读映射分段
+     */
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * 值或子页号在页内的偏移
+     */
+    private final int valuesOffset;
+
+    /**
+     * 扇出
+     */
+    private final int fanOut;
+
+    /**
+     * 页数
+     */
+    private final int pageCount;
+
+    /**
+     * 根页号
+     */
+    private final int root;
+
+    /**
+     * 树高度
+     */
+    private final int height;
+
+    /**
+     * 元素个数
+     */
+    private final int size;
+
+    /**
+     * 映射文件
+     * @param channel 文件通道
+     * @param segments 只读映射分段
+     * @param header 文件头
+     */
+    private MappedBPlusTree(FileChannel channel, MappedByteBuffer[] segments, ByteBuffer header) {
+        this.channel = channel;
+        this.segments = segments;
+        this.valuesOffset = BPlusTree.valuesOffset(header.getInt(12));
+        this.fanOut = header.getInt(12);
+        this.pageCount = header.getInt(16);
+        this.root = header.getInt(20);
+        this.height = header.getInt(24);
+        this.size = header.getInt(28);
+    }
+
+    public static void main(String[] args) throws IOException {
+        // 构建并保存
+        BPlusTree tree = new BPlusTree(BPlusTree.MIN_FAN_OUT);
+        for (int id = 1; id <= 20; id++) {
+            tree.put(id * 10, id);
+        }
+        Path path = Files.createTempFile("b-plus-tree", ".index");
+        try {
+            tree.save(path);
+
+            // 映射后查询
+            try (MappedBPlusTree mapped = open(path)) {
+                System.out.println("元素个数 " + mapped.size() + " 高度 " + mapped.height());
+                System.out.println("get(70) " + mapped.get(70, -1) + " get(75) " + mapped.get(75, -1));
+                System.out.println("[55, 105]范围内");
+                mapped.scan(55, 105, (key, value) -> System.out.println(key + " " + value));
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * 打开文件
+     * @param path 文件路径
+     * @return 只读B+树
+     * @throws IOException 读取失败或文件格式不正确
+     */
+    public static MappedBPlusTree open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            // 读取并检查文件头
+            ByteBuffer header = ByteBuffer.allocate(32);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("文件头不完整 " + path);
+                }
+            }
+            int fanOut = header.getInt(12);
+            int pageCount = header.getInt(16);
+            if (header.getInt(0) != BPlusTree.MAGIC || header.getInt(4) != BPlusTree.VERSION
+                    || header.getInt(8) != BPlusTree.PAGE_SIZE
+                    || fanOut < BPlusTree.MIN_FAN_OUT || fanOut > BPlusTree.MAX_FAN_OUT) {
+                throw new IOException("不是B+树文件 " + path);
+            }
+            long length = (pageCount + 1L) * BPlusTree.PAGE_SIZE;
+            if (pageCount <= 0 || channel.size() < length) {
+                throw new IOException("文件长度不正确 " + path);
+            }
+            int root = header.getInt(20);
+            if (root < 0 || root >= pageCount) {
+                throw new IOException("根页号不正确 " + path);
+            }
+            // 每层至少一页
+            int height = header.getInt(24);
+            if (height < 1 || height > pageCount || header.getInt(28) < 0) {
+                throw new IOException("树高度或元素个数不正确 " + path);
+            }
+
+            // 按1GB分段映射
+            int segmentCount = (int) ((length - 1 >>> SEGMENT_SHIFT) + 1);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long position = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(1L << SEGMENT_SHIFT, length - position));
+            }
+            return new MappedBPlusTree(channel, segments, header);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 查找
+     * @param key 键
+     * @param defaultValue 不存在时返回的值
+     * @return 值
+     * @throws IOException 文件内容损坏
+     */
+    public long get(int key, long defaultValue) throws IOException {
+        int pageId = findLeaf(key);
+        int count = count(pageId, true);
+        ByteBuffer segment = segment(pageId);
+        int offset = offset(pageId);
+        int index = binarySearch(segment, offset, count, key);
+        return index >= 0 ? segment.getLong(offset + valuesOffset + index * Long.BYTES) : defaultValue;
+    }
+
+    /**
+     * 是否包含键
+     * @param key 键
+     * @return 是否包含
+     * @throws IOException 文件内容损坏
+     */
+    public boolean containsKey(int key) throws IOException {
+        int pageId = findLeaf(key);
+        int count = count(pageId, true);
+        return binarySearch(segment(pageId), offset(pageId), count, key) >= 0;
+    }
+
+    /**
+     * 范围查询，沿叶子链表按键升序扫描
+     * 最多扫描页数个叶子页，叶子链表成环时不会无限循环
+     * @param from 下界，包含
+     * @param to 上界，包含
+     * @param consumer 元素处理
+     * @throws IOException 文件内容损坏
+     */
+    public void scan(int from, int to, BPlusTree.EntryConsumer consumer) throws IOException {
+        if (from > to) {
+            return;
+        }
+        int pageId = findLeaf(from);
+        int count = count(pageId, true);
+        int index = binarySearch(segment(pageId), offset(pageId), count, from);
+        index = index >= 0 ? index : -index - 1;
+        for (int leaves = 0; leaves < pageCount; leaves++) {
+            count = count(pageId, true);
+            ByteBuffer segment = segment(pageId);
+            int offset = offset(pageId);
+            for (; index < count; index++) {
+                int key = segment.getInt(offset + BPlusTree.PAGE_HEADER_SIZE + index * Integer.BYTES);
+                if (key > to) {
+                    return;
+                }
+                consumer.accept(key, segment.getLong(offset + valuesOffset + index * Long.BYTES));
+            }
+            pageId = segment.getInt(offset + Integer.BYTES * 2);
+            if (pageId == BPlusTree.NIL) {
+                return;
+            }
+            index = 0;
+        }
+        throw new IOException("叶子链表成环");
+    }
+
+    /**
+     * 元素个数
+     * @return 元素个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 树高度
+     * @return 高度
+     */
+    public int height() {
+        return height;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 查找键所在的叶子页
+     * @param key 键
+     * @return 叶子页号
+     * @throws IOException 页号、页类型或元素个数不正确
+     */
+    private int findLeaf(int key) throws IOException {
+        int pageId = root;
+        for (int depth = 0; depth < height - 1; depth++) {
+            int count = count(pageId, false);
+            ByteBuffer segment = segment(pageId);
+            int offset = offset(pageId);
+
+            // 不大于键的分隔键个数即子页位置
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (segment.getInt(offset + BPlusTree.PAGE_HEADER_SIZE + mid * Integer.BYTES) <= key) {
+                    low = mid + 1;
+                }
+                else {
+                    high = mid;
+                }
+            }
+            pageId = segment.getInt(offset + valuesOffset + low * Integer.BYTES);
+        }
+        return pageId;
+    }
+
+    /**
+     * 检查页号和页类型，读取元素个数
+     * 叶子页最多扇出个元素，内部页最多扇出个子页即扇出-1个分隔键
+     * @param pageId 页号
+     * @param leaf 是否为叶子页
+     * @return 元素个数
+     * @throws IOException 页号、页类型或元素个数不正确
+     */
+    private int count(int pageId, boolean leaf) throws IOException {
+        if (pageId < 0 || pageId >= pageCount) {
+            throw new IOException("页号不正确 " + pageId);
+        }
+        ByteBuffer segment = segment(pageId);
+        int offset = offset(pageId);
+        if (segment.getInt(offset) != (leaf ? BPlusTree.LEAF : BPlusTree.INNER)) {
+            throw new IOException("页类型不正确 " + pageId);
+        }
+        int count = segment.getInt(offset + Integer.BYTES);
+        if (count < 0 || count > (leaf ? fanOut : fanOut - 1)) {
+            throw new IOException("页元素个数不正确 " + pageId);
+        }
+        return count;
+    }
+
+    /**
+     * 在页内二分查找键
+     * @param segment 分段
+     * @param offset 页偏移
+     * @param count 元素个数
+     * @param key 键
+     * @return 位置，不存在返回-(插入位置)-1
+     */
+    private static int binarySearch(ByteBuffer segment, int offset, int count, int key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midKey = segment.getInt(offset + BPlusTree.PAGE_HEADER_SIZE + mid * Integer.BYTES);
+            if (midKey < key) {
+                low = mid + 1;
+            }
+            else if (midKey > key) {
+                high = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * 页所在分段
+     * @param pageId 页号
+     * @return 分段
+     */
+    private ByteBuffer segment(int pageId) {
+        return segments[(int) ((pageId + 1L) * BPlusTree.PAGE_SIZE >>> SEGMENT_SHIFT)];
+    }
+
+    /**
+     * 页在分段内的偏移
+     * @param pageId 页号
+     * @return 偏移
+     */
+    private static int offset(int pageId) {
+        return (int) ((pageId + 1L) * BPlusTree.PAGE_SIZE & ((1L << SEGMENT_SHIFT) - 1));
+    }
+}
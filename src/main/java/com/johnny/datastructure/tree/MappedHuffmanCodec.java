@@ -0,0 +1,170 @@
+package com.johnny.datastructure.tree;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @author johnnyhao
+ *
+ * 映射文件的哈夫曼压缩
+ *
+ * HuffmanCodec的文件压缩经过输入输出流，每次读写都要在内核和堆内存之间复制
+ * 映射压缩直接在映射内存中读取原文件或压缩文件，输出先写入直接缓冲区再由通道写出，整个文件不会读入堆内存
+ * - 压缩：统计出现次数和编码都按下标读取映射内存，两遍读取都不复制
+ * - 解压缩：位读取依次从各个映射分段取字节，解码结果写入直接缓冲区，满了再写出
+ * - 分段：文件按1GB分段映射，位读取跨分段时切换到下一段，文件超过2GB也可以处理
+ *
+ * 压缩文件格式与HuffmanCodec相同，两者可以互相解压缩
+ */
+public class MappedHuffmanCodec {
+
+    /**
+     * 分段大小的位数
+     */
+    private static final int SEGMENT_SHIFT = 30;
+
+    /**
+     * 直接缓冲区大小
+     */
+    private static final int DIRECT_BUFFER_SIZE = 1 << 20;
+
+    public static void main(String[] args) throws IOException {
+        // 生成偏斜分布的随机字节
+        Path srcFile = Files.createTempFile("huffman", ".src");
+        Path compressFile = Files.createTempFile("huffman", ".huf");
+        Path streamFile = Files.createTempFile("huffman", ".huf");
+        Path decompressFile = Files.createTempFile("huffman", ".dst");
+        try {
+            Random random = new Random(42);
+            byte[] block = new byte[HuffmanCodec.BUFFER_SIZE];
+            try (OutputStream os = Files.newOutputStream(srcFile)) {
+                for (int i = 0; i < 128; i++) {
+                    for (int j = 0; j < block.length; j++) {
+                        block[j] = (byte) ('a' + Math.min(25, (int) (-Math.log(random.nextDouble()) * 3)));
+                    }
+                    os.write(block);
+                }
+            }
+
+            // 映射压缩与流式压缩结果相同
+            compress(srcFile, compressFile);
+            HuffmanCodec.compress(srcFile, streamFile);
+            decompress(compressFile, decompressFile);
+            System.out.printf("压缩前文件长度为%d 压缩后文件长度为%d 与流式压缩%s 解压缩后内容%s\n",
+                    Files.size(srcFile), Files.size(compressFile),
+                    Arrays.equals(Files.readAllBytes(compressFile), Files.readAllBytes(streamFile)) ? "相同" : "不同",
+                    Arrays.equals(Files.readAllBytes(srcFile), Files.readAllBytes(decompressFile)) ? "一致" : "不一致");
+        } finally {
+            Files.deleteIfExists(srcFile);
+            Files.deleteIfExists(compressFile);
+            Files.deleteIfExists(streamFile);
+            Files.deleteIfExists(decompressFile);
+        }
+    }
+
+    /**
+     * 压缩文件
+     * @param srcFile 原文件
+     * @param compressFile 压缩文件
+     * @throws IOException 读写失败
+     */
+    public static void compress(Path srcFile, Path compressFile) throws IOException {
+        try (FileChannel in = FileChannel.open(srcFile, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(compressFile, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            MappedByteBuffer[] segments = map(in);
+
+            // 第一遍统计出现次数
+            long[] frequencies = new long[HuffmanCodec.SYMBOLS];
+            for (MappedByteBuffer segment : segments) {
+                HuffmanCodec.histogram(segment, frequencies);
+            }
+            HuffmanCodec codec = new HuffmanCodec(frequencies);
+
+            // 文件头
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            codec.writeHeader(new DataOutputStream(header));
+            ByteBuffer headerBuffer = ByteBuffer.wrap(header.toByteArray());
+            while (headerBuffer.hasRemaining()) {
+                out.write(headerBuffer);
+            }
+
+            // 第二遍编码
+            BitWriter writer = new BitWriter(out, DIRECT_BUFFER_SIZE);
+            for (MappedByteBuffer segment : segments) {
+                codec.encode(segment, writer);
+            }
+            writer.flush();
+        }
+    }
+
+    /**
+     * 解压缩文件
+     * @param compressFile 压缩文件
+     * @param decompressFile 解压缩文件
+     * @throws IOException 读写失败或压缩文件格式不正确
+     */
+    public static void decompress(Path compressFile, Path decompressFile) throws IOException {
+        try (FileChannel in = FileChannel.open(compressFile, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(decompressFile, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            MappedByteBuffer[] segments = map(in);
+            if (segments.length == 0) {
+                throw new IOException("不是哈夫曼压缩数据");
+            }
+
+            // 文件头在第一个分段中，编码长度最多256字节
+            ByteBuffer first = segments[0];
+            byte[] headerBytes = new byte[Math.min(first.remaining(), Integer.BYTES + Long.BYTES + HuffmanCodec.SYMBOLS)];
+            first.get(headerBytes);
+            ByteArrayInputStream headerIn = new ByteArrayInputStream(headerBytes);
+            DataInputStream header = new DataInputStream(headerIn);
+            long total = HuffmanCodec.readTotal(header);
+            HuffmanDecoder decoder = HuffmanCodec.readDecoder(header);
+            first.position(headerBytes.length - headerIn.available());
+
+            // 解码到直接缓冲区，满了再写出
+            BitReader reader = new BitReader(segments);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(DIRECT_BUFFER_SIZE);
+            while (total > 0) {
+                int length = (int) Math.min(total, buffer.capacity());
+                decoder.decode(reader, buffer, length);
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+                total -= length;
+            }
+        }
+    }
+
+    /**
+     * 整个文件按1GB分段只读映射
+     * @param channel 文件通道
+     * @return 映射分段
+     * @throws IOException 映射失败
+     */
+    private static MappedByteBuffer[] map(FileChannel channel) throws IOException {
+        long length = channel.size();
+        int segmentCount = (int) ((length + (1L << SEGMENT_SHIFT) - 1) >>> SEGMENT_SHIFT);
+        MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long offset = (long) i << SEGMENT_SHIFT;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(1L << SEGMENT_SHIFT, length - offset));
+        }
+        return segments;
+    }
+}
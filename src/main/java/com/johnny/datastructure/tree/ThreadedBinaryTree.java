@@ -6,6 +6,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
 /**
  * @author johnnyhao
  *
@@ -53,6 +59,10 @@ public class ThreadedBinaryTree {
         // 中序遍历线索二叉树
         System.out.println("中序遍历线索化二叉树");
         threadedBinaryTree.infixOrder();
+
+        // 沿前驱线索逆序输出id
+        System.out.println("逆中序遍历");
+        threadedBinaryTree.reverseInfixOrder(System.out::println);
     }
 }
 
@@ -98,7 +108,6 @@ class Node {
 /**
  * 线索二叉树
  */
-@Setter
 class ThreadedBinaryTreeImpl {
     /**
      * 根节点
@@ -111,73 +120,186 @@ class ThreadedBinaryTreeImpl {
      */
     private Node pre;
 
+    /**
+     * 是否已线索化，线索化后左右指针含义改变，不能重复线索化
+     */
+    private boolean threaded;
+
+    /**
+     * 设置根节点，新的树还没有线索化
+     * @param root 根节点
+     */
+    public void setRoot(Node root) {
+        this.root = root;
+        this.pre = null;
+        this.threaded = false;
+    }
+
     /**
      * 中序线索化二叉树
-     * @param node 节点
+     * 用显式栈代替递归按中序访问节点，空的左指针指向前驱，空的右指针指向后继
      */
-    public void infixThreaded(Node node) {
-        // 如果当前节点为空, 不能线索化
-        if(node == null) {
+    public void infixThreaded() {
+        if (threaded) {
             return;
         }
 
-        // 线索化左子树
-        infixThreaded(node.getLeft());
+        Deque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+        pre = null;
+        while (node != null || !stack.isEmpty()) {
+            // 左子节点依次入栈
+            while (node != null) {
+                stack.push(node);
+                node = node.getLeft();
+            }
+            node = stack.pop();
 
-        // 线索化当前节点的前驱节点
-        // 当前节点的左节点为空，将当前节点的左指针指向前驱节点
-        if (node.getLeft() == null) {
-            node.setLeft(pre);
-            node.setLeftType(true);
-        }
+            // 线索化当前节点的前驱节点
+            // 当前节点的左节点为空，将当前节点的左指针指向前驱节点
+            if (node.getLeft() == null) {
+                node.setLeft(pre);
+                node.setLeftType(true);
+            }
 
-        // 线索化当前节点的后继节点
-        // 处理后继节点需在下一次递归时操作
-        // 前驱节点的右节点为空，将前驱节点的右指针指向当前节点
-        if (pre != null && pre.getRight() == null) {
-            pre.setRight(node);
-            pre.setRightType(true);
+            // 线索化前驱节点的后继节点
+            // 前驱节点的右节点为空，将前驱节点的右指针指向当前节点
+            if (pre != null && pre.getRight() == null) {
+                pre.setRight(node);
+                pre.setRightType(true);
+            }
+
+            // 前驱节点后移，转向右子树
+            pre = node;
+            node = node.getRight();
         }
+        threaded = true;
+    }
 
-        // 前驱节点后移
-        pre = node;
+    /**
+     * 中序遍历线索二叉树
+     */
+    public void infixOrder() {
+        infixThreaded();
+        for (Node node = first(); node != null; node = successor(node)) {
+            System.out.println(node);
+        }
+    }
 
-        // 线索化右子树
-        infixThreaded(node.getRight());
+    /**
+     * 中序遍历线索二叉树
+     * 沿后继线索前进，不需要栈，只用O(1)额外空间
+     * @param consumer 处理节点id
+     */
+    public void infixOrder(IntConsumer consumer) {
+        infixThreaded();
+        for (Node node = first(); node != null; node = successor(node)) {
+            consumer.accept(node.getId());
+        }
     }
 
     /**
-     * 中序线索化二叉树根节点默认调用
+     * 逆中序遍历线索二叉树
+     * 沿前驱线索后退，不需要栈，只用O(1)额外空间
+     * @param consumer 处理节点id
      */
-    public void infixThreaded() {
-        infixThreaded(root);
+    public void reverseInfixOrder(IntConsumer consumer) {
+        infixThreaded();
+        for (Node node = last(); node != null; node = predecessor(node)) {
+            consumer.accept(node.getId());
+        }
     }
 
     /**
-     * 中序遍历线索二叉树
+     * 中序迭代器，只保存下一个节点
+     * @return 节点id的迭代器
      */
-    public void infixOrder() {
-        // 定义一个辅助指针，从root开始遍历
-        Node node = root;
+    public PrimitiveIterator.OfInt infixIterator() {
+        infixThreaded();
+        return new PrimitiveIterator.OfInt() {
+            /**
+             * 下一个节点
+             */
+            private Node next = first();
 
-        // 辅助指针为空时，表示遍历完成
-        while (node != null) {
-            // 向左侧找到线索化处理后的有效节点
-            while (!node.isLeftType()) {
-                node = node.getLeft();
+            @Override
+            public boolean hasNext() {
+                return next != null;
             }
 
-            // 打印当前节点
-            System.out.println(node);
-
-            // 如果当前结点的右指针指向的是后继结点，就一直输出
-            while (node.isRightType()) {
-                node = node.getRight();
-                System.out.println(node);
+            @Override
+            public int nextInt() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                int id = next.getId();
+                next = successor(next);
+                return id;
             }
+        };
+    }
 
-            // 辅助指针后移
+    /**
+     * 中序第一个节点，从根节点一直向左
+     * @return 节点，空树返回null
+     */
+    private Node first() {
+        Node node = root;
+        if (node == null) {
+            return null;
+        }
+        while (!node.isLeftType()) {
+            node = node.getLeft();
+        }
+        return node;
+    }
+
+    /**
+     * 中序最后一个节点，从根节点一直向右
+     * @return 节点，空树返回null
+     */
+    private Node last() {
+        Node node = root;
+        if (node == null) {
+            return null;
+        }
+        while (!node.isRightType() && node.getRight() != null) {
             node = node.getRight();
         }
+        return node;
     }
-}
+
+    /**
+     * 中序后继
+     * 右指针是线索则直接是后继，否则是右子树最左侧的节点
+     * @param node 节点
+     * @return 后继节点，最后一个节点返回null
+     */
+    private static Node successor(Node node) {
+        Node next = node.getRight();
+        if (node.isRightType() || next == null) {
+            return next;
+        }
+        while (!next.isLeftType()) {
+            next = next.getLeft();
+        }
+        return next;
+    }
+
+    /**
+     * 中序前驱
+     * 左指针是线索则直接是前驱，否则是左子树最右侧的节点
+     * @param node 节点
+     * @return 前驱节点，第一个节点返回null
+     */
+    private static Node predecessor(Node node) {
+        Node previous = node.getLeft();
+        if (node.isLeftType()) {
+            return previous;
+        }
+        while (!previous.isRightType() && previous.getRight() != null) {
+            previous = previous.getRight();
+        }
+        return previous;
+    }
+}
\ No newline at end of file